@@ -43,6 +43,7 @@ import org.jhotdraw8.collection.Key;
 import org.jhotdraw8.collection.ObjectKey;
 import org.jhotdraw8.concurrent.FXWorker;
 import org.jhotdraw8.concurrent.SimpleWorkState;
+import org.jhotdraw8.concurrent.TaskScheduler;
 import org.jhotdraw8.net.UriUtil;
 import org.jhotdraw8.util.Resources;
 import org.jhotdraw8.util.prefs.PreferencesUtil;
@@ -60,8 +61,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.logging.Logger;
 
 /**
@@ -96,13 +95,6 @@ public class DocumentBasedApplication extends AbstractApplication {
     protected HierarchicalMap<String, Action> actionMap = new HierarchicalMap<>();
 
     private final ReadOnlyObjectWrapper<Activity> activeView = new ReadOnlyObjectWrapper<>();
-    private final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), (Runnable r) -> {
-        Thread t = new Thread(r);
-        t.setUncaughtExceptionHandler((Thread t1, Throwable e) -> {
-            throw (RuntimeException) e;
-        });
-        return t;
-    });
     private boolean isSystemMenuSupported;
     private ApplicationModel model;
     private final SetProperty<Activity> views = new SimpleSetProperty<>(FXCollections.observableSet());
@@ -234,7 +226,7 @@ public class DocumentBasedApplication extends AbstractApplication {
 
     @Override
     public void execute(@Nonnull Runnable r) {
-        executor.execute(r);
+        TaskScheduler.getInstance().execute(TaskScheduler.Category.IO, r);
     }
 
     @Override
@@ -196,13 +196,14 @@ public class IntArrayList implements Iterable<Integer> {
     }
 
     private void increaseCapacity(int capacity) {
-        if (capacity <= size) {
-            return;
-        }
         if (items == null) {
             items = new int[capacity];
+            return;
         }
-        int newCapacity = max(capacity, size + size / 2); // grow by 50%
+        if (capacity <= items.length) {
+            return;
+        }
+        int newCapacity = max(capacity, items.length + items.length / 2); // grow by 50%
         int[] newItems = new int[newCapacity];
         System.arraycopy(items, 0, newItems, 0, size);
         items = newItems;
@@ -348,14 +349,16 @@ public class IntArrayList implements Iterable<Integer> {
     @Nonnull
     public int[] toArray() {
         int[] result = new int[size];
-        System.arraycopy(items, 0, result, 0, size);
+        if (size > 0) {
+            System.arraycopy(items, 0, result, 0, size);
+        }
         return result;
     }
 
     @Nonnull
     @Override
     public String toString() {
-        return Arrays.toString(items);
+        return Arrays.toString(toArray());
     }
 
     /**
@@ -125,8 +125,15 @@ public class SharedKeysMap<K, V> extends AbstractMap<K, V> implements Observable
     private int ensureCapacity(K key) {
         Integer index = keyMap.get(key);
         if (index == null) {
-            index = keyMap.size();
-            keyMap.put(key, index);
+            // The key map may be shared by maps which are accessed
+            // concurrently.
+            synchronized (keyMap) {
+                index = keyMap.get(key);
+                if (index == null) {
+                    index = keyMap.size();
+                    keyMap.put(key, index);
+                }
+            }
         }
         for (int i = values.size(), n = (1 + index); i < n; i++) {
             values.add(null);
@@ -5,10 +5,10 @@ package org.jhotdraw8.concurrent;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ForkJoinPool;
 
 import javafx.application.Platform;
 import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
 
 /**
  * FXWorker.
@@ -19,15 +19,35 @@ import org.jhotdraw8.annotation.Nonnull;
 public class FXWorker {
 
     /**
-     * Calls the runnable on a new Thread. The completion stage is
-     * completed on the FX Application Thread.
+     * Calls the runnable on an I/O thread of the shared {@link TaskScheduler}.
+     * The completion stage is completed on the FX Application Thread.
      *
      * @param runnable the runnable
      * @return the CompletableFuture
      */
     @Nonnull
     public static CompletableFuture<Void> run(@Nonnull CheckedRunnable runnable) {
-        return run(r -> new Thread(r).start(), runnable);
+        return run(TaskScheduler.getInstance().getExecutor(TaskScheduler.Category.IO), runnable);
+    }
+
+    /**
+     * Calls the runnable on an I/O thread of the shared {@link TaskScheduler}.
+     * The completion stage is completed on the FX Application Thread.
+     * <p>
+     * If the work state is cancelled before the runnable has started, the
+     * runnable is not called and the completion stage is cancelled.
+     * Cancelling the completion stage cancels the work state.
+     *
+     * @param workState the work state, or null
+     * @param runnable  the runnable
+     * @return the CompletableFuture
+     */
+    @Nonnull
+    public static CompletableFuture<Void> run(@Nullable WorkState workState, @Nonnull CheckedRunnable runnable) {
+        return supply(workState, () -> {
+            runnable.run();
+            return null;
+        });
     }
 
     /**
@@ -54,8 +74,8 @@ public class FXWorker {
     }
 
     /**
-     * Calls the supplier on a thread of the common fork join pool. The completion stage is
-     * completed on the FX Application Thread.
+     * Calls the supplier on an I/O thread of the shared {@link TaskScheduler}.
+     * The completion stage is completed on the FX Application Thread.
      *
      * @param <T>      the value type
      * @param supplier the supplier
@@ -63,7 +83,39 @@ public class FXWorker {
      */
     @Nonnull
     public static <T> CompletableFuture<T> supply(@Nonnull CheckedSupplier<T> supplier) {
-        return supply(ForkJoinPool.commonPool(), supplier);
+        return supply(TaskScheduler.getInstance().getExecutor(TaskScheduler.Category.IO), supplier);
+    }
+
+    /**
+     * Calls the supplier on an I/O thread of the shared {@link TaskScheduler}.
+     * The completion stage is completed on the FX Application Thread.
+     * <p>
+     * If the work state is cancelled before the supplier has started, the
+     * supplier is not called and the completion stage is cancelled.
+     * Cancelling the completion stage cancels the work state.
+     *
+     * @param <T>       the value type
+     * @param workState the work state, or null
+     * @param supplier  the supplier
+     * @return the CompletableFuture
+     */
+    @Nonnull
+    public static <T> CompletableFuture<T> supply(@Nullable WorkState workState, @Nonnull CheckedSupplier<T> supplier) {
+        CompletableFuture<T> task = TaskScheduler.getInstance().supply(TaskScheduler.Category.IO, workState, supplier);
+        CompletableFuture<T> f = new CompletableFuture<>();
+        f.whenComplete((v, e) -> {
+            if (f.isCancelled()) {
+                task.cancel(false);
+            }
+        });
+        task.whenComplete((v, e) -> Platform.runLater(() -> {
+            if (e == null) {
+                f.complete(v);
+            } else {
+                f.completeExceptionally(e);
+            }
+        }));
+        return f;
     }
 
     /**
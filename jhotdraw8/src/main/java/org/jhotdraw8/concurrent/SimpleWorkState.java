@@ -65,6 +65,16 @@ public class SimpleWorkState implements WorkState, Worker<Void> {
                 // JavaFX platform is not running
             }
         }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            try {
+                return super.cancel(mayInterruptIfRunning);
+            } catch (IllegalStateException e) {
+                // JavaFX platform is not running
+                return isCancelled();
+            }
+        }
     }
 
     ;
@@ -0,0 +1,338 @@
+/* @(#)TaskScheduler.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.concurrent;
+
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Schedules background tasks of the application on a small number of shared
+ * thread pools.
+ * <p>
+ * Each {@link Category} of tasks has its own pool with a bounded number of
+ * threads. Tasks which are submitted while all threads of a category are
+ * busy, wait in the queue of the category. Thus, opening many documents at
+ * once does not create more threads than the parallelism of the
+ * categories.
+ * <p>
+ * A task can be associated with a {@link WorkState}. If the work state is
+ * cancelled before the task has started, the task is not run. If the
+ * future of the task is cancelled, the work state is cancelled too, so that
+ * a running task can stop cooperatively.
+ * <p>
+ * The scheduler collects statistics about the queue depth and the latency of
+ * the tasks of each category.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class TaskScheduler {
+
+    /**
+     * The categories of tasks.
+     */
+    public enum Category {
+        /**
+         * Reading and writing of files.
+         */
+        IO,
+        /**
+         * Parsing of stylesheets and other documents, which have already
+         * been read.
+         */
+        PARSING,
+        /**
+         * Layout, rendering and export of drawings.
+         */
+        RENDERING
+    }
+
+    /**
+     * Threads are terminated if they have been idle for this time.
+     */
+    private final static long KEEP_ALIVE_SECONDS = 30;
+
+    @Nullable
+    private static TaskScheduler instance;
+
+    @Nonnull
+    private final Map<Category, CategoryExecutor> executors = new EnumMap<>(Category.class);
+
+    /**
+     * Executes the tasks of one category and collects statistics.
+     */
+    private static class CategoryExecutor implements Executor {
+
+        @Nonnull
+        private final ThreadPoolExecutor pool;
+        private final LongAdder completedCount = new LongAdder();
+        private final LongAdder queueLatencyNanos = new LongAdder();
+        private final LongAdder executionNanos = new LongAdder();
+
+        CategoryExecutor(@Nonnull Category category, int parallelism) {
+            String prefix = TaskScheduler.class.getSimpleName() + "-" + category.name().toLowerCase(Locale.ROOT) + "-";
+            AtomicInteger threadNumber = new AtomicInteger();
+            ThreadFactory threadFactory = r -> {
+                Thread t = new Thread(r, prefix + threadNumber.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+            pool = new ThreadPoolExecutor(parallelism, parallelism, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), threadFactory);
+            pool.allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        public void execute(@Nonnull Runnable command) {
+            final long submitted = System.nanoTime();
+            pool.execute(() -> {
+                final long started = System.nanoTime();
+                try {
+                    command.run();
+                } finally {
+                    taskCompleted(submitted, started);
+                }
+            });
+        }
+
+        /**
+         * Updates the statistics for a task which has completed.
+         *
+         * @param submitted the time when the task was submitted
+         * @param started   the time when the task was started
+         */
+        void taskCompleted(long submitted, long started) {
+            queueLatencyNanos.add(started - submitted);
+            executionNanos.add(System.nanoTime() - started);
+            completedCount.increment();
+        }
+    }
+
+    /**
+     * Creates a new instance with a default parallelism for each category.
+     * <p>
+     * The parallelism for {@link Category#IO} is 4, the parallelism for
+     * the other categories is the number of available processors.
+     */
+    public TaskScheduler() {
+        this(4, Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param ioParallelism        the maximal number of concurrent I/O tasks
+     * @param parsingParallelism   the maximal number of concurrent parsing
+     *                             tasks
+     * @param renderingParallelism the maximal number of concurrent rendering
+     *                             tasks
+     */
+    public TaskScheduler(int ioParallelism, int parsingParallelism, int renderingParallelism) {
+        executors.put(Category.IO, new CategoryExecutor(Category.IO, ioParallelism));
+        executors.put(Category.PARSING, new CategoryExecutor(Category.PARSING, parsingParallelism));
+        executors.put(Category.RENDERING, new CategoryExecutor(Category.RENDERING, renderingParallelism));
+    }
+
+    /**
+     * Returns the scheduler which is shared by the application.
+     *
+     * @return the shared instance
+     */
+    @Nonnull
+    public static synchronized TaskScheduler getInstance() {
+        if (instance == null) {
+            instance = new TaskScheduler();
+        }
+        return instance;
+    }
+
+    @Nonnull
+    private CategoryExecutor get(@Nonnull Category category) {
+        return executors.get(category);
+    }
+
+    /**
+     * Returns an executor for tasks of the given category.
+     *
+     * @param category the category
+     * @return the executor
+     */
+    @Nonnull
+    public Executor getExecutor(@Nonnull Category category) {
+        return get(category);
+    }
+
+    /**
+     * Executes a runnable.
+     *
+     * @param category the category of the task
+     * @param runnable the runnable
+     */
+    public void execute(@Nonnull Category category, @Nonnull Runnable runnable) {
+        get(category).execute(runnable);
+    }
+
+    /**
+     * Calls the runnable on a thread of the given category. The returned
+     * future is completed on the thread of the task.
+     *
+     * @param category  the category of the task
+     * @param workState the work state, or null
+     * @param runnable  the runnable
+     * @return the future
+     */
+    @Nonnull
+    public CompletableFuture<Void> run(@Nonnull Category category, @Nullable WorkState workState, @Nonnull CheckedRunnable runnable) {
+        return supply(category, workState, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Calls the supplier on a thread of the given category. The returned
+     * future is completed on the thread of the task.
+     * <p>
+     * If the work state is cancelled before the task has started, the
+     * supplier is not called and the future is cancelled. If the future is
+     * cancelled, the work state is cancelled.
+     * <p>
+     * The statistics of the category include the task when the future is
+     * completed.
+     *
+     * @param <T>       the value type
+     * @param category  the category of the task
+     * @param workState the work state, or null
+     * @param supplier  the supplier
+     * @return the future
+     */
+    @Nonnull
+    public <T> CompletableFuture<T> supply(@Nonnull Category category, @Nullable WorkState workState, @Nonnull CheckedSupplier<T> supplier) {
+        CompletableFuture<T> f = new CompletableFuture<>();
+        if (workState != null) {
+            f.whenComplete((v, e) -> {
+                if (f.isCancelled() && !workState.isCancelled()) {
+                    workState.cancel();
+                }
+            });
+        }
+        CategoryExecutor executor = get(category);
+        final long submitted = System.nanoTime();
+        executor.pool.execute(() -> {
+            final long started = System.nanoTime();
+            if (f.isDone()) {
+                executor.taskCompleted(submitted, started);
+                return;
+            }
+            if (workState != null && workState.isCancelled()) {
+                executor.taskCompleted(submitted, started);
+                f.cancel(false);
+                return;
+            }
+            T value;
+            try {
+                value = supplier.supply();
+            } catch (Throwable e) {
+                executor.taskCompleted(submitted, started);
+                f.completeExceptionally(e);
+                return;
+            }
+            // update the statistics before the future completes, so that
+            // they include this task when a dependent stage runs
+            executor.taskCompleted(submitted, started);
+            f.complete(value);
+        });
+        return f;
+    }
+
+    /**
+     * Returns the number of tasks of the given category, which are waiting
+     * for a thread.
+     *
+     * @param category the category
+     * @return the queue depth
+     */
+    public int getQueueDepth(@Nonnull Category category) {
+        return get(category).pool.getQueue().size();
+    }
+
+    /**
+     * Returns the number of tasks of the given category, which are running.
+     *
+     * @param category the category
+     * @return the number of running tasks
+     */
+    public int getActiveCount(@Nonnull Category category) {
+        return get(category).pool.getActiveCount();
+    }
+
+    /**
+     * Returns the number of tasks of the given category, which have
+     * completed.
+     *
+     * @param category the category
+     * @return the number of completed tasks
+     */
+    public long getCompletedTaskCount(@Nonnull Category category) {
+        return get(category).completedCount.sum();
+    }
+
+    /**
+     * Returns the average time that the completed tasks of the given
+     * category have waited in the queue.
+     *
+     * @param category the category
+     * @return the average queue latency in milliseconds
+     */
+    public double getAverageQueueLatency(@Nonnull Category category) {
+        CategoryExecutor e = get(category);
+        long count = e.completedCount.sum();
+        return count == 0 ? 0.0 : e.queueLatencyNanos.sum() * 1e-6 / count;
+    }
+
+    /**
+     * Returns the average execution time of the completed tasks of the given
+     * category.
+     *
+     * @param category the category
+     * @return the average execution time in milliseconds
+     */
+    public double getAverageExecutionTime(@Nonnull Category category) {
+        CategoryExecutor e = get(category);
+        long count = e.completedCount.sum();
+        return count == 0 ? 0.0 : e.executionNanos.sum() * 1e-6 / count;
+    }
+
+    /**
+     * Returns the maximal number of concurrent tasks of the given category.
+     *
+     * @param category the category
+     * @return the parallelism
+     */
+    public int getParallelism(@Nonnull Category category) {
+        return get(category).pool.getMaximumPoolSize();
+    }
+
+    /**
+     * Shuts the scheduler down. Tasks which have already been submitted are
+     * still executed, new tasks are rejected.
+     */
+    public void shutdown() {
+        for (CategoryExecutor e : executors.values()) {
+            e.pool.shutdown();
+        }
+    }
+}
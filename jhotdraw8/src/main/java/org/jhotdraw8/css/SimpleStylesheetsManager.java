@@ -7,6 +7,7 @@ import javafx.css.StyleOrigin;
 import org.jhotdraw8.annotation.Nonnull;
 import org.jhotdraw8.annotation.Nullable;
 import org.jhotdraw8.collection.ImmutableList;
+import org.jhotdraw8.concurrent.TaskScheduler;
 import org.jhotdraw8.css.ast.Declaration;
 import org.jhotdraw8.css.ast.Selector;
 import org.jhotdraw8.css.ast.StyleRule;
@@ -25,8 +26,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -39,7 +40,6 @@ import java.util.stream.Collectors;
  */
 public class SimpleStylesheetsManager<E> implements StylesheetsManager<E> {
 
-    private final CssParser parser = new CssParser();
     private SelectorModel<E> selectorModel;
     /**
      * Cache for parsed user agent stylesheets.
@@ -57,21 +57,44 @@ public class SimpleStylesheetsManager<E> implements StylesheetsManager<E> {
      */
     private LinkedHashMap<Object, ParsedStylesheetEntry> inlineList = new LinkedHashMap<>();
     @Nonnull
-    private Executor executor = Executors.newCachedThreadPool();
-    private Map<String, ImmutableList<CssToken>> cachedAuthorCustomProperties;
-    private Map<String, ImmutableList<CssToken>> cachedInlineCustomProperties;
-    private Map<String, ImmutableList<CssToken>> cachedUserAgentCustomProperties;
+    private Executor executor = TaskScheduler.getInstance().getExecutor(TaskScheduler.Category.PARSING);
+    /*
+     * The caches are volatile, because method applyStylesheetsTo may be
+     * invoked concurrently on different elements.
+     */
+    private volatile Map<String, ImmutableList<CssToken>> cachedAuthorCustomProperties;
+    private volatile Map<String, ImmutableList<CssToken>> cachedInlineCustomProperties;
+    private volatile Map<String, ImmutableList<CssToken>> cachedUserAgentCustomProperties;
+    @Nullable
+    private volatile StyleRuleIndex cachedAuthorRuleIndex;
+    @Nullable
+    private volatile StyleRuleIndex cachedInlineRuleIndex;
+    @Nullable
+    private volatile StyleRuleIndex cachedUserAgentRuleIndex;
     private final static Logger LOGGER = Logger.getLogger(SimpleStylesheetsManager.class.getName());
+    /**
+     * The function processor is stateful. Each thread gets its own instance,
+     * so that method applyStylesheetsTo can be invoked concurrently without
+     * locking.
+     */
     @Nullable
-    private final  CssFunctionProcessor<E> functionProcessor;
+    private final ThreadLocal<CssFunctionProcessor<E>> functionProcessor;
 
     public SimpleStylesheetsManager(SelectorModel<E> selectorModel) {
-        this(selectorModel, new SimpleCssFunctionProcessor<>());
+        this(selectorModel, SimpleCssFunctionProcessor::new);
     }
 
-    public SimpleStylesheetsManager(SelectorModel<E> selectorModel, @Nullable CssFunctionProcessor<E> functionProcessor) {
+    /**
+     * Creates a new instance.
+     *
+     * @param selectorModel            the selector model
+     * @param functionProcessorFactory creates a function processor for each
+     *                                 thread that applies stylesheets, null
+     *                                 disables function processing
+     */
+    public SimpleStylesheetsManager(SelectorModel<E> selectorModel, @Nullable Supplier<? extends CssFunctionProcessor<E>> functionProcessorFactory) {
         this.selectorModel = selectorModel;
-        this.functionProcessor = functionProcessor;
+        this.functionProcessor = functionProcessorFactory == null ? null : ThreadLocal.withInitial(functionProcessorFactory);
     }
 
     private void doSetAttribute(SelectorModel<E> selectorModel1, E elem, StyleOrigin styleOrigin,
@@ -81,9 +104,10 @@ public class SimpleStylesheetsManager<E> implements StylesheetsManager<E> {
             selectorModel1.setAttribute(elem, styleOrigin, namespace, name, null);
         } else {
             if (functionProcessor != null) {
-                functionProcessor.setModel(selectorModel1);
-                functionProcessor.setCustomProperties(customProperties);
-                ImmutableList<CssToken> processed = preprocessTerms(elem, functionProcessor, value);
+                CssFunctionProcessor<E> processor = functionProcessor.get();
+                processor.setModel(selectorModel1);
+                processor.setCustomProperties(customProperties);
+                ImmutableList<CssToken> processed = preprocessTerms(elem, processor, value);
                 selectorModel1.setAttribute(elem, styleOrigin, namespace, name, processed);
             }else {
                 selectorModel1.setAttribute(elem, styleOrigin, namespace, name, value);
@@ -117,6 +141,9 @@ public class SimpleStylesheetsManager<E> implements StylesheetsManager<E> {
         cachedAuthorCustomProperties = null;
         cachedInlineCustomProperties = null;
         cachedUserAgentCustomProperties = null;
+        cachedAuthorRuleIndex = null;
+        cachedInlineRuleIndex = null;
+        cachedUserAgentRuleIndex = null;
     }
 
     @Override
@@ -128,6 +155,7 @@ public class SimpleStylesheetsManager<E> implements StylesheetsManager<E> {
             invalidate();
         } else {
             getMap(origin).clear();
+            invalidate();
         }
     }
 
@@ -214,9 +242,8 @@ public class SimpleStylesheetsManager<E> implements StylesheetsManager<E> {
 
 
         // The stylesheet is a user-agent stylesheet
-        Collection<ParsedStylesheetEntry> uaStylesheets = getUserAgentStylesheets();
         Map<String, ImmutableList<CssToken>> uaCustomProperties = getUserAgentCustomProperties();
-        for (Declaration d : collectApplicableDeclarations(elem, uaStylesheets)) {
+        for (Declaration d : getUserAgentRuleIndex().collectApplicableDeclarations(selectorModel, elem)) {
             try {
                 doSetAttribute(selectorModel, elem, StyleOrigin.USER_AGENT, d.getPropertyNamespace(), d.getPropertyName(), d.getTerms(), uaCustomProperties);
             } catch (ParseException e) {
@@ -228,7 +255,7 @@ public class SimpleStylesheetsManager<E> implements StylesheetsManager<E> {
         // ... nothing to do!
         // The stylesheet is an external file
         Map<String, ImmutableList<CssToken>> authorCustomProperties = getAuthorCustomProperties();
-        for (Declaration d : collectApplicableDeclarations(elem, getAuthorStylesheets())) {
+        for (Declaration d : getAuthorRuleIndex().collectApplicableDeclarations(selectorModel, elem)) {
             try {
                 doSetAttribute(selectorModel, elem, StyleOrigin.AUTHOR, d.getPropertyNamespace(), d.getPropertyName(), d.getTerms(), authorCustomProperties);
             } catch (ParseException e) {
@@ -238,7 +265,7 @@ public class SimpleStylesheetsManager<E> implements StylesheetsManager<E> {
 
         // The stylesheet is an internal file
         Map<String, ImmutableList<CssToken>> inlineCustomProperties = getInlineCustomProperties();
-        for (Declaration d : collectApplicableDeclarations(elem, getInlineStylesheets())) {
+        for (Declaration d : getInlineRuleIndex().collectApplicableDeclarations(selectorModel, elem)) {
             try {
                 doSetAttribute(selectorModel, elem, StyleOrigin.INLINE, d.getPropertyNamespace(), d.getPropertyName(), d.getTerms(), inlineCustomProperties);
             } catch (ParseException e) {
@@ -251,7 +278,8 @@ public class SimpleStylesheetsManager<E> implements StylesheetsManager<E> {
             Map<QualifiedName, ImmutableList<CssToken>> inlineDeclarations = new HashMap<>();
             String styleValue = selectorModel.getAttributeAsString(elem, null, "style");
             try {
-                for (Declaration d : parser.parseDeclarationList(styleValue)) {
+                // The parser is not thread safe, therefore we create a new one
+                for (Declaration d : new CssParser().parseDeclarationList(styleValue)) {
                     // Declarations without terms are ignored
                     if (d.getTerms().isEmpty()) {
                         continue;
@@ -276,45 +304,88 @@ public class SimpleStylesheetsManager<E> implements StylesheetsManager<E> {
     }
 
     private Map<String, ImmutableList<CssToken>> getInlineCustomProperties() {
-        if (cachedInlineCustomProperties == null) {
-            cachedInlineCustomProperties = collectCustomProperties(getInlineStylesheets());
+        Map<String, ImmutableList<CssToken>> customProperties = cachedInlineCustomProperties;
+        if (customProperties == null) {
+            customProperties = collectCustomProperties(getInlineStylesheets());
+            cachedInlineCustomProperties = customProperties;
         }
-        return cachedInlineCustomProperties;
+        return customProperties;
     }
 
     private Map<String, ImmutableList<CssToken>> getAuthorCustomProperties() {
-        if (cachedAuthorCustomProperties == null) {
-            cachedAuthorCustomProperties = collectCustomProperties(getAuthorStylesheets());
+        Map<String, ImmutableList<CssToken>> customProperties = cachedAuthorCustomProperties;
+        if (customProperties == null) {
+            customProperties = collectCustomProperties(getAuthorStylesheets());
+            cachedAuthorCustomProperties = customProperties;
         }
-        return cachedAuthorCustomProperties;
+        return customProperties;
     }
 
     private Map<String, ImmutableList<CssToken>> getUserAgentCustomProperties() {
-        if (cachedUserAgentCustomProperties == null) {
-            cachedUserAgentCustomProperties = collectCustomProperties(getUserAgentStylesheets());
+        Map<String, ImmutableList<CssToken>> customProperties = cachedUserAgentCustomProperties;
+        if (customProperties == null) {
+            customProperties = collectCustomProperties(getUserAgentStylesheets());
+            cachedUserAgentCustomProperties = customProperties;
         }
-        return cachedUserAgentCustomProperties;
+        return customProperties;
+    }
+
+    @Override
+    public boolean hasSiblingSelectors() {
+        return getUserAgentRuleIndex().hasSiblingSelectors()
+                || getAuthorRuleIndex().hasSiblingSelectors()
+                || getInlineRuleIndex().hasSiblingSelectors();
+    }
+
+    @Nonnull
+    private StyleRuleIndex getInlineRuleIndex() {
+        StyleRuleIndex index = cachedInlineRuleIndex;
+        if (index == null) {
+            index = createRuleIndex(getInlineStylesheets());
+            cachedInlineRuleIndex = index;
+        }
+        return index;
+    }
+
+    @Nonnull
+    private StyleRuleIndex getAuthorRuleIndex() {
+        StyleRuleIndex index = cachedAuthorRuleIndex;
+        if (index == null) {
+            index = createRuleIndex(getAuthorStylesheets());
+            cachedAuthorRuleIndex = index;
+        }
+        return index;
+    }
+
+    @Nonnull
+    private StyleRuleIndex getUserAgentRuleIndex() {
+        StyleRuleIndex index = cachedUserAgentRuleIndex;
+        if (index == null) {
+            index = createRuleIndex(getUserAgentStylesheets());
+            cachedUserAgentRuleIndex = index;
+        }
+        return index;
     }
 
     /**
-     * Collects all declarations in all specified stylesheets which are
-     * applicable to the specified element.
+     * Creates a rule index over all specified stylesheets.
+     * <p>
+     * The index is built once after the stylesheets have been parsed, and is
+     * then used for matching all elements.
      *
-     * @param elem        an element
      * @param stylesheets the stylesheets
-     * @return list of applicable declarations
+     * @return the rule index
      */
-    private List<Declaration> collectApplicableDeclarations(E elem, Collection<ParsedStylesheetEntry> stylesheets) {
-        List<Map.Entry<Integer, Declaration>> applicableDeclarations = new ArrayList<>();
+    @Nonnull
+    private StyleRuleIndex createRuleIndex(Collection<ParsedStylesheetEntry> stylesheets) {
+        List<Stylesheet> list = new ArrayList<>(stylesheets.size());
         for (ParsedStylesheetEntry e : stylesheets) {
             Stylesheet s = e.getStylesheet();
-            if (s == null) {
-                continue;
+            if (s != null) {
+                list.add(s);
             }
-            collectApplicableDeclarations(elem, s, applicableDeclarations);
         }
-
-        return applicableDeclarations.stream().sorted(Map.Entry.comparingByKey()).map(Map.Entry::getValue).collect(Collectors.toList());
+        return new StyleRuleIndex(list);
     }
 
     @Nonnull
@@ -365,7 +436,7 @@ public class SimpleStylesheetsManager<E> implements StylesheetsManager<E> {
 
     @Override
     public String getHelpText() {
-        return functionProcessor==null?"":functionProcessor.getHelpText();
+        return functionProcessor==null?"":functionProcessor.get().getHelpText();
     }
 
     private Map<String, ImmutableList<CssToken>> collectCustomProperties(Collection<ParsedStylesheetEntry> stylesheets) {
@@ -409,10 +480,15 @@ public class SimpleStylesheetsManager<E> implements StylesheetsManager<E> {
     protected class ParsedStylesheetEntry {
 
         private StyleOrigin origin;
+        /*
+         * The fields are volatile, because method getStylesheet may be
+         * invoked concurrently by the styling tasks. The stylesheet is
+         * assigned before the future is cleared.
+         */
         @Nullable
-        private FutureTask<Stylesheet> future;
+        private volatile FutureTask<Stylesheet> future;
         @Nullable
-        private Stylesheet stylesheet;
+        private volatile Stylesheet stylesheet;
 
         public ParsedStylesheetEntry(StyleOrigin origin, @Nonnull URI uri) {
             this.origin = origin;
@@ -450,9 +526,10 @@ public class SimpleStylesheetsManager<E> implements StylesheetsManager<E> {
 
         @Nullable
         public Stylesheet getStylesheet() {
-            if (future != null) {
+            FutureTask<Stylesheet> f = future;
+            if (f != null) {
                 try {
-                    stylesheet = future.get();
+                    stylesheet = f.get();
                     future = null;
                 } catch (InterruptedException ex) {
                     // retry later
@@ -0,0 +1,304 @@
+/* @(#)StyleRuleIndex.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.css;
+
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.collection.IntArrayList;
+import org.jhotdraw8.collection.ReadOnlyList;
+import org.jhotdraw8.css.ast.AdjacentSiblingCombinator;
+import org.jhotdraw8.css.ast.AndCombinator;
+import org.jhotdraw8.css.ast.ClassSelector;
+import org.jhotdraw8.css.ast.Combinator;
+import org.jhotdraw8.css.ast.Declaration;
+import org.jhotdraw8.css.ast.GeneralSiblingCombinator;
+import org.jhotdraw8.css.ast.IdSelector;
+import org.jhotdraw8.css.ast.SelectNothingSelector;
+import org.jhotdraw8.css.ast.Selector;
+import org.jhotdraw8.css.ast.StyleRule;
+import org.jhotdraw8.css.ast.Stylesheet;
+import org.jhotdraw8.css.ast.TypeSelector;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A rule-hash index over the style rules of a list of stylesheets.
+ * <p>
+ * Each selector of each style rule is put into exactly one bucket. The bucket
+ * is determined by the rightmost compound selector (the compound selector
+ * which must match the element itself): if it contains an id selector, the
+ * selector is put into the id bucket; otherwise if it contains a class
+ * selector, it is put into the class bucket; otherwise if it contains a type
+ * selector it is put into the type bucket; otherwise it is put into the
+ * universal bucket.
+ * <p>
+ * When declarations are collected for an element, only the selectors in the
+ * buckets of the id, style classes and type of the element, and in the
+ * universal bucket need to be matched.
+ * <p>
+ * The selectors are ordered by specificity and source order when the index
+ * is built. Thus, the applicable declarations are collected in the order in
+ * which they must be applied.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class StyleRuleIndex {
+
+    /**
+     * The entries ordered by specificity and source order.
+     */
+    @Nonnull
+    private final Entry[] entries;
+    @Nonnull
+    private final Map<String, int[]> idBuckets;
+    @Nonnull
+    private final Map<String, int[]> classBuckets;
+    @Nonnull
+    private final Map<String, int[]> typeBuckets;
+    @Nonnull
+    private final int[] universalBucket;
+    private final boolean hasSiblingSelectors;
+
+    /**
+     * Creates a new index for the specified stylesheets.
+     *
+     * @param stylesheets the stylesheets in source order
+     */
+    public StyleRuleIndex(@Nonnull Collection<Stylesheet> stylesheets) {
+        List<Entry> list = new ArrayList<>();
+        for (Stylesheet s : stylesheets) {
+            for (StyleRule r : s.getStyleRules()) {
+                List<Declaration> declarations = new ArrayList<>();
+                for (Declaration d : r.getDeclarations()) {
+                    // Declarations without terms are ignored
+                    if (!d.getTerms().isEmpty()) {
+                        declarations.add(d);
+                    }
+                }
+                if (declarations.isEmpty()) {
+                    continue;
+                }
+                ReadOnlyList<Selector> selectors = r.getSelectorGroup().getSelectors();
+                for (int i = 0, n = selectors.size(); i < n; i++) {
+                    list.add(new Entry(selectors, i, declarations));
+                }
+            }
+        }
+        // List.sort is stable, this preserves the source order for entries
+        // with the same specificity.
+        list.sort(Comparator.comparingInt(e -> e.specificity));
+        entries = list.toArray(new Entry[0]);
+
+        Map<String, IntArrayList> ids = new HashMap<>();
+        Map<String, IntArrayList> classes = new HashMap<>();
+        Map<String, IntArrayList> types = new HashMap<>();
+        IntArrayList universal = new IntArrayList();
+        boolean siblings = false;
+        for (int i = 0; i < entries.length; i++) {
+            Selector selector = entries[i].getSelector();
+            siblings |= containsSiblingCombinator(selector);
+            Selector key = getBucketKey(selector);
+            if (key instanceof IdSelector) {
+                ids.computeIfAbsent(((IdSelector) key).getId(), k -> new IntArrayList()).add(i);
+            } else if (key instanceof ClassSelector) {
+                classes.computeIfAbsent(((ClassSelector) key).getClazz(), k -> new IntArrayList()).add(i);
+            } else if (key instanceof TypeSelector) {
+                types.computeIfAbsent(((TypeSelector) key).getType(), k -> new IntArrayList()).add(i);
+            } else if (!(key instanceof SelectNothingSelector)) {
+                universal.add(i);
+            }
+        }
+        idBuckets = toArrays(ids);
+        classBuckets = toArrays(classes);
+        typeBuckets = toArrays(types);
+        universalBucket = universal.toArray();
+        hasSiblingSelectors = siblings;
+    }
+
+    private static boolean containsSiblingCombinator(@Nonnull Selector selector) {
+        if (selector instanceof AdjacentSiblingCombinator
+                || selector instanceof GeneralSiblingCombinator) {
+            return true;
+        } else if (selector instanceof Combinator) {
+            Combinator c = (Combinator) selector;
+            return containsSiblingCombinator(c.getFirstSelector())
+                    || containsSiblingCombinator(c.getSecondSelector());
+        }
+        return false;
+    }
+
+    @Nonnull
+    private static Map<String, int[]> toArrays(@Nonnull Map<String, IntArrayList> map) {
+        Map<String, int[]> result = new HashMap<>(map.size() * 2);
+        for (Map.Entry<String, IntArrayList> e : map.entrySet()) {
+            result.put(e.getKey(), e.getValue().toArray());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the most selective simple selector of the rightmost compound
+     * selector of the specified selector.
+     *
+     * @param selector a selector
+     * @return the most selective simple selector, or null if the compound
+     * selector only consists of selectors which can not be used as a key
+     */
+    @Nullable
+    private static Selector getBucketKey(@Nonnull Selector selector) {
+        if (selector instanceof AndCombinator) {
+            // Both selectors of an "and combinator" must match the element
+            // itself.
+            AndCombinator and = (AndCombinator) selector;
+            return moreSelective(getBucketKey(and.getFirstSelector()), getBucketKey(and.getSecondSelector()));
+        } else if (selector instanceof Combinator) {
+            // Only the second selector of all other combinators must match
+            // the element itself.
+            return getBucketKey(((Combinator) selector).getSecondSelector());
+        } else if (selector instanceof IdSelector
+                || selector instanceof ClassSelector
+                || selector instanceof TypeSelector
+                || selector instanceof SelectNothingSelector) {
+            return selector;
+        }
+        return null;
+    }
+
+    private static int getRank(@Nullable Selector key) {
+        if (key instanceof SelectNothingSelector) {
+            return 4;
+        } else if (key instanceof IdSelector) {
+            return 3;
+        } else if (key instanceof ClassSelector) {
+            return 2;
+        } else if (key instanceof TypeSelector) {
+            return 1;
+        }
+        return 0;
+    }
+
+    @Nullable
+    private static Selector moreSelective(@Nullable Selector a, @Nullable Selector b) {
+        return getRank(a) >= getRank(b) ? a : b;
+    }
+
+    /**
+     * Returns the number of indexed selectors.
+     *
+     * @return the number of selectors
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * Returns true if one of the indexed selectors contains an adjacent
+     * sibling combinator or a general sibling combinator.
+     *
+     * @return true if the index contains sibling selectors
+     */
+    public boolean hasSiblingSelectors() {
+        return hasSiblingSelectors;
+    }
+
+    /**
+     * Collects all declarations which are applicable to the specified
+     * element.
+     * <p>
+     * The declarations are returned ordered by ascending specificity of the
+     * matching selector and by source order. Declarations without terms are
+     * not returned.
+     *
+     * @param <E>           the element type
+     * @param selectorModel the selector model
+     * @param elem          an element
+     * @return the applicable declarations
+     */
+    @Nonnull
+    public <E> List<Declaration> collectApplicableDeclarations(@Nonnull SelectorModel<E> selectorModel, @Nonnull E elem) {
+        BitSet candidates = new BitSet(entries.length);
+        addCandidates(candidates, universalBucket);
+        String id = selectorModel.getId(elem);
+        if (id != null) {
+            addCandidates(candidates, idBuckets.get(id));
+        }
+        if (!classBuckets.isEmpty()) {
+            for (String clazz : selectorModel.getStyleClasses(elem)) {
+                addCandidates(candidates, classBuckets.get(clazz));
+            }
+        }
+        String type = selectorModel.getType(elem);
+        if (type != null) {
+            addCandidates(candidates, typeBuckets.get(type));
+        }
+
+        List<Declaration> applicableDeclarations = new ArrayList<>();
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            Entry entry = entries[i];
+            if (entry.matches(selectorModel, elem)) {
+                applicableDeclarations.addAll(entry.declarations);
+            }
+        }
+        return applicableDeclarations;
+    }
+
+    private static void addCandidates(@Nonnull BitSet candidates, @Nullable int[] bucket) {
+        if (bucket != null) {
+            for (int i : bucket) {
+                candidates.set(i);
+            }
+        }
+    }
+
+    /**
+     * An entry holds one selector of a selector group.
+     */
+    private static class Entry {
+
+        @Nonnull
+        private final ReadOnlyList<Selector> group;
+        private final int selectorIndex;
+        private final int specificity;
+        @Nonnull
+        private final List<Declaration> declarations;
+
+        Entry(@Nonnull ReadOnlyList<Selector> group, int selectorIndex, @Nonnull List<Declaration> declarations) {
+            this.group = group;
+            this.selectorIndex = selectorIndex;
+            this.specificity = group.get(selectorIndex).getSpecificity();
+            this.declarations = declarations;
+        }
+
+        @Nonnull
+        Selector getSelector() {
+            return group.get(selectorIndex);
+        }
+
+        /**
+         * Returns true if the selector of this entry is the first selector of
+         * its selector group which matches the element. This is the selector
+         * that determines the specificity of the style rule for the element.
+         */
+        <E> boolean matches(@Nonnull SelectorModel<E> selectorModel, @Nonnull E elem) {
+            if (!getSelector().matches(selectorModel, elem)) {
+                return false;
+            }
+            for (int i = 0; i < selectorIndex; i++) {
+                if (group.get(i).matches(selectorModel, elem)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -102,6 +102,22 @@ public interface StylesheetsManager<E> {
      */
     boolean applyStylesheetTo(StyleOrigin styleOrigin, Stylesheet s, E element, boolean suppressParseException) throws ParseException;
 
+    /**
+     * Returns true if the stylesheets contain selectors which match an
+     * element depending on its siblings.
+     * <p>
+     * Elements which are not siblings of each other can be styled
+     * concurrently if the stylesheets do not contain such selectors, and if
+     * their ancestors have already been styled.
+     * <p>
+     * The default implementation conservatively returns true.
+     *
+     * @return true if the stylesheets contain sibling selectors
+     */
+    default boolean hasSiblingSelectors() {
+        return true;
+    }
+
     /**
      * Returns true if the provided stylesheet has selectors which match the
      * specified element.
@@ -22,6 +22,10 @@ public class ClassSelector extends SimpleSelector {
         this.clazz = clazz;
     }
 
+    public String getClazz() {
+        return clazz;
+    }
+
     @Nonnull
     @Override
     public String toString() {
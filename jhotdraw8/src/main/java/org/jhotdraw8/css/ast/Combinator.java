@@ -20,6 +20,14 @@ public abstract class Combinator extends Selector {
 
     }
 
+    public SimpleSelector getFirstSelector() {
+        return firstSelector;
+    }
+
+    public Selector getSecondSelector() {
+        return secondSelector;
+    }
+
     @Override
     public String toString() {
         return "Combinator{" + "simpleSelector=" + firstSelector + ", selector=" + secondSelector + '}';
@@ -22,6 +22,10 @@ public class IdSelector extends SimpleSelector {
         this.id = id;
     }
 
+    public String getId() {
+        return id;
+    }
+
     @Nonnull
     @Override
     public String toString() {
@@ -32,6 +32,16 @@ public class SelectorGroup extends AST {
         this.selectors = ImmutableList.ofCollection(selectors);
     }
 
+    /**
+     * Returns the selectors of this group.
+     *
+     * @return the selectors
+     */
+    @Nonnull
+    public ReadOnlyList<Selector> getSelectors() {
+        return selectors;
+    }
+
     @Nonnull
     @Override
     public String toString() {
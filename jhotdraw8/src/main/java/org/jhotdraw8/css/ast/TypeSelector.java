@@ -26,6 +26,16 @@ public class TypeSelector extends SimpleSelector {
         this.type = type;
     }
 
+    @Nullable
+    public String getNamespace() {
+        return namespace;
+    }
+
+    @Nonnull
+    public String getType() {
+        return type;
+    }
+
     @Nonnull
     @Override
     public String toString() {
@@ -28,6 +28,7 @@ import org.jhotdraw8.draw.input.ClipboardOutputFormat;
 import org.jhotdraw8.draw.io.BitmapExportOutputFormat;
 import org.jhotdraw8.draw.model.DrawingModel;
 import org.jhotdraw8.draw.tool.Tool;
+import org.jhotdraw8.draw.undo.DrawingModelUndoManager;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -51,6 +52,8 @@ public abstract class AbstractDrawingView extends SimplePropertyBean implements
     private ObjectProperty<ClipboardOutputFormat> clipboardOutputFormat = new SimpleObjectProperty<>(this, CLIPBOARD_OUTPUT_FORMAT_PROPERTY, new BitmapExportOutputFormat());
     @Nonnull
     private ObjectProperty<ClipboardInputFormat> clipboardInputFormat = new SimpleObjectProperty<>(this, CLIPBOARD_INPUT_FORMAT_PROPERTY);
+    @Nonnull
+    private final ObjectProperty<DrawingModelUndoManager> undoManager = new SimpleObjectProperty<>(this, UNDO_MANAGER_PROPERTY);
     /**
      * The selectedFiguresProperty holds the list of selected figures in the
      * sequence they were selected by the user.
@@ -91,7 +94,7 @@ public abstract class AbstractDrawingView extends SimplePropertyBean implements
             invalidateHandles();
             repaint();
         };
-        selectedFigures.addListener(listener);
+        selectedFigures.addListener((InvalidationListener) observable -> handleSelectionChanged());
         handleType.addListener(listener);
         anchorHandleType.addListener(listener);
         leadHandleType.addListener(listener);
@@ -117,6 +120,12 @@ public abstract class AbstractDrawingView extends SimplePropertyBean implements
         return clipboardOutputFormat;
     }
 
+    @Nonnull
+    @Override
+    public ObjectProperty<DrawingModelUndoManager> undoManagerProperty() {
+        return undoManager;
+    }
+
     public void cut() {
         copy();
         final List<Figure> selectedFigures = new ArrayList<>(getSelectedFigures());
@@ -228,6 +237,19 @@ public abstract class AbstractDrawingView extends SimplePropertyBean implements
 
     protected abstract void invalidateHandles();
 
+    /**
+     * Invoked when the set of selected figures has changed.
+     * <p>
+     * This implementation recreates all handles. Subclasses may only update
+     * the handles of the figures which have been added to or removed from
+     * the selection.
+     */
+    protected void handleSelectionChanged() {
+        recreateHandles();
+        invalidateHandles();
+        repaint();
+    }
+
     protected abstract void repaint();
 
     protected abstract void updateTool(Tool oldValue, Tool newValue);
@@ -26,7 +26,11 @@ import org.jhotdraw8.annotation.Nonnull;
 
 import org.jhotdraw8.beans.NonnullProperty;
 import org.jhotdraw8.css.CssColor;
+import org.jhotdraw8.draw.connector.ConnectionTarget;
+import org.jhotdraw8.draw.connector.Connector;
 import org.jhotdraw8.draw.constrain.Constrainer;
+import org.jhotdraw8.draw.figure.ConnectableFigure;
+import org.jhotdraw8.draw.figure.ConnectingFigure;
 import org.jhotdraw8.draw.figure.Drawing;
 import org.jhotdraw8.draw.figure.Figure;
 import org.jhotdraw8.draw.figure.Figures;
@@ -38,6 +42,7 @@ import org.jhotdraw8.draw.input.ClipboardOutputFormat;
 import org.jhotdraw8.draw.model.DrawingModel;
 import org.jhotdraw8.draw.render.RenderContext;
 import org.jhotdraw8.draw.tool.Tool;
+import org.jhotdraw8.draw.undo.DrawingModelUndoManager;
 
 /**
  * A {@code DrawingView} can display a {@code Drawing} in a JavaFX scene graph.
@@ -132,6 +137,10 @@ public interface DrawingView extends RenderContext {
     String HANDLE_SIZE_PROPERTY = "handleSize";
 
     String HANDLE_COLOR_PROPERTY = "handleColor";
+    /**
+     * The name of the undoManager property.
+     */
+    String UNDO_MANAGER_PROPERTY = "undoManager";
 
     // ---
     // properties
@@ -270,6 +279,16 @@ public interface DrawingView extends RenderContext {
      */
     ObjectProperty<ClipboardInputFormat> clipboardInputFormatProperty();
 
+    /**
+     * The undo manager which records the changes of the drawing model.
+     * <p>
+     * Tools and handles use it to combine the changes of a gesture into a
+     * single edit.
+     *
+     * @return the undo manager property, the value may be null
+     */
+    ObjectProperty<DrawingModelUndoManager> undoManagerProperty();
+
     // ---
     // methods
     // ---
@@ -361,6 +380,43 @@ public interface DrawingView extends RenderContext {
      */
     List<Figure> findFiguresIntersecting(double vx, double vy, double vwidth, double vheight, boolean decompose);
 
+    /**
+     * Finds a connection target for the specified connecting figure at the
+     * given view coordinates.
+     * <p>
+     * This implementation searches the connectable figures returned by
+     * {@link #findFigures(double, double, boolean)} and their descendants.
+     * The first figure whose bounds contain the point, and which provides a
+     * connector for the constrained point, is the connection target.
+     * Implementations may use an index to speed this up.
+     *
+     * @param pointInView             the point in view coordinates
+     * @param constrainedPointInWorld the constrained point in world
+     *                                coordinates
+     * @param connectingFigure        the connecting figure
+     * @return the connection target or null
+     */
+    @Nullable
+    default ConnectionTarget findConnectionTarget(@Nonnull Point2D pointInView, @Nonnull Point2D constrainedPointInWorld,
+                                                  @Nonnull ConnectingFigure connectingFigure) {
+        Point2D unconstrainedPoint = viewToWorld(pointInView);
+        for (Figure f1 : findFigures(pointInView, true)) {
+            for (Figure ff : f1.breadthFirstIterable()) {
+                if (connectingFigure != ff && (ff instanceof ConnectableFigure)) {
+                    ConnectableFigure cff = (ConnectableFigure) ff;
+                    Point2D pointInLocal = cff.worldToLocal(unconstrainedPoint);
+                    if (ff.getBoundsInLocal().contains(pointInLocal)) {
+                        Connector connector = cff.findConnector(cff.worldToLocal(constrainedPointInWorld), connectingFigure);
+                        if (connector != null && connectingFigure.canConnect(ff, connector)) {
+                            return new ConnectionTarget(cff, connector);
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
     // Handles
 
     /**
@@ -653,6 +709,15 @@ public interface DrawingView extends RenderContext {
         return clipboardInputFormatProperty().get();
     }
 
+    @Nullable
+    default DrawingModelUndoManager getUndoManager() {
+        return undoManagerProperty().get();
+    }
+
+    default void setUndoManager(@Nullable DrawingModelUndoManager newValue) {
+        undoManagerProperty().set(newValue);
+    }
+
     void recreateHandles();
 
     /**
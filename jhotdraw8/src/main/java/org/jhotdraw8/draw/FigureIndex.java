@@ -0,0 +1,334 @@
+/* @(#)FigureIndex.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw;
+
+import javafx.geometry.Bounds;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.draw.connector.ConnectorIndex;
+import org.jhotdraw8.draw.figure.ConnectableFigure;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.geom.QuadTree;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Keeps the spatial indices over the figures which have a node in the scene
+ * graph of a drawing view.
+ * <p>
+ * The bounds index is a quad tree over the bounds of the nodes in world
+ * coordinates. It is used for narrowing down the candidate figures of a
+ * hit-test. The connector index holds the connector anchors of the
+ * connectable figures.
+ * <p>
+ * The indices are updated lazily. The drawing view invalidates a figure when
+ * its node has changed, and removes a figure when its node is released.
+ * {@link #validate} then brings the entries of the invalid figures up to
+ * date. A figure whose node is not attached to the scene graph has no
+ * entries.
+ * <p>
+ * The figure index also provides the z-order of the figures. The z-order is
+ * derived from the index of each figure in the child list of its parent. The
+ * child indices are renumbered lazily, and only for the parents whose child
+ * lists have changed.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+class FigureIndex {
+
+    @Nonnull
+    private final QuadTree<Figure> boundsIndex = new QuadTree<>();
+    @Nonnull
+    private final ConnectorIndex connectorIndex = new ConnectorIndex();
+    /**
+     * This is the set of figures which are out of sync with their entries.
+     */
+    @Nonnull
+    private final Set<Figure> dirty = new HashSet<>();
+    /**
+     * Maps each figure to a number which orders it among its siblings. The
+     * numbers are ascending in the child list of the parent, but they may
+     * have gaps after children have been removed.
+     */
+    @Nonnull
+    private final Map<Figure, Integer> childIndex = new HashMap<>();
+    /**
+     * This is the set of parents whose children need to be renumbered.
+     */
+    @Nonnull
+    private final Set<Figure> dirtyChildOrder = new HashSet<>();
+
+    /**
+     * Invalidates the entries of the specified figure.
+     *
+     * @param f a figure
+     */
+    void invalidate(@Nonnull Figure f) {
+        dirty.add(f);
+    }
+
+    /**
+     * Invalidates the entries of the children whose nodes have been attached
+     * to or detached from the node of their parent.
+     * <p>
+     * A layer only attaches the nodes of the children which intersect the
+     * clip bounds. Therefore, when the view is scrolled, children are
+     * detached and attached again without being released.
+     *
+     * @param attachedBefore the children whose nodes were attached before
+     *                       the parent node was updated
+     * @param attachedAfter  the children whose nodes are attached after the
+     *                       parent node was updated
+     */
+    void invalidateAttachedChildren(@Nonnull Set<Figure> attachedBefore, @Nonnull Set<Figure> attachedAfter) {
+        for (Figure f : attachedBefore) {
+            if (!attachedAfter.contains(f)) {
+                dirty.add(f);
+            }
+        }
+        for (Figure f : attachedAfter) {
+            if (!attachedBefore.contains(f)) {
+                dirty.add(f);
+            }
+        }
+    }
+
+    /**
+     * Removes the entries of the specified figure. This method is invoked
+     * when the node of the figure is released.
+     *
+     * @param f a figure
+     */
+    void remove(@Nonnull Figure f) {
+        dirty.remove(f);
+        boundsIndex.remove(f);
+        connectorIndex.remove(f);
+    }
+
+    /**
+     * Removes all entries.
+     */
+    void clear() {
+        dirty.clear();
+        boundsIndex.clear();
+        connectorIndex.clear();
+        childIndex.clear();
+        dirtyChildOrder.clear();
+    }
+
+    /**
+     * Updates the z-order after the specified child has been added to its
+     * parent.
+     * <p>
+     * If the child has been appended to the child list, then only the child
+     * is numbered. Otherwise, the children of the parent will be renumbered.
+     *
+     * @param child a child
+     */
+    void childAdded(@Nonnull Figure child) {
+        Figure parent = child.getParent();
+        if (parent == null) {
+            return;
+        }
+        List<Figure> children = parent.getChildren();
+        int last = children.size() - 1;
+        Integer previous = last > 0 ? childIndex.get(children.get(last - 1)) : Integer.valueOf(-1);
+        if (!dirtyChildOrder.contains(parent) && last >= 0 && children.get(last) == child && previous != null) {
+            childIndex.put(child, previous + 1);
+        } else {
+            dirtyChildOrder.add(parent);
+        }
+    }
+
+    /**
+     * Updates the z-order after the specified child has been removed from
+     * its parent, or from the drawing.
+     * <p>
+     * The removal of a child does not change the order of its siblings.
+     * Therefore the siblings do not need to be renumbered.
+     *
+     * @param child a child
+     */
+    void childRemoved(@Nonnull Figure child) {
+        childIndex.remove(child);
+    }
+
+    /**
+     * Returns a comparator which orders figures in z-order from front to
+     * back. If a figure and its descendants are compared, the figure
+     * precedes its descendants. Figures which are not descendants of the
+     * root come last.
+     *
+     * @param root the root of the figure tree, usually the drawing
+     * @return the comparator
+     */
+    @Nonnull
+    Comparator<Figure> getZOrderComparator(@Nullable Figure root) {
+        return (a, b) -> {
+            List<Figure> pathA = getPath(root, a);
+            List<Figure> pathB = getPath(root, b);
+            if (pathA == null || pathB == null) {
+                return pathA == pathB ? 0 : pathA == null ? 1 : -1;
+            }
+            int n = Math.min(pathA.size(), pathB.size());
+            for (int i = 1; i < n; i++) {
+                Figure fa = pathA.get(i);
+                Figure fb = pathB.get(i);
+                if (fa != fb) {
+                    // children with a higher index are in front
+                    return Integer.compare(getChildIndex(fb), getChildIndex(fa));
+                }
+            }
+            return Integer.compare(pathA.size(), pathB.size());
+        };
+    }
+
+    /**
+     * Returns the path from the root to the specified figure.
+     *
+     * @param root the root
+     * @param f    a figure
+     * @return the path, or null if the figure is not a descendant of the
+     * root
+     */
+    @Nullable
+    private List<Figure> getPath(@Nullable Figure root, @Nonnull Figure f) {
+        List<Figure> path = new ArrayList<>();
+        for (Figure p = f; p != null; p = p.getParent()) {
+            path.add(p);
+        }
+        if (root == null || path.get(path.size() - 1) != root) {
+            return null;
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Returns the number which orders the specified figure among its
+     * siblings. Renumbers the children of the parent if necessary.
+     *
+     * @param child a figure which has a parent
+     * @return the number
+     */
+    private int getChildIndex(@Nonnull Figure child) {
+        Figure parent = child.getParent();
+        Integer index = dirtyChildOrder.contains(parent) ? null : childIndex.get(child);
+        if (index == null) {
+            dirtyChildOrder.remove(parent);
+            int i = 0;
+            for (Figure c : parent.getChildren()) {
+                childIndex.put(c, i++);
+            }
+            index = childIndex.getOrDefault(child, -1);
+        }
+        return index;
+    }
+
+    /**
+     * Returns true if the specified figure has an entry in the bounds index.
+     *
+     * @param f a figure
+     * @return true if the figure has an entry
+     */
+    boolean contains(@Nonnull Figure f) {
+        return boundsIndex.contains(f);
+    }
+
+    /**
+     * Returns true if there are invalid entries.
+     *
+     * @return true if {@link #validate} has work to do
+     */
+    boolean isDirty() {
+        return !dirty.isEmpty();
+    }
+
+    /**
+     * Brings the entries of the invalid figures up to date.
+     * <p>
+     * If the bounds of a figure have changed, then the bounds of its
+     * descendants may have changed as well. Therefore we update the
+     * descendants too. The bounds of the ancestors depend on the bounds of
+     * their descendants. Therefore we update the ancestors of a changed
+     * figure as well, but not the siblings of the figure.
+     *
+     * @param boundsFunction returns the bounds of the node of a figure in
+     *                       world coordinates, or null if the figure has no
+     *                       node which is attached to the scene graph
+     */
+    void validate(@Nonnull Function<Figure, Bounds> boundsFunction) {
+        Deque<Figure> todo = new ArrayDeque<>(dirty);
+        dirty.clear();
+        Deque<Figure> ancestors = new ArrayDeque<>();
+        while (!todo.isEmpty()) {
+            Figure f = todo.removeFirst();
+            if (update(f, boundsFunction)) {
+                todo.addAll(f.getChildren());
+                if (f.getParent() != null) {
+                    ancestors.add(f.getParent());
+                }
+            }
+        }
+        while (!ancestors.isEmpty()) {
+            Figure f = ancestors.removeFirst();
+            if (update(f, boundsFunction) && f.getParent() != null) {
+                ancestors.add(f.getParent());
+            }
+        }
+    }
+
+    /**
+     * Updates the entries of the specified figure.
+     *
+     * @param f              a figure
+     * @param boundsFunction the bounds function
+     * @return true if the bounds of the figure have changed
+     */
+    private boolean update(@Nonnull Figure f, @Nonnull Function<Figure, Bounds> boundsFunction) {
+        Bounds b = boundsFunction.apply(f);
+        boolean changed = b == null ? boundsIndex.remove(f) : boundsIndex.put(f, b);
+        if (b != null && f instanceof ConnectableFigure) {
+            connectorIndex.put((ConnectableFigure) f);
+        } else {
+            connectorIndex.remove(f);
+        }
+        return changed;
+    }
+
+    /**
+     * Finds the figures whose bounds intersect the specified rectangle.
+     *
+     * @param minX     the min x coordinate in world coordinates
+     * @param minY     the min y coordinate in world coordinates
+     * @param maxX     the max x coordinate in world coordinates
+     * @param maxY     the max y coordinate in world coordinates
+     * @param consumer the consumer receives the figures in unspecified order
+     */
+    void findIntersecting(double minX, double minY, double maxX, double maxY, @Nonnull Consumer<Figure> consumer) {
+        boundsIndex.findIntersecting(minX, minY, maxX, maxY, consumer);
+    }
+
+    /**
+     * Returns the connector index.
+     *
+     * @return the connector index
+     */
+    @Nonnull
+    ConnectorIndex getConnectorIndex() {
+        return connectorIndex;
+    }
+}
@@ -0,0 +1,404 @@
+/* @(#)HandleManager.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw;
+
+import javafx.scene.Node;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.handle.Handle;
+import org.jhotdraw8.draw.handle.HandleType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Manages the selection handles of a drawing view.
+ * <p>
+ * The manager diffs the selection: when the selection changes, it only
+ * disposes the handles of figures which have been deselected, and of figures
+ * whose role (anchor, lead or plain) has changed. Handles of the other
+ * selected figures are kept.
+ * <p>
+ * Handles are only created for selected figures which intersect the visible
+ * rectangle, and only their nodes are added to the handle pane and updated.
+ * The drawing view looks up the visible selected figures in its spatial
+ * index, and passes them to {@link #validate}. Thus, the cost of a large
+ * selection grows with the number of visible figures, not with the size of
+ * the selection.
+ * <p>
+ * The handles of a figure which scrolls out of view are kept, so that they
+ * can be shown again without creating them anew. The manager keeps the
+ * handles of at most {@value #MAX_HIDDEN_FIGURES} figures which are not
+ * shown, and disposes the handles of the least recently shown figures.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+class HandleManager {
+
+    /**
+     * The selected figure is the anchor of the selection.
+     */
+    private final static int ANCHOR = 1;
+    /**
+     * The selected figure is the lead of the selection.
+     */
+    private final static int LEAD = 2;
+    /**
+     * Margin around the visible rectangle in view coordinates. Handles may
+     * extend beyond the bounds of their figure, for example rotate handles.
+     */
+    final static double VISIBLE_MARGIN = 32.0;
+    /**
+     * The maximal number of figures which are not shown, but whose handles
+     * are kept.
+     */
+    final static int MAX_HIDDEN_FIGURES = 256;
+
+    /**
+     * The handle pane.
+     */
+    @Nonnull
+    private final List<Node> handlePaneChildren;
+    /**
+     * Maps each selected figure to its role.
+     */
+    private final Map<Figure, Integer> roles = new LinkedHashMap<>();
+    /**
+     * Maps selected figures to the handles that they have created. Contains
+     * only figures which have been visible since they were selected.
+     * The map is in access order, so that the handles of the least recently
+     * shown figures can be evicted.
+     */
+    private final Map<Figure, List<Handle>> handles = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * Maps each JavaFX node in the handle pane to its handle.
+     */
+    private final Map<Node, Handle> nodeToHandleMap = new LinkedHashMap<>();
+    /**
+     * Maps each figure with handle nodes in the handle pane to these nodes.
+     */
+    private final Map<Figure, List<Node>> shownFigures = new LinkedHashMap<>();
+    /**
+     * Whether nodes of hidden handles must be removed from the handle pane.
+     */
+    private boolean hiddenNodes;
+    @Nullable
+    private HandleType handleType;
+    @Nullable
+    private HandleType anchorHandleType;
+    @Nullable
+    private HandleType leadHandleType;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param handlePaneChildren the children of the handle pane
+     */
+    HandleManager(@Nonnull List<Node> handlePaneChildren) {
+        this.handlePaneChildren = handlePaneChildren;
+    }
+
+    /**
+     * Disposes all handles and removes their nodes from the handle pane.
+     */
+    void clear() {
+        for (List<Handle> list : handles.values()) {
+            for (Handle h : list) {
+                h.dispose();
+            }
+        }
+        handles.clear();
+        roles.clear();
+        shownFigures.clear();
+        nodeToHandleMap.clear();
+        handlePaneChildren.clear();
+    }
+
+    /**
+     * Sets the selected figures and the handle types.
+     * <p>
+     * If the handle types have changed, all handles are disposed. Otherwise,
+     * only the handles of figures which are no longer selected, or whose
+     * role has changed, are disposed.
+     *
+     * @param selection        the selected figures in selection order
+     * @param handleType       the handle type of all selected figures
+     * @param anchorHandleType the additional handle type of the anchor
+     * @param leadHandleType   the additional handle type of the lead
+     */
+    void setSelection(@Nonnull Collection<Figure> selection, @Nullable HandleType handleType,
+                      @Nullable HandleType anchorHandleType, @Nullable HandleType leadHandleType) {
+        if (!Objects.equals(handleType, this.handleType)
+                || !Objects.equals(anchorHandleType, this.anchorHandleType)
+                || !Objects.equals(leadHandleType, this.leadHandleType)) {
+            clear();
+            this.handleType = handleType;
+            this.anchorHandleType = anchorHandleType;
+            this.leadHandleType = leadHandleType;
+        }
+
+        Map<Figure, Integer> newRoles = new LinkedHashMap<>(selection.size() * 2);
+        for (Figure f : selection) {
+            newRoles.put(f, 0);
+        }
+        if (newRoles.size() > 1) {
+            Iterator<Figure> it = newRoles.keySet().iterator();
+            Figure anchor = it.next();
+            Figure lead = anchor;
+            while (it.hasNext()) {
+                lead = it.next();
+            }
+            newRoles.put(anchor, ANCHOR);
+            newRoles.put(lead, LEAD);
+        }
+
+        for (Map.Entry<Figure, Integer> entry : roles.entrySet()) {
+            Figure f = entry.getKey();
+            if (!entry.getValue().equals(newRoles.get(f))) {
+                disposeHandles(f);
+            }
+        }
+        roles.clear();
+        roles.putAll(newRoles);
+        removeHiddenNodes();
+    }
+
+    /**
+     * Disposes the handles of the specified figure. The caller must remove
+     * the hidden nodes from the handle pane afterwards.
+     *
+     * @param f a figure
+     */
+    private void disposeHandles(@Nonnull Figure f) {
+        hideHandles(f);
+        List<Handle> list = handles.remove(f);
+        if (list != null) {
+            for (Handle h : list) {
+                h.dispose();
+            }
+        }
+    }
+
+    /**
+     * Disposes the handles of all selected figures, so that they are created
+     * anew when they are shown.
+     */
+    void disposeAllHandles() {
+        for (Figure f : new ArrayList<>(handles.keySet())) {
+            disposeHandles(f);
+        }
+        removeHiddenNodes();
+    }
+
+    /**
+     * Returns the handles of the specified selected figure, creates them if
+     * necessary.
+     *
+     * @param f a figure
+     * @return the handles, an empty list if the figure is not selected
+     */
+    @Nonnull
+    List<Handle> getHandles(@Nonnull Figure f) {
+        List<Handle> list = handles.get(f);
+        if (list == null) {
+            Integer role = roles.get(f);
+            if (role == null) {
+                return Collections.emptyList();
+            }
+            list = new ArrayList<>();
+            if ((role & ANCHOR) != 0 && anchorHandleType != null) {
+                f.createHandles(anchorHandleType, list);
+            }
+            if ((role & LEAD) != 0 && leadHandleType != null) {
+                f.createHandles(leadHandleType, list);
+            }
+            f.createHandles(handleType, list);
+            handles.put(f, list);
+        }
+        return list;
+    }
+
+    /**
+     * Returns the handles which have been created so far.
+     *
+     * @return the handles
+     */
+    @Nonnull
+    Map<Figure, List<Handle>> getCreatedHandles() {
+        return Collections.unmodifiableMap(handles);
+    }
+
+    /**
+     * Returns the handles whose nodes are in the handle pane.
+     *
+     * @return the handles in z-order
+     */
+    @Nonnull
+    Map<Node, Handle> getShownHandles() {
+        return Collections.unmodifiableMap(nodeToHandleMap);
+    }
+
+    /**
+     * Returns the figures whose handles are in the handle pane.
+     *
+     * @return the figures
+     */
+    @Nonnull
+    Set<Figure> getShownFigures() {
+        return Collections.unmodifiableSet(shownFigures.keySet());
+    }
+
+    /**
+     * Returns true if the specified figure is selected.
+     *
+     * @param f a figure
+     * @return true if selected
+     */
+    boolean isSelected(@Nonnull Figure f) {
+        return roles.containsKey(f);
+    }
+
+    /**
+     * Returns true if the handles of the specified figure are in the handle
+     * pane.
+     *
+     * @param f a figure
+     * @return true if shown
+     */
+    boolean isShown(@Nonnull Figure f) {
+        return shownFigures.containsKey(f);
+    }
+
+    /**
+     * Shows the handles of the specified figures, and hides the handles of
+     * all other figures. Updates the nodes of all handles that are shown.
+     * <p>
+     * The cost of this method grows with the number of specified figures
+     * and with the number of figures which are currently shown.
+     *
+     * @param view           the drawing view
+     * @param visibleFigures the figures which intersect the visible
+     *                       rectangle, figures which are not selected are
+     *                       ignored
+     */
+    void validate(@Nonnull DrawingView view, @Nonnull Collection<Figure> visibleFigures) {
+        Set<Figure> visibleSelection = new LinkedHashSet<>();
+        for (Figure f : visibleFigures) {
+            if (roles.containsKey(f)) {
+                visibleSelection.add(f);
+            }
+        }
+        for (Iterator<Map.Entry<Figure, List<Node>>> i = shownFigures.entrySet().iterator(); i.hasNext(); ) {
+            Map.Entry<Figure, List<Node>> entry = i.next();
+            if (!visibleSelection.contains(entry.getKey())) {
+                i.remove();
+                for (Node n : entry.getValue()) {
+                    nodeToHandleMap.remove(n);
+                }
+                hiddenNodes = true;
+            }
+        }
+        for (Figure f : visibleSelection) {
+            showHandles(view, f);
+        }
+        removeHiddenNodes();
+        evictHiddenHandles();
+    }
+
+    /**
+     * Disposes the handles of the least recently shown figures, which are
+     * not shown, until at most {@link #MAX_HIDDEN_FIGURES} hidden figures
+     * have handles.
+     */
+    void evictHiddenHandles() {
+        int excess = handles.size() - shownFigures.size() - MAX_HIDDEN_FIGURES;
+        for (Iterator<Map.Entry<Figure, List<Handle>>> i = handles.entrySet().iterator(); excess > 0 && i.hasNext(); ) {
+            Map.Entry<Figure, List<Handle>> entry = i.next();
+            if (!shownFigures.containsKey(entry.getKey())) {
+                i.remove();
+                for (Handle h : entry.getValue()) {
+                    h.dispose();
+                }
+                excess--;
+            }
+        }
+    }
+
+    /**
+     * Removes the nodes of hidden handles from the handle pane in one batch.
+     */
+    private void removeHiddenNodes() {
+        if (hiddenNodes) {
+            handlePaneChildren.retainAll(nodeToHandleMap.keySet());
+            hiddenNodes = false;
+        }
+    }
+
+    private void showHandles(@Nonnull DrawingView view, @Nonnull Figure f) {
+        List<Node> nodes = shownFigures.get(f);
+        List<Handle> list = getHandles(f);
+        if (nodes == null) {
+            nodes = new ArrayList<>(list.size());
+            for (Handle h : list) {
+                Node n = h.getNode(view);
+                h.updateNode(view);
+                if (nodeToHandleMap.put(n, h) == null) {
+                    handlePaneChildren.add(n);
+                }
+                nodes.add(n);
+            }
+            shownFigures.put(f, nodes);
+        } else {
+            for (Handle h : list) {
+                h.updateNode(view);
+            }
+        }
+    }
+
+    private void hideHandles(@Nonnull Figure f) {
+        List<Node> nodes = shownFigures.remove(f);
+        if (nodes != null) {
+            for (Node n : nodes) {
+                nodeToHandleMap.remove(n);
+            }
+            hiddenNodes = true;
+        }
+    }
+
+    /**
+     * Updates the nodes of the handles of the specified figure, if they are
+     * shown.
+     *
+     * @param view the drawing view
+     * @param f    a figure
+     */
+    void updateHandles(@Nonnull DrawingView view, @Nonnull Figure f) {
+        if (shownFigures.containsKey(f)) {
+            for (Handle h : handles.get(f)) {
+                h.updateNode(view);
+            }
+        }
+    }
+
+    /**
+     * Updates the nodes of all handles which are shown.
+     *
+     * @param view the drawing view
+     */
+    void updateShownHandles(@Nonnull DrawingView view) {
+        for (Figure f : shownFigures.keySet()) {
+            updateHandles(view, f);
+        }
+    }
+}
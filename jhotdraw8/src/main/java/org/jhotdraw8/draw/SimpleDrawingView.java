@@ -7,16 +7,17 @@ import javafx.animation.Transition;
 import javafx.application.Platform;
 import javafx.beans.InvalidationListener;
 import javafx.beans.Observable;
+import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyBooleanProperty;
 import javafx.beans.property.ReadOnlyBooleanWrapper;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.ObservableList;
-import javafx.collections.ObservableSet;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.BoundingBox;
 import javafx.geometry.Bounds;
@@ -43,21 +44,26 @@ import javafx.util.Duration;
 import org.jhotdraw8.app.EditableComponent;
 import org.jhotdraw8.beans.NonnullProperty;
 import org.jhotdraw8.css.CssSize;
+import org.jhotdraw8.draw.connector.ConnectionTarget;
+import org.jhotdraw8.draw.connector.Connector;
 import org.jhotdraw8.draw.constrain.Constrainer;
 import org.jhotdraw8.draw.constrain.NullConstrainer;
+import org.jhotdraw8.draw.figure.ConnectingFigure;
 import org.jhotdraw8.draw.figure.Drawing;
 import org.jhotdraw8.draw.figure.Figure;
 import org.jhotdraw8.draw.figure.Layer;
 import org.jhotdraw8.draw.figure.SimpleDrawing;
+import org.jhotdraw8.draw.figure.SimplifiableFigure;
 import org.jhotdraw8.draw.handle.Handle;
-import org.jhotdraw8.draw.handle.HandleType;
 import org.jhotdraw8.draw.model.DrawingModel;
 import org.jhotdraw8.draw.model.DrawingModelEvent;
 import org.jhotdraw8.draw.model.SimpleDrawingModel;
+import org.jhotdraw8.draw.render.LayerRasterCache;
 import org.jhotdraw8.draw.render.RenderContext;
 import org.jhotdraw8.draw.tool.Tool;
 import org.jhotdraw8.event.Listener;
 import org.jhotdraw8.geom.Geom;
+import org.jhotdraw8.geom.QuadTree;
 import org.jhotdraw8.geom.Shapes;
 import org.jhotdraw8.geom.Transforms;
 import org.jhotdraw8.io.DefaultUnitConverter;
@@ -71,12 +77,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 import static java.lang.Math.max;
 
@@ -102,6 +108,18 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
      * The id of the tool pane for CSS styling.
      */
     public static final String TOOL_PANE_ID = "toolPane";
+    /**
+     * The name of the virtualized property.
+     */
+    public final static String VIRTUALIZED_PROPERTY = "virtualized";
+    /**
+     * The name of the virtualization margin property.
+     */
+    public final static String VIRTUALIZATION_MARGIN_PROPERTY = "virtualizationMargin";
+    /**
+     * The name of the detail threshold property.
+     */
+    public final static String DETAIL_THRESHOLD_PROPERTY = "detailThreshold";
     private final ObjectProperty<Layer> activeLayer = new SimpleObjectProperty<>(this, ACTIVE_LAYER_PROPERTY);
 
     private Rectangle canvasPane;
@@ -143,17 +161,30 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
         switch (event.getEventType()) {
             case LAYOUT_CHANGED:
                 if (f == getDrawing()) {
+                    // the layout of the drawing does not affect the
+                    // rendering of the layers
                     invalidateConstrainerNode();
                     invalidateWorldViewTransforms();
                     repaint();
+                } else {
+                    invalidateRasterCaches(f);
+                    invalidateFigureIndex(f);
                 }
                 break;
             case STYLE_CHANGED:
+                invalidateRasterCaches(f);
                 repaint();
                 break;
+            case TRANSFORM_CHANGED:
+                invalidateRasterCaches(f);
+                invalidateFigureIndex(f);
+                break;
             case PROPERTY_VALUE_CHANGED:
+                if (f != null) {
+                    dirtyFigureNodes.addAll(LayerRasterCache.invalidateCaches(f, event.getKey()));
+                }
+                break;
             case LAYOUT_SUBJECT_CHANGED:
-            case TRANSFORM_CHANGED:
                 break;
             default:
                 throw new UnsupportedOperationException(event.getEventType()
@@ -170,6 +201,35 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
      * nodes is associated with the figure.
      */
     private final Map<Figure, Node> figureToNodeMap = new HashMap<>();
+    /**
+     * Spatial indices over the bounds and the connectors of the figure nodes
+     * which are attached to the scene graph.
+     */
+    private final FigureIndex figureIndex = new FigureIndex();
+    /**
+     * Spatial index over the bounds of the children of the layers in world
+     * coordinates. Unlike the figure index, this index also contains figures
+     * which have no node. The index is only maintained in virtualized mode.
+     */
+    private final QuadTree<Figure> layerChildIndex = new QuadTree<>();
+    /**
+     * This is the set of layer children which are out of sync with their
+     * entry in the layer child index.
+     */
+    private final Set<Figure> dirtyLayerChildIndex = new HashSet<>();
+    private boolean layerChildIndexValid;
+    /**
+     * Maps each layer to the children for which nodes have been materialized
+     * in virtualized mode.
+     */
+    private final Map<Figure, Set<Figure>> materializedChildren = new HashMap<>();
+    /**
+     * The rectangle in world coordinates for which nodes have been
+     * materialized in virtualized mode. This is the visible rectangle plus
+     * the virtualization margin at the time of the materialization.
+     */
+    @Nullable
+    private Bounds materializedRect;
     /**
      * This is just a wrapper around the focusedProperty of the JavaFX Node
      * which is used to render this view.
@@ -177,9 +237,9 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
     private final ReadOnlyBooleanWrapper focused = new ReadOnlyBooleanWrapper(this, FOCUSED_PROPERTY);
     private Group gridPane;
     /**
-     * The set of all handles which were produced by selected figures.
+     * Manages the handles which were produced by selected figures.
      */
-    private final Map<Figure, List<Handle>> handles = new HashMap<>();
+    private HandleManager handleManager;
     private boolean handlesAreValid;
     private Group handlesPane;
     /**
@@ -194,15 +254,12 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
      * Maps each JavaFX node to a figure in the drawing.
      */
     private final Map<Node, Figure> nodeToFigureMap = new HashMap<>();
-    /**
-     * Maps each JavaFX node to a handle in the drawing view.
-     */
-    private final Map<Node, Handle> nodeToHandleMap = new LinkedHashMap<>();
     private Pane overlaysPane;
     private Group overlaysSubScene;
     @Nullable
     private Bounds previousScaledBounds = null;
     private boolean recreateHandles;
+    private boolean selectionChanged;
     boolean renderIntoImage = false;
 
     @Nullable
@@ -218,11 +275,6 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
      * secondary handles.
      */
     private final ArrayList<Handle> secondaryHandles = new ArrayList<>();
-    /**
-     * If too many figures are selected, we only draw one outline handle for all
-     * selected figures instead of one outline handle for each selected figure.
-     */
-    private int tooManySelectedFigures = 20;
     private BorderPane toolPane;
     private final Listener<TreeModelEvent<Figure>> treeModelHandler = (TreeModelEvent<Figure> event) -> {
         Figure f = event.getNode();
@@ -231,16 +283,14 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
                 handleFigureAdded(f);
                 break;
             case NODE_REMOVED_FROM_PARENT:
+                invalidateRasterCaches(event.getParent());
                 handleFigureRemoved(f);
                 break;
             case NODE_ADDED_TO_TREE:
-                handleFigureRemovedFromDrawing(f);
+                getSelectedFigures().remove(f);
                 break;
             case NODE_REMOVED_FROM_TREE:
-                for (Figure d : f.preorderIterable()) {
-                    getSelectedFigures().remove(d);
-                }
-                repaint();
+                handleFigureRemovedFromDrawing(f);
                 break;
             case NODE_CHANGED:
                 handleNodeChanged(f);
@@ -275,6 +325,21 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
             handleZoomFactorChanged(get());
         }
     };
+    /**
+     * Whether the view only materializes nodes for figures which intersect
+     * the visible rectangle plus the virtualization margin.
+     */
+    private final BooleanProperty virtualized = new SimpleBooleanProperty(this, VIRTUALIZED_PROPERTY, false);
+    /**
+     * The margin around the visible rectangle in view coordinates, for which
+     * nodes are materialized in virtualized mode.
+     */
+    private final DoubleProperty virtualizationMargin = new SimpleDoubleProperty(this, VIRTUALIZATION_MARGIN_PROPERTY, 256.0);
+    /**
+     * Figures whose details are smaller than this number of pixels are
+     * rendered with a simplified node.
+     */
+    private final DoubleProperty detailThreshold = new SimpleDoubleProperty(this, DETAIL_THRESHOLD_PROPERTY, 4.0);
 
     {
         margin.addListener(observable -> updateLayout());
@@ -284,6 +349,15 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
         constrainer.addListener((o, oldValue, newValue) -> updateConstrainer(oldValue, newValue));
     }
 
+    {
+        virtualized.addListener(this::handleVirtualizationChanged);
+        virtualizationMargin.addListener(this::handleVirtualizationChanged);
+        detailThreshold.addListener(o -> {
+            invalidateFigureNodes();
+            repaint();
+        });
+    }
+
     public SimpleDrawingView() {
         init();
     }
@@ -298,6 +372,12 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
         figureToNodeMap.clear();
         nodeToFigureMap.clear();
         dirtyFigureNodes.clear();
+        layerChildIndex.clear();
+        dirtyLayerChildIndex.clear();
+        layerChildIndexValid = false;
+        materializedChildren.clear();
+        materializedRect = null;
+        figureIndex.clear();
     }
 
     @Override
@@ -378,36 +458,6 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
         return img;
     }
 
-    /**
-     * Creates selection handles and adds them to the provided list.
-     *
-     * @param handles The provided list
-     */
-    protected void createHandles(@Nonnull Map<Figure, List<Handle>> handles) {
-        ArrayList<Figure> selection = new ArrayList<>(getSelectedFigures());
-        if (selection.size() > 1) {
-            if (getAnchorHandleType() != null) {
-                Figure anchor = selection.get(0);
-                List<Handle> list = handles.computeIfAbsent(anchor, k -> new ArrayList<>());
-                anchor.createHandles(getAnchorHandleType(), list);
-            }
-            if (getLeadHandleType() != null) {
-                Figure anchor = selection.get(selection.size() - 1);
-                List<Handle> list = handles.computeIfAbsent(anchor, k -> new ArrayList<>());
-                anchor.createHandles(getLeadHandleType(), list);
-            }
-        }
-        HandleType handleType = getHandleType();
-            ArrayList<Handle> list=new ArrayList<>();
-        for (Figure figure : selection) {
-            figure.createHandles(handleType, list);
-        }
-        for (Handle h: list) {
-            Figure figure = h.getOwner();
-            handles.computeIfAbsent(figure, k -> new ArrayList<>()).add(h);
-        }
-    }
-
     @Override
     public void deleteSelection() {
         ArrayList<Figure> figures = new ArrayList<>(getSelectedFigures());
@@ -455,9 +505,20 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
     @Override
     public Figure findFigure(double vx, double vy) {
         Drawing dr = getDrawing();
-        Figure f = findFigureRecursive((Parent) getNode(dr), viewToWorld(vx, vy),
-                getViewToWorld().deltaTransform(getTolerance(), getTolerance()).getX());
-        return f;
+        Node worldNode = getNode(dr);
+        Point2D pointInWorld = viewToWorld(vx, vy);
+        double tolerance = getViewToWorld().deltaTransform(getTolerance(), getTolerance()).getX();
+        Point2D pointInScene = worldNode.localToScene(pointInWorld);
+        for (Figure f : findFigureCandidates(Geom.grow(new BoundingBox(pointInWorld.getX(), pointInWorld.getY(), 0, 0), tolerance, tolerance))) {
+            if (f.isSelectable() && isNodeVisible(f)
+                    && areAncestorsTraversable(f, a -> isNodeVisible(a) && !a.isSelectable())) {
+                Node n = getNode(f);
+                if (contains(n, n.sceneToLocal(pointInScene), tolerance)) {
+                    return f;
+                }
+            }
+        }
+        return null;
     }
 
     /**
@@ -506,40 +567,25 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
         return null;
     }
 
-    @Nullable
-    private Figure findFigureRecursive(@Nullable Parent p, @Nonnull Point2D pp, double tolerance) {
-        if (p == null) {
-            return null;
-        }
-        ObservableList<Node> list = p.getChildrenUnmodifiable();
-        for (int i = list.size() - 1; i >= 0; i--) {// front to back
-            Node n = list.get(i);
-            if (!n.isVisible()) {
-                continue;
-            }
-            Point2D pl = n.parentToLocal(pp);
-            if (contains(n, pl, tolerance)) {
-                Figure f = nodeToFigureMap.get(n);
-                if (f == null || !f.isSelectable()) {
-                    if (n instanceof Parent) {
-                        f = findFigureRecursive((Parent) n, pl, tolerance);
-                    }
-                }
-                if (f != null && f.isSelectable()) {
-                    return f;
-                }
-            }
-        }
-        return null;
-    }
-
     @Nonnull
     @Override
     public List<Figure> findFigures(double vx, double vy, boolean decompose) {
         Transform vt = getViewToWorld();
         Point2D pp = vt.transform(vx, vy);
+        double tolerance = getTolerance();
+        Node worldNode = getNode(getDrawing());
+        Point2D pointInScene = worldNode.localToScene(pp);
+        double toleranceInWorld = vt.deltaTransform(tolerance, tolerance).getX();
         List<Figure> list = new ArrayList<>();
-        findFiguresRecursive((Parent) figureToNodeMap.get(getDrawing()), pp, list, decompose);
+        for (Figure f : findFigureCandidates(Geom.grow(new BoundingBox(pp.getX(), pp.getY(), 0, 0), toleranceInWorld, toleranceInWorld))) {
+            if (f.isSelectable() && f.isShowing()
+                    && areAncestorsTraversable(f, a -> !a.isSelectable() || decompose && a.isDecomposable())) {
+                Node n = getNode(f);
+                if (contains(n, n.sceneToLocal(pointInScene), tolerance)) {
+                    list.add(f);
+                }
+            }
+        }
         return list;
     }
 
@@ -550,41 +596,19 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
         Point2D pxy = vt.transform(vx, vy);
         Point2D pwh = vt.deltaTransform(vwidth, vheight);
         BoundingBox r = new BoundingBox(pxy.getX(), pxy.getY(), pwh.getX(), pwh.getY());
+        Node worldNode = getNode(getDrawing());
+        Bounds rectInScene = worldNode.localToScene(r);
         List<Figure> list = new ArrayList<>();
-        findFiguresInsideRecursive((Parent) figureToNodeMap.get(getDrawing()), r, list, decompose);
-        return list;
-    }
-
-    private void findFiguresInsideRecursive(Parent p, @Nonnull Bounds pp, @Nonnull List<Figure> found, boolean decompose) {
-        ObservableList<Node> list = p.getChildrenUnmodifiable();
-        for (int i = list.size() - 1; i >= 0; i--) {// front to back
-            Node n = list.get(i);
-            if (!n.isVisible()) {
-                continue;
-            }
-            Figure f1 = nodeToFigureMap.get(n);
-            if (f1 != null && f1.isSelectable() && f1.isShowing()) {
-                Bounds pl = n.parentToLocal(pp);
-                if (pl.contains(n.getBoundsInLocal())) { // only drill down if the parent bounds contains the point
-                    Figure f = nodeToFigureMap.get(n);
-                    if (f != null && f.isSelectable()) {
-                        found.add(f);
-                    }
-                    if (f == null || !f.isSelectable() || decompose && f.isDecomposable()) {
-                        if (n instanceof Parent) {
-                            findFiguresInsideRecursive((Parent) n, pl, found, decompose);
-                        }
-                    }
-                }
-            } else {
-                Bounds pl = n.parentToLocal(pp);
-                if (n.intersects(pl)) { // only drill down if the parent intersects the point
-                    if (n instanceof Parent) {
-                        findFiguresInsideRecursive((Parent) n, pl, found, decompose);
-                    }
-                }
+        for (Figure f : findFigureCandidates(r)) {
+            if (f.isSelectable() && f.isShowing() && isNodeVisible(f)
+                    && isNodeInside(f, rectInScene)
+                    && areAncestorsTraversable(f, a -> isNodeVisible(a)
+                    && (!a.isSelectable() || !a.isShowing()
+                    || decompose && a.isDecomposable() && isNodeInside(a, rectInScene)))) {
+                list.add(f);
             }
         }
+        return list;
     }
 
     @Nonnull
@@ -594,58 +618,156 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
         Point2D pxy = vt.transform(vx, vy);
         Point2D pwh = vt.deltaTransform(vwidth, vheight);
         BoundingBox r = new BoundingBox(pxy.getX(), pxy.getY(), pwh.getX(), pwh.getY());
+        Node worldNode = getNode(getDrawing());
+        Bounds rectInScene = worldNode.localToScene(r);
         List<Figure> list = new ArrayList<>();
-        findFiguresIntersectingRecursive((Parent) figureToNodeMap.get(getDrawing()), r, list, decompose);
+        for (Figure f : findFigureCandidates(r)) {
+            if (f.isSelectable()
+                    && areAncestorsTraversable(f, a -> !a.isSelectable() || decompose && a.isDecomposable())) {
+                Node n = getNode(f);
+                if (n.intersects(n.sceneToLocal(rectInScene))) {
+                    list.add(f);
+                }
+            }
+        }
         return list;
     }
 
-    private void findFiguresIntersectingRecursive(Parent p, @Nonnull Bounds pp, @Nonnull List<Figure> found, boolean decompose) {
-        ObservableList<Node> list = p.getChildrenUnmodifiable();
-        for (int i = list.size() - 1; i >= 0; i--) {// front to back
-            Node n = list.get(i);
-            Bounds pl = n.parentToLocal(pp);
-            if (n.intersects(pl)) { // only drill down if the parent intersects the point
-                Figure f = nodeToFigureMap.get(n);
-                if (f != null && f.isSelectable()) {
-                    found.add(f);
-                }
-                if (f == null || !f.isSelectable() || decompose && f.isDecomposable()) {
-                    if (n instanceof Parent) {
-                        findFiguresIntersectingRecursive((Parent) n, pl, found, decompose);
+    /**
+     * Returns the figures which are candidates for a hit-test inside the
+     * specified rectangle. This are all figures which have a node in the
+     * scene graph of the drawing, and whose node may intersect with the
+     * rectangle.
+     * <p>
+     * The figures are returned in z-order from front to back. If a figure
+     * and its descendants are returned, the figure precedes its
+     * descendants.
+     *
+     * @param rectInWorld a rectangle in world coordinates
+     * @return the candidate figures
+     */
+    @Nonnull
+    private List<Figure> findFigureCandidates(@Nonnull Bounds rectInWorld) {
+        validateFigureIndex();
+        Node worldNode = figureToNodeMap.get(getDrawing());
+        List<Figure> candidates = new ArrayList<>();
+        figureIndex.findIntersecting(rectInWorld.getMinX(), rectInWorld.getMinY(),
+                rectInWorld.getMaxX(), rectInWorld.getMaxY(), f -> {
+                    if (isNodeAttached(f, worldNode)) {
+                        candidates.add(f);
+                    }
+                });
+        candidates.sort(figureIndex.getZOrderComparator(getDrawing()));
+        return candidates;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * In virtualized mode, this implementation answers the query for layers
+     * with the layer child index. The returned children are remembered as
+     * the materialized children of the layer, and the nodes of children which
+     * are no longer returned are released.
+     */
+    @Nullable
+    @Override
+    public List<Figure> findChildrenIntersecting(@Nonnull Figure parent, @Nonnull Bounds boundsInWorld) {
+        if (!isVirtualized() || !(parent instanceof Layer)) {
+            return null;
+        }
+        validateLayerChildIndex();
+        List<Figure> children = new ArrayList<>();
+        layerChildIndex.findIntersecting(boundsInWorld.getMinX(), boundsInWorld.getMinY(),
+                boundsInWorld.getMaxX(), boundsInWorld.getMaxY(), f -> {
+                    if (f.getParent() == parent) {
+                        children.add(f);
                     }
+                });
+        // the children in front come last in the child list
+        children.sort(figureIndex.getZOrderComparator(getDrawing()).reversed());
+
+        Set<Figure> materialized = new HashSet<>(children);
+        Set<Figure> previous = materializedChildren.put(parent, materialized);
+        if (previous != null) {
+            for (Figure f : previous) {
+                if (!materialized.contains(f) && f.getParent() == parent) {
+                    releaseNodes(f);
                 }
             }
         }
+        return children;
     }
 
-    private void findFiguresRecursive(Parent p, @Nonnull Point2D pp, @Nonnull List<Figure> found, boolean decompose) {
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation uses a connector index. The connectable figures
+     * near the point are visited from front to back. The nearest connector
+     * anchor of the first figure with an anchor within the tolerance is the
+     * connection target. Otherwise, the first figure whose bounds contain
+     * the point provides a connector for the constrained point.
+     */
+    @Nullable
+    @Override
+    public ConnectionTarget findConnectionTarget(@Nonnull Point2D pointInView, @Nonnull Point2D constrainedPointInWorld,
+                                                 @Nonnull ConnectingFigure connectingFigure) {
+        validateFigureIndex();
+        Transform vt = getViewToWorld();
+        Point2D pointInWorld = vt.transform(pointInView);
         double tolerance = getTolerance();
-        ObservableList<Node> list = p.getChildrenUnmodifiable();
-        for (int i = list.size() - 1; i >= 0; i--) {// front to back
-            Node n = list.get(i);
-            Figure f1 = nodeToFigureMap.get(n);
-            if (f1 != null && f1.isSelectable()) {
-                Point2D pl = n.parentToLocal(pp);
-                if (contains(n, pl, tolerance)) { // only drill down if the parent contains the point
-                    Figure f = nodeToFigureMap.get(n);
-                    if (f != null && f.isSelectable() && f1.isShowing()) {
-                        found.add(f);
-                    }
-                    if (f == null || !f.isSelectable() || decompose && f.isDecomposable()) {
-                        if (n instanceof Parent) {
-                            findFiguresRecursive((Parent) n, pl, found, decompose);
-                        }
-                    }
-                }
-            } else {
-                Point2D pl = n.parentToLocal(pp);
-                if (contains(n, pl, tolerance)) { // only drill down if the parent intersects the point
-                    if (n instanceof Parent) {
-                        findFiguresRecursive((Parent) n, pl, found, decompose);
-                    }
-                }
+        double toleranceInWorld = vt.deltaTransform(tolerance, tolerance).getX();
+
+        return figureIndex.getConnectorIndex().findConnectionTarget(pointInWorld, constrainedPointInWorld, toleranceInWorld, connectingFigure,
+                f -> isConnectionTarget(f, connectingFigure),
+                figureIndex.getZOrderComparator(getDrawing()));
+    }
+
+    private boolean isConnectionTarget(@Nonnull Figure f, @Nonnull Figure connectingFigure) {
+        return f != connectingFigure && f.isSelectable() && f.isShowing();
+    }
+
+    /**
+     * Returns true if the figure has a node, and if the node is a descendant
+     * of the specified world node.
+     */
+    private boolean isNodeAttached(@Nonnull Figure f, @Nullable Node worldNode) {
+        Node n = figureToNodeMap.get(f);
+        while (n != null) {
+            if (n == worldNode) {
+                return true;
+            }
+            n = n.getParent();
+        }
+        return false;
+    }
+
+    private boolean isNodeVisible(@Nonnull Figure f) {
+        Node n = figureToNodeMap.get(f);
+        return n != null && n.isVisible();
+    }
+
+    private boolean isNodeInside(@Nonnull Figure f, @Nonnull Bounds rectInScene) {
+        Node n = getNode(f);
+        return n.sceneToLocal(rectInScene).contains(n.getBoundsInLocal());
+    }
+
+    /**
+     * Returns true if a search for figures may traverse through all ancestors
+     * of the specified figure up to the drawing.
+     *
+     * @param f         a figure
+     * @param traversable returns true if a search may traverse through the
+     *                  given ancestor
+     * @return true if all ancestors are traversable
+     */
+    private boolean areAncestorsTraversable(@Nonnull Figure f, @Nonnull Predicate<Figure> traversable) {
+        Drawing d = getDrawing();
+        for (Figure a = f.getParent(); a != null && a != d; a = a.getParent()) {
+            if (!traversable.test(a)) {
+                return false;
             }
         }
+        return true;
     }
 
     @Nullable
@@ -654,7 +776,7 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
         if (recreateHandles) {
             return null;
         }
-        for (Map.Entry<Node, Handle> e : new ReversedList<>(nodeToHandleMap.entrySet())) {
+        for (Map.Entry<Node, Handle> e : new ReversedList<>(handleManager.getShownHandles().entrySet())) {
             final Node node = e.getKey();
             final Handle handle = e.getValue();
             if (!handle.isSelectable()) {
@@ -685,18 +807,18 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
     @Override
     public Set<Figure> getFiguresWithCompatibleHandle(@Nonnull Collection<Figure> figures, Handle master) {
         validateHandles();
-        Map<Figure, Figure> result = new HashMap<>();
-        for (Map.Entry<Figure, List<Handle>> entry : handles.entrySet()) {
-            if (figures.contains(entry.getKey())) {
-                for (Handle h : entry.getValue()) {
-                    if (h.isCompatible(master)) {
-                        result.put(entry.getKey(), null);
-                        break;
-                    }
+        // the handles of selected figures which are not visible are
+        // created here on demand
+        Set<Figure> result = new LinkedHashSet<>();
+        for (Figure f : figures) {
+            for (Handle h : handleManager.getHandles(f)) {
+                if (h.isCompatible(master)) {
+                    result.add(f);
+                    break;
                 }
             }
         }
-        return result.keySet();
+        return result;
     }
 
     public Insets getMargin() {
@@ -829,25 +951,60 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
     }
 
     private void handleFigureAdded(Figure figure) {
-        for (Figure f : figure.preorderIterable()) {
-            invalidateFigureNode(f);
+        invalidateLayerChildIndex(figure);
+        invalidateRasterCaches(figure);
+        if (figureToNodeMap.containsKey(figure)) {
+            // The figure has been moved to another parent inside the
+            // drawing. We keep the nodes of the figure and of its
+            // descendants. Only the figure needs to be updated, because
+            // the nodes of the descendants are relative to it.
+            invalidateFigureNode(figure);
+            figureIndex.invalidate(figure);
+        } else {
+            for (Figure f : figure.preorderIterable()) {
+                invalidateFigureNode(f);
+            }
         }
+        figureIndex.childAdded(figure);
         repaint();
     }
 
+    /**
+     * Handles the removal of a figure from its parent.
+     * <p>
+     * The figure may just be moved to another parent inside the drawing.
+     * Therefore we keep its node. The node is removed when the figure is
+     * removed from the drawing.
+     *
+     * @param figure the figure
+     */
     private void handleFigureRemoved(Figure figure) {
-        for (Figure f : figure.preorderIterable()) {
-            removeNode(f);
-        }
+        figureIndex.childRemoved(figure);
         invalidateHandles();
         repaint();
     }
 
+    /**
+     * Handles the removal of a figure from the drawing.
+     * <p>
+     * The drawing model fires a separate event for each figure in the
+     * removed subtree. Therefore we only need to remove the node of the
+     * specified figure.
+     *
+     * @param figure the figure
+     */
     private void handleFigureRemovedFromDrawing(Figure figure) {
-        final ObservableSet<Figure> selectedFigures = getSelectedFigures();
-        for (Figure f : figure.preorderIterable()) {
-            selectedFigures.remove(f);
+        getSelectedFigures().remove(figure);
+        removeNode(figure);
+        figureIndex.childRemoved(figure);
+        if (layerChildIndex.remove(figure)) {
+            for (Set<Figure> materialized : materializedChildren.values()) {
+                materialized.remove(figure);
+            }
         }
+        dirtyLayerChildIndex.remove(figure);
+        materializedChildren.remove(figure);
+        repaint();
     }
 
     private void handleNewDrawingModel(@Nullable DrawingModel oldValue, @Nullable DrawingModel newValue) {
@@ -870,6 +1027,7 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
 
     private void handleNodeChanged(Figure f) {
         invalidateFigureNode(f);
+        invalidateRasterCaches(f);
         if (f == getDrawing()) {
             updateLayout();
             if (constrainer.get() != null) {
@@ -880,6 +1038,7 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
     }
 
     private void handleSubtreeNodesChanged(Figure figures) {
+        invalidateRasterCaches(figures);
         for (Figure f : figures.preorderIterable()) {
             dirtyFigureNodes.add(f);
             dirtyHandles.add(f);
@@ -888,7 +1047,11 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
 
     private void handleVisibleRectChanged(Observable o) {
         invalidateConstrainerNode();
-        invalidateLayerNodes();
+        if (!isVirtualized()) {
+            // in virtualized mode, the layers are only invalidated when the
+            // visible rect leaves the materialized rect
+            invalidateLayerNodes();
+        }
         invalidateHandles();
         repaint();
     }
@@ -903,6 +1066,7 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
             }
         }
         updateLayout();
+        materializedRect = null;
         invalidateFigureNodes();
         invalidateHandleNodes();
         if (constrainer.get() != null) {
@@ -944,6 +1108,7 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
         handlesPane = new Group();
         handlesPane.setManaged(false);
         handlesPane.setMouseTransparent(true);
+        handleManager = new HandleManager(handlesPane.getChildren());
         gridPane = new Group();
         gridPane.setManaged(false);
         gridPane.setMouseTransparent(true);
@@ -979,7 +1144,7 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
 
     private void invalidateFigureNode(Figure f) {
         dirtyFigureNodes.add(f);
-        if (handles.containsKey(f)) {
+        if (handleManager.isShown(f)) {
             dirtyHandles.add(f);
         }
     }
@@ -987,10 +1152,99 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
         dirtyFigureNodes.addAll(nodeToFigureMap.values());
     }
 
-    private void invalidateHandleNodes() {
-        for (Figure f : handles.keySet()) {
-            dirtyHandles.add(f);
+    /**
+     * Invalidates the entries of the specified figure and of all its
+     * descendants in the figure index.
+     *
+     * @param figure a figure
+     */
+    private void invalidateFigureIndex(Figure figure) {
+        for (Figure f : figure.preorderIterable()) {
+            figureIndex.invalidate(f);
+        }
+        invalidateLayerChildIndex(figure);
+    }
+
+    /**
+     * Invalidates the entry of the layer child which contains the specified
+     * figure in the layer child index.
+     *
+     * @param figure a figure
+     */
+    private void invalidateLayerChildIndex(Figure figure) {
+        if (!layerChildIndexValid) {
+            return;
+        }
+        Figure f = figure;
+        while (f != null && !(f.getParent() instanceof Layer)) {
+            f = f.getParent();
+        }
+        if (f != null) {
+            dirtyLayerChildIndex.add(f);
+        }
+    }
+
+    /**
+     * Brings the layer child index up to date.
+     * <p>
+     * If a dirty child now intersects the materialized rectangle, but its
+     * layer has not materialized it, then the layer is invalidated.
+     */
+    private void validateLayerChildIndex() {
+        Drawing d = getDrawing();
+        if (!layerChildIndexValid) {
+            layerChildIndex.clear();
+            dirtyLayerChildIndex.clear();
+            if (d != null) {
+                for (Figure layer : d.getChildren()) {
+                    if (layer instanceof Layer) {
+                        for (Figure f : layer.getChildren()) {
+                            layerChildIndex.put(f, f.getBoundsInWorld());
+                        }
+                    }
+                }
+            }
+            layerChildIndexValid = true;
+            return;
+        }
+        for (Figure f : dirtyLayerChildIndex) {
+            Figure layer = f.getParent();
+            if (!(layer instanceof Layer)) {
+                layerChildIndex.remove(f);
+                continue;
+            }
+            Bounds b = f.getBoundsInWorld();
+            layerChildIndex.put(f, b);
+            Set<Figure> materialized = materializedChildren.get(layer);
+            if (materializedRect != null && materialized != null
+                    && !materialized.contains(f) && b.intersects(materializedRect)) {
+                dirtyFigureNodes.add(layer);
+            }
+        }
+        dirtyLayerChildIndex.clear();
+    }
+
+    /**
+     * Brings the figure index up to date.
+     * <p>
+     * A figure whose node is not attached to the scene graph of the drawing
+     * is removed from the figure index.
+     */
+    private void validateFigureIndex() {
+        Drawing d = getDrawing();
+        Node worldNode = figureToNodeMap.get(d);
+        if (figureIndex.isDirty() && worldNode != null) {
+            figureIndex.validate(f -> {
+                Node n = figureToNodeMap.get(f);
+                return f == d || n == null || !isNodeAttached(f, worldNode)
+                        ? null
+                        : worldNode.sceneToLocal(n.localToScene(n.getBoundsInLocal()));
+            });
         }
+    }
+
+    private void invalidateHandleNodes() {
+        dirtyHandles.addAll(handleManager.getShownFigures());
         repaint();
     }
 
@@ -1015,11 +1269,27 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
     }
 
     private void invalidateLayerNodes() {
-        for (Figure f : getDrawing().getChildren()) {
+        Drawing d = getDrawing();
+        if (d == null) {
+            return;
+        }
+        for (Figure f : d.getChildren()) {
             dirtyFigureNodes.add(f);
         }
     }
 
+    /**
+     * Discards the raster cache of the layer which contains the specified
+     * figure, and marks the layer node as dirty.
+     *
+     * @param f a figure
+     */
+    private void invalidateRasterCaches(@Nullable Figure f) {
+        if (f != null) {
+            dirtyFigureNodes.addAll(LayerRasterCache.invalidateCaches(f));
+        }
+    }
+
     private void invalidateWorldViewTransforms() {
         worldToViewTransform = viewToWorldTransform = null;
     }
@@ -1078,7 +1348,7 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
     @Override
     public void jiggleHandles() {
         validateHandles();
-        List<Handle> copiedList = handles.values().stream().flatMap(List::stream).collect(Collectors.toList());
+        List<Handle> copiedList = new ArrayList<>(handleManager.getShownHandles().values());
 
         // We scale the handles back and forth.
         double amount = 0.1;
@@ -1107,6 +1377,43 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
             nodeToFigureMap.remove(oldNode);
         }
         dirtyFigureNodes.remove(f);
+        figureIndex.remove(f);
+    }
+
+    /**
+     * Replaces the node of the specified figure by a new node. The parent of
+     * the figure is invalidated, so that it inserts the new node.
+     *
+     * @param f a figure
+     * @return the new node
+     */
+    @Nonnull
+    private Node recreateNode(Figure f) {
+        Node oldNode = figureToNodeMap.remove(f);
+        if (oldNode != null) {
+            nodeToFigureMap.remove(oldNode);
+        }
+        Node n = f.createNode(this);
+        figureToNodeMap.put(f, n);
+        nodeToFigureMap.put(n, f);
+        Figure parent = f.getParent();
+        if (parent != null) {
+            invalidateFigureNode(parent);
+            repaint();
+        }
+        return n;
+    }
+
+    /**
+     * Releases the nodes of the specified figure and of all its descendants.
+     * The nodes are created again, when the figure becomes visible.
+     *
+     * @param figure a figure
+     */
+    private void releaseNodes(Figure figure) {
+        for (Figure f : figure.preorderIterable()) {
+            removeNode(f);
+        }
     }
 
     /**
@@ -1197,35 +1504,41 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
 
     private void updateHandles() {
         if (recreateHandles) {
-            // FIXME - We create and destroy many handles here!!!
-            for (Map.Entry<Figure, List<Handle>> entry : handles.entrySet()) {
-                for (Handle h : entry.getValue()) {
-                    h.dispose();
-                }
-            }
-            nodeToHandleMap.clear();
-            handles.clear();
-            handlesPane.getChildren().clear();
+            handleManager.disposeAllHandles();
             dirtyHandles.clear();
-
-            createHandles(handles);
             recreateHandles = false;
+            selectionChanged = true;
         }
+        if (selectionChanged) {
+            handleManager.setSelection(getSelectedFigures(), getHandleType(), getAnchorHandleType(), getLeadHandleType());
+            selectionChanged = false;
+        }
+        handleManager.validate(this, findVisibleSelectedFigures());
+    }
 
-        Bounds visibleRect = getVisibleRect();
-
-        for (Map.Entry<Figure, List<Handle>> entry : handles.entrySet()) {
-            //dirtyHandles.addChild(entry.getKey());
-            for (Handle handle : entry.getValue()) {
-                Node n = handle.getNode(this);
-                handle.updateNode(this);
-                if (visibleRect.intersects(n.getBoundsInParent())) {
-                    if (nodeToHandleMap.put(n, handle) == null) {
-                        handlesPane.getChildren().add(n);
+    /**
+     * Looks up the selected figures which intersect the visible rectangle in
+     * the figure index.
+     *
+     * @return the visible selected figures
+     */
+    @Nonnull
+    private List<Figure> findVisibleSelectedFigures() {
+        List<Figure> visible = new ArrayList<>();
+        if (getSelectedFigures().isEmpty()) {
+            return visible;
+        }
+        validateFigureIndex();
+        Node worldNode = figureToNodeMap.get(getDrawing());
+        Bounds rectInWorld = Transforms.transform(getViewToWorld(),
+                Geom.grow(getVisibleRect(), HandleManager.VISIBLE_MARGIN, HandleManager.VISIBLE_MARGIN));
+        figureIndex.findIntersecting(rectInWorld.getMinX(), rectInWorld.getMinY(),
+                rectInWorld.getMaxX(), rectInWorld.getMaxY(), f -> {
+                    if (handleManager.isSelected(f) && isNodeAttached(f, worldNode)) {
+                        visible.add(f);
                     }
-                }
-            }
-        }
+                });
+        return visible;
     }
 
     /**
@@ -1292,21 +1605,53 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
     }
 
     private void updateRenderContext() {
-        set(RenderContext.CLIP_BOUNDS, viewToWorld(getVisibleRect()));
+        Bounds visibleRectInWorld = viewToWorld(getVisibleRect());
+        if (isVirtualized()) {
+            if (materializedRect == null || !materializedRect.contains(visibleRectInWorld)) {
+                double m = getVirtualizationMargin() / getZoomFactor();
+                materializedRect = new BoundingBox(visibleRectInWorld.getMinX() - m, visibleRectInWorld.getMinY() - m,
+                        visibleRectInWorld.getWidth() + 2 * m, visibleRectInWorld.getHeight() + 2 * m);
+                invalidateLayerNodes();
+            }
+            set(RenderContext.CLIP_BOUNDS, materializedRect);
+        } else {
+            set(RenderContext.CLIP_BOUNDS, visibleRectInWorld);
+        }
         DefaultUnitConverter units = new DefaultUnitConverter(90, 1.0, 1024.0 / getZoomFactor(), 768 / getZoomFactor());
         set(RenderContext.UNIT_CONVERTER_KEY, units);
+        set(RenderContext.RENDER_SCALE, getZoomFactor());
+        set(RenderContext.DETAIL_THRESHOLD, getDetailThreshold());
     }
 
     private void updateNodes() {
         if (!renderIntoImage) {
+            boolean virtual = isVirtualized();
+            if (virtual) {
+                validateLayerChildIndex();
+            }
             // create copies of the lists to allow for concurrent modification
             Figure[] copyOfDirtyFigureNodes = dirtyFigureNodes.toArray(new Figure[dirtyFigureNodes.size()]);
             dirtyFigureNodes.clear();
             for (Figure f : copyOfDirtyFigureNodes) {
-                if (!f.isShowing() && !hasNode(f)) {
+                if (!hasNode(f) && (virtual || !f.isShowing())) {
+                    // in virtualized mode, the node is created and updated
+                    // when its layer materializes it
                     continue;
                 }
-                f.updateNode(this, getNode(f));
+                Node n = getNode(f);
+                if (f instanceof SimplifiableFigure && !((SimplifiableFigure) f).isNodeUpdatable(this, n)) {
+                    n = recreateNode(f);
+                }
+                if (f instanceof Layer) {
+                    // a layer attaches only the nodes of the children which
+                    // intersect the clip bounds
+                    Set<Figure> attachedBefore = getAttachedChildren(n);
+                    f.updateNode(this, n);
+                    figureIndex.invalidateAttachedChildren(attachedBefore, getAttachedChildren(n));
+                } else {
+                    f.updateNode(this, n);
+                }
+                figureIndex.invalidate(f);
             }
         }
 
@@ -1314,12 +1659,7 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
             Figure[] copyOfDirtyHandles = dirtyHandles.toArray(new Figure[dirtyHandles.size()]);
             dirtyHandles.clear();
             for (Figure f : copyOfDirtyHandles) {
-                List<Handle> hh = handles.get(f);
-                if (hh != null) {
-                    for (Handle h : hh) {
-                        h.updateNode(this);
-                    }
-                }
+                handleManager.updateHandles(this, f);
             }
         }
         for (Handle h : secondaryHandles) {
@@ -1331,6 +1671,26 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
         }
     }
 
+    /**
+     * Returns the figures of the child nodes of the specified node.
+     *
+     * @param node a node
+     * @return the figures of the child nodes
+     */
+    @Nonnull
+    private Set<Figure> getAttachedChildren(@Nonnull Node node) {
+        Set<Figure> attached = new HashSet<>();
+        if (node instanceof Parent) {
+            for (Node child : ((Parent) node).getChildrenUnmodifiable()) {
+                Figure f = nodeToFigureMap.get(child);
+                if (f != null) {
+                    attached.add(f);
+                }
+            }
+        }
+        return attached;
+    }
+
     private void updateScrollPaneListeners(Observable o) {
         if (scrollPane != null) {
             scrollPane.vvalueProperty().removeListener(visibleRectChangedHandler);
@@ -1369,18 +1729,18 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
         }
     }
 
-    private void updateTreeStructure(@Nonnull Figure parent) {
-        // Since we don't know which figures have been removed from
-        // the drawing, we have to get rid of them on ourselves.
-        // XXX This is a really slow operation. If each figure would store a
-        // reference to its drawing it would perform better.
-        Drawing d = getDrawing();
-        for (Figure f : new ArrayList<>(figureToNodeMap.keySet())) {
-            if (f.getRoot() != d) {
-                removeNode(f);
-            }
-        }
-        handleSubtreeNodesChanged(parent);
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation only disposes the handles of figures which have
+     * been removed from the selection, and only creates handles for selected
+     * figures when they become visible.
+     */
+    @Override
+    protected void handleSelectionChanged() {
+        selectionChanged = true;
+        invalidateHandles();
+        repaint();
     }
 
     /**
@@ -1404,6 +1764,84 @@ public class SimpleDrawingView extends AbstractDrawingView implements EditableCo
         return zoomFactor;
     }
 
+    /**
+     * Whether the view only materializes nodes for figures which intersect
+     * the visible rectangle plus the virtualization margin.
+     * <p>
+     * In virtualized mode, the view keeps a spatial index over the children
+     * of the layers. The layers use the index for finding the children which
+     * intersect the materialized rectangle. The nodes of children which leave
+     * the materialized rectangle are released, and dirty figures without a
+     * node are not updated until they become visible.
+     *
+     * @return the virtualized property
+     */
+    @Nonnull
+    public BooleanProperty virtualizedProperty() {
+        return virtualized;
+    }
+
+    public boolean isVirtualized() {
+        return virtualized.get();
+    }
+
+    public void setVirtualized(boolean newValue) {
+        virtualized.set(newValue);
+    }
+
+    /**
+     * The margin around the visible rectangle in view coordinates, for which
+     * nodes are materialized in virtualized mode. A larger margin creates
+     * more nodes, but scrolling by less than the margin does not create any
+     * nodes.
+     *
+     * @return the virtualization margin property
+     */
+    @Nonnull
+    public DoubleProperty virtualizationMarginProperty() {
+        return virtualizationMargin;
+    }
+
+    public double getVirtualizationMargin() {
+        return virtualizationMargin.get();
+    }
+
+    public void setVirtualizationMargin(double newValue) {
+        virtualizationMargin.set(newValue);
+    }
+
+    /**
+     * Figures whose details are smaller than this number of pixels are
+     * rendered with a simplified node, for example with greeked text. This
+     * speeds up the rendering of an overview of a large drawing. A value of
+     * {@code 0} disables level-of-detail rendering.
+     *
+     * @return the detail threshold property
+     * @see org.jhotdraw8.draw.figure.SimplifiableFigure
+     */
+    @Nonnull
+    public DoubleProperty detailThresholdProperty() {
+        return detailThreshold;
+    }
+
+    public double getDetailThreshold() {
+        return detailThreshold.get();
+    }
+
+    public void setDetailThreshold(double newValue) {
+        detailThreshold.set(newValue);
+    }
+
+    private void handleVirtualizationChanged(Observable o) {
+        layerChildIndex.clear();
+        dirtyLayerChildIndex.clear();
+        layerChildIndexValid = false;
+        materializedChildren.clear();
+        materializedRect = null;
+        invalidateLayerNodes();
+        repaint();
+    }
+
     private class SimpleDrawingViewNode extends BorderPane implements EditableComponent {
 
         public SimpleDrawingViewNode() {
@@ -48,15 +48,20 @@ public class AlignBottomAction extends AbstractSelectedAction {
         DrawingModel model = view.getModel();
         double yInWorld = lead.getBoundsInWorld().getMaxY();
         Point2D yPointInWorld = new Point2D(0, yInWorld);
-        for (Figure f : figures) {
-            if (f != lead && f.isEditable()) {
-                double desiredY = Transforms.transform(f.getWorldToParent(), yPointInWorld).getY();
-                double actualY = f.getBoundsInParent().getMaxY();
-                double dy = desiredY - actualY;
-                Translate tx = new Translate(0, dy);
-                model.transformInParent(f, tx);
-                model.fireLayoutInvalidated(f);
+        model.beginUpdate();
+        try {
+            for (Figure f : figures) {
+                if (f != lead && f.isEditable()) {
+                    double desiredY = Transforms.transform(f.getWorldToParent(), yPointInWorld).getY();
+                    double actualY = f.getBoundsInParent().getMaxY();
+                    double dy = desiredY - actualY;
+                    Translate tx = new Translate(0, dy);
+                    model.transformInParent(f, tx);
+                    model.fireLayoutInvalidated(f);
+                }
             }
+        } finally {
+            model.endUpdate();
         }
     }
 }
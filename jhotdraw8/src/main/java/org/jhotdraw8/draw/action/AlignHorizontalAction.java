@@ -51,16 +51,21 @@ public class AlignHorizontalAction extends AbstractSelectedAction {
         Bounds leadBounds = lead.getBoundsInWorld();
         double yInWorld = leadBounds.getMinY()+leadBounds.getHeight()*0.5;
         Point2D yPointInWorld = new Point2D(0, yInWorld);
-        for (Figure f : figures) {
-            if (f != lead && f.isEditable()) {
-                double desiredY = Transforms.transform(f.getWorldToParent(), yPointInWorld).getY();
-                Bounds bounds = f.getBoundsInParent();
-                double actualY = bounds.getMinY()+bounds.getHeight()*0.5;
-                double dy = desiredY - actualY;
-                Translate tx = new Translate(0, dy);
-                model.transformInParent(f, tx);
-                model.fireLayoutInvalidated(f);
+        model.beginUpdate();
+        try {
+            for (Figure f : figures) {
+                if (f != lead && f.isEditable()) {
+                    double desiredY = Transforms.transform(f.getWorldToParent(), yPointInWorld).getY();
+                    Bounds bounds = f.getBoundsInParent();
+                    double actualY = bounds.getMinY()+bounds.getHeight()*0.5;
+                    double dy = desiredY - actualY;
+                    Translate tx = new Translate(0, dy);
+                    model.transformInParent(f, tx);
+                    model.fireLayoutInvalidated(f);
+                }
             }
+        } finally {
+            model.endUpdate();
         }
     }
 }
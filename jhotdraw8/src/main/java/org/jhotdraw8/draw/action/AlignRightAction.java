@@ -48,15 +48,20 @@ public class AlignRightAction extends AbstractSelectedAction {
         DrawingModel model = view.getModel();
         double xInWorld = lead.getBoundsInWorld().getMaxX();
         Point2D xPointInWorld = new Point2D(xInWorld, 0);
-        for (Figure f : figures) {
-            if (f != lead && f.isEditable()) {
-                double desiredX = Transforms.transform(f.getWorldToParent(), xPointInWorld).getX();
-                double actualX = f.getBoundsInParent().getMaxX();
-                double dx = desiredX - actualX;
-                Translate tx = new Translate(dx, 0);
-                model.transformInParent(f, tx);
-                model.fireLayoutInvalidated(f);
+        model.beginUpdate();
+        try {
+            for (Figure f : figures) {
+                if (f != lead && f.isEditable()) {
+                    double desiredX = Transforms.transform(f.getWorldToParent(), xPointInWorld).getX();
+                    double actualX = f.getBoundsInParent().getMaxX();
+                    double dx = desiredX - actualX;
+                    Translate tx = new Translate(dx, 0);
+                    model.transformInParent(f, tx);
+                    model.fireLayoutInvalidated(f);
+                }
             }
+        } finally {
+            model.endUpdate();
         }
     }
 }
@@ -49,15 +49,20 @@ public class AlignTopAction extends AbstractSelectedAction {
         DrawingModel model = view.getModel();
         double yInWorld = lead.getBoundsInWorld().getMinY();
         Point2D yPointInWorld = new Point2D(0, yInWorld);
-        for (Figure f : figures) {
-            if (f != lead && f.isEditable()) {
-                double desiredY = Transforms.transform(f.getWorldToParent(), yPointInWorld).getY();
-                double actualY = f.getBoundsInParent().getMinY();
-                double dy = desiredY - actualY;
-                Translate tx = new Translate(0, dy);
-                model.transformInParent(f, tx);
-                model.fireLayoutInvalidated(f);
+        model.beginUpdate();
+        try {
+            for (Figure f : figures) {
+                if (f != lead && f.isEditable()) {
+                    double desiredY = Transforms.transform(f.getWorldToParent(), yPointInWorld).getY();
+                    double actualY = f.getBoundsInParent().getMinY();
+                    double dy = desiredY - actualY;
+                    Translate tx = new Translate(0, dy);
+                    model.transformInParent(f, tx);
+                    model.fireLayoutInvalidated(f);
+                }
             }
+        } finally {
+            model.endUpdate();
         }
     }
 }
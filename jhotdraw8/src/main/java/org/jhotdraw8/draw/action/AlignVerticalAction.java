@@ -50,16 +50,21 @@ public class AlignVerticalAction extends AbstractSelectedAction {
         Bounds leadBounds = lead.getBoundsInWorld();
         double xInWorld = leadBounds.getMinX()+leadBounds.getWidth()*0.5;
         Point2D xPointInWorld = new Point2D(xInWorld, 0);
-        for (Figure f : figures) {
-            if (f != lead && f.isEditable()) {
-                double desiredX = Transforms.transform(f.getWorldToParent(), xPointInWorld).getX();
-                Bounds bounds = f.getBoundsInParent();
-                double actualX = bounds.getMinX()+bounds.getWidth()*0.5;
-                double dx = desiredX - actualX;
-                Translate tx = new Translate(dx, 0);
-                model.transformInParent(f, tx);
-                model.fireLayoutInvalidated(f);
+        model.beginUpdate();
+        try {
+            for (Figure f : figures) {
+                if (f != lead && f.isEditable()) {
+                    double desiredX = Transforms.transform(f.getWorldToParent(), xPointInWorld).getX();
+                    Bounds bounds = f.getBoundsInParent();
+                    double actualX = bounds.getMinX()+bounds.getWidth()*0.5;
+                    double dx = desiredX - actualX;
+                    Translate tx = new Translate(dx, 0);
+                    model.transformInParent(f, tx);
+                    model.fireLayoutInvalidated(f);
+                }
             }
+        } finally {
+            model.endUpdate();
         }
     }
 }
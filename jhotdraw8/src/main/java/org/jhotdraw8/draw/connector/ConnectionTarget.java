@@ -0,0 +1,53 @@
+/* @(#)ConnectionTarget.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.connector;
+
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.draw.figure.ConnectableFigure;
+
+/**
+ * A connectable figure together with the connector which a connecting
+ * figure should use to connect to it.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class ConnectionTarget {
+
+    @Nonnull
+    private final ConnectableFigure figure;
+    @Nonnull
+    private final Connector connector;
+
+    public ConnectionTarget(@Nonnull ConnectableFigure figure, @Nonnull Connector connector) {
+        this.figure = figure;
+        this.connector = connector;
+    }
+
+    /**
+     * Returns the target figure.
+     *
+     * @return the figure
+     */
+    @Nonnull
+    public ConnectableFigure getFigure() {
+        return figure;
+    }
+
+    /**
+     * Returns the connector on the target figure.
+     *
+     * @return the connector
+     */
+    @Nonnull
+    public Connector getConnector() {
+        return connector;
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+        return "ConnectionTarget{" + figure + ", " + connector + '}';
+    }
+}
@@ -0,0 +1,438 @@
+/* @(#)ConnectorIndex.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.connector;
+
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+import javafx.scene.transform.Transform;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.draw.figure.ConnectableFigure;
+import org.jhotdraw8.draw.figure.ConnectingFigure;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.geom.Transforms;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A spatial index over the connectors of connectable figures.
+ * <p>
+ * For each figure, the index pre-computes the positions of the connectors at
+ * the corners, at the centers of the edges, and at the center of the bounds
+ * of the figure. These anchors and the bounds of the figures are bucketed in
+ * a uniform grid in world coordinates. Thus, finding the nearest anchor
+ * within a tolerance, or finding the figures which contain a point, only
+ * needs to look at a few cells of the grid.
+ * <p>
+ * The anchors are computed with {@link ConnectableFigure#findConnector}, and
+ * therefore have the connector type of the figure, for example
+ * {@link RectangleConnector}, {@link EllipseConnector}, {@link PathConnector}
+ * or {@link LocatorConnector}.
+ * <p>
+ * The index does not observe the figures. The owner of the index must call
+ * {@link #put} when the transform or the layout of a figure has changed, and
+ * {@link #remove} when a figure has been removed.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class ConnectorIndex {
+
+    /**
+     * The relative positions of the anchors in the bounds of a figure.
+     */
+    private final static double[] ANCHOR_POSITIONS = {0.0, 0.5, 1.0};
+    /**
+     * Figures which cover more cells than this are not bucketed in the grid.
+     */
+    private final static int MAX_CELLS_PER_FIGURE = 64;
+
+    /**
+     * A pre-computed connector position.
+     */
+    public static class Anchor {
+
+        @Nonnull
+        private final ConnectableFigure figure;
+        @Nonnull
+        private final Connector connector;
+        private final double x;
+        private final double y;
+
+        Anchor(@Nonnull ConnectableFigure figure, @Nonnull Connector connector, double x, double y) {
+            this.figure = figure;
+            this.connector = connector;
+            this.x = x;
+            this.y = y;
+        }
+
+        @Nonnull
+        public ConnectableFigure getFigure() {
+            return figure;
+        }
+
+        @Nonnull
+        public Connector getConnector() {
+            return connector;
+        }
+
+        /**
+         * Returns the x-coordinate of the connector in world coordinates.
+         *
+         * @return x-coordinate
+         */
+        public double getX() {
+            return x;
+        }
+
+        /**
+         * Returns the y-coordinate of the connector in world coordinates.
+         *
+         * @return y-coordinate
+         */
+        public double getY() {
+            return y;
+        }
+    }
+
+    private static class Entry {
+
+        @Nonnull
+        final ConnectableFigure figure;
+        @Nullable
+        final Transform worldToLocal;
+        @Nonnull
+        final Bounds boundsInLocal;
+        @Nonnull
+        final Bounds boundsInWorld;
+        @Nonnull
+        final Anchor[] anchors;
+        final boolean large;
+
+        Entry(@Nonnull ConnectableFigure figure, @Nullable Transform worldToLocal, @Nonnull Bounds boundsInLocal,
+              @Nonnull Bounds boundsInWorld, @Nonnull Anchor[] anchors, boolean large) {
+            this.figure = figure;
+            this.worldToLocal = worldToLocal;
+            this.boundsInLocal = boundsInLocal;
+            this.boundsInWorld = boundsInWorld;
+            this.anchors = anchors;
+            this.large = large;
+        }
+
+        boolean isNear(double x, double y, double tolerance) {
+            return x >= boundsInWorld.getMinX() - tolerance && x <= boundsInWorld.getMaxX() + tolerance
+                    && y >= boundsInWorld.getMinY() - tolerance && y <= boundsInWorld.getMaxY() + tolerance;
+        }
+
+        boolean contains(double x, double y) {
+            if (!boundsInWorld.contains(x, y)) {
+                return false;
+            }
+            if (worldToLocal == null) {
+                return boundsInLocal.contains(x, y);
+            }
+            Point2D p = worldToLocal.transform(x, y);
+            return boundsInLocal.contains(p);
+        }
+    }
+
+    private final double cellSize;
+    @Nonnull
+    private final Map<Figure, Entry> entries = new HashMap<>();
+    @Nonnull
+    private final Map<Long, List<Anchor>> anchorCells = new HashMap<>();
+    @Nonnull
+    private final Map<Long, List<Entry>> figureCells = new HashMap<>();
+    /**
+     * Figures which are too large for bucketing.
+     */
+    @Nonnull
+    private final List<Entry> largeFigures = new ArrayList<>();
+
+    /**
+     * Creates a new instance with a cell size of 32.
+     */
+    public ConnectorIndex() {
+        this(32.0);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param cellSize the size of a grid cell in world coordinates
+     */
+    public ConnectorIndex(double cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("cellSize=" + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    private int cell(double v) {
+        return (int) Math.floor(v / cellSize);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    /**
+     * Adds the figure to the index, or updates the figure if it is already
+     * in the index.
+     *
+     * @param figure a figure
+     */
+    public void put(@Nonnull ConnectableFigure figure) {
+        remove(figure);
+
+        Transform localToWorld = figure.getLocalToWorld();
+        Bounds boundsInLocal = figure.getBoundsInLocal();
+        Bounds boundsInWorld = Transforms.transform(localToWorld, boundsInLocal);
+        Anchor[] anchors = createAnchors(figure, boundsInLocal);
+        int cellsX = cell(boundsInWorld.getMaxX()) - cell(boundsInWorld.getMinX()) + 1;
+        int cellsY = cell(boundsInWorld.getMaxY()) - cell(boundsInWorld.getMinY()) + 1;
+        boolean large = (long) cellsX * cellsY > MAX_CELLS_PER_FIGURE;
+        Entry entry = new Entry(figure, figure.getWorldToLocal(), boundsInLocal, boundsInWorld, anchors, large);
+        entries.put(figure, entry);
+
+        for (Anchor a : anchors) {
+            anchorCells.computeIfAbsent(key(cell(a.x), cell(a.y)), k -> new ArrayList<>()).add(a);
+        }
+        if (large) {
+            largeFigures.add(entry);
+        } else {
+            for (int cx = cell(boundsInWorld.getMinX()), maxX = cell(boundsInWorld.getMaxX()); cx <= maxX; cx++) {
+                for (int cy = cell(boundsInWorld.getMinY()), maxY = cell(boundsInWorld.getMaxY()); cy <= maxY; cy++) {
+                    figureCells.computeIfAbsent(key(cx, cy), k -> new ArrayList<>()).add(entry);
+                }
+            }
+        }
+    }
+
+    @Nonnull
+    private Anchor[] createAnchors(@Nonnull ConnectableFigure figure, @Nonnull Bounds b) {
+        List<Anchor> anchors = new ArrayList<>(ANCHOR_POSITIONS.length * ANCHOR_POSITIONS.length);
+        try {
+            for (double ry : ANCHOR_POSITIONS) {
+                for (double rx : ANCHOR_POSITIONS) {
+                    Connector connector = figure.findConnector(
+                            new Point2D(b.getMinX() + rx * b.getWidth(), b.getMinY() + ry * b.getHeight()), null);
+                    if (connector != null) {
+                        Point2D p = connector.getPositionInWorld(null, figure);
+                        anchors.add(new Anchor(figure, connector, p.getX(), p.getY()));
+                    }
+                }
+            }
+        } catch (UnsupportedOperationException e) {
+            // the figure does not support connectors at arbitrary locations
+            anchors.clear();
+        }
+        return anchors.toArray(new Anchor[0]);
+    }
+
+    /**
+     * Removes the figure from the index.
+     *
+     * @param figure a figure
+     * @return true if the figure was in the index
+     */
+    public boolean remove(@Nonnull Figure figure) {
+        Entry entry = entries.remove(figure);
+        if (entry == null) {
+            return false;
+        }
+        for (Anchor a : entry.anchors) {
+            removeFromCell(anchorCells, key(cell(a.x), cell(a.y)), a);
+        }
+        if (entry.large) {
+            largeFigures.remove(entry);
+        } else {
+            Bounds b = entry.boundsInWorld;
+            for (int cx = cell(b.getMinX()), maxX = cell(b.getMaxX()); cx <= maxX; cx++) {
+                for (int cy = cell(b.getMinY()), maxY = cell(b.getMaxY()); cy <= maxY; cy++) {
+                    removeFromCell(figureCells, key(cx, cy), entry);
+                }
+            }
+        }
+        return true;
+    }
+
+    private static <T> void removeFromCell(@Nonnull Map<Long, List<T>> cells, long key, T item) {
+        List<T> list = cells.get(key);
+        if (list != null) {
+            list.remove(item);
+            if (list.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Removes all figures from the index.
+     */
+    public void clear() {
+        entries.clear();
+        anchorCells.clear();
+        figureCells.clear();
+        largeFigures.clear();
+    }
+
+    /**
+     * Returns the number of figures in the index.
+     *
+     * @return the number of figures
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns true if the figure is in the index.
+     *
+     * @param figure a figure
+     * @return true if the figure is in the index
+     */
+    public boolean contains(@Nonnull Figure figure) {
+        return entries.containsKey(figure);
+    }
+
+    /**
+     * Finds the anchor which is nearest to the specified point within the
+     * given tolerance.
+     *
+     * @param x         x-coordinate in world coordinates
+     * @param y         y-coordinate in world coordinates
+     * @param tolerance the tolerance in world coordinates
+     * @param filter    only anchors which are accepted by the filter are
+     *                  considered
+     * @return the nearest anchor or null
+     */
+    @Nullable
+    public Anchor findNearestAnchor(double x, double y, double tolerance, @Nonnull Predicate<Anchor> filter) {
+        Anchor nearest = null;
+        double nearestDistanceSq = tolerance * tolerance;
+        for (int cx = cell(x - tolerance), maxX = cell(x + tolerance); cx <= maxX; cx++) {
+            for (int cy = cell(y - tolerance), maxY = cell(y + tolerance); cy <= maxY; cy++) {
+                List<Anchor> list = anchorCells.get(key(cx, cy));
+                if (list == null) {
+                    continue;
+                }
+                for (Anchor a : list) {
+                    double dx = a.x - x;
+                    double dy = a.y - y;
+                    double distanceSq = dx * dx + dy * dy;
+                    if (distanceSq <= nearestDistanceSq && filter.test(a)) {
+                        nearest = a;
+                        nearestDistanceSq = distanceSq;
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Finds the connection target at the specified point.
+     * <p>
+     * The candidates are the figures whose bounds in world coordinates,
+     * grown by the tolerance, contain the point. They are visited in
+     * z-order from front to back. The connection target is the nearest
+     * anchor of the first candidate which has an anchor within the
+     * tolerance, or the first candidate which contains the point and
+     * provides a connector for the constrained point. Thus, an anchor of a
+     * figure is not used, if the point hits a figure in front of it.
+     *
+     * @param point            the point in world coordinates
+     * @param constrainedPoint the constrained point in world coordinates
+     * @param tolerance        the tolerance in world coordinates
+     * @param connectingFigure the connecting figure
+     * @param filter           only figures which are accepted by the filter
+     *                         are candidates
+     * @param zOrder           the z-order, figures in front come first
+     * @return the connection target or null
+     */
+    @Nullable
+    public ConnectionTarget findConnectionTarget(@Nonnull Point2D point, @Nonnull Point2D constrainedPoint, double tolerance,
+                                                 @Nonnull ConnectingFigure connectingFigure,
+                                                 @Nonnull Predicate<? super ConnectableFigure> filter,
+                                                 @Nonnull Comparator<? super ConnectableFigure> zOrder) {
+        double x = point.getX();
+        double y = point.getY();
+        Set<Entry> candidates = new LinkedHashSet<>();
+        for (int cx = cell(x - tolerance), maxX = cell(x + tolerance); cx <= maxX; cx++) {
+            for (int cy = cell(y - tolerance), maxY = cell(y + tolerance); cy <= maxY; cy++) {
+                List<Entry> list = figureCells.get(key(cx, cy));
+                if (list != null) {
+                    for (Entry e : list) {
+                        if (e.isNear(x, y, tolerance) && filter.test(e.figure)) {
+                            candidates.add(e);
+                        }
+                    }
+                }
+            }
+        }
+        for (Entry e : largeFigures) {
+            if (e.isNear(x, y, tolerance) && filter.test(e.figure)) {
+                candidates.add(e);
+            }
+        }
+        List<Entry> sorted = new ArrayList<>(candidates);
+        sorted.sort((a, b) -> zOrder.compare(a.figure, b.figure));
+
+        for (Entry e : sorted) {
+            Anchor nearest = null;
+            double nearestDistanceSq = tolerance * tolerance;
+            for (Anchor a : e.anchors) {
+                double dx = a.x - x;
+                double dy = a.y - y;
+                double distanceSq = dx * dx + dy * dy;
+                if (distanceSq <= nearestDistanceSq && connectingFigure.canConnect(e.figure, a.connector)) {
+                    nearest = a;
+                    nearestDistanceSq = distanceSq;
+                }
+            }
+            if (nearest != null) {
+                return new ConnectionTarget(e.figure, nearest.connector);
+            }
+            if (e.contains(x, y)) {
+                Connector connector = e.figure.findConnector(e.figure.worldToLocal(constrainedPoint), connectingFigure);
+                if (connector != null && connectingFigure.canConnect(e.figure, connector)) {
+                    return new ConnectionTarget(e.figure, connector);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the figures whose bounds contain the specified point.
+     *
+     * @param x        x-coordinate in world coordinates
+     * @param y        y-coordinate in world coordinates
+     * @param consumer the consumer receives each figure once
+     */
+    public void findFiguresContaining(double x, double y, @Nonnull Consumer<ConnectableFigure> consumer) {
+        List<Entry> list = figureCells.get(key(cell(x), cell(y)));
+        if (list != null) {
+            for (Entry e : list) {
+                if (e.contains(x, y)) {
+                    consumer.accept(e.figure);
+                }
+            }
+        }
+        for (Entry e : largeFigures) {
+            if (e.contains(x, y)) {
+                consumer.accept(e.figure);
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/* @(#)OrthogonalConnectionRouter.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.connector;
+
+import javafx.geometry.Point2D;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.collection.ImmutableList;
+import org.jhotdraw8.collection.Key;
+import org.jhotdraw8.collection.ObjectKey;
+import org.jhotdraw8.draw.figure.CacheableFigure;
+import org.jhotdraw8.draw.figure.ConnectableFigure;
+import org.jhotdraw8.draw.figure.Drawing;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.figure.LineConnectingFigure;
+import org.jhotdraw8.geom.OrthogonalRouter;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Routes orthogonal connections around the connectable figures of a drawing.
+ * <p>
+ * There is one router per drawing. It is created on demand by the first
+ * connection which needs to be routed, and it is stored as a cached value
+ * of the drawing.
+ * <p>
+ * The router caches the routes by connection figure. The drawing model
+ * informs the router about figures which have been laid out or transformed
+ * with {@link #updateObstacles}, and about figures which have been removed
+ * with {@link #remove}. Both methods return the connections whose route has
+ * become invalid, so that the drawing model can lay them out again.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class OrthogonalConnectionRouter {
+
+    @Nonnull
+    private final static Key<OrthogonalConnectionRouter> ROUTER_KEY = new ObjectKey<>("orthogonalConnectionRouter",
+            OrthogonalConnectionRouter.class, null, true, true, null);
+
+    @Nonnull
+    private final Drawing drawing;
+    @Nonnull
+    private final OrthogonalRouter router = new OrthogonalRouter();
+    private boolean initialized;
+
+    private OrthogonalConnectionRouter(@Nonnull Drawing drawing) {
+        this.drawing = drawing;
+    }
+
+    /**
+     * Returns the router of the specified drawing, creates one if necessary.
+     *
+     * @param drawing a drawing
+     * @return the router
+     */
+    @Nonnull
+    public static OrthogonalConnectionRouter getRouter(@Nonnull Drawing drawing) {
+        OrthogonalConnectionRouter r = getExistingRouter(drawing);
+        if (r == null) {
+            r = new OrthogonalConnectionRouter(drawing);
+            if (drawing instanceof CacheableFigure) {
+                ((CacheableFigure) drawing).setCachedValue(ROUTER_KEY, r);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Returns the router of the specified drawing, if it has one.
+     *
+     * @param drawing a drawing
+     * @return the router or null
+     */
+    @Nullable
+    public static OrthogonalConnectionRouter getExistingRouter(@Nonnull Drawing drawing) {
+        return drawing instanceof CacheableFigure ? ((CacheableFigure) drawing).getCachedValue(ROUTER_KEY) : null;
+    }
+
+    /**
+     * Returns the routing engine. The engine can be used to configure the
+     * clearance and the bend penalty.
+     *
+     * @return the routing engine
+     */
+    @Nonnull
+    public OrthogonalRouter getEngine() {
+        return router;
+    }
+
+    /**
+     * Returns true if routes must avoid the specified figure.
+     *
+     * @param f a figure
+     * @return true if the figure is an obstacle
+     */
+    public static boolean isObstacle(@Nonnull Figure f) {
+        return f instanceof ConnectableFigure && !(f instanceof LineConnectingFigure)
+                && f.getChildren().isEmpty();
+    }
+
+    private void ensureInitialized() {
+        if (!initialized) {
+            initialized = true;
+            for (Figure f : drawing.preorderIterable()) {
+                if (isObstacle(f)) {
+                    router.putObstacle(f, f.getBoundsInWorld());
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the obstacles of the specified figures and of their
+     * descendants.
+     *
+     * @param figures figures which have been laid out or transformed
+     * @return the connections whose route has become invalid
+     */
+    @Nonnull
+    public Set<Figure> updateObstacles(@Nonnull Iterable<Figure> figures) {
+        if (!initialized) {
+            return Collections.emptySet();
+        }
+        for (Figure figure : figures) {
+            for (Figure f : figure.preorderIterable()) {
+                if (isObstacle(f) && f.getDrawing() == drawing) {
+                    router.putObstacle(f, f.getBoundsInWorld());
+                }
+            }
+        }
+        return pollInvalidatedConnections();
+    }
+
+    /**
+     * Removes the specified figure and its descendants from the router.
+     *
+     * @param figure a figure which has been removed from the drawing
+     * @return the connections whose route has become invalid
+     */
+    @Nonnull
+    public Set<Figure> remove(@Nonnull Figure figure) {
+        for (Figure f : figure.preorderIterable()) {
+            router.removeObstacle(f);
+            router.removeRoute(f);
+        }
+        return pollInvalidatedConnections();
+    }
+
+    @Nonnull
+    private Set<Figure> pollInvalidatedConnections() {
+        Set<Object> keys = router.pollInvalidatedRoutes();
+        if (keys.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<Figure> connections = new LinkedHashSet<>(keys.size());
+        for (Object key : keys) {
+            connections.add((Figure) key);
+        }
+        return connections;
+    }
+
+    /**
+     * Returns an orthogonal route for the specified connection.
+     *
+     * @param connection  the connection figure
+     * @param start       the start point in world coordinates
+     * @param end         the end point in world coordinates
+     * @param startTarget the figure at the start of the connection, or null
+     * @param endTarget   the figure at the end of the connection, or null
+     * @return the points of the route in world coordinates
+     */
+    @Nonnull
+    public ImmutableList<Point2D> route(@Nonnull Figure connection, @Nonnull Point2D start, @Nonnull Point2D end,
+                                        @Nullable Figure startTarget, @Nullable Figure endTarget) {
+        ensureInitialized();
+        Set<Figure> ignored = new LinkedHashSet<>(4);
+        if (startTarget != null) {
+            ignored.add(startTarget);
+        }
+        if (endTarget != null) {
+            ignored.add(endTarget);
+        }
+        return router.route(connection, start, end, ignored);
+    }
+}
@@ -13,7 +13,7 @@ import static org.jhotdraw8.draw.figure.StrokableFigure.STROKE;
 import static org.jhotdraw8.draw.figure.StrokableFigure.STROKE_TYPE;
 import org.jhotdraw8.draw.locator.Locator;
 import org.jhotdraw8.draw.locator.RelativeLocator;
-import org.jhotdraw8.geom.Intersection;
+import org.jhotdraw8.geom.IntersectionBuffer;
 import org.jhotdraw8.geom.Intersections;
 
 /**
@@ -25,6 +25,14 @@ import org.jhotdraw8.geom.Intersections;
  */
 public class PathConnector extends LocatorConnector {
 
+    /**
+     * Intersection buffer for {@link #intersect}. Connectors can be shared
+     * between figures and be used by different threads, therefore we keep
+     * one buffer per thread.
+     */
+    private final static ThreadLocal<IntersectionBuffer> INTERSECTION_BUFFER
+            = ThreadLocal.withInitial(IntersectionBuffer::new);
+
     public PathConnector() {
         super(RelativeLocator.CENTER);
     }
@@ -66,7 +74,8 @@ public class PathConnector extends LocatorConnector {
             pit = pif.getPathIterator(null);
         }
 
-        Intersection i = Intersections.intersectLinePathIterator(s, e, pit);
+        IntersectionBuffer i = INTERSECTION_BUFFER.get();
+        Intersections.intersectLinePathIterator(s.getX(), s.getY(), e.getX(), e.getY(), pit, i);
         return i.isEmpty() ? null : i.getLastT();
     }
 }
@@ -38,6 +38,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -53,21 +54,21 @@ public class FigureSelectorModel implements SelectorModel<Figure> {
     private final static Logger LOGGER = Logger.getLogger(FigureSelectorModel.class.getName());
     private final MapProperty<String, Set<Figure>> additionalPseudoClassStates = new SimpleMapProperty<>(FXCollections.observableHashMap());
     @Nonnull
-    private HashSet<Class<?>> mappedFigureClasses = new HashSet<>();
+    private final Set<Class<?>> mappedFigureClasses = ConcurrentHashMap.newKeySet();
     /**
      * Maps an attribute name to a key.
      */
     @Nonnull
-    private HashMap<QualifiedName, WriteableStyleableMapAccessor<?>> nameToKeyMap = new HashMap<>();
+    private final Map<QualifiedName, WriteableStyleableMapAccessor<?>> nameToKeyMap = new ConcurrentHashMap<>();
     @Nonnull
-    private HashMap<QualifiedName, ReadableStyleableMapAccessor<?>> nameToReadableKeyMap = new HashMap<>();
+    private final Map<QualifiedName, ReadableStyleableMapAccessor<?>> nameToReadableKeyMap = new ConcurrentHashMap<>();
     /**
      * Maps a key to an attribute name.
      */
     @Nonnull
-    private HashMap<WriteableStyleableMapAccessor<?>, QualifiedName> keyToNameMap = new HashMap<>();
+    private final Map<WriteableStyleableMapAccessor<?>, QualifiedName> keyToNameMap = new ConcurrentHashMap<>();
     @Nonnull
-    private Map<Class<? extends Figure>, Map<QualifiedName, List<WriteableStyleableMapAccessor<Object>>>> figureToMetaMap = new HashMap<>();
+    private final Map<Class<? extends Figure>, Map<QualifiedName, List<WriteableStyleableMapAccessor<Object>>>> figureToMetaMap = new ConcurrentHashMap<>();
 
     @Nonnull
     public MapProperty<String, Set<Figure>> additionalPseudoClassStatesProperty() {
@@ -106,6 +107,27 @@ public class FigureSelectorModel implements SelectorModel<Figure> {
         return (styleClasses == null) ? Collections.emptySet() : new HashSet<>(element.getStyleClass());
     }
 
+    /**
+     * Maps the keys of the class of the specified figure, if this has not
+     * been done yet.
+     * <p>
+     * This method may be invoked concurrently, because figures may be styled
+     * in parallel. A class is only marked as mapped after all its keys have
+     * been put into the maps.
+     *
+     * @param element a figure
+     */
+    private void ensureFigureClassIsMapped(Figure element) {
+        if (!mappedFigureClasses.contains(element.getClass())) {
+            synchronized (mappedFigureClasses) {
+                if (!mappedFigureClasses.contains(element.getClass())) {
+                    mapFigureClass(element);
+                    mappedFigureClasses.add(element.getClass());
+                }
+            }
+        }
+    }
+
     private void mapFigureClass(Figure element) {
         for (MapAccessor<?> k : element.getSupportedKeys()) {
             if (k instanceof WriteableStyleableMapAccessor) {
@@ -123,17 +145,13 @@ public class FigureSelectorModel implements SelectorModel<Figure> {
     }
 
     private WriteableStyleableMapAccessor<?> findKey(Figure element, @Nullable String namespace, String attributeName) {
-        if (mappedFigureClasses.add(element.getClass())) {
-            mapFigureClass(element);
-        }
+        ensureFigureClassIsMapped(element);
         WriteableStyleableMapAccessor<?> result = nameToKeyMap.get(new QualifiedName(namespace,element.getClass() + "$" + attributeName));
         return result;
     }
 
     private ReadableStyleableMapAccessor<?> findReadableKey(Figure element, @Nullable String namespace, String attributeName) {
-        if (mappedFigureClasses.add(element.getClass())) {
-            mapFigureClass(element);
-        }
+        ensureFigureClassIsMapped(element);
         return nameToReadableKeyMap.get(new QualifiedName(namespace,element.getClass() + "$" + attributeName));
     }
 
@@ -396,21 +414,20 @@ public class FigureSelectorModel implements SelectorModel<Figure> {
     }
 
     private Map<QualifiedName, List<WriteableStyleableMapAccessor<Object>>> getMetaMap(Figure elem) {
+        return figureToMetaMap.computeIfAbsent(elem.getClass(), k -> createMetaMap(elem));
+    }
 
-        Map<QualifiedName, List<WriteableStyleableMapAccessor<Object>>> metaMap = figureToMetaMap.get(elem.getClass());
-        if (metaMap == null) {
-            metaMap = new HashMap<>();
-            figureToMetaMap.put(elem.getClass(), metaMap);
-
-            for (MapAccessor<?> k : elem.getSupportedKeys()) {
-                if (k instanceof WriteableStyleableMapAccessor) {
-                    @SuppressWarnings("unchecked")
-                    WriteableStyleableMapAccessor<Object> sk = (WriteableStyleableMapAccessor<Object>) k;
-                    metaMap.computeIfAbsent(new QualifiedName(sk.getCssNamespace(), sk.getCssName()), key -> new ArrayList<>()).add(sk);
-                    if (sk.getCssNamespace() != null) {
-                        // all names can be accessed without specificying a namespace
-                        metaMap.computeIfAbsent(new QualifiedName(null, sk.getCssName()), key -> new ArrayList<>()).add(sk);
-                    }
+    @Nonnull
+    private Map<QualifiedName, List<WriteableStyleableMapAccessor<Object>>> createMetaMap(Figure elem) {
+        Map<QualifiedName, List<WriteableStyleableMapAccessor<Object>>> metaMap = new HashMap<>();
+        for (MapAccessor<?> k : elem.getSupportedKeys()) {
+            if (k instanceof WriteableStyleableMapAccessor) {
+                @SuppressWarnings("unchecked")
+                WriteableStyleableMapAccessor<Object> sk = (WriteableStyleableMapAccessor<Object>) k;
+                metaMap.computeIfAbsent(new QualifiedName(sk.getCssNamespace(), sk.getCssName()), key -> new ArrayList<>()).add(sk);
+                if (sk.getCssNamespace() != null) {
+                    // all names can be accessed without specificying a namespace
+                    metaMap.computeIfAbsent(new QualifiedName(null, sk.getCssName()), key -> new ArrayList<>()).add(sk);
                 }
             }
         }
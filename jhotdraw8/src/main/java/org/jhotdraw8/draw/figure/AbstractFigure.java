@@ -4,12 +4,12 @@
 package org.jhotdraw8.draw.figure;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ObjectPropertyBase;
@@ -36,7 +36,7 @@ import org.jhotdraw8.styleable.WriteableStyleableMapAccessor;
 public abstract class AbstractFigure extends AbstractStyleablePropertyBean implements Figure, CacheableFigure {
 
     @Nonnull
-    private static Map<Key<?>, Integer> cachedValuesKeyMap = Collections.synchronizedMap(new HashMap<>());
+    private static Map<Key<?>, Integer> cachedValuesKeyMap = new ConcurrentHashMap<>();
 
     private transient Map<Key<?>, Object> cachedValues;
     private ObservableSet<Figure> dependentFigures;
@@ -259,7 +259,8 @@ public abstract class AbstractFigure extends AbstractStyleablePropertyBean imple
     }
 
     @Override
-    protected <T> void changed(Key<T> key, T oldValue, T newValue) {
-        firePropertyChangeEvent(this, key,oldValue,newValue);
+    protected <T> void changed(Key<T> key, T oldValue, T newValue, boolean wasAdded, boolean wasRemoved) {
+        firePropertyChangeEvent(this, key, oldValue, newValue, wasAdded, wasRemoved);
+        changed(key, oldValue, newValue);
     }
 }
@@ -102,6 +102,7 @@ public abstract class AbstractLabelConnectionFigure extends AbstractLabelFigure
 
     @Override
     protected <T> void changed(Key<T> key, @Nullable T oldValue, @Nullable T newValue) {
+        super.changed(key, oldValue, newValue);
         if (key == LABEL_TARGET) {
             if (oldValue != null) {
                 ((Figure) oldValue).getLayoutObservers().remove(this);
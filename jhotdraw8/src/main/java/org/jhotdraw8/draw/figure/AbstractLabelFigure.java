@@ -10,12 +10,14 @@ import javafx.geometry.Point2D;
 import javafx.scene.Group;
 import javafx.scene.Node;
 import javafx.scene.shape.Path;
+import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextBoundsType;
 import org.jhotdraw8.annotation.Nonnull;
 import org.jhotdraw8.annotation.Nullable;
 import org.jhotdraw8.collection.Key;
 import org.jhotdraw8.collection.ObjectKey;
+import org.jhotdraw8.css.Paintable;
 import org.jhotdraw8.css.CssPoint2D;
 import org.jhotdraw8.css.CssRectangle2D;
 import org.jhotdraw8.css.CssSize;
@@ -42,7 +44,7 @@ import java.util.Objects;
 public abstract class AbstractLabelFigure extends AbstractLeafFigure
         implements TextFillableFigure, FillableFigure, StrokableFigure,
         TextFontableFigure, TextLayoutableFigure, ConnectableFigure, PathIterableFigure, ShapeableFigure,
-        PaddableFigure {
+        PaddableFigure, SimplifiableFigure {
 
     public final static CssSizeStyleableFigureKey ORIGIN_X = new CssSizeStyleableFigureKey("originX", DirtyMask.of(DirtyBits.NODE, DirtyBits.LAYOUT), CssSize.ZERO);
     public final static CssSizeStyleableFigureKey ORIGIN_Y = new CssSizeStyleableFigureKey("originY", DirtyMask.of(DirtyBits.NODE, DirtyBits.LAYOUT), CssSize.ZERO);
@@ -174,7 +176,38 @@ public abstract class AbstractLabelFigure extends AbstractLeafFigure
         Text t = (Text) g.getChildren().get(1);
         updateGroupNode(ctx, g);
         updatePathNode(ctx, p);
-        updateTextNode(ctx, t);
+        if (isSimplified(ctx)) {
+            // greek the text: show a bar instead of the glyphs, the bar is
+            // only a child of the group while the figure is simplified
+            Rectangle greek;
+            if (g.getChildren().size() > 2) {
+                greek = (Rectangle) g.getChildren().get(2);
+            } else {
+                greek = new Rectangle();
+                g.getChildren().add(greek);
+            }
+            Bounds b = getBoundsInLocal();
+            Insets i = getStyledNonnull(PADDING).getConvertedValue();
+            greek.setX(b.getMinX() + i.getLeft());
+            greek.setY(b.getMinY() + i.getTop());
+            greek.setWidth(Math.max(0, b.getWidth() - i.getLeft() - i.getRight()));
+            greek.setHeight(Math.max(0, b.getHeight() - i.getTop() - i.getBottom()));
+            greek.setFill(Paintable.getPaint(getStyled(TEXT_FILL)));
+            greek.setOpacity(0.5);
+            t.setVisible(false);
+        } else {
+            if (g.getChildren().size() > 2) {
+                g.getChildren().remove(2);
+            }
+            t.setVisible(true);
+            updateTextNode(ctx, t);
+        }
+    }
+
+    @Override
+    public double getDetailSizeInWorld() {
+        Bounds b = getBoundsInWorld();
+        return b.getHeight();
     }
 
     protected void updatePathNode(RenderContext ctx, @Nonnull Path node) {
@@ -58,6 +58,7 @@ public abstract class AbstractLineConnectionFigure extends AbstractLeafFigure
 
     @Override
     protected <T> void changed(Key<T> key, @Nullable T oldValue, @Nullable T newValue) {
+        super.changed(key, oldValue, newValue);
         if (key == START_TARGET) {
             if (oldValue != null && get(END_TARGET) != oldValue) {
                 ((Figure) oldValue).getLayoutObservers().remove(AbstractLineConnectionFigure.this);
@@ -24,7 +24,7 @@ import org.jhotdraw8.geom.Shapes;
  * @version $Id$
  */
 public abstract class AbstractLineConnectionWithMarkersFigure extends AbstractLineConnectionFigure
-        implements PathIterableFigure {
+        implements PathIterableFigure, SimplifiableFigure {
 
     public AbstractLineConnectionWithMarkersFigure() {
         this(0, 0, 1, 1);
@@ -94,10 +94,16 @@ public abstract class AbstractLineConnectionWithMarkersFigure extends AbstractLi
 
         final double startInset = getStrokeCutStart(ctx);
         final double endInset = getStrokeCutEnd(ctx);
-        final String startMarkerStr = getMarkerStartShape();
-        updateMarkerNode(ctx, g, startMarkerNode, start, end, startMarkerStr, getMarkerStartScaleFactor());
-        final String endMarkerStr = getMarkerEndShape();
-        updateMarkerNode(ctx, g, endMarkerNode, end, start, endMarkerStr, getMarkerEndScaleFactor());
+        if (isSimplified(ctx)) {
+            // markers are not visible at this scale
+            startMarkerNode.setVisible(false);
+            endMarkerNode.setVisible(false);
+        } else {
+            final String startMarkerStr = getMarkerStartShape();
+            updateMarkerNode(ctx, g, startMarkerNode, start, end, startMarkerStr, getMarkerStartScaleFactor());
+            final String endMarkerStr = getMarkerEndShape();
+            updateMarkerNode(ctx, g, endMarkerNode, end, start, endMarkerStr, getMarkerEndScaleFactor());
+        }
 
         Point2D dir = end.subtract(start).normalize();
         if (startInset != 0 ) {
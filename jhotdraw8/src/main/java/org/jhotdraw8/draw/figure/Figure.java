@@ -445,12 +445,28 @@ public interface Figure extends StyleablePropertyBean, TreeNode<Figure> {
      * @param newValue the new property value
      */
     default <T> void firePropertyChangeEvent(Figure source, Key<T> key, @Nullable T oldValue, @Nullable T newValue) {
+        firePropertyChangeEvent(source, key, oldValue, newValue, true, true);
+    }
+
+    /**
+     * Fires a property change event.
+     *
+     * @param <T>        the value type
+     * @param source     the event source
+     * @param key        the property key
+     * @param oldValue   the old property value
+     * @param newValue   the new property value
+     * @param wasAdded   true if the property is set after the change
+     * @param wasRemoved true if the property was set before the change
+     */
+    default <T> void firePropertyChangeEvent(Figure source, Key<T> key, @Nullable T oldValue, @Nullable T newValue,
+                                             boolean wasAdded, boolean wasRemoved) {
         if (hasPropertyChangeListeners()) {
-            firePropertyChangeEvent(new FigurePropertyChangeEvent(source, key, oldValue, newValue));
+            firePropertyChangeEvent(new FigurePropertyChangeEvent(source, key, oldValue, newValue, wasAdded, wasRemoved));
         } else {
             Figure parent = getParent();
             if (parent != null) {
-                parent.firePropertyChangeEvent(source, key, oldValue, newValue);
+                parent.firePropertyChangeEvent(source, key, oldValue, newValue, wasAdded, wasRemoved);
             }
         }
     }
@@ -18,12 +18,31 @@ public class FigurePropertyChangeEvent extends Event<Figure> {
     private final Key<?> key;
     private final Object oldValue;
     private final Object newValue;
+    private final boolean wasAdded;
+    private final boolean wasRemoved;
 
     public <T> FigurePropertyChangeEvent(Figure source, Key<T> key, T oldValue, T newValue) {
+        this(source, key, oldValue, newValue, true, true);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param <T>        the value type
+     * @param source     the event source
+     * @param key        the property key
+     * @param oldValue   the old property value
+     * @param newValue   the new property value
+     * @param wasAdded   true if the property is set after the change
+     * @param wasRemoved true if the property was set before the change
+     */
+    public <T> FigurePropertyChangeEvent(Figure source, Key<T> key, T oldValue, T newValue, boolean wasAdded, boolean wasRemoved) {
         super(source);
         this.key = key;
         this.oldValue = oldValue;
         this.newValue = newValue;
+        this.wasAdded = wasAdded;
+        this.wasRemoved = wasRemoved;
     }
 
     public Key<?> getKey() {
@@ -40,4 +59,24 @@ public class FigurePropertyChangeEvent extends Event<Figure> {
         return newValue;
     }
 
+    /**
+     * Returns true if the property is set after the change. If this is
+     * false, the property has been removed from the figure.
+     *
+     * @return true if the property is set
+     */
+    public boolean wasAdded() {
+        return wasAdded;
+    }
+
+    /**
+     * Returns true if the property was set before the change. If this is
+     * false, the old value is the default value of the property.
+     *
+     * @return true if the property was set
+     */
+    public boolean wasRemoved() {
+        return wasRemoved;
+    }
+
 }
@@ -113,8 +113,8 @@ public class SimpleArcFigure extends AbstractLeafFigure implements StrokableFigu
         n.setCenterY(getStyledNonnull(CENTER_Y).getConvertedValue());
         n.setRadiusX(getStyledNonnull(RADIUS_X).getConvertedValue());
         n.setRadiusY(getStyledNonnull(RADIUS_Y).getConvertedValue());
-        n.setStartAngle(getStyledNonnull(START_ANGLE));
-        n.setLength(getStyledNonnull(ARC_LENGTH));
+        n.setStartAngle(getStyledAsDouble(START_ANGLE));
+        n.setLength(getStyledAsDouble(ARC_LENGTH));
         n.setType(getStyled(ARC_TYPE));
         n.applyCss();
     }
@@ -53,7 +53,7 @@ import org.jhotdraw8.geom.Transforms;
 public class SimpleBezierFigure extends AbstractLeafFigure
         implements StrokableFigure, FillableFigure, TransformableFigure, HideableFigure,
         StyleableFigure, LockableFigure, CompositableFigure, ResizableFigure, ConnectableFigure,
-        PathIterableFigure {
+        PathIterableFigure, SimplifiableFigure {
 
     public final static BooleanStyleableFigureKey CLOSED = new BooleanStyleableFigureKey("closed", DirtyMask.of(DirtyBits.NODE, DirtyBits.LAYOUT_OBSERVERS), false);
     public final static BezierNodeListStyleableFigureKey PATH = new BezierNodeListStyleableFigureKey("path", DirtyMask.of(DirtyBits.NODE, DirtyBits.LAYOUT, DirtyBits.LAYOUT_OBSERVERS), ImmutableList.emptyList());
@@ -183,7 +183,10 @@ public class SimpleBezierFigure extends AbstractLeafFigure
         applyTransformableFigureProperties(ctx, node);
         applyCompositableFigureProperties(ctx, pathNode);
         pathNode.setFillRule(getStyled(FILL_RULE));
-        final List<PathElement> elements = Shapes.fxPathElementsFromAWT(new BezierNodePath(getStyled(PATH), getStyled(CLOSED), getStyled(FILL_RULE)).getPathIterator(null));
+        final PathIterator iter = new BezierNodePath(getStyled(PATH), getStyled(CLOSED), getStyled(FILL_RULE)).getPathIterator(null);
+        final List<PathElement> elements = isSimplified(ctx)
+                ? Shapes.fxPathElementsFromAWT(iter, SimplifiableFigure.getPixelSizeInWorld(ctx))
+                : Shapes.fxPathElementsFromAWT(iter);
         /*        if (getStyled(CLOSED)) {
             elements.addChild(new ClosePath());
         }*/
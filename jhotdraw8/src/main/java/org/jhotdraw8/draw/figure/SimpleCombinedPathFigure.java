@@ -10,9 +10,13 @@ import java.awt.geom.PathIterator;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
 import javafx.scene.Node;
 import javafx.scene.paint.Paint;
+import javafx.scene.shape.ClosePath;
+import javafx.scene.shape.LineTo;
+import javafx.scene.shape.MoveTo;
 import javafx.scene.shape.Path;
 import javafx.scene.transform.Transform;
 import org.jhotdraw8.annotation.Nonnull;
@@ -44,7 +48,7 @@ public class SimpleCombinedPathFigure extends AbstractCompositeFigure
         implements StrokableFigure, FillableFigure, Grouping,
         ResizableFigure, TransformableFigure, HideableFigure, StyleableFigure, LockableFigure,
         CompositableFigure,
-        ConnectableFigure, PathIterableFigure {
+        ConnectableFigure, PathIterableFigure, SimplifiableFigure {
 
     @Nonnull
     public final static NullableEnumStyleableFigureKey<CagOperation> CAG_OPERATION = new NullableEnumStyleableFigureKey<>("cag-operation", CagOperation.class, DirtyMask.of(DirtyBits.NODE), true, null);
@@ -208,7 +212,18 @@ public class SimpleCombinedPathFigure extends AbstractCompositeFigure
         applyTransformableFigureProperties(ctx, n);
         applyCompositableFigureProperties(ctx, n);
 
-        n.getElements().setAll(Shapes.fxPathElementsFromAWT(getPathIterator(null)));
+        if (isSimplified(ctx)) {
+            // the bounding box does not require constructive area geometry
+            Bounds b = getBoundsInLocal();
+            n.getElements().setAll(
+                    new MoveTo(b.getMinX(), b.getMinY()),
+                    new LineTo(b.getMaxX(), b.getMinY()),
+                    new LineTo(b.getMaxX(), b.getMaxY()),
+                    new LineTo(b.getMinX(), b.getMaxY()),
+                    new ClosePath());
+        } else {
+            n.getElements().setAll(Shapes.fxPathElementsFromAWT(getPathIterator(null)));
+        }
     }
 
     /**
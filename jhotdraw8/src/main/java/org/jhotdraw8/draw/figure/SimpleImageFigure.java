@@ -7,9 +7,11 @@ import java.net.URI;
 
 import javafx.geometry.BoundingBox;
 import javafx.geometry.Bounds;
+import javafx.geometry.Dimension2D;
 import javafx.geometry.Point2D;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.Node;
+import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.transform.Transform;
@@ -21,6 +23,8 @@ import org.jhotdraw8.css.CssRectangle2D;
 import org.jhotdraw8.css.CssSize;
 import org.jhotdraw8.draw.key.CssSizeStyleableFigureKey;
 import org.jhotdraw8.draw.key.CssRectangle2DStyleableMapAccessor;
+import org.jhotdraw8.draw.DrawingView;
+import org.jhotdraw8.draw.render.ImageCache;
 import org.jhotdraw8.draw.render.RenderContext;
 import org.jhotdraw8.draw.connector.Connector;
 import org.jhotdraw8.draw.connector.RectangleConnector;
@@ -110,7 +114,7 @@ public class SimpleImageFigure extends AbstractLeafFigure
     @Override
     public void updateNode(@Nonnull RenderContext ctx, @Nonnull Node node) {
         ImageView imageView = (ImageView) node;
-        validateImage();
+        validateImage(ctx, imageView);
         imageView.setImage(cachedImage);
         applyTransformableFigureProperties(ctx, imageView);
         applyCompositableFigureProperties(ctx, node);
@@ -137,14 +141,24 @@ public class SimpleImageFigure extends AbstractLeafFigure
         return TYPE_SELECTOR;
     }
 
+    /**
+     * Returns the aspect ratio of the intrinsic size of the image. The
+     * cached image can not be used for this, because it may have been loaded
+     * with the size on the screen, or be a mipmap level with a rounded size.
+     */
     @Override
     public double getPreferredAspectRatio() {
-        return (cachedImage == null || cachedImage.getWidth() == 0 || cachedImage.getHeight() == 0)//
+        Dimension2D size = cachedImageUri == null ? null : ImageCache.getInstance().getIntrinsicSize(cachedImageUri);
+        return (size == null || size.getWidth() == 0 || size.getHeight() == 0)//
                 ? super.getPreferredAspectRatio()//
-                : cachedImage.getHeight() / cachedImage.getWidth();
+                : size.getHeight() / size.getWidth();
     }
 
-    private void validateImage() {
+    /**
+     * Gets the image from the {@link ImageCache}. In a drawing view, the
+     * image is requested with the size that it has on the screen.
+     */
+    private void validateImage(@Nonnull RenderContext ctx, @Nonnull ImageView imageView) {
         URI uri = get(IMAGE_URI);
         if (uri == null) {
             cachedImageUri = null;
@@ -154,14 +168,33 @@ public class SimpleImageFigure extends AbstractLeafFigure
         Drawing drawing = getDrawing();
         URI documentHome = drawing == null ? null : drawing.get(Drawing.DOCUMENT_HOME);
         URI absoluteUri = (documentHome == null) ? uri : documentHome.resolve(uri);
-        if (cachedImageUri == null || !cachedImageUri.equals(absoluteUri)) {
+
+        double width = 0, height = 0;
+        if (ctx instanceof DrawingView) {
+            double scale = ((DrawingView) ctx).getZoomFactor();
+            Transform t = getLocalToWorld();
+            if (t != null) {
+                scale *= Math.sqrt(Math.abs(t.determinant()));
+            }
+            Scene scene = imageView.getScene();
+            if (scene != null && scene.getWindow() != null) {
+                scale *= scene.getWindow().getOutputScaleX();
+            }
+            Rectangle2D r = getNonnull(BOUNDS).getConvertedValue();
+            width = Math.ceil(r.getWidth() * scale);
+            height = Math.ceil(r.getHeight() * scale);
+        }
+
+        try {
+            cachedImage = ImageCache.getInstance().getImage(absoluteUri, width, height);
             cachedImageUri = absoluteUri;
-            try {
-                cachedImage = new Image(cachedImageUri.toString(), true);
-            } catch (IllegalArgumentException e) {
+        } catch (IllegalArgumentException e) {
+            if (!absoluteUri.equals(cachedImageUri)) {
                 System.err.println("could not load image from uri: " + absoluteUri);
                 e.printStackTrace();
             }
+            cachedImageUri = absoluteUri;
+            cachedImage = null;
         }
     }
 }
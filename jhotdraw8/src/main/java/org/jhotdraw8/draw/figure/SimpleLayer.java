@@ -15,6 +15,10 @@ import org.jhotdraw8.annotation.Nullable;
 import org.jhotdraw8.css.CssSize;
 import org.jhotdraw8.draw.handle.Handle;
 import org.jhotdraw8.draw.handle.HandleType;
+import org.jhotdraw8.draw.key.BooleanStyleableFigureKey;
+import org.jhotdraw8.draw.key.DirtyBits;
+import org.jhotdraw8.draw.key.DirtyMask;
+import org.jhotdraw8.draw.render.LayerRasterCache;
 import org.jhotdraw8.draw.render.RenderContext;
 import org.jhotdraw8.draw.render.RenderingIntent;
 
@@ -30,6 +34,19 @@ import java.util.List;
 public class SimpleLayer extends AbstractCompositeFigure
         implements Layer, StyleableFigure, HideableFigure, LockableFigure, NonTransformableFigure {
 
+    /**
+     * Whether the layer is static and is rendered from a bitmap cache in the
+     * drawing editor. Default value: {@code false}.
+     * <p>
+     * A cached layer shows the tiles of a {@link LayerRasterCache} instead of
+     * the nodes of its children. Thus, panning and zooming does not depend on
+     * the number of figures in the layer. The cache is discarded when a
+     * descendant of the layer changes. The figures of a cached layer can not
+     * be picked with the mouse, because they have no nodes in the drawing
+     * view.
+     */
+    public final static BooleanStyleableFigureKey RASTER_CACHED = new BooleanStyleableFigureKey("rasterCached", DirtyMask.of(DirtyBits.NODE), false);
+
     @Override
     public void reshapeInLocal(Transform transform) {
         for (Figure child : getChildren()) {
@@ -51,17 +68,33 @@ public class SimpleLayer extends AbstractCompositeFigure
         }
         applyStyleableFigureProperties(ctx, n);
 
+        Bounds clipBounds = ctx.get(RenderContext.CLIP_BOUNDS);
+        if (ctx.get(RenderContext.RENDERING_INTENT) == RenderingIntent.EDITOR
+                && clipBounds != null && getStyledNonnull(RASTER_CACHED)) {
+            LayerRasterCache cache = LayerRasterCache.getCache(this);
+            if (cache != null) {
+                n.getChildren().setAll(cache.getTiles(ctx, clipBounds, ctx.get(RenderContext.RENDER_SCALE)));
+                return;
+            }
+        }
+
         List<Node> childNodes = new ArrayList<>(getChildren().size());
 
         int maxNodesPerLayer = ctx.get(RenderContext.MAX_NODES_PER_LAYER);
-        Bounds clipBounds = ctx.get(RenderContext.CLIP_BOUNDS);
         if (ctx.get(RenderContext.RENDERING_INTENT) == RenderingIntent.EDITOR
                 && clipBounds != null /* && getChildren().size() > maxNodesPerLayer*/) {
 
-            for (Figure child : getChildren()) {
-                if (child.getBoundsInWorld().intersects(clipBounds)) {
-                    Node childNode = ctx.getNode(child);
-                    childNodes.add(childNode);
+            List<Figure> visibleChildren = ctx.findChildrenIntersecting(this, clipBounds);
+            if (visibleChildren != null) {
+                for (Figure child : visibleChildren) {
+                    childNodes.add(ctx.getNode(child));
+                }
+            } else {
+                for (Figure child : getChildren()) {
+                    if (child.getBoundsInWorld().intersects(clipBounds)) {
+                        Node childNode = ctx.getNode(child);
+                        childNodes.add(childNode);
+                    }
                 }
             }
 
@@ -0,0 +1,191 @@
+/* @(#)SimpleOrthogonalLineConnectionFigure.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.figure;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+import javafx.scene.Node;
+import javafx.scene.shape.Polyline;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.collection.ImmutableList;
+import org.jhotdraw8.css.CssPoint2D;
+import org.jhotdraw8.css.CssRectangle2D;
+import org.jhotdraw8.draw.connector.Connector;
+import org.jhotdraw8.draw.connector.OrthogonalConnectionRouter;
+import org.jhotdraw8.draw.render.RenderContext;
+import org.jhotdraw8.geom.Shapes;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A figure which draws an orthogonal line connection between two figures.
+ * <p>
+ * The route of the connection avoids the connectable figures of the
+ * drawing. It is computed by the {@link OrthogonalConnectionRouter} of the
+ * drawing.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class SimpleOrthogonalLineConnectionFigure extends AbstractLineConnectionFigure
+        implements StrokableFigure, HideableFigure, StyleableFigure, LockableFigure, CompositableFigure,
+        PathIterableFigure {
+
+    /**
+     * The CSS type selector for this object is {@value #TYPE_SELECTOR}.
+     */
+    public final static String TYPE_SELECTOR = "OrthogonalLineConnection";
+
+    /**
+     * The points of the route in parent coordinates.
+     */
+    @Nonnull
+    private transient ImmutableList<Point2D> points = ImmutableList.emptyList();
+
+    public SimpleOrthogonalLineConnectionFigure() {
+        this(0, 0, 1, 1);
+    }
+
+    public SimpleOrthogonalLineConnectionFigure(Point2D start, Point2D end) {
+        this(start.getX(), start.getY(), end.getX(), end.getY());
+    }
+
+    public SimpleOrthogonalLineConnectionFigure(double startX, double startY, double endX, double endY) {
+        super(startX, startY, endX, endY);
+    }
+
+    @Nonnull
+    @Override
+    public Node createNode(RenderContext drawingView) {
+        return new Polyline();
+    }
+
+    @Nonnull
+    @Override
+    public String getTypeSelector() {
+        return TYPE_SELECTOR;
+    }
+
+    /**
+     * Returns the points of the route in parent coordinates.
+     *
+     * @return the points
+     */
+    @Nonnull
+    public ImmutableList<Point2D> getPoints() {
+        if (points.isEmpty()) {
+            return ImmutableList.of(getNonnull(START).getConvertedValue(), getNonnull(END).getConvertedValue());
+        }
+        return points;
+    }
+
+    @Override
+    public void layout(@Nonnull RenderContext ctx) {
+        Drawing drawing = getDrawing();
+        if (drawing == null) {
+            super.layout(ctx);
+            points = ImmutableList.emptyList();
+            return;
+        }
+
+        Point2D start = localToWorld(getNonnull(START).getConvertedValue());
+        Point2D end = localToWorld(getNonnull(END).getConvertedValue());
+        Connector startConnector = get(START_CONNECTOR);
+        Connector endConnector = get(END_CONNECTOR);
+        Figure startTarget = get(START_TARGET);
+        Figure endTarget = get(END_TARGET);
+        if (startConnector != null && startTarget != null) {
+            start = startConnector.getPositionInWorld(this, startTarget);
+        } else {
+            startTarget = null;
+        }
+        if (endConnector != null && endTarget != null) {
+            end = endConnector.getPositionInWorld(this, endTarget);
+        } else {
+            endTarget = null;
+        }
+
+        List<Point2D> route = OrthogonalConnectionRouter.getRouter(drawing)
+                .route(this, start, end, startTarget, endTarget).toArrayList();
+
+        // Chop the route at the target figures. The route leaves the start
+        // target with the first point outside of its bounds, and enters the
+        // end target with the last point outside of its bounds.
+        if (startConnector != null && startTarget != null && route.size() > 1) {
+            Bounds b = startTarget.getBoundsInWorld();
+            int k = 1;
+            while (k < route.size() - 1 && b.contains(route.get(k))) {
+                k++;
+            }
+            Point2D p = startConnector.chopStart(this, startTarget, route.get(k - 1), route.get(k));
+            route.subList(0, k).clear();
+            route.add(0, p);
+        }
+        if (endConnector != null && endTarget != null && route.size() > 1) {
+            Bounds b = endTarget.getBoundsInWorld();
+            int k = route.size() - 2;
+            while (k > 0 && b.contains(route.get(k))) {
+                k--;
+            }
+            Point2D p = endConnector.chopEnd(this, endTarget, route.get(k), route.get(k + 1));
+            route.subList(k + 1, route.size()).clear();
+            route.add(p);
+        }
+
+        for (int i = 0, n = route.size(); i < n; i++) {
+            route.set(i, worldToParent(route.get(i)));
+        }
+        points = ImmutableList.ofCollection(route);
+        set(START, new CssPoint2D(route.get(0)));
+        set(END, new CssPoint2D(route.get(route.size() - 1)));
+    }
+
+    @Nonnull
+    @Override
+    public Bounds getBoundsInLocal() {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (Point2D p : getPoints()) {
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+        }
+        return new BoundingBox(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    @Nonnull
+    @Override
+    public CssRectangle2D getCssBoundsInLocal() {
+        return new CssRectangle2D(getBoundsInLocal());
+    }
+
+    @Override
+    public void updateNode(@Nonnull RenderContext ctx, @Nonnull Node node) {
+        Polyline lineNode = (Polyline) node;
+        ImmutableList<Point2D> points = getPoints();
+        List<Double> list = new ArrayList<>(points.size() * 2);
+        for (Point2D p : points) {
+            list.add(p.getX());
+            list.add(p.getY());
+        }
+        lineNode.getPoints().setAll(list);
+
+        applyHideableFigureProperties(ctx, lineNode);
+        applyStrokableFigureProperties(ctx, lineNode);
+        applyCompositableFigureProperties(ctx, node);
+        applyStyleableFigureProperties(ctx, node);
+    }
+
+    @Override
+    public PathIterator getPathIterator(AffineTransform tx) {
+        return Shapes.pathIteratorFromPoints(getPoints().asList(), false, PathIterator.WIND_NON_ZERO, tx);
+    }
+}
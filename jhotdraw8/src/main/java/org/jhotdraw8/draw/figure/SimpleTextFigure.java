@@ -7,6 +7,7 @@ import javafx.geometry.BoundingBox;
 import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
 import javafx.scene.Node;
+import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextBoundsType;
 import javafx.scene.transform.Transform;
@@ -37,7 +38,7 @@ import java.awt.geom.PathIterator;
 public class SimpleTextFigure extends AbstractLeafFigure
         implements StrokableFigure, FillableFigure, TransformableFigure, TextFontableFigure, TextLayoutableFigure,
         TextableFigure, HideableFigure, StyleableFigure, LockableFigure, CompositableFigure,
-        ConnectableFigure, PathIterableFigure {
+        ConnectableFigure, PathIterableFigure, SimplifiableFigure {
 
     /**
      * The CSS type selector for this object is {@value #TYPE_SELECTOR}.
@@ -77,7 +78,8 @@ public class SimpleTextFigure extends AbstractLeafFigure
         if (textNode == null) {
             textNode = new Text();
         }
-            updateNode(ctx, textNode);
+        updateTextNode(ctx, textNode);
+        applyTransformableFigureProperties(ctx, textNode);
     }
 
     public CssRectangle2D getCssBoundsInLocal() {
@@ -96,31 +98,61 @@ public class SimpleTextFigure extends AbstractLeafFigure
         set(ORIGIN, new CssPoint2D(x, y));
     }
 
+    /**
+     * Creates a text node, or a rectangle node if the figure is rendered
+     * with greeked text.
+     */
     @Nonnull
     @Override
-    public Node createNode(RenderContext drawingView) {
-        return new Text();
+    public Node createNode(RenderContext ctx) {
+        return ctx != null && isSimplified(ctx) ? new Rectangle() : new Text();
+    }
+
+    @Override
+    public boolean isNodeUpdatable(@Nonnull RenderContext ctx, @Nonnull Node node) {
+        return (node instanceof Rectangle) == isSimplified(ctx);
     }
 
     @Override
     public void updateNode(@Nonnull RenderContext ctx, @Nonnull Node node) {
-        Text tn = (Text) node;
+        applyHideableFigureProperties(ctx, node);
+        applyTransformableFigureProperties(ctx, node);
+        applyCompositableFigureProperties(ctx, node);
+        applyStyleableFigureProperties(ctx, node);
+        if (node instanceof Rectangle) {
+            // greek the text: show a bar instead of the glyphs
+            Rectangle greek = (Rectangle) node;
+            Bounds b = getBoundsInLocal();
+            greek.setX(b.getMinX());
+            greek.setY(b.getMinY());
+            greek.setWidth(b.getWidth());
+            greek.setHeight(b.getHeight());
+            applyFillableFigureProperties(ctx, greek);
+            greek.setOpacity(0.5 * greek.getOpacity());
+        } else {
+            updateTextNode(ctx, (Text) node);
+        }
+    }
+
+    private void updateTextNode(@Nonnull RenderContext ctx, @Nonnull Text tn) {
         tn.setText(get(TEXT));
         tn.setX(getStyledNonnull(ORIGIN).getX().getConvertedValue());
         tn.setY(getStyledNonnull(ORIGIN).getY().getConvertedValue());
         tn.setBoundsType(TextBoundsType.VISUAL);
-        applyHideableFigureProperties(ctx, node);
-        applyTransformableFigureProperties(ctx, tn);
         applyTextableFigureProperties(ctx, tn);
         applyStrokableFigureProperties(ctx, tn);
         applyFillableFigureProperties(ctx, tn);
-        applyCompositableFigureProperties(ctx, tn);
         applyTextFontableFigureProperties(ctx, tn);
         applyTextLayoutableFigureProperties(ctx, tn);
-        applyStyleableFigureProperties(ctx, node);
         tn.applyCss();// really??
     }
 
+    @Override
+    public double getDetailSizeInWorld() {
+        Bounds b = getBoundsInWorld();
+        return b.getHeight();
+    }
+
     @Nonnull
     @Override
     public Connector findConnector(@Nonnull Point2D p, Figure prototype) {
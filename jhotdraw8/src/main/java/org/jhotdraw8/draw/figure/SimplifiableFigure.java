@@ -0,0 +1,88 @@
+/* @(#)SimplifiableFigure.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.figure;
+
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.draw.render.RenderContext;
+
+/**
+ * A figure which supports level-of-detail rendering.
+ * <p>
+ * If the details of the figure are smaller than
+ * {@link RenderContext#DETAIL_THRESHOLD} pixels on the rendering device, the
+ * figure updates its node with a cheaper representation, for example with
+ * greeked text, a decimated path or its bounding box.
+ *
+ * @design.pattern Figure Mixin, Traits.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public interface SimplifiableFigure extends Figure {
+
+    /**
+     * Returns the size of the details of this figure in world coordinates.
+     * <p>
+     * The default implementation returns the larger of the width and the
+     * height of the bounds in world coordinates. Figures which render text
+     * should return the height of the text.
+     *
+     * @return the detail size in world coordinates
+     */
+    default double getDetailSizeInWorld() {
+        Bounds b = getBoundsInWorld();
+        return Math.max(b.getWidth(), b.getHeight());
+    }
+
+    /**
+     * Returns true if this figure should be rendered with a simplified node
+     * in the specified render context.
+     * <p>
+     * This method is intended to be used by {@link #updateNode}.
+     *
+     * @param ctx the render context
+     * @return true if the detail size projected on the rendering device is
+     * below the detail threshold of the render context
+     */
+    default boolean isSimplified(@Nonnull RenderContext ctx) {
+        Double threshold = ctx.get(RenderContext.DETAIL_THRESHOLD);
+        if (threshold == null || threshold <= 0) {
+            return false;
+        }
+        Double scale = ctx.get(RenderContext.RENDER_SCALE);
+        return getDetailSizeInWorld() * (scale == null ? 1.0 : scale) < threshold;
+    }
+
+    /**
+     * Returns true if the specified node can be updated by {@link #updateNode}
+     * in the specified render context.
+     * <p>
+     * Figures which create a different kind of node for their simplified
+     * representation override this method. A drawing view creates a new node
+     * for the figure, if this method returns false.
+     * <p>
+     * The default implementation returns true.
+     *
+     * @param ctx  the render context
+     * @param node a node which was created by {@link #createNode}
+     * @return true if the node can be updated
+     */
+    default boolean isNodeUpdatable(@Nonnull RenderContext ctx, @Nonnull Node node) {
+        return true;
+    }
+
+    /**
+     * Returns the size of a pixel of the rendering device in world
+     * coordinates. This is the tolerance for decimating paths.
+     *
+     * @param ctx the render context
+     * @return the size of a pixel in world coordinates
+     */
+    static double getPixelSizeInWorld(@Nonnull RenderContext ctx) {
+        Double scale = ctx.get(RenderContext.RENDER_SCALE);
+        return scale == null || scale <= 0 ? 1.0 : 1.0 / scale;
+    }
+}
@@ -149,21 +149,21 @@ public interface TransformableFigure extends TransformCacheableFigure {
     }
 
     default void clearTransforms() {
-        set(SCALE_X, 1.0);
-        set(SCALE_Y, 1.0);
-        set(ROTATE, 0.0);
-        set(TRANSLATE_X, 0.0);
-        set(TRANSLATE_Y, 0.0);
+        setAsDouble(SCALE_X, 1.0);
+        setAsDouble(SCALE_Y, 1.0);
+        setAsDouble(ROTATE, 0.0);
+        setAsDouble(TRANSLATE_X, 0.0);
+        setAsDouble(TRANSLATE_Y, 0.0);
         set(TRANSFORMS, ImmutableList.of());
     }
 
     default void flattenTransforms() {
         Transform p2l = getLocalToParent(false);
-        set(SCALE_X, 1.0);
-        set(SCALE_Y, 1.0);
-        set(ROTATE, 0.0);
-        set(TRANSLATE_X, 0.0);
-        set(TRANSLATE_Y, 0.0);
+        setAsDouble(SCALE_X, 1.0);
+        setAsDouble(SCALE_Y, 1.0);
+        setAsDouble(ROTATE, 0.0);
+        setAsDouble(TRANSLATE_X, 0.0);
+        setAsDouble(TRANSLATE_Y, 0.0);
         if (p2l == null || p2l.isIdentity()) {
             set(TRANSFORMS, ImmutableList.emptyList());
         } else {
@@ -203,11 +203,11 @@ public interface TransformableFigure extends TransformCacheableFigure {
             Point2D center = getCenterInLocal();
 
             ImmutableList<Transform> t = styled ? getStyled(TRANSFORMS) : get(TRANSFORMS);
-            double sx = styled ? getStyledNonnull(SCALE_X) : getNonnull(SCALE_X);
-            double sy = styled ? getStyledNonnull(SCALE_Y) : getNonnull(SCALE_Y);
-            double r = styled ? getStyledNonnull(ROTATE) : getNonnull(ROTATE);
-            double tx = styled ? getStyledNonnull(TRANSLATE_X) : getNonnull(TRANSLATE_X);
-            double ty = styled ? getStyledNonnull(TRANSLATE_Y) : getNonnull(TRANSLATE_Y);
+            double sx = styled ? getStyledAsDouble(SCALE_X) : getAsDouble(SCALE_X);
+            double sy = styled ? getStyledAsDouble(SCALE_Y) : getAsDouble(SCALE_Y);
+            double r = styled ? getStyledAsDouble(ROTATE) : getAsDouble(ROTATE);
+            double tx = styled ? getStyledAsDouble(TRANSLATE_X) : getAsDouble(TRANSLATE_X);
+            double ty = styled ? getStyledAsDouble(TRANSLATE_Y) : getAsDouble(TRANSLATE_Y);
 
             if (tx != 0.0 || ty != 0.0) {
                 Translate tt = new Translate(tx, ty);
@@ -241,11 +241,11 @@ public interface TransformableFigure extends TransformCacheableFigure {
         Point2D center = getCenterInLocal();
 
         ImmutableList<Transform> t = styled ? getStyledNonnull(TRANSFORMS) : getNonnull(TRANSFORMS);
-        double sx = styled ? getStyledNonnull(SCALE_X) : getNonnull(SCALE_X);
-        double sy = styled ? getStyledNonnull(SCALE_Y) : getNonnull(SCALE_Y);
-        double r = styled ? getStyledNonnull(ROTATE) : getNonnull(ROTATE);
-        double tx = styled ? getStyledNonnull(TRANSLATE_X) : getNonnull(TRANSLATE_X);
-        double ty = styled ? getStyledNonnull(TRANSLATE_Y) : getNonnull(TRANSLATE_Y);
+        double sx = styled ? getStyledAsDouble(SCALE_X) : getAsDouble(SCALE_X);
+        double sy = styled ? getStyledAsDouble(SCALE_Y) : getAsDouble(SCALE_Y);
+        double r = styled ? getStyledAsDouble(ROTATE) : getAsDouble(ROTATE);
+        double tx = styled ? getStyledAsDouble(TRANSLATE_X) : getAsDouble(TRANSLATE_X);
+        double ty = styled ? getStyledAsDouble(TRANSLATE_Y) : getAsDouble(TRANSLATE_Y);
 
         if (tx != 0.0 || ty != 0.0) {
             Translate tt = new Translate(tx, ty);
@@ -286,11 +286,11 @@ public interface TransformableFigure extends TransformCacheableFigure {
             Point2D center = getCenterInLocal();
 
             ImmutableList<Transform> t = styled ? getStyled(TRANSFORMS) : get(TRANSFORMS);
-            double sx = styled ? getStyledNonnull(SCALE_X) : getNonnull(SCALE_X);
-            double sy = styled ? getStyledNonnull(SCALE_Y) : getNonnull(SCALE_Y);
-            double r = styled ? getStyledNonnull(ROTATE) : getNonnull(ROTATE);
-            double tx = styled ? getStyledNonnull(TRANSLATE_X) : getNonnull(TRANSLATE_X);
-            double ty = styled ? getStyledNonnull(TRANSLATE_Y) : getNonnull(TRANSLATE_Y);
+            double sx = styled ? getStyledAsDouble(SCALE_X) : getAsDouble(SCALE_X);
+            double sy = styled ? getStyledAsDouble(SCALE_Y) : getAsDouble(SCALE_Y);
+            double r = styled ? getStyledAsDouble(ROTATE) : getAsDouble(ROTATE);
+            double tx = styled ? getStyledAsDouble(TRANSLATE_X) : getAsDouble(TRANSLATE_X);
+            double ty = styled ? getStyledAsDouble(TRANSLATE_Y) : getAsDouble(TRANSLATE_Y);
 
             if (t != null && !t.isEmpty()) {
                 p2l = getInverseTransform();
@@ -348,11 +348,11 @@ public interface TransformableFigure extends TransformCacheableFigure {
     }
 
     default boolean hasCenterTransforms() {
-        double sx = getStyledNonnull(SCALE_X);
-        double sy = getStyledNonnull(SCALE_Y);
-        double r = getStyledNonnull(ROTATE);
-        double tx = getStyledNonnull(TRANSLATE_X);
-        double ty = getStyledNonnull(TRANSLATE_Y);
+        double sx = getStyledAsDouble(SCALE_X);
+        double sy = getStyledAsDouble(SCALE_Y);
+        double r = getStyledAsDouble(ROTATE);
+        double tx = getStyledAsDouble(TRANSLATE_X);
+        double ty = getStyledAsDouble(TRANSLATE_Y);
         return sx != 1 || sy != 1 || r != 0 || tx != 0 || ty != 0;
     }
 
@@ -430,8 +430,8 @@ public interface TransformableFigure extends TransformCacheableFigure {
                             : parentToLocal.deltaTransform(translate.getTx(), translate.getTy());
                     reshapeInLocal(new Translate(p.getX(), p.getY()));
                 } else {
-                    set(TRANSLATE_X, getNonnull(TRANSLATE_X) + translate.getTx());
-                    set(TRANSLATE_Y, getNonnull(TRANSLATE_Y) + translate.getTy());
+                    set(TRANSLATE_X, getAsDouble(TRANSLATE_X) + translate.getTx());
+                    set(TRANSLATE_Y, getAsDouble(TRANSLATE_Y) + translate.getTy());
                 }
             } else {
                 flattenTransforms();
@@ -465,8 +465,8 @@ public interface TransformableFigure extends TransformCacheableFigure {
         }
         if (t instanceof Translate) {
             Translate tr = (Translate) t;
-            set(TRANSLATE_X, getNonnull(TRANSLATE_X) + tr.getTx());
-            set(TRANSLATE_Y, getNonnull(TRANSLATE_Y) + tr.getTy());
+            set(TRANSLATE_X, getAsDouble(TRANSLATE_X) + tr.getTx());
+            set(TRANSLATE_Y, getAsDouble(TRANSLATE_Y) + tr.getTy());
         } else {
             flattenTransforms();
             ImmutableList<Transform> transforms = getNonnull(TRANSFORMS);
@@ -3,7 +3,6 @@
  */
 package org.jhotdraw8.draw.handle;
 
-import java.util.List;
 import javafx.geometry.Point2D;
 import javafx.scene.Cursor;
 import javafx.scene.input.MouseEvent;
@@ -15,8 +14,8 @@ import org.jhotdraw8.collection.MapAccessor;
 import org.jhotdraw8.collection.NonnullMapAccessor;
 import org.jhotdraw8.css.CssPoint2D;
 import org.jhotdraw8.draw.DrawingView;
+import org.jhotdraw8.draw.connector.ConnectionTarget;
 import org.jhotdraw8.draw.connector.Connector;
-import org.jhotdraw8.draw.figure.ConnectableFigure;
 import org.jhotdraw8.draw.figure.ConnectingFigure;
 import org.jhotdraw8.draw.figure.Figure;
 import org.jhotdraw8.draw.model.DrawingModel;
@@ -123,25 +122,12 @@ public abstract class AbstractConnectorHandle extends AbstractHandle {
         model.set(o, targetKey, null);
         // Meta prevents connection
         if (!event.isMetaDown()) {
-            List<Figure> list = view.findFigures(pointInViewCoordinates, true);
-            
-            SearchLoop: 
-            for (Figure f1 : list) {
-                for (Figure ff : f1.breadthFirstIterable()) {
-                    if (this.owner != ff && (ff instanceof ConnectableFigure)) {
-                        ConnectableFigure cff = (ConnectableFigure) ff;
-                        Point2D pointInLocal = cff.worldToLocal(unconstrainedPoint);
-                        if (ff.getBoundsInLocal().contains(pointInLocal)) {
-                            newConnector = cff.findConnector(cff.worldToLocal(constrainedPoint.getConvertedValue()), o);
-                            if (newConnector != null && o.canConnect(ff, newConnector)) {
-                                newConnectedFigure = ff;
-                                constrainedPoint = new CssPoint2D(newConnector.getPositionInLocal(o, ff));
-                                isConnected = true;
-                                break SearchLoop;
-                            }
-                        }
-                    }
-                }
+            ConnectionTarget target = view.findConnectionTarget(pointInViewCoordinates, constrainedPoint.getConvertedValue(), o);
+            if (target != null) {
+                newConnector = target.getConnector();
+                newConnectedFigure = target.getFigure();
+                constrainedPoint = new CssPoint2D(newConnector.getPositionInLocal(o, newConnectedFigure));
+                isConnected = true;
             }
         }
 
@@ -124,7 +124,6 @@ abstract class AbstractResizeTransformHandle extends LocatorHandle {
 
     @Override
     public void handleMouseReleased(MouseEvent event, DrawingView dv) {
-        // FIXME fire undoable edit
     }
 
     @Override
@@ -177,7 +177,6 @@ public class BezierNodeMoveHandle extends AbstractHandle {
 
     @Override
     public void handleMouseReleased(MouseEvent event, DrawingView dv) {
-        // FIXME fireDrawingModelEvent undoable edit
     }
 
     @Override
@@ -212,7 +212,6 @@ public class MoveHandle extends LocatorHandle {
     @Override
     public void handleMouseReleased(MouseEvent event, DrawingView dv) {
         pressed = false;
-        // FIXME create undoable edit
     }
 
     @Override
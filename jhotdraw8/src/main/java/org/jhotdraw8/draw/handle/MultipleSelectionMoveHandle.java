@@ -146,7 +146,6 @@ public class MultipleSelectionMoveHandle extends AbstractHandle {
 
     @Override
     public void handleMouseReleased(MouseEvent event, DrawingView dv) {
-        // FIXME fireDrawingModelEvent undoable edit
     }
 
     @Override
@@ -170,7 +170,6 @@ public class PolyPointMoveHandle extends AbstractHandle {
 
     @Override
     public void handleMouseReleased(MouseEvent event, DrawingView dv) {
-        // FIXME fireDrawingModelEvent undoable edit
     }
 
     @Override
@@ -240,7 +240,6 @@ public class RotateHandle extends AbstractHandle {
     @Override
     public void handleMouseReleased(MouseEvent event, DrawingView dv) {
         pivotNode.setVisible(false);
-        // FIXME fireDrawingModelEvent undoable edit event
     }
 
     @Override
@@ -6,9 +6,12 @@ package org.jhotdraw8.draw.inspector;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
 import javafx.application.Platform;
@@ -49,7 +52,7 @@ import org.jhotdraw8.css.text.CssWordListConverter;
 import org.jhotdraw8.text.OSXCollator;
 import org.jhotdraw8.text.StringConverterAdapter;
 import org.jhotdraw8.tree.ExpandedTreeItemIterator;
-import org.jhotdraw8.tree.SimpleTreePresentationModel;
+import org.jhotdraw8.tree.LazyTreePresentationModel;
 import org.jhotdraw8.tree.TreePresentationModel;
 
 /**
@@ -60,6 +63,13 @@ import org.jhotdraw8.tree.TreePresentationModel;
  */
 public class HierarchyInspector extends AbstractDrawingViewInspector {
 
+    /**
+     * Up to this number of selected tree items, the rows of the items are
+     * looked up individually. Above, the rows are found by a single pass
+     * over the expanded tree items.
+     */
+    private final static int MAX_ROW_LOOKUPS = 16;
+
     private final CachingCollator collator = new CachingCollator(new OSXCollator());
 
     @Nullable
@@ -118,7 +128,7 @@ public class HierarchyInspector extends AbstractDrawingViewInspector {
             throw new InternalError(ex);
         }
 
-        model = new SimpleTreePresentationModel<>();
+        model = new LazyTreePresentationModel<>();
         typeColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(
                 cell.getValue().getValue() == null ? null : cell.getValue().getValue().getTypeSelector())
         );
@@ -374,28 +384,56 @@ public class HierarchyInspector extends AbstractDrawingViewInspector {
                     }
                     break;
                 default:
-                    int index = 0;
-                    int count = 0;
-                    final int size = selection.size();
-                    for (TreeItem<Figure> node : (Iterable<TreeItem<Figure>>) () -> new ExpandedTreeItemIterator<>(model.getRoot())) {
-                        boolean isSelected = selection.contains(node.getValue());
-                        if (isSelected != selectionModel.isSelected(index)) {
-                            if (isSelected) {
-                                selectionModel.select(index);
-                            } else {
-                                selectionModel.clearSelection(index);
-                            }
-                        }
-                        if (isSelected && ++count == size) {
-                            break;
-                        }
-                        index++;
+                    int[] rows = getRows(selection);
+                    selectionModel.clearSelection();
+                    if (rows.length > 0) {
+                        selectionModel.selectIndices(rows[0], Arrays.copyOfRange(rows, 1, rows.length));
                     }
             }
             isUpdatingSelectionInView = false;
         }
     }
 
+    /**
+     * Returns the rows of the tree items of the specified figures. Figures
+     * without a tree item, and figures in collapsed subtrees have no row.
+     *
+     * @param figures the figures
+     * @return the rows
+     */
+    @Nonnull
+    private int[] getRows(@Nonnull Set<Figure> figures) {
+        Map<TreeItem<Figure>, Boolean> items = new IdentityHashMap<>();
+        for (Figure f : figures) {
+            TreeItem<Figure> item = model.getTreeItem(f);
+            if (item != null) {
+                items.put(item, Boolean.TRUE);
+            }
+        }
+        int[] rows = new int[items.size()];
+        int count = 0;
+        if (items.size() <= MAX_ROW_LOOKUPS) {
+            for (TreeItem<Figure> item : items.keySet()) {
+                int row = treeView.getRow(item);
+                if (row >= 0) {
+                    rows[count++] = row;
+                }
+            }
+        } else {
+            int index = treeView.isShowRoot() ? 0 : -1;
+            for (TreeItem<Figure> item : (Iterable<TreeItem<Figure>>) () -> new ExpandedTreeItemIterator<>(model.getRoot())) {
+                if (index >= 0 && items.containsKey(item)) {
+                    rows[count++] = index;
+                    if (count == rows.length) {
+                        break;
+                    }
+                }
+                index++;
+            }
+        }
+        return count == rows.length ? rows : Arrays.copyOf(rows, count);
+    }
+
     private void updateSelectionInTreeLater(SetChangeListener.Change<? extends Figure> change) {
         if (!willUpdateSelectionInTree && !isUpdatingSelectionInView) {
             willUpdateSelectionInTree = true;
@@ -409,13 +409,18 @@ public class StyleAttributesInspector extends AbstractSelectionInspector {
             StylesheetsManager<Figure> sm = d.getStyleManager();
             FigureSelectorModel fsm = (FigureSelectorModel) sm.getSelectorModel();
             fsm.additionalPseudoClassStatesProperty().setValue(pseudoStyles);
-            for (Figure f : d.breadthFirstIterable()) {
-                if (sm.applyStylesheetTo(StyleOrigin.USER, s, f, true)) {
-                    m.fireStyleInvalidated(f);
-                    m.fireNodeInvalidated(f);
-                    m.fireTransformInvalidated(f);
-                    m.fireLayoutInvalidated(f);
+            m.beginUpdate();
+            try {
+                for (Figure f : d.breadthFirstIterable()) {
+                    if (sm.applyStylesheetTo(StyleOrigin.USER, s, f, true)) {
+                        m.fireStyleInvalidated(f);
+                        m.fireNodeInvalidated(f);
+                        m.fireTransformInvalidated(f);
+                        m.fireLayoutInvalidated(f);
+                    }
                 }
+            } finally {
+                m.endUpdate();
             }
             drawingView.recreateHandles();
         } catch (IOException ex) {
@@ -8,6 +8,7 @@ import javafx.scene.Node;
 import javafx.scene.shape.Shape;
 import javafx.scene.transform.Transform;
 import org.jhotdraw8.collection.Key;
+import org.jhotdraw8.concurrent.WorkState;
 import org.jhotdraw8.draw.SimpleDrawingRenderer;
 import org.jhotdraw8.draw.figure.Drawing;
 import org.jhotdraw8.draw.figure.Figure;
@@ -28,6 +29,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -117,6 +119,19 @@ public abstract class AbstractExportOutputFormat implements ExportOutputFormat {
     protected abstract void writePage(Path file, Page page, Node node, int pageCount, int pageNumber, int internalPageNumber) throws IOException;
 
     protected void writePages(@Nullable Path dir, String basename, @Nonnull Drawing drawing) throws IOException {
+        writePages(dir, basename, drawing, (WorkState) null);
+    }
+
+    /**
+     * Writes all pages of the drawing.
+     *
+     * @param dir       the output directory, null for print output
+     * @param basename  the basename of the pages, null for print output
+     * @param drawing   the drawing
+     * @param workState the work state for reporting progress, or null
+     * @throws java.io.IOException in case of failure
+     */
+    protected void writePages(@Nullable Path dir, String basename, @Nonnull Drawing drawing, @Nullable WorkState workState) throws IOException {
         setUriResolver(new UriResolver(drawing.get(Drawing.DOCUMENT_HOME), dir == null ? null : dir.toUri()));
         List<Page> pages = new ArrayList<>();
         for (Figure f : drawing.preorderIterable()) {
@@ -128,7 +143,7 @@ public abstract class AbstractExportOutputFormat implements ExportOutputFormat {
         RenderContext.RENDERING_INTENT.put(hints, RenderingIntent.EXPORT);
         RenderContext.DPI.put(hints, pagesDpi);
 
-        writePages(dir, basename, drawing, pages, hints);
+        writePages(dir, basename, drawing, pages, hints, workState);
     }
 
     /**
@@ -142,6 +157,22 @@ public abstract class AbstractExportOutputFormat implements ExportOutputFormat {
      * @throws java.io.IOException in case of failure
      */
     protected void writePages(@Nullable Path dir, String basename, @Nonnull Drawing drawing, @Nonnull List<Page> pages, @Nonnull Map<Key<?>, Object> hints) throws IOException {
+        writePages(dir, basename, drawing, pages, hints, null);
+    }
+
+    /**
+     * Writes all pages of the drawing.
+     *
+     * @param dir       the output directory, null for print output
+     * @param basename  the basename of the pages, null for print output
+     * @param drawing   the drawing
+     * @param pages     the pages
+     * @param hints     the hints
+     * @param workState the work state for reporting progress, or null
+     * @throws java.io.IOException in case of failure
+     */
+    protected void writePages(@Nullable Path dir, String basename, @Nonnull Drawing drawing, @Nonnull List<Page> pages,
+                              @Nonnull Map<Key<?>, Object> hints, @Nullable WorkState workState) throws IOException {
         setUriResolver(new UriResolver(drawing.get(Drawing.DOCUMENT_HOME), dir == null ? null : dir.toUri()));
         IdFactory idFactory = new SimpleIdFactory();
         int numberOfPages = 0;
@@ -157,6 +188,9 @@ public abstract class AbstractExportOutputFormat implements ExportOutputFormat {
         Group parentOfPageNode = new Group();
         for (Page page : pages) {
             for (int internalPageNumber = 0, n = page.getNumberOfSubPages(); internalPageNumber < n; internalPageNumber++) {
+                if (workState != null && workState.isCancelled()) {
+                    return;
+                }
                 Path filename = (dir == null) ? null : dir.resolve(basename + "_" + (pageNumber + 1) + "." + getExtension());
 
                 hints.put(RenderContext.RENDER_PAGE, page);
@@ -197,6 +231,9 @@ public abstract class AbstractExportOutputFormat implements ExportOutputFormat {
                 writePage(filename, page, rootNode, numberOfPages, pageNumber, internalPageNumber);
 
                 pageNumber++;
+                if (workState != null) {
+                    workState.updateProgress(pageNumber, numberOfPages);
+                }
             }
         }
     }
@@ -214,6 +251,18 @@ public abstract class AbstractExportOutputFormat implements ExportOutputFormat {
     protected abstract boolean writeSlice(Path file, Slice slice, Node node, double dpi) throws IOException;
 
     protected void writeSlices(@Nullable Path dir, @Nonnull Drawing drawing) throws IOException {
+        writeSlices(dir, drawing, null);
+    }
+
+    /**
+     * Writes all slices of the drawing at all requested resolutions.
+     *
+     * @param dir       the output directory, null for print output
+     * @param drawing   the drawing
+     * @param workState the work state for reporting progress, or null
+     * @throws java.io.IOException in case of failure
+     */
+    protected void writeSlices(@Nullable Path dir, @Nonnull Drawing drawing, @Nullable WorkState workState) throws IOException {
         setUriResolver(new UriResolver(drawing.get(Drawing.DOCUMENT_HOME), dir == null ? null : dir.toUri()));
         List<Slice> slices = new ArrayList<>();
         for (Figure f : drawing.preorderIterable()) {
@@ -221,44 +270,82 @@ public abstract class AbstractExportOutputFormat implements ExportOutputFormat {
                 slices.add((Slice) f);
             }
         }
-        writeSlices(dir, drawing, slices, "", slicesDpi);
+        Map<String, Double> resolutions = new LinkedHashMap<>();
+        resolutions.put("", slicesDpi);
         if (!isResolutionIndependent()) {
             if (exportSlices2x) {
-                writeSlices(dir, drawing, slices, "@2x", 2 * slicesDpi);
+                resolutions.put("@2x", 2 * slicesDpi);
             }
             if (exportSlices3x) {
-                writeSlices(dir, drawing, slices, "@3x", 3 * slicesDpi);
+                resolutions.put("@3x", 3 * slicesDpi);
             }
         }
+        writeSlices(dir, drawing, slices, resolutions, workState);
     }
 
     /**
-     * @param dir
-     * @param drawing
-     * @param slices
-     * @throws java.io.IOException
+     * Creates the file names of the slices.
+     *
+     * @param dir    the output directory, null for print output
+     * @param slices the slices
+     * @param suffix the suffix for the resolution
+     * @return the file names, the list contains nulls if dir is null
      */
-    private void writeSlices(Path dir, Drawing drawing, List<Slice> slices, String suffix, double dpi) throws IOException {
-        Map<Key<?>, Object> hints = new HashMap<>();
-        RenderContext.RENDERING_INTENT.put(hints, RenderingIntent.EXPORT);
-        RenderContext.DPI.put(hints, dpi);
-
-
+    @Nonnull
+    protected List<Path> createSliceFileNames(@Nullable Path dir, @Nonnull List<Slice> slices, @Nonnull String suffix) {
         IdFactory idFactory = new SimpleIdFactory();
         for (Figure slice : slices) {
             if (slice.getId() != null) {
                 idFactory.putId(slice.getId(), slice);
             }
         }
-        Node node = null;
+        List<Path> filenames = new ArrayList<>(slices.size());
         for (Slice slice : slices) {
-            Path filename = dir.resolve(idFactory.createId(slice, "Slice") + suffix + "." + getExtension());
-            if (node == null) {
-                node = toNode(drawing, Collections.singleton(drawing), hints);
-            }
-            boolean destroyedNode = writeSlice(filename, slice, node, dpi);
-            if (destroyedNode) {
-                node = null;
+            String id = idFactory.createId(slice, "Slice");
+            filenames.add(dir == null ? null : dir.resolve(id + suffix + "." + getExtension()));
+        }
+        return filenames;
+    }
+
+    /**
+     * Writes the slices at the given resolutions.
+     * <p>
+     * This implementation creates the node of the drawing once, and writes
+     * one slice after the other. The node is only created again if
+     * {@link #writeSlice} has destroyed it.
+     *
+     * @param dir         the output directory, null for print output
+     * @param drawing     the drawing
+     * @param slices      the slices
+     * @param resolutions maps file name suffixes to dots per inch
+     * @param workState   the work state for reporting progress, or null
+     * @throws java.io.IOException in case of failure
+     */
+    protected void writeSlices(@Nullable Path dir, @Nonnull Drawing drawing, @Nonnull List<Slice> slices,
+                               @Nonnull Map<String, Double> resolutions, @Nullable WorkState workState) throws IOException {
+        Map<Key<?>, Object> hints = new HashMap<>();
+        RenderContext.RENDERING_INTENT.put(hints, RenderingIntent.EXPORT);
+        RenderContext.DPI.put(hints, slicesDpi);
+
+        int total = slices.size() * resolutions.size();
+        int done = 0;
+        Node node = null;
+        for (Map.Entry<String, Double> resolution : resolutions.entrySet()) {
+            List<Path> filenames = createSliceFileNames(dir, slices, resolution.getKey());
+            for (int i = 0, n = slices.size(); i < n; i++) {
+                if (workState != null && workState.isCancelled()) {
+                    return;
+                }
+                if (node == null) {
+                    node = toNode(drawing, Collections.singleton(drawing), hints);
+                }
+                boolean destroyedNode = writeSlice(filenames.get(i), slices.get(i), node, resolution.getValue());
+                if (destroyedNode) {
+                    node = null;
+                }
+                if (workState != null) {
+                    workState.updateProgress(++done, total);
+                }
             }
         }
     }
@@ -9,11 +9,15 @@ import javafx.geometry.Bounds;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.Node;
 import javafx.scene.SnapshotParameters;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 import javafx.scene.input.DataFormat;
 import javafx.scene.transform.Transform;
 import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.collection.IntegerKey;
 import org.jhotdraw8.collection.Key;
+import org.jhotdraw8.concurrent.TaskScheduler;
 import org.jhotdraw8.concurrent.WorkState;
 import org.jhotdraw8.css.CssSize;
 import org.jhotdraw8.draw.figure.Drawing;
@@ -40,15 +44,19 @@ import java.awt.image.BufferedImage;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.jhotdraw8.draw.SimpleDrawingRenderer.toNode;
 
@@ -63,6 +71,57 @@ public class BitmapExportOutputFormat extends AbstractExportOutputFormat impleme
     private final static double INCH_2_MM = 25.4;
     public final static DataFormat JPEG_FORMAT = new DataFormat("image/jpeg");
     public final static DataFormat PNG_FORMAT = new DataFormat("image/png");
+    /**
+     * Images which are wider or higher than the tile size are rendered in
+     * tiles and written row by row. A tile size of 0 disables tiling.
+     */
+    public final static Key<Integer> EXPORT_TILE_SIZE_KEY = new IntegerKey("exportTileSize", 1024);
+
+    /**
+     * The number of slices which are rendered in one go on the FX
+     * Application Thread.
+     */
+    private final static int BATCH_SIZE = 16;
+
+    private int tileSize = EXPORT_TILE_SIZE_KEY.getDefaultValue();
+    private boolean pipelined = true;
+    /**
+     * Holds the pending writes of pages, if pages are written in a pipeline.
+     */
+    @Nullable
+    private List<CompletableFuture<Void>> pendingPageWrites;
+
+    @Override
+    public void setOptions(@Nullable Map<? super Key<?>, Object> options) {
+        super.setOptions(options);
+        if (options != null) {
+            tileSize = EXPORT_TILE_SIZE_KEY.get(options);
+        }
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public void setTileSize(int tileSize) {
+        this.tileSize = tileSize;
+    }
+
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    /**
+     * If pipelined is true, then slices and pages are encoded and written on
+     * worker threads, while the FX Application Thread renders the next
+     * slices and pages. Otherwise, they are rendered and written one after
+     * the other.
+     *
+     * @param pipelined whether to use a pipeline
+     */
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
 
     private WritableImage doRenderImage(Figure slice, Node node, Bounds bounds, double dpi) {
         SnapshotParameters parameters = new SnapshotParameters();
@@ -152,9 +211,11 @@ public class BitmapExportOutputFormat extends AbstractExportOutputFormat impleme
 
     @Override
     public void write(@Nonnull OutputStream out, @Nonnull Drawing drawing, WorkState workState) throws IOException {
-        WritableImage writableImage = renderImage(drawing, Collections.singleton(drawing), drawingDpi);
-        //ImageIO.write(SwingFXUtils.fromFXImage(image, null), "png", out);
-        writeImage(out, writableImage, drawingDpi);
+        Map<Key<?>, Object> hints = new HashMap<>();
+        RenderContext.RENDERING_INTENT.put(hints, RenderingIntent.EXPORT);
+        RenderContext.DPI.put(hints, drawingDpi);
+        Node node = toNode(drawing, Collections.singleton(drawing), hints);
+        writeImage(out, drawing, Figure.visualBounds(Collections.singleton(drawing)), node, drawingDpi, drawingDpi);
 
     }
 
@@ -163,7 +224,7 @@ public class BitmapExportOutputFormat extends AbstractExportOutputFormat impleme
             OutputFormat.super.write(file, drawing, workState);
         }
         if (isExportSlices()) {
-            writeSlices(file.getParent(), drawing);
+            writeSlices(file.getParent(), drawing, workState);
         }
         if (isExportPages()) {
             String basename = file.getFileName().toString();
@@ -171,7 +232,7 @@ public class BitmapExportOutputFormat extends AbstractExportOutputFormat impleme
             if (p != -1) {
                 basename = basename.substring(0, p);
             }
-            writePages(file.getParent(), basename, drawing);
+            writePages(file.getParent(), basename, drawing, workState);
         }
     }
 
@@ -197,22 +258,281 @@ public class BitmapExportOutputFormat extends AbstractExportOutputFormat impleme
         }
     }
 
+    /**
+     * Renders the node and writes it as an image.
+     * <p>
+     * Small images are rendered with a single snapshot. Images which exceed
+     * the tile size are rendered tile by tile on the FX Application Thread,
+     * while the previous band of tiles is encoded on the current thread.
+     * Thus, the memory needed for the image only depends on the width of
+     * the image and on the tile size.
+     *
+     * @param out         the output stream
+     * @param slice       the figure which defines the coordinate system
+     * @param bounds      the bounds of the image in the coordinate system of
+     *                    the slice
+     * @param node        the node
+     * @param renderDpi   the resolution for rendering
+     * @param metadataDpi the resolution which is stored in the image
+     * @throws IOException if rendering or writing fails
+     */
+    private void writeImage(@Nonnull OutputStream out, @Nonnull Figure slice, @Nonnull Bounds bounds, @Nonnull Node node, double renderDpi, double metadataDpi) throws IOException {
+        if (!isTiled(bounds, renderDpi)) {
+            writeImage(out, renderSlice(slice, bounds, node, renderDpi), metadataDpi);
+            return;
+        }
+        double scale = renderDpi / RenderContext.DPI.getDefaultValue();
+        int x = (int) Math.floor(bounds.getMinX() * scale);
+        int y = (int) Math.floor(bounds.getMinY() * scale);
+        int width = (int) Math.ceil(bounds.getMaxX() * scale) - x;
+        int height = (int) Math.ceil(bounds.getMaxY() * scale) - y;
+
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setTransform(Transforms.concat(Transform.scale(scale, scale), slice.getWorldToLocal()));
+        Drawing drawing = (slice instanceof Drawing) ? (Drawing) slice : slice.getDrawing();
+        parameters.setFill(drawing.get(Drawing.BACKGROUND).getColor());
+        WritableImage tile = new WritableImage(tileSize, tileSize);
+
+        try (PngRowWriter writer = new PngRowWriter(out, width, height, metadataDpi)) {
+            int[] band = new int[width * tileSize];
+            if (Platform.isFxApplicationThread()) {
+                for (int ty = 0; ty < height; ty += tileSize) {
+                    int bandHeight = Math.min(tileSize, height - ty);
+                    renderBand(node, parameters, tile, x, y + ty, width, bandHeight, band);
+                    writer.writeRows(band, 0, width, bandHeight);
+                }
+            } else {
+                // render the next band while we encode the current band
+                int[] nextBand = new int[width * tileSize];
+                CompletableFuture<int[]> next = renderBandLater(node, parameters, tile, x, y, width, Math.min(tileSize, height), band);
+                for (int ty = 0; ty < height; ty += tileSize) {
+                    int bandHeight = Math.min(tileSize, height - ty);
+                    int[] current;
+                    try {
+                        current = next.get();
+                    } catch (InterruptedException | ExecutionException ex) {
+                        throw new IOException(ex);
+                    }
+                    int nextTy = ty + tileSize;
+                    if (nextTy < height) {
+                        next = renderBandLater(node, parameters, tile, x, y + nextTy, width, Math.min(tileSize, height - nextTy), nextBand);
+                    }
+                    writer.writeRows(current, 0, width, bandHeight);
+                    nextBand = current;
+                }
+            }
+            writer.finish();
+        }
+    }
+
+    /**
+     * Returns true if an image with the given bounds is rendered in tiles.
+     *
+     * @param bounds the bounds of the image
+     * @param dpi    the resolution for rendering
+     * @return true if the image is rendered in tiles
+     */
+    private boolean isTiled(@Nonnull Bounds bounds, double dpi) {
+        double scale = dpi / RenderContext.DPI.getDefaultValue();
+        int width = (int) Math.ceil(bounds.getMaxX() * scale) - (int) Math.floor(bounds.getMinX() * scale);
+        int height = (int) Math.ceil(bounds.getMaxY() * scale) - (int) Math.floor(bounds.getMinY() * scale);
+        return tileSize > 0 && (width > tileSize || height > tileSize);
+    }
+
+    @Nonnull
+    private CompletableFuture<int[]> renderBandLater(@Nonnull Node node, @Nonnull SnapshotParameters parameters, @Nonnull WritableImage tile,
+                                                     int x, int y, int width, int height, @Nonnull int[] band) {
+        return CompletableFuture.supplyAsync(() -> {
+            renderBand(node, parameters, tile, x, y, width, height, band);
+            return band;
+        }, Platform::runLater);
+    }
+
+    /**
+     * Renders a band of tiles. Must be called on the FX Application Thread.
+     *
+     * @param node       the node
+     * @param parameters the snapshot parameters
+     * @param tile       the image into which the tiles are rendered
+     * @param x          the x-coordinate of the band in pixels
+     * @param y          the y-coordinate of the band in pixels
+     * @param width      the width of the band in pixels
+     * @param height     the height of the band in pixels, must not exceed
+     *                   the tile size
+     * @param band       receives the pixels of the band in the ARGB format
+     */
+    private void renderBand(@Nonnull Node node, @Nonnull SnapshotParameters parameters, @Nonnull WritableImage tile,
+                            int x, int y, int width, int height, @Nonnull int[] band) {
+        for (int tx = 0; tx < width; tx += tileSize) {
+            int tileWidth = Math.min(tileSize, width - tx);
+            parameters.setViewport(new Rectangle2D(x + tx, y, tileWidth, height));
+            WritableImage image = node.snapshot(parameters, tile);
+            image.getPixelReader().getPixels(0, 0, tileWidth, height, PixelFormat.getIntArgbInstance(), band, tx, width);
+        }
+    }
+
     @Override
     protected void writePage(@Nonnull Path file, @Nonnull Page page, @Nonnull Node node, int pageCount, int pageNumber, int internalPageNumber) throws IOException {
         CssSize pw = page.get(SimplePageFigure.PAPER_WIDTH);
         double paperWidth = pw.getConvertedValue();
         final Bounds pageBounds = page.getPageBounds(internalPageNumber);
         double factor = paperWidth / pageBounds.getWidth();
-        WritableImage image = renderSlice(page, pageBounds, node, pagesDpi * factor);
+        double renderDpi = pagesDpi * factor;
+        if (pendingPageWrites != null && !isTiled(pageBounds, renderDpi)) {
+            // the node is reused for the next page, so we must render now,
+            // but we can encode later
+            WritableImage image = renderSlice(page, pageBounds, node, renderDpi);
+            if (pendingPageWrites.size() >= BATCH_SIZE) {
+                join(pendingPageWrites.remove(0));
+            }
+            pendingPageWrites.add(writeImageLater(file, image, pagesDpi));
+            return;
+        }
         try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
-            writeImage(out, image, pagesDpi);
+            writeImage(out, page, pageBounds, node, renderDpi, pagesDpi);
+        }
+    }
+
+    @Override
+    protected void writePages(@Nullable Path dir, String basename, @Nonnull Drawing drawing, @Nonnull List<Page> pages,
+                              @Nonnull Map<Key<?>, Object> hints, @Nullable WorkState workState) throws IOException {
+        if (!pipelined || dir == null || Platform.isFxApplicationThread()) {
+            super.writePages(dir, basename, drawing, pages, hints, workState);
+            return;
+        }
+        pendingPageWrites = new ArrayList<>();
+        try {
+            super.writePages(dir, basename, drawing, pages, hints, workState);
+            for (CompletableFuture<Void> f : pendingPageWrites) {
+                join(f);
+            }
+        } finally {
+            pendingPageWrites = null;
+        }
+    }
+
+    /**
+     * Renders the slices in batches on the FX Application Thread, and
+     * encodes and writes them on worker threads of the
+     * {@link TaskScheduler}.
+     * <p>
+     * While the workers write a batch, the FX Application Thread renders the
+     * next batch. The node of the drawing is created only once for all
+     * resolutions.
+     */
+    @Override
+    protected void writeSlices(@Nullable Path dir, @Nonnull Drawing drawing, @Nonnull List<Slice> slices,
+                               @Nonnull Map<String, Double> resolutions, @Nullable WorkState workState) throws IOException {
+        if (!pipelined || dir == null || Platform.isFxApplicationThread()) {
+            super.writeSlices(dir, drawing, slices, resolutions, workState);
+            return;
+        }
+        Map<Key<?>, Object> hints = new HashMap<>();
+        RenderContext.RENDERING_INTENT.put(hints, RenderingIntent.EXPORT);
+        RenderContext.DPI.put(hints, slicesDpi);
+        Node node = toNode(drawing, Collections.singleton(drawing), hints);
+
+        List<Slice> jobSlices = new ArrayList<>();
+        List<Path> jobFiles = new ArrayList<>();
+        List<Double> jobDpis = new ArrayList<>();
+        for (Map.Entry<String, Double> resolution : resolutions.entrySet()) {
+            jobSlices.addAll(slices);
+            jobFiles.addAll(createSliceFileNames(dir, slices, resolution.getKey()));
+            jobDpis.addAll(Collections.nCopies(slices.size(), resolution.getValue()));
+        }
+        int total = jobSlices.size();
+        AtomicInteger done = new AtomicInteger();
+
+        List<CompletableFuture<Void>> previousBatch = Collections.emptyList();
+        for (int from = 0; from < total; from += BATCH_SIZE) {
+            if (workState != null && workState.isCancelled()) {
+                break;
+            }
+            int to = Math.min(from + BATCH_SIZE, total);
+            WritableImage[] images = renderBatch(node, jobSlices.subList(from, to), jobDpis.subList(from, to));
+            List<CompletableFuture<Void>> currentBatch = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                WritableImage image = images[i - from];
+                if (image == null) {
+                    writeSlice(jobFiles.get(i), jobSlices.get(i), node, jobDpis.get(i));
+                    reportProgress(workState, done.incrementAndGet(), total);
+                } else {
+                    currentBatch.add(writeImageLater(jobFiles.get(i), image, jobDpis.get(i))
+                            .thenRun(() -> reportProgress(workState, done.incrementAndGet(), total)));
+                }
+            }
+            for (CompletableFuture<Void> f : previousBatch) {
+                join(f);
+            }
+            previousBatch = currentBatch;
+        }
+        for (CompletableFuture<Void> f : previousBatch) {
+            join(f);
+        }
+    }
+
+    /**
+     * Renders a batch of slices on the FX Application Thread.
+     *
+     * @param node   the node of the drawing
+     * @param slices the slices
+     * @param dpis   the resolution of each slice
+     * @return the images, contains null for slices which must be rendered
+     * in tiles
+     * @throws IOException if rendering fails
+     */
+    @Nonnull
+    private WritableImage[] renderBatch(@Nonnull Node node, @Nonnull List<Slice> slices, @Nonnull List<Double> dpis) throws IOException {
+        CompletableFuture<WritableImage[]> future = CompletableFuture.supplyAsync(() -> {
+            WritableImage[] images = new WritableImage[slices.size()];
+            for (int i = 0; i < images.length; i++) {
+                Slice slice = slices.get(i);
+                Bounds bounds = slice.getBoundsInLocal();
+                double dpi = dpis.get(i);
+                if (!isTiled(bounds, dpi)) {
+                    images[i] = doRenderImage(slice, node, bounds, dpi);
+                }
+            }
+            return images;
+        }, Platform::runLater);
+        try {
+            return future.get();
+        } catch (@Nonnull InterruptedException | ExecutionException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Nonnull
+    private CompletableFuture<Void> writeImageLater(@Nonnull Path file, @Nonnull WritableImage image, double dpi) {
+        return CompletableFuture.runAsync(() -> {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                writeImage(out, image, dpi);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, TaskScheduler.getInstance().getExecutor(TaskScheduler.Category.RENDERING));
+    }
+
+    private static void join(@Nonnull CompletableFuture<Void> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException ex) {
+            throw new IOException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            throw cause instanceof UncheckedIOException ? ((UncheckedIOException) cause).getCause() : new IOException(cause);
+        }
+    }
+
+    private static void reportProgress(@Nullable WorkState workState, int done, int total) {
+        if (workState != null) {
+            workState.updateProgress(done, total);
         }
     }
 
     protected boolean writeSlice(@Nonnull Path file, @Nonnull Slice slice, @Nonnull Node node, double dpi) throws IOException {
-        WritableImage image = renderSlice(slice, slice.getBoundsInLocal(), node, dpi);
         try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
-            writeImage(out, image, dpi);
+            writeImage(out, slice, slice.getBoundsInLocal(), node, dpi, dpi);
         }
         return false;
     }
@@ -64,6 +64,7 @@ import org.jhotdraw8.draw.figure.SimpleLayer;
 import org.jhotdraw8.draw.figure.SimpleLineConnectionFigure;
 import org.jhotdraw8.draw.figure.SimpleLineConnectionWithMarkersFigure;
 import org.jhotdraw8.draw.figure.SimpleLineFigure;
+import org.jhotdraw8.draw.figure.SimpleOrthogonalLineConnectionFigure;
 import org.jhotdraw8.draw.figure.SimplePageFigure;
 import org.jhotdraw8.draw.figure.SimplePageLabelFigure;
 import org.jhotdraw8.draw.figure.SimplePolygonFigure;
@@ -163,6 +164,7 @@ public class DefaultFigureFactory extends SimpleFigureFactory {
         addFigureKeysAndNames("Ellipse", SimpleEllipseFigure.class);
         addFigureKeysAndNames("LineConnection", SimpleLineConnectionFigure.class);
         addFigureKeysAndNames("LineConnectionWithMarkers", SimpleLineConnectionWithMarkersFigure.class);
+        addFigureKeysAndNames("OrthogonalLineConnection", SimpleOrthogonalLineConnectionFigure.class);
         addFigureKeysAndNames("Image", SimpleImageFigure.class);
         addFigureKeysAndNames("BezierPath", SimpleBezierFigure.class);
 
@@ -0,0 +1,197 @@
+/* @(#)PngRowWriter.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.io;
+
+import org.jhotdraw8.annotation.Nonnull;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes an image in the PNG format row by row.
+ * <p>
+ * Unlike {@link javax.imageio.ImageIO}, this writer does not need the entire
+ * image in memory. The caller provides the pixels in bands of rows from top
+ * to bottom, and the writer compresses them immediately into the output
+ * stream.
+ * <p>
+ * The image is written with 8 bits per sample in the RGBA color type.
+ * <p>
+ * The writer holds native memory for the compression, which is released by
+ * {@link #finish} or by {@link #close}.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class PngRowWriter implements AutoCloseable {
+
+    private final static byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    private final static double INCH_2_METER = 0.0254;
+    /**
+     * The maximal number of bytes in an IDAT chunk.
+     */
+    private final static int IDAT_SIZE = 1 << 16;
+    private final static int BYTES_PER_PIXEL = 4;
+
+    @Nonnull
+    private final DataOutputStream out;
+    private final int width;
+    private final int height;
+    private int rowsWritten;
+    @Nonnull
+    private final Deflater deflater;
+    @Nonnull
+    private final byte[] row;
+    @Nonnull
+    private final byte[] idat = new byte[IDAT_SIZE];
+    private int idatLength;
+    @Nonnull
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Creates a new instance and writes the header of the image.
+     *
+     * @param out    the output stream, is not closed by this writer
+     * @param width  the width of the image in pixels
+     * @param height the height of the image in pixels
+     * @param dpi    the resolution of the image in dots per inch
+     * @throws IOException if writing fails
+     */
+    public PngRowWriter(@Nonnull OutputStream out, int width, int height, double dpi) throws IOException {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("width=" + width + " height=" + height);
+        }
+        this.out = new DataOutputStream(out);
+        this.width = width;
+        this.height = height;
+        this.row = new byte[1 + width * BYTES_PER_PIXEL];
+
+        this.out.write(SIGNATURE);
+
+        byte[] ihdr = new byte[13];
+        putInt(ihdr, 0, width);
+        putInt(ihdr, 4, height);
+        ihdr[8] = 8;// bit depth
+        ihdr[9] = 6;// color type: RGBA
+        ihdr[10] = 0;// compression method: deflate
+        ihdr[11] = 0;// filter method: adaptive
+        ihdr[12] = 0;// interlace method: none
+        writeChunk("IHDR", ihdr, ihdr.length);
+
+        byte[] phys = new byte[9];
+        int pixelsPerMeter = (int) Math.round(dpi / INCH_2_METER);
+        putInt(phys, 0, pixelsPerMeter);
+        putInt(phys, 4, pixelsPerMeter);
+        phys[8] = 1;// unit: meter
+        writeChunk("pHYs", phys, phys.length);
+
+        // the deflater is created last, so that it can not leak when
+        // writing the header fails
+        this.deflater = new Deflater();
+    }
+
+    private static void putInt(@Nonnull byte[] b, int offset, int value) {
+        b[offset] = (byte) (value >>> 24);
+        b[offset + 1] = (byte) (value >>> 16);
+        b[offset + 2] = (byte) (value >>> 8);
+        b[offset + 3] = (byte) value;
+    }
+
+    private void writeChunk(@Nonnull String type, @Nonnull byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        crc.reset();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        out.writeInt(length);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Compresses the pending input into the IDAT buffer, and writes the
+     * buffer whenever it is full.
+     */
+    private void deflate() throws IOException {
+        while (!deflater.needsInput()) {
+            deflateIntoBuffer();
+        }
+    }
+
+    private void deflateIntoBuffer() throws IOException {
+        idatLength += deflater.deflate(idat, idatLength, idat.length - idatLength);
+        if (idatLength == idat.length) {
+            writeChunk("IDAT", idat, idatLength);
+            idatLength = 0;
+        }
+    }
+
+    /**
+     * Writes rows of pixels.
+     *
+     * @param argb           the pixels in the non-premultiplied ARGB format
+     * @param offset         the index of the first pixel in the array
+     * @param scanlineStride the distance between rows in the array
+     * @param numRows        the number of rows
+     * @throws IOException if writing fails
+     */
+    public void writeRows(@Nonnull int[] argb, int offset, int scanlineStride, int numRows) throws IOException {
+        if (rowsWritten + numRows > height) {
+            throw new IllegalStateException("too many rows: " + (rowsWritten + numRows) + " > " + height);
+        }
+        for (int y = 0; y < numRows; y++) {
+            row[0] = 0;// filter type: none
+            for (int x = 0, i = offset + y * scanlineStride, j = 1; x < width; x++, i++) {
+                int p = argb[i];
+                row[j++] = (byte) (p >>> 16);
+                row[j++] = (byte) (p >>> 8);
+                row[j++] = (byte) p;
+                row[j++] = (byte) (p >>> 24);
+            }
+            deflater.setInput(row);
+            deflate();
+        }
+        rowsWritten += numRows;
+    }
+
+    /**
+     * Writes the end of the image. Does not close the output stream.
+     *
+     * @throws IOException if writing fails
+     */
+    public void finish() throws IOException {
+        if (rowsWritten != height) {
+            throw new IllegalStateException("rows written: " + rowsWritten + " != " + height);
+        }
+        try {
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflateIntoBuffer();
+            }
+        } finally {
+            deflater.end();
+        }
+        if (idatLength > 0) {
+            writeChunk("IDAT", idat, idatLength);
+        }
+        writeChunk("IEND", idat, 0);
+        out.flush();
+    }
+
+    /**
+     * Releases the native memory of the compression. Does not close the
+     * output stream. Does nothing if the writer has already been finished
+     * or closed.
+     */
+    @Override
+    public void close() {
+        deflater.end();
+    }
+}
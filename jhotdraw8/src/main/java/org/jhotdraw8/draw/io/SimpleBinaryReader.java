@@ -0,0 +1,751 @@
+/* @(#)SimpleBinaryReader.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.io;
+
+import javafx.geometry.Point2D;
+import javafx.geometry.Point3D;
+import javafx.scene.paint.Color;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.collection.ImmutableCollection;
+import org.jhotdraw8.collection.ImmutableMap;
+import org.jhotdraw8.collection.Key;
+import org.jhotdraw8.collection.MapAccessor;
+import org.jhotdraw8.concurrent.WorkState;
+import org.jhotdraw8.css.CssColor;
+import org.jhotdraw8.css.CssFont;
+import org.jhotdraw8.css.CssInsets;
+import org.jhotdraw8.css.CssLinearGradient;
+import org.jhotdraw8.css.CssPoint2D;
+import org.jhotdraw8.css.CssPoint3D;
+import org.jhotdraw8.css.CssRadialGradient;
+import org.jhotdraw8.css.CssRectangle2D;
+import org.jhotdraw8.css.CssSize;
+import org.jhotdraw8.css.CssStroke;
+import org.jhotdraw8.draw.figure.Drawing;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.key.BooleanFigureKey;
+import org.jhotdraw8.draw.key.DirtyMask;
+import org.jhotdraw8.draw.model.DrawingModel;
+import org.jhotdraw8.io.IdFactory;
+import org.jhotdraw8.io.UriResolver;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Reads a drawing in the binary file format written by
+ * {@link SimpleBinaryWriter}.
+ * <p>
+ * Files are memory-mapped. Strings are decoded from the string table only
+ * when a figure refers to them, and the decoded values of properties are
+ * shared by all figures which have the same property value in the file, if
+ * the values are immutable.
+ * <p>
+ * If {@link #setLoadHiddenLayers} is set to false, the children of
+ * sections which were hidden when the drawing was written are not read.
+ * The figure of such a section (usually a layer) is created without
+ * children. The children can be loaded on demand with
+ * {@link #loadDeferredChildren(Figure, DrawingModel)}. The reader keeps
+ * the file mapped until all deferred children have been loaded, or until
+ * {@link #dispose} is called.
+ * <p>
+ * A figure with deferred children is marked with
+ * {@link #DEFERRED_CHILDREN}. {@link SimpleBinaryWriter} refuses to write
+ * a drawing which contains such a figure, because it would lose the
+ * children and all references to them.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class SimpleBinaryReader implements InputFormat {
+
+    /**
+     * This key is set to true on figures whose children have not been
+     * loaded yet. It is not written to files.
+     */
+    public final static BooleanFigureKey DEFERRED_CHILDREN = new BooleanFigureKey("deferredChildren", DirtyMask.EMPTY, false);
+
+    private final static Object NULL_VALUE = new Object();
+    /**
+     * Value classes whose instances can be shared by several figures.
+     */
+    private final static Set<Class<?>> IMMUTABLE_CLASSES = new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class,
+            Long.class, Float.class, Double.class, URI.class,
+            CssColor.class, CssFont.class, CssInsets.class, CssLinearGradient.class, CssPoint2D.class,
+            CssPoint3D.class, CssRadialGradient.class, CssRectangle2D.class, CssSize.class, CssStroke.class,
+            Color.class, Point2D.class, Point3D.class));
+
+    /**
+     * Holds the current options.
+     */
+    @Nonnull
+    private Map<? super Key<?>, Object> options = Collections.emptyMap();
+    @Nonnull
+    private final FigureFactory figureFactory;
+    @Nonnull
+    private final IdFactory idFactory;
+    private boolean doAddNotifyAndUpdateCss = true;
+    private boolean loadHiddenLayers = true;
+
+    /**
+     * The contents of the file which is currently being read.
+     */
+    @Nullable
+    private ByteBuffer buffer;
+    /**
+     * The offsets of the strings in the string table.
+     */
+    @Nullable
+    private int[] stringOffsets;
+    /**
+     * The strings which have been decoded so far.
+     */
+    @Nullable
+    private String[] strings;
+    @Nonnull
+    private Function<URI, URI> uriResolver = new UriResolver(null, null);
+    /**
+     * Maps figures to the offset of their deferred children.
+     */
+    @Nonnull
+    private final Map<Figure, Integer> deferredChildren = new IdentityHashMap<>();
+    /**
+     * Attributes which refer to other figures. They are resolved after all
+     * figures of a section have been created.
+     */
+    @Nonnull
+    private final List<FigureReference> figureReferences = new ArrayList<>();
+    @Nonnull
+    private final Map<String, Figure> figuresById = new HashMap<>();
+    /**
+     * Caches the keys of the attribute names for each figure class. The
+     * array is indexed with the index of the attribute name in the string
+     * table.
+     */
+    @Nonnull
+    private final Map<Class<?>, Object[]> keysByClass = new HashMap<>();
+    /**
+     * Caches the values of each key. The array is indexed with the index of
+     * the value string in the string table.
+     */
+    @Nonnull
+    private final Map<MapAccessor<?>, Object[]> valuesByKey = new HashMap<>();
+    @Nonnull
+    private final Map<MapAccessor<?>, Boolean> keyValueTypeIsFigure = new HashMap<>();
+    /**
+     * A document for creating the DOM nodes of node list keys. Is created
+     * lazily.
+     */
+    @Nullable
+    private Document nodeListDocument;
+
+    private static class FigureReference {
+
+        @Nonnull
+        final Figure figure;
+        @Nonnull
+        final MapAccessor<Object> key;
+        @Nonnull
+        final String id;
+
+        FigureReference(@Nonnull Figure figure, @Nonnull MapAccessor<Object> key, @Nonnull String id) {
+            this.figure = figure;
+            this.key = key;
+            this.id = id;
+        }
+    }
+
+    public SimpleBinaryReader(@Nonnull FigureFactory factory, @Nonnull IdFactory idFactory) {
+        this.figureFactory = factory;
+        this.idFactory = idFactory;
+    }
+
+    @Override
+    public void setOptions(@Nullable Map<? super Key<?>, Object> options) {
+        this.options = (options == null) ? Collections.emptyMap() : new LinkedHashMap<>(options);
+    }
+
+    public void setDoAddNotifyAndUpdateCss(boolean doAddNotifyAndUpdateCss) {
+        this.doAddNotifyAndUpdateCss = doAddNotifyAndUpdateCss;
+    }
+
+    /**
+     * Whether the children of hidden layers are read immediately. The
+     * default value is true.
+     *
+     * @param loadHiddenLayers false if the children of hidden layers shall
+     *                         only be read by
+     *                         {@link #loadDeferredChildren}
+     */
+    public void setLoadHiddenLayers(boolean loadHiddenLayers) {
+        this.loadHiddenLayers = loadHiddenLayers;
+    }
+
+    public boolean isLoadHiddenLayers() {
+        return loadHiddenLayers;
+    }
+
+    @Nonnull
+    @Override
+    public Figure read(@Nonnull Path file, @Nullable Drawing drawing, @Nonnull WorkState workState) throws IOException {
+        URI documentHome = file.getParent() == null ? Paths.get(System.getProperty("user.home")).toUri() : file.getParent().toUri();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("The file is too large.");
+            }
+            // The mapping stays valid after the channel has been closed.
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), documentHome);
+        } catch (IOException e) {
+            throw new IOException("Error reading " + file + ".", e);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public Figure read(@Nonnull InputStream in, @Nullable Drawing drawing, URI documentHome, @Nonnull WorkState workState) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buf = new byte[1 << 16];
+        for (int count = in.read(buf); count != -1; count = in.read(buf)) {
+            bytes.write(buf, 0, count);
+        }
+        return read(ByteBuffer.wrap(bytes.toByteArray()), documentHome);
+    }
+
+    @Nonnull
+    private Drawing read(@Nonnull ByteBuffer buffer, URI documentHome) throws IOException {
+        dispose();
+        try {
+            Drawing external = readDrawing(buffer, documentHome);
+            Drawing internal = figureFactory.fromExternalDrawing(external);
+            if (doAddNotifyAndUpdateCss) {
+                internal.preorderIterable().forEach(figure -> figure.addNotify(internal));
+                internal.preorderIterable().forEach(Figure::updateCss);
+            }
+            return internal;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            dispose();
+            throw new IOException("The file is corrupt.", e);
+        } finally {
+            nodeListDocument = null;
+            if (deferredChildren.isEmpty()) {
+                dispose();
+            }
+        }
+    }
+
+    @Nonnull
+    private Drawing readDrawing(@Nonnull ByteBuffer b, URI documentHome) throws IOException {
+        int size = b.limit();
+        if (size < 8 + SimpleBinaryWriter.TRAILER_SIZE
+                || b.getInt(0) != SimpleBinaryWriter.MAGIC
+                || b.getInt(size - 4) != SimpleBinaryWriter.MAGIC) {
+            throw new IOException("The file is not in the binary drawing format.");
+        }
+        if (b.getInt(4) != SimpleBinaryWriter.VERSION) {
+            throw new IOException("Unsupported version " + b.getInt(4) + " of the binary drawing format.");
+        }
+        buffer = b;
+        uriResolver = new UriResolver(documentHome, documentHome);
+        idFactory.reset();
+
+        // read the string table
+        b.position(toInt(b.getLong(size - SimpleBinaryWriter.TRAILER_SIZE)));
+        int stringCount = readVarInt(b);
+        stringOffsets = new int[stringCount];
+        strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            stringOffsets[i] = b.position();
+            int length = readVarInt(b);
+            b.position(b.position() + length);
+        }
+
+        // read the root
+        b.position(toInt(b.getLong(size - SimpleBinaryWriter.TRAILER_SIZE + 8)));
+        int rootOffset = toInt(b.getLong());
+        int sectionCount = readVarInt(b);
+        int[] sectionOffsets = new int[sectionCount];
+        byte[] sectionFlags = new byte[sectionCount];
+        for (int i = 0; i < sectionCount; i++) {
+            sectionOffsets[i] = toInt(b.getLong());
+            sectionFlags[i] = b.get();
+        }
+        b.position(rootOffset);
+        List<URI> stylesheets = new ArrayList<>();
+        for (int i = 0, n = readVarInt(b); i < n; i++) {
+            stylesheets.add(uriResolver.apply(URI.create(readString(b))));
+        }
+        List<String> epilogComments = readStrings(b);
+        Figure root = readFigure(b, false);
+        if (!(root instanceof Drawing)) {
+            throw new IOException("The file does not contain a drawing.");
+        }
+        Drawing external = (Drawing) root;
+        MapAccessor<List<URI>> stylesheetsKey = figureFactory.getStylesheetsKey();
+        if (stylesheetsKey != null && !stylesheets.isEmpty()) {
+            external.set(stylesheetsKey, stylesheets);
+        }
+        external.set(Drawing.DOCUMENT_HOME, documentHome);
+        external.set(SimpleXmlIO.XML_EPILOG_COMMENT_KEY, epilogComments);
+
+        // read the sections
+        for (int i = 0; i < sectionCount; i++) {
+            b.position(sectionOffsets[i]);
+            boolean defer = !loadHiddenLayers && (sectionFlags[i] & SimpleBinaryWriter.SECTION_VISIBLE) == 0;
+            Figure child = readFigure(b, defer);
+            if (child != null) {
+                if (!child.isSuitableParent(external)) {
+                    throw new IOException(figureFactory.figureToName(child) + " is not a suitable child for "
+                            + figureFactory.figureToName(external) + ".");
+                }
+                external.addChild(child);
+            }
+        }
+        resolveFigureReferences(null);
+        return external;
+    }
+
+    /**
+     * Returns true if the children of the specified figure have not been
+     * loaded yet.
+     *
+     * @param figure a figure
+     * @return true if the children of the figure have been deferred
+     */
+    public boolean isDeferred(@Nonnull Figure figure) {
+        return deferredChildren.containsKey(figure);
+    }
+
+    /**
+     * Reads the deferred children of the specified figure and adds them to
+     * the figure with the drawing model.
+     * <p>
+     * The children are converted with
+     * {@link FigureFactory#fromExternalDrawing} in the same way as the
+     * figures that were read initially. References from other figures to
+     * the children are set with the drawing model.
+     *
+     * @param figure a figure which was returned by this reader
+     * @param model  the drawing model which holds the figure
+     * @throws IOException if the file can not be read
+     */
+    public void loadDeferredChildren(@Nonnull Figure figure, @Nonnull DrawingModel model) throws IOException {
+        Integer offset = deferredChildren.remove(figure);
+        if (offset == null || buffer == null) {
+            return;
+        }
+        ByteBuffer b = buffer;
+        List<Figure> children = new ArrayList<>();
+        try {
+            try {
+                b.position(offset);
+                readChildren(b, figure, children);
+                children = fromExternalChildren(figure, children);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new IOException("The file is corrupt.", e);
+            } finally {
+                nodeListDocument = null;
+            }
+            model.beginUpdate();
+            try {
+                for (Figure child : children) {
+                    model.addChildTo(child, figure);
+                }
+                model.remove(figure, DEFERRED_CHILDREN);
+                resolveFigureReferences(model);
+            } finally {
+                model.endUpdate();
+            }
+        } finally {
+            if (deferredChildren.isEmpty()) {
+                dispose();
+            }
+        }
+    }
+
+    /**
+     * Throws an exception if the specified drawing contains figures whose
+     * children have not been loaded yet. Writers call this method, because
+     * writing such a drawing would lose the deferred children and all
+     * references to them.
+     *
+     * @param drawing a drawing
+     * @throws IOException if the drawing contains deferred children
+     */
+    public static void checkNoDeferredChildren(@Nonnull Drawing drawing) throws IOException {
+        for (Figure child : drawing.getChildren()) {
+            if (Boolean.TRUE.equals(child.get(DEFERRED_CHILDREN))) {
+                throw new IOException("The drawing can not be written, because the children of "
+                        + child.getId() + " have not been loaded.");
+            }
+        }
+    }
+
+    /**
+     * Loads the deferred children of all figures of the drawing of the
+     * specified model.
+     *
+     * @param model the drawing model
+     * @throws IOException if the file can not be read
+     */
+    public void loadAllDeferredChildren(@Nonnull DrawingModel model) throws IOException {
+        for (Figure figure : new ArrayList<>(deferredChildren.keySet())) {
+            loadDeferredChildren(figure, model);
+        }
+    }
+
+    /**
+     * Converts deferred children with {@link FigureFactory#fromExternalDrawing}.
+     * The children are temporarily added to an external drawing with a copy
+     * of their parent, because the figure factory converts whole drawings.
+     *
+     * @param parent   the parent of the children
+     * @param children the external children
+     * @return the internal children
+     */
+    @Nonnull
+    private List<Figure> fromExternalChildren(@Nonnull Figure parent, @Nonnull List<Figure> children) throws IOException {
+        Figure root = parent.getRoot();
+        Figure external = figureFactory.nameToFigure(figureFactory.figureToName(root));
+        Figure externalParent = figureFactory.nameToFigure(figureFactory.figureToName(parent));
+        if (!(external instanceof Drawing) || externalParent == null) {
+            return children;
+        }
+        external.addChild(externalParent);
+        for (Figure child : children) {
+            externalParent.addChild(child);
+        }
+        Drawing internal = figureFactory.fromExternalDrawing((Drawing) external);
+        Figure internalParent = internal.getChildren().isEmpty() ? null : internal.getChild(0);
+        if (internalParent == null) {
+            return Collections.emptyList();
+        }
+        List<Figure> internalChildren = new ArrayList<>(internalParent.getChildren());
+        internalParent.getChildren().clear();
+        return internalChildren;
+    }
+
+    /**
+     * Releases the file and drops all deferred children.
+     */
+    public void dispose() {
+        buffer = null;
+        stringOffsets = null;
+        strings = null;
+        deferredChildren.clear();
+        figureReferences.clear();
+        figuresById.clear();
+        keysByClass.clear();
+        valuesByKey.clear();
+    }
+
+    /**
+     * Reads a figure record.
+     *
+     * @param b     the buffer
+     * @param defer whether to defer reading the children
+     * @return the figure or null if the figure factory does not know the
+     * figure
+     */
+    @Nullable
+    private Figure readFigure(@Nonnull ByteBuffer b, boolean defer) throws IOException {
+        Figure figure = figureFactory.nameToFigure(readString(b));
+        List<String> headComments = readStrings(b);
+        List<String> bodyComments = readStrings(b);
+        if (figure != null) {
+            if (!headComments.isEmpty()) {
+                figure.set(SimpleXmlIO.XML_HEAD_COMMENT_KEY, headComments);
+            }
+            if (!bodyComments.isEmpty()) {
+                figure.set(SimpleXmlIO.XML_BODY_COMMENT_KEY, bodyComments);
+            }
+        }
+        readAttributes(b, figure);
+        readNodeLists(b, figure);
+        if (figure != null && defer) {
+            deferredChildren.put(figure, b.position());
+            figure.set(DEFERRED_CHILDREN, true);
+        } else {
+            readChildren(b, figure, null);
+        }
+        return figure;
+    }
+
+    /**
+     * Reads the children of a figure record.
+     *
+     * @param b        the buffer
+     * @param figure   the parent figure or null if the children shall be
+     *                 skipped
+     * @param children if this list is non-null, the children are added to
+     *                 this list instead of the figure
+     */
+    private void readChildren(@Nonnull ByteBuffer b, @Nullable Figure figure, @Nullable List<Figure> children) throws IOException {
+        for (int i = 0, n = readVarInt(b); i < n; i++) {
+            Figure child = readFigure(b, false);
+            if (child != null && figure != null) {
+                if (!child.isSuitableParent(figure)) {
+                    throw new IOException(figureFactory.figureToName(child) + " is not a suitable child for "
+                            + figureFactory.figureToName(figure) + ".");
+                }
+                if (children == null) {
+                    figure.addChild(child);
+                } else {
+                    children.add(child);
+                }
+            }
+        }
+    }
+
+    private void readAttributes(@Nonnull ByteBuffer b, @Nullable Figure figure) throws IOException {
+        String idAttribute = figureFactory.getObjectIdAttribute();
+        Object[] keys = figure == null ? null : keysByClass.computeIfAbsent(figure.getClass(), k -> new Object[strings.length]);
+        Set<MapAccessor<?>> attributeKeys = null;
+        for (int i = 0, n = readVarInt(b); i < n; i++) {
+            int nameIndex = readVarInt(b);
+            int valueIndex = readVarInt(b);
+            if (figure == null) {
+                continue;
+            }
+
+            Object k = keys[nameIndex];
+            if (k == null) {
+                if (attributeKeys == null) {
+                    attributeKeys = figureFactory.figureAttributeKeys(figure);
+                }
+                MapAccessor<?> key = figureFactory.nameToKey(figure, getString(nameIndex));
+                k = key != null && attributeKeys.contains(key) ? key : NULL_VALUE;
+                keys[nameIndex] = k;
+            }
+            if (idAttribute.equals(getString(nameIndex))) {
+                String id = getString(valueIndex);
+                if (!id.isEmpty()) {
+                    if (figuresById.put(id, figure) != null) {
+                        System.err.println("SimpleBinaryReader warning: duplicate id " + id);
+                    }
+                    idFactory.putId(id, figure);
+                }
+            }
+            if (k == NULL_VALUE) {
+                continue;
+            }
+
+            @SuppressWarnings("unchecked")
+            MapAccessor<Object> key = (MapAccessor<Object>) k;
+            if (keyValueTypeIsFigure.computeIfAbsent(key, ky -> Figure.class.isAssignableFrom(ky.getValueType()))) {
+                figureReferences.add(new FigureReference(figure, key, getString(valueIndex)));
+            } else {
+                figure.set(key, getValue(key, valueIndex));
+            }
+        }
+    }
+
+    /**
+     * Gets the value of the specified key from the value cache, or converts
+     * the string to a value. Only immutable values are cached, because the
+     * cached values are shared by all figures.
+     */
+    @Nullable
+    private Object getValue(@Nonnull MapAccessor<Object> key, int valueIndex) throws IOException {
+        Object[] values = valuesByKey.computeIfAbsent(key, k -> new Object[strings.length]);
+        Object value = values[valueIndex];
+        if (value == null) {
+            value = figureFactory.stringToValue(key, getString(valueIndex));
+            if (value instanceof URI) {
+                value = uriResolver.apply((URI) value);
+            }
+            if (value == null) {
+                values[valueIndex] = NULL_VALUE;
+            } else if (isImmutable(value)) {
+                values[valueIndex] = value;
+            }
+        }
+        return value == NULL_VALUE ? null : value;
+    }
+
+    private static boolean isImmutable(@Nonnull Object value) {
+        return IMMUTABLE_CLASSES.contains(value.getClass())
+                || value instanceof Enum
+                || value instanceof ImmutableCollection
+                || value instanceof ImmutableMap;
+    }
+
+    private void readNodeLists(@Nonnull ByteBuffer b, @Nullable Figure figure) throws IOException {
+        int n = readVarInt(b);
+        if (n == 0) {
+            return;
+        }
+        List<Node> nodeList = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            nodeList.add(readNode(b));
+        }
+        if (figure != null) {
+            for (MapAccessor<?> ky : figureFactory.figureNodeListKeys(figure)) {
+                @SuppressWarnings("unchecked")
+                MapAccessor<Object> key = (MapAccessor<Object>) ky;
+                if ("".equals(figureFactory.keyToElementName(figure, key))) {
+                    figure.set(key, figureFactory.nodeListToValue(key, nodeList));
+                } else {
+                    throw new UnsupportedOperationException("Reading of sub-elements is not yet supported");
+                }
+            }
+        }
+    }
+
+    @Nonnull
+    private Node readNode(@Nonnull ByteBuffer b) throws IOException {
+        Document doc = getNodeListDocument();
+        byte type = b.get();
+        switch (type) {
+            case SimpleBinaryWriter.NODE_TEXT:
+                return doc.createTextNode(readString(b));
+            case SimpleBinaryWriter.NODE_CDATA:
+                return doc.createCDATASection(readString(b));
+            case SimpleBinaryWriter.NODE_COMMENT:
+                return doc.createComment(readString(b));
+            case SimpleBinaryWriter.NODE_ELEMENT: {
+                Element elem = doc.createElementNS(readNullableString(b), readString(b));
+                for (int i = 0, n = readVarInt(b); i < n; i++) {
+                    String ns = readNullableString(b);
+                    String qname = readString(b);
+                    elem.setAttributeNS(ns, qname, readString(b));
+                }
+                for (int i = 0, n = readVarInt(b); i < n; i++) {
+                    elem.appendChild(readNode(b));
+                }
+                return elem;
+            }
+            default:
+                throw new IOException("Illegal node type " + type + " at offset " + (b.position() - 1) + ".");
+        }
+    }
+
+    /**
+     * Sets the attributes which refer to figures that have been read.
+     *
+     * @param model the drawing model which holds the figures, or null if the
+     *              figures are not in a model yet
+     */
+    private void resolveFigureReferences(@Nullable DrawingModel model) {
+        boolean isComplete = deferredChildren.isEmpty();
+        for (Iterator<FigureReference> i = figureReferences.iterator(); i.hasNext(); ) {
+            FigureReference ref = i.next();
+            Figure target = figuresById.get(ref.id);
+            if (target != null || isComplete) {
+                if (model == null) {
+                    ref.figure.set(ref.key, target);
+                } else {
+                    model.set(ref.figure, ref.key, target);
+                }
+                i.remove();
+            }
+        }
+    }
+
+    @Nonnull
+    private List<String> readStrings(@Nonnull ByteBuffer b) {
+        int n = readVarInt(b);
+        if (n == 0) {
+            return Collections.emptyList();
+        }
+        String[] list = new String[n];
+        for (int i = 0; i < n; i++) {
+            list[i] = readString(b);
+        }
+        return Arrays.asList(list);
+    }
+
+    @Nonnull
+    private String readString(@Nonnull ByteBuffer b) {
+        return getString(readVarInt(b));
+    }
+
+    @Nullable
+    private String readNullableString(@Nonnull ByteBuffer b) {
+        int index = readVarInt(b);
+        return index == 0 ? null : getString(index - 1);
+    }
+
+    /**
+     * Gets a string from the string table. Decodes the string if it has not
+     * been decoded yet.
+     */
+    @Nonnull
+    private String getString(int index) {
+        String s = strings[index];
+        if (s == null) {
+            ByteBuffer b = buffer.duplicate();
+            b.position(stringOffsets[index]);
+            int length = readVarInt(b);
+            byte[] bytes = new byte[length];
+            b.get(bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+            strings[index] = s;
+        }
+        return s;
+    }
+
+    private static int readVarInt(@Nonnull ByteBuffer b) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte v = b.get();
+            value |= (v & 0x7f) << shift;
+            if (v >= 0) {
+                return value;
+            }
+            if (shift > 28) {
+                throw new IllegalArgumentException("Illegal varint at offset " + b.position() + ".");
+            }
+        }
+    }
+
+    private static int toInt(long offset) {
+        if (offset < 0 || offset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Illegal offset " + offset + ".");
+        }
+        return (int) offset;
+    }
+
+    @Nonnull
+    private Document getNodeListDocument() throws IOException {
+        if (nodeListDocument == null) {
+            try {
+                DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
+                builderFactory.setNamespaceAware(true);
+                nodeListDocument = builderFactory.newDocumentBuilder().newDocument();
+            } catch (ParserConfigurationException e) {
+                throw new IOException(e);
+            }
+        }
+        return nodeListDocument;
+    }
+}
@@ -0,0 +1,432 @@
+/* @(#)SimpleBinaryWriter.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.io;
+
+import javafx.css.StyleOrigin;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.collection.CompositeMapAccessor;
+import org.jhotdraw8.collection.Key;
+import org.jhotdraw8.collection.MapAccessor;
+import org.jhotdraw8.concurrent.WorkState;
+import org.jhotdraw8.draw.figure.Drawing;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.figure.HideableFigure;
+import org.jhotdraw8.io.IdFactory;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes a drawing in a compact binary file format.
+ * <p>
+ * The binary format stores the same information as {@link SimpleXmlIO}: the
+ * figures are mapped to names and their properties to strings with a
+ * {@link FigureFactory}. All names and strings are stored only once in a
+ * string table which is shared by all figures.
+ * <p>
+ * Each child of the drawing (usually a layer) is stored in a separate
+ * section. An index at the end of the file holds the offset of each section,
+ * so that {@link SimpleBinaryReader} can decode the sections independently
+ * of each other.
+ * <p>
+ * File layout (all numbers are big endian, "varint" is an unsigned integer
+ * with 7 bits per byte, least significant group first):
+ * <pre>
+ * File      = Magic:int Version:int Section* Root StringTable Index Trailer
+ * Section   = Figure
+ * Root      = StylesheetCount:varint StringRef* EpilogCount:varint StringRef*
+ *             Figure (without children)
+ * Figure    = Name:StringRef HeadComments BodyComments
+ *             AttributeCount:varint (Name:StringRef Value:StringRef)*
+ *             NodeCount:varint Node* ChildCount:varint Figure*
+ * Node      = Type:byte (Text:StringRef | Element)
+ * Element   = Namespace:StringRef+1 QName:StringRef
+ *             AttributeCount:varint (Namespace:StringRef+1 QName:StringRef Value:StringRef)*
+ *             NodeCount:varint Node*
+ * StringTable = Count:varint (Length:varint Utf8Bytes)*
+ * Index     = RootOffset:long SectionCount:varint (Offset:long Flags:byte)*
+ * Trailer   = StringTableOffset:long IndexOffset:long Magic:int
+ * </pre>
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class SimpleBinaryWriter implements OutputFormat {
+
+    /**
+     * The magic number "JHDB" at the start and at the end of a file.
+     */
+    final static int MAGIC = 0x4a484442;
+    final static int VERSION = 1;
+    /**
+     * The size of the trailer at the end of a file.
+     */
+    final static int TRAILER_SIZE = 8 + 8 + 4;
+
+    final static byte NODE_TEXT = 1;
+    final static byte NODE_CDATA = 2;
+    final static byte NODE_COMMENT = 3;
+    final static byte NODE_ELEMENT = 4;
+
+    /**
+     * Section flag: the figure of the section is visible.
+     */
+    final static byte SECTION_VISIBLE = 1;
+
+    /**
+     * Holds the current options.
+     */
+    @Nonnull
+    private Map<? super Key<?>, Object> options = Collections.emptyMap();
+    @Nonnull
+    private final FigureFactory figureFactory;
+    @Nonnull
+    private final IdFactory idFactory;
+
+    /**
+     * Maps strings to their index in the string table.
+     */
+    @Nonnull
+    private final Map<String, Integer> stringMap = new HashMap<>();
+    @Nonnull
+    private final List<String> strings = new ArrayList<>();
+    /**
+     * A document for creating the DOM nodes of node list keys. Is created
+     * lazily.
+     */
+    @Nullable
+    private Document nodeListDocument;
+    @Nullable
+    private OutputStream out;
+    /**
+     * The number of bytes that have been written to {@link #out}.
+     */
+    private long position;
+
+    public SimpleBinaryWriter(@Nonnull FigureFactory factory, @Nonnull IdFactory idFactory) {
+        this.figureFactory = factory;
+        this.idFactory = idFactory;
+    }
+
+    @Override
+    public void setOptions(@Nullable Map<? super Key<?>, Object> options) {
+        this.options = (options == null) ? Collections.emptyMap() : new LinkedHashMap<>(options);
+    }
+
+    @Override
+    public void write(@Nonnull OutputStream out, @Nonnull Drawing internal, WorkState workState) throws IOException {
+        SimpleBinaryReader.checkNoDeferredChildren(internal);
+        this.out = new BufferedOutputStream(out, 1 << 16);
+        position = 0;
+        try {
+            Drawing external = figureFactory.toExternalDrawing(internal);
+            idFactory.reset();
+
+            writeInt(MAGIC);
+            writeInt(VERSION);
+
+            List<Long> sectionOffsets = new ArrayList<>();
+            List<Byte> sectionFlags = new ArrayList<>();
+            for (Figure child : external.getChildren()) {
+                if (figureFactory.figureToName(child) != null) {
+                    sectionOffsets.add(position);
+                    sectionFlags.add(isVisible(child) ? SECTION_VISIBLE : 0);
+                    writeFigure(child, true);
+                }
+            }
+
+            long rootOffset = position;
+            List<String> stylesheets = new ArrayList<>();
+            MapAccessor<List<URI>> stylesheetsKey = figureFactory.getStylesheetsKey();
+            if (stylesheetsKey != null && external.get(stylesheetsKey) != null) {
+                for (Object stylesheet : external.get(stylesheetsKey)) {
+                    if (stylesheet instanceof URI) {
+                        stylesheets.add(stylesheet.toString());
+                    }
+                }
+            }
+            writeStrings(stylesheets);
+            writeStrings(external.get(SimpleXmlIO.XML_EPILOG_COMMENT_KEY));
+            writeFigure(external, false);
+
+            long stringTableOffset = position;
+            writeVarInt(strings.size());
+            for (String s : strings) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(bytes.length);
+                writeBytes(bytes);
+            }
+
+            long indexOffset = position;
+            writeLong(rootOffset);
+            writeVarInt(sectionOffsets.size());
+            for (int i = 0, n = sectionOffsets.size(); i < n; i++) {
+                writeLong(sectionOffsets.get(i));
+                this.out.write(sectionFlags.get(i));
+                position++;
+            }
+
+            writeLong(stringTableOffset);
+            writeLong(indexOffset);
+            writeInt(MAGIC);
+            this.out.flush();
+        } finally {
+            this.out = null;
+            stringMap.clear();
+            strings.clear();
+            nodeListDocument = null;
+        }
+    }
+
+    private boolean isVisible(@Nonnull Figure f) {
+        return !(f instanceof HideableFigure) || f.getNonnull(HideableFigure.VISIBLE);
+    }
+
+    private void writeFigure(@Nonnull Figure figure, boolean withChildren) throws IOException {
+        writeString(figureFactory.figureToName(figure));
+        writeStrings(figure.get(SimpleXmlIO.XML_HEAD_COMMENT_KEY));
+        writeStrings(figure.get(SimpleXmlIO.XML_BODY_COMMENT_KEY));
+        writeAttributes(figure);
+        writeNodeLists(figure);
+
+        if (withChildren) {
+            List<Figure> children = new ArrayList<>(figure.getChildren().size());
+            for (Figure child : figure.getChildren()) {
+                if (figureFactory.figureToName(child) != null) {
+                    children.add(child);
+                }
+            }
+            writeVarInt(children.size());
+            for (Figure child : children) {
+                writeFigure(child, true);
+            }
+        } else {
+            writeVarInt(0);
+        }
+    }
+
+    private void writeAttributes(@Nonnull Figure figure) throws IOException {
+        List<String> attributes = new ArrayList<>();
+        Set<String> writtenNames = new HashSet<>();
+        String idName = figureFactory.getObjectIdAttribute();
+        writtenNames.add(idName);
+        attributes.add(idName);
+        attributes.add(idFactory.createId(figure));
+
+        Set<MapAccessor<?>> todo = new LinkedHashSet<>(figureFactory.figureAttributeKeys(figure));
+
+        // First collect all non-transient composite attributes, then the remaining non-transient non-composite attributes
+        for (MapAccessor<?> k : new ArrayList<>(todo)) {
+            if (k instanceof CompositeMapAccessor) {
+                todo.remove(k);
+                if (!k.isTransient()) {
+                    @SuppressWarnings("unchecked") CompositeMapAccessor<Object> cmap = (CompositeMapAccessor<Object>) k;
+                    todo.removeAll(cmap.getSubAccessors());
+                    collectAttribute(figure, cmap, attributes, writtenNames);
+                }
+            }
+        }
+        for (MapAccessor<?> k : todo) {
+            if (!k.isTransient()) {
+                @SuppressWarnings("unchecked") MapAccessor<Object> key = (MapAccessor<Object>) k;
+                collectAttribute(figure, key, attributes, writtenNames);
+            }
+        }
+
+        writeVarInt(attributes.size() / 2);
+        for (String s : attributes) {
+            writeString(s);
+        }
+    }
+
+    private void collectAttribute(@Nonnull Figure figure, @Nonnull MapAccessor<Object> key,
+                                  @Nonnull List<String> attributes, @Nonnull Set<String> writtenNames) throws IOException {
+        Object value = figure.get(key);
+        if (!figureFactory.isDefaultValue(figure, key, value)) {
+            String name = figureFactory.keyToName(figure, key);
+            if (writtenNames.add(name)) {
+                attributes.add(name);
+                if (Figure.class.isAssignableFrom(key.getValueType())) {
+                    attributes.add(idFactory.createId(value));
+                } else {
+                    attributes.add(figureFactory.valueToString(key, value));
+                }
+            }
+        }
+    }
+
+    private void writeNodeLists(@Nonnull Figure figure) throws IOException {
+        List<Node> nodes = new ArrayList<>();
+        for (MapAccessor<?> k : figureFactory.figureNodeListKeys(figure)) {
+            @SuppressWarnings("unchecked")
+            MapAccessor<Object> key = (MapAccessor<Object>) k;
+            Object value = figure.get(key);
+            if (!key.isTransient() && figure.containsKey(StyleOrigin.USER, key) && !figureFactory.isDefaultValue(figure, key, value)) {
+                nodes.addAll(figureFactory.valueToNodeList(key, value, getNodeListDocument()));
+            }
+        }
+        writeNodes(nodes);
+    }
+
+    private void writeNodes(@Nonnull List<Node> nodes) throws IOException {
+        int count = 0;
+        for (Node node : nodes) {
+            if (isSupportedNode(node)) {
+                count++;
+            }
+        }
+        writeVarInt(count);
+        for (Node node : nodes) {
+            if (isSupportedNode(node)) {
+                writeNode(node);
+            }
+        }
+    }
+
+    private static boolean isSupportedNode(@Nonnull Node node) {
+        switch (node.getNodeType()) {
+            case Node.TEXT_NODE:
+            case Node.CDATA_SECTION_NODE:
+            case Node.COMMENT_NODE:
+            case Node.ELEMENT_NODE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void writeNode(@Nonnull Node node) throws IOException {
+        switch (node.getNodeType()) {
+            case Node.TEXT_NODE:
+                writeByte(NODE_TEXT);
+                writeString(node.getNodeValue());
+                break;
+            case Node.CDATA_SECTION_NODE:
+                writeByte(NODE_CDATA);
+                writeString(node.getNodeValue());
+                break;
+            case Node.COMMENT_NODE:
+                writeByte(NODE_COMMENT);
+                writeString(node.getNodeValue());
+                break;
+            case Node.ELEMENT_NODE: {
+                writeByte(NODE_ELEMENT);
+                writeNullableString(node.getNamespaceURI());
+                writeString(node.getNodeName());
+                NamedNodeMap attrs = node.getAttributes();
+                writeVarInt(attrs.getLength());
+                for (int i = 0, n = attrs.getLength(); i < n; i++) {
+                    Attr attr = (Attr) attrs.item(i);
+                    writeNullableString(attr.getNamespaceURI());
+                    writeString(attr.getName());
+                    writeString(attr.getValue());
+                }
+                NodeList children = node.getChildNodes();
+                List<Node> childList = new ArrayList<>(children.getLength());
+                for (int i = 0, n = children.getLength(); i < n; i++) {
+                    childList.add(children.item(i));
+                }
+                writeNodes(childList);
+                break;
+            }
+            default:
+                throw new IOException("Unsupported node type " + node.getNodeType());
+        }
+    }
+
+    private void writeStrings(@Nonnull List<String> list) throws IOException {
+        writeVarInt(list.size());
+        for (String s : list) {
+            writeString(s);
+        }
+    }
+
+    private void writeString(@Nonnull String s) throws IOException {
+        writeVarInt(indexOf(s));
+    }
+
+    /**
+     * Writes the index of the string plus one, or 0 for null.
+     */
+    private void writeNullableString(@Nullable String s) throws IOException {
+        writeVarInt(s == null ? 0 : indexOf(s) + 1);
+    }
+
+    private int indexOf(@Nonnull String s) {
+        Integer index = stringMap.get(s);
+        if (index == null) {
+            index = strings.size();
+            stringMap.put(s, index);
+            strings.add(s);
+        }
+        return index;
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+            position++;
+        }
+        out.write(value);
+        position++;
+    }
+
+    private void writeByte(int value) throws IOException {
+        out.write(value);
+        position++;
+    }
+
+    private void writeBytes(@Nonnull byte[] bytes) throws IOException {
+        out.write(bytes);
+        position += bytes.length;
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+        position += 4;
+    }
+
+    private void writeLong(long value) throws IOException {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    @Nonnull
+    private Document getNodeListDocument() throws IOException {
+        if (nodeListDocument == null) {
+            try {
+                DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
+                builderFactory.setNamespaceAware(true);
+                nodeListDocument = builderFactory.newDocumentBuilder().newDocument();
+            } catch (ParserConfigurationException e) {
+                throw new IOException(e);
+            }
+        }
+        return nodeListDocument;
+    }
+}
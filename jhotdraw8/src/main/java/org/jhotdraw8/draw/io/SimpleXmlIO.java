@@ -678,6 +678,7 @@ public class SimpleXmlIO implements InputFormat, OutputFormat, XmlOutputFormatMi
     }
 
     public Document toDocument(Drawing internal) throws IOException {
+        SimpleBinaryReader.checkNoDeferredChildren(internal);
         Drawing external = figureFactory.toExternalDrawing(internal);
 
         idFactory.reset();
@@ -0,0 +1,484 @@
+/* @(#)SimpleXmlStaxReader.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.io;
+
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.collection.Key;
+import org.jhotdraw8.collection.MapAccessor;
+import org.jhotdraw8.concurrent.WorkState;
+import org.jhotdraw8.draw.figure.Clipping;
+import org.jhotdraw8.draw.figure.Drawing;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.io.IdFactory;
+import org.jhotdraw8.io.UriResolver;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads a drawing in the file format of {@link SimpleXmlIO} with a streaming
+ * StAX parser.
+ * <p>
+ * Unlike {@link SimpleXmlIO}, this reader does not build a DOM of the file.
+ * It creates each figure as soon as the start tag of its element has been
+ * parsed. Attributes which refer to other figures are resolved after the
+ * whole file has been parsed, because they may refer to figures which are
+ * defined later in the file. Thus the memory needed for reading a drawing is
+ * about the memory needed for the figures.
+ * <p>
+ * DOM nodes are only created for the content of elements which the
+ * {@link FigureFactory} maps to node list keys, for example the text of a
+ * text figure.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class SimpleXmlStaxReader implements InputFormat {
+
+    private final static Pattern hrefPattern = Pattern.compile("(?:^|.* )href=\"([^\"]*)\".*");
+
+    /**
+     * Holds the current options.
+     */
+    @Nonnull
+    private Map<? super Key<?>, Object> options = Collections.emptyMap();
+    @Nonnull
+    private final FigureFactory figureFactory;
+    @Nonnull
+    private final IdFactory idFactory;
+    @Nullable
+    private final String namespaceURI;
+    private boolean doAddNotifyAndUpdateCss = true;
+
+    /**
+     * Comments which have not yet been associated to a figure.
+     */
+    @Nullable
+    private List<String> comments;
+    /**
+     * Attributes which refer to other figures. They are resolved after all
+     * figures have been created.
+     */
+    @Nullable
+    private List<FigureReference> figureReferences;
+    /**
+     * A document for creating the DOM nodes of node list keys. Is created
+     * lazily.
+     */
+    @Nullable
+    private Document nodeListDocument;
+    @Nonnull
+    private Function<URI, URI> uriResolver = new UriResolver(null, null);
+    /**
+     * This is a cache which checks if Figure.class is assignable from the value
+     * type of a map accessor.
+     */
+    @Nonnull
+    private final Map<MapAccessor<?>, Boolean> keyValueTypeIsFigure = new HashMap<>();
+
+    private static class FigureReference {
+
+        @Nonnull
+        final Figure figure;
+        @Nonnull
+        final MapAccessor<Object> key;
+        @Nonnull
+        final String id;
+
+        FigureReference(@Nonnull Figure figure, @Nonnull MapAccessor<Object> key, @Nonnull String id) {
+            this.figure = figure;
+            this.key = key;
+            this.id = id;
+        }
+    }
+
+    public SimpleXmlStaxReader(@Nonnull FigureFactory factory, @Nonnull IdFactory idFactory) {
+        this(factory, idFactory, null);
+    }
+
+    public SimpleXmlStaxReader(@Nonnull FigureFactory factory, @Nonnull IdFactory idFactory, @Nullable String namespaceURI) {
+        this.figureFactory = factory;
+        this.idFactory = idFactory;
+        this.namespaceURI = namespaceURI;
+    }
+
+    @Override
+    public void setOptions(@Nullable Map<? super Key<?>, Object> options) {
+        this.options = (options == null) ? Collections.emptyMap() : new LinkedHashMap<>(options);
+    }
+
+    public void setDoAddNotifyAndUpdateCss(boolean doAddNotifyAndUpdateCss) {
+        this.doAddNotifyAndUpdateCss = doAddNotifyAndUpdateCss;
+    }
+
+    @Nonnull
+    @Override
+    public Figure read(@Nonnull Path file, @Nullable Drawing drawing, @Nonnull WorkState workState) throws IOException {
+        URI documentHome = file.getParent() == null ? Paths.get(System.getProperty("user.home")).toUri() : file.getParent().toUri();
+        try (BufferedInputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return read(in, file.toUri().toASCIIString(), drawing, documentHome);
+        } catch (IOException e) {
+            throw new IOException("Error reading " + file + ".", e);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public Figure read(@Nonnull InputStream in, @Nullable Drawing drawing, URI documentHome, @Nonnull WorkState workState) throws IOException {
+        return read(in, null, drawing, documentHome);
+    }
+
+    @Nonnull
+    private Figure read(@Nonnull InputStream in, @Nullable String systemId, @Nullable Drawing oldDrawing, URI documentHome) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        XMLStreamReader r = null;
+        try {
+            r = factory.createXMLStreamReader(systemId, in);
+            return readDocument(r, oldDrawing, documentHome);
+        } catch (XMLStreamException e) {
+            throw createIOException(e.getLocation(), e.getMessage(), e);
+        } finally {
+            comments = null;
+            figureReferences = null;
+            nodeListDocument = null;
+            if (r != null) {
+                try {
+                    r.close();
+                } catch (XMLStreamException e) {
+                    // we are only reading, so we can ignore this exception
+                }
+            }
+        }
+    }
+
+    @Nonnull
+    private Figure readDocument(@Nonnull XMLStreamReader r, @Nullable Drawing oldDrawing, URI documentHome) throws XMLStreamException, IOException {
+        uriResolver = new UriResolver(documentHome, documentHome);
+        idFactory.reset();
+        comments = new ArrayList<>();
+        figureReferences = new ArrayList<>();
+        List<String> stylesheetInstructions = new ArrayList<>();
+        Figure root = null;
+
+        while (r.hasNext()) {
+            switch (r.next()) {
+                case XMLStreamConstants.COMMENT:
+                    comments.add(r.getText());
+                    break;
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    if ("xml-stylesheet".equals(r.getPITarget()) && r.getPIData() != null) {
+                        stylesheetInstructions.add(r.getPIData());
+                    }
+                    break;
+                case XMLStreamConstants.START_ELEMENT:
+                    Figure figure = isInNamespace(r) ? figureFactory.nameToFigure(r.getLocalName()) : null;
+                    if (figure == null) {
+                        skipElement(r);
+                    } else {
+                        if (oldDrawing != null && figure instanceof Clipping) {
+                            for (Figure f : oldDrawing.preorderIterable()) {
+                                idFactory.createId(f);
+                            }
+                        }
+                        readFigure(r, figure);
+                        root = figure;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        Drawing external = root instanceof Drawing ? (Drawing) root : null;
+        if (external == null && !(root instanceof Clipping)) {
+            if (namespaceURI == null) {
+                throw new IOException("The document does not contain a drawing.");
+            } else {
+                throw new IOException("The document does not contain a drawing in namespace \"" + namespaceURI + "\".");
+            }
+        }
+        if (external != null) {
+            for (String data : stylesheetInstructions) {
+                readStylesheetInstruction(data, external);
+            }
+            external.set(Drawing.DOCUMENT_HOME, documentHome);
+            external.set(SimpleXmlIO.XML_EPILOG_COMMENT_KEY, comments);
+        }
+        for (FigureReference ref : figureReferences) {
+            ref.figure.set(ref.key, idFactory.getObject(ref.id));
+        }
+
+        if (external != null) {
+            Drawing internal = figureFactory.fromExternalDrawing(external);
+            if (doAddNotifyAndUpdateCss) {
+                internal.preorderIterable().forEach(figure -> figure.addNotify(internal));
+                internal.preorderIterable().forEach(Figure::updateCss);
+            }
+            return internal;
+        } else {
+            return root;
+        }
+    }
+
+    /**
+     * Reads the element of a figure. The reader must be positioned on the
+     * start tag of the element. On return, the reader is positioned on the
+     * end tag of the element.
+     *
+     * @param r      the reader
+     * @param figure the figure that has been created for the element
+     */
+    private void readFigure(@Nonnull XMLStreamReader r, @Nonnull Figure figure) throws XMLStreamException, IOException {
+        String id = getAttribute(r, figureFactory.getObjectIdAttribute());
+        if (id != null && !id.isEmpty()) {
+            if (idFactory.getObject(id) != null) {
+                System.err.println("SimpleXmlStaxReader warning: duplicate id " + id + " in element " + r.getLocalName());
+            }
+            idFactory.putId(id, figure);
+        }
+        if (!comments.isEmpty()) {
+            figure.set(SimpleXmlIO.XML_HEAD_COMMENT_KEY, comments);
+            comments = new ArrayList<>();
+        }
+        readAttributes(r, figure);
+
+        Set<MapAccessor<?>> nodeListKeys = figureFactory.figureNodeListKeys(figure);
+        List<Node> nodeList = nodeListKeys.isEmpty() ? null : new ArrayList<>();
+        String elementName = r.getLocalName();
+        for (int event = r.next(); event != XMLStreamConstants.END_ELEMENT; event = r.next()) {
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (isInNamespace(r)) {
+                        Location location = r.getLocation();
+                        Figure child = figureFactory.nameToFigure(r.getLocalName());
+                        if (child == null) {
+                            skipElement(r);
+                        } else {
+                            String childName = r.getLocalName();
+                            readFigure(r, child);
+                            if (!child.isSuitableParent(figure)) {
+                                throw createIOException(location, childName + " is not a suitable child for " + elementName + ".", null);
+                            }
+                            figure.addChild(child);
+                        }
+                    } else if (nodeList != null) {
+                        nodeList.add(readNodeListElement(r));
+                    } else {
+                        skipElement(r);
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (nodeList != null) {
+                        nodeList.add(getNodeListDocument().createTextNode(r.getText()));
+                    }
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    comments.add(r.getText());
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (!comments.isEmpty()) {
+            figure.set(SimpleXmlIO.XML_BODY_COMMENT_KEY, comments);
+            comments = new ArrayList<>();
+        }
+        if (nodeList != null) {
+            for (MapAccessor<?> ky : nodeListKeys) {
+                @SuppressWarnings("unchecked")
+                MapAccessor<Object> key = (MapAccessor<Object>) ky;
+                if ("".equals(figureFactory.keyToElementName(figure, key))) {
+                    figure.set(key, figureFactory.nodeListToValue(key, nodeList));
+                } else {
+                    throw new UnsupportedOperationException("Reading of sub-elements is not yet supported");
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the attributes of the current start tag into the specified
+     * figure.
+     */
+    private void readAttributes(@Nonnull XMLStreamReader r, @Nonnull Figure figure) throws IOException {
+        Set<MapAccessor<?>> attributeKeys = figureFactory.figureAttributeKeys(figure);
+        for (int i = 0, n = r.getAttributeCount(); i < n; i++) {
+            String attrNamespace = r.getAttributeNamespace(i);
+            if (attrNamespace != null && !attrNamespace.isEmpty() && !attrNamespace.equals(namespaceURI)) {
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            MapAccessor<Object> key = (MapAccessor<Object>) figureFactory.nameToKey(figure, r.getAttributeLocalName(i));
+            if (key != null && attributeKeys.contains(key)) {
+                String string = r.getAttributeValue(i);
+                if (keyValueTypeIsFigure.computeIfAbsent(key, k -> Figure.class.isAssignableFrom(k.getValueType()))) {
+                    figureReferences.add(new FigureReference(figure, key, string));
+                    continue;
+                }
+                Object value;
+                try {
+                    value = figureFactory.stringToValue(key, string);
+                } catch (IOException e) {
+                    throw createIOException(r.getLocation(), null, e);
+                }
+                if (value instanceof URI) {
+                    value = uriResolver.apply((URI) value);
+                }
+                figure.set(key, value);
+            }
+        }
+    }
+
+    /**
+     * Reads an element which is not a figure into a DOM element.
+     */
+    @Nonnull
+    private Element readNodeListElement(@Nonnull XMLStreamReader r) throws XMLStreamException, IOException {
+        Document doc = getNodeListDocument();
+        String prefix = r.getPrefix();
+        String qname = prefix == null || prefix.isEmpty() ? r.getLocalName() : prefix + ":" + r.getLocalName();
+        Element elem = doc.createElementNS(emptyToNull(r.getNamespaceURI()), qname);
+        for (int i = 0, n = r.getAttributeCount(); i < n; i++) {
+            String attrPrefix = r.getAttributePrefix(i);
+            String attrQName = attrPrefix == null || attrPrefix.isEmpty()
+                    ? r.getAttributeLocalName(i) : attrPrefix + ":" + r.getAttributeLocalName(i);
+            elem.setAttributeNS(emptyToNull(r.getAttributeNamespace(i)), attrQName, r.getAttributeValue(i));
+        }
+        for (int event = r.next(); event != XMLStreamConstants.END_ELEMENT; event = r.next()) {
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    elem.appendChild(readNodeListElement(r));
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    elem.appendChild(doc.createTextNode(r.getText()));
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    elem.appendChild(doc.createComment(r.getText()));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return elem;
+    }
+
+    /**
+     * Skips the current element including all its content.
+     */
+    private void skipElement(@Nonnull XMLStreamReader r) throws XMLStreamException {
+        for (int depth = 1; depth > 0; ) {
+            switch (r.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private boolean isInNamespace(@Nonnull XMLStreamReader r) {
+        return namespaceURI == null || namespaceURI.equals(r.getNamespaceURI());
+    }
+
+    @Nullable
+    private String getAttribute(@Nonnull XMLStreamReader r, String unqualifiedName) {
+        for (int i = 0, n = r.getAttributeCount(); i < n; i++) {
+            String attrNamespace = r.getAttributeNamespace(i);
+            if (unqualifiedName.equals(r.getAttributeLocalName(i))
+                    && (attrNamespace == null || attrNamespace.isEmpty() || attrNamespace.equals(namespaceURI))) {
+                return r.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    private void readStylesheetInstruction(@Nonnull String data, @Nonnull Drawing external) {
+        MapAccessor<List<URI>> stylesheetsKey = figureFactory.getStylesheetsKey();
+        if (stylesheetsKey != null) {
+            Matcher m = hrefPattern.matcher(data);
+            if (m.matches()) {
+                URI uri = uriResolver.apply(URI.create(m.group(1)));
+                List<URI> listOrNull = external.get(stylesheetsKey);
+                List<URI> stylesheets = listOrNull == null ? new ArrayList<>() : new ArrayList<>(listOrNull);
+                stylesheets.add(uri);
+                external.set(stylesheetsKey, stylesheets);
+            }
+        }
+    }
+
+    @Nonnull
+    private Document getNodeListDocument() throws IOException {
+        if (nodeListDocument == null) {
+            try {
+                DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
+                builderFactory.setNamespaceAware(true);
+                nodeListDocument = builderFactory.newDocumentBuilder().newDocument();
+            } catch (ParserConfigurationException e) {
+                throw new IOException(e);
+            }
+        }
+        return nodeListDocument;
+    }
+
+    @Nullable
+    private static String emptyToNull(@Nullable String str) {
+        return str == null || str.isEmpty() ? null : str;
+    }
+
+    @Nonnull
+    private static IOException createIOException(@Nullable Location location, @Nullable String message, @Nullable Exception cause) {
+        StringBuilder buf = new StringBuilder();
+        if (location != null) {
+            buf.append("In ");
+            if (location.getSystemId() != null) {
+                buf.append("file: \"").append(location.getSystemId()).append("\", ");
+            }
+            buf.append("line: ").append(location.getLineNumber())
+                    .append(", column: ").append(location.getColumnNumber()).append(".");
+        }
+        if (message != null) {
+            if (buf.length() > 0) {
+                buf.append(' ');
+            }
+            buf.append(message);
+        }
+        return new IOException(buf.toString(), cause);
+    }
+}
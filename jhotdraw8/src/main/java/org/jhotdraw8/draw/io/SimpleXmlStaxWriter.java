@@ -0,0 +1,404 @@
+/* @(#)SimpleXmlStaxWriter.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.io;
+
+import javafx.css.StyleOrigin;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.collection.CompositeMapAccessor;
+import org.jhotdraw8.collection.Key;
+import org.jhotdraw8.collection.MapAccessor;
+import org.jhotdraw8.concurrent.WorkState;
+import org.jhotdraw8.draw.figure.Drawing;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.io.IdFactory;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes a drawing in the file format of {@link SimpleXmlIO} with a streaming
+ * StAX writer.
+ * <p>
+ * Unlike {@link SimpleXmlIO}, this writer does not build a DOM of the
+ * drawing. It writes each figure directly to the stream. DOM nodes are only
+ * created for the values of node list keys, for example the text of a text
+ * figure.
+ * <p>
+ * The output is indented by two spaces per level, except for elements which
+ * contain text.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class SimpleXmlStaxWriter implements OutputFormat {
+
+    private final static String INDENT = "  ";
+
+    /**
+     * Holds the current options.
+     */
+    @Nonnull
+    private Map<? super Key<?>, Object> options = Collections.emptyMap();
+    @Nonnull
+    private final FigureFactory figureFactory;
+    @Nonnull
+    private final IdFactory idFactory;
+    @Nullable
+    private final String namespaceURI;
+    @Nullable
+    private final String namespaceQualifier;
+
+    /**
+     * A document for creating the DOM nodes of node list keys. Is created
+     * lazily.
+     */
+    @Nullable
+    private Document nodeListDocument;
+    /**
+     * The names of the attributes that have been written for the current
+     * element.
+     */
+    @Nonnull
+    private final Set<String> writtenAttributes = new HashSet<>();
+    private int depth;
+    /**
+     * Indentation is turned off inside of elements which contain text.
+     */
+    private boolean indenting;
+
+    public SimpleXmlStaxWriter(@Nonnull FigureFactory factory, @Nonnull IdFactory idFactory) {
+        this(factory, idFactory, null, null);
+    }
+
+    public SimpleXmlStaxWriter(@Nonnull FigureFactory factory, @Nonnull IdFactory idFactory, @Nullable String namespaceURI, @Nullable String namespaceQualifier) {
+        this.figureFactory = factory;
+        this.idFactory = idFactory;
+        this.namespaceURI = namespaceURI;
+        this.namespaceQualifier = namespaceQualifier;
+    }
+
+    @Override
+    public void setOptions(@Nullable Map<? super Key<?>, Object> options) {
+        this.options = (options == null) ? Collections.emptyMap() : new LinkedHashMap<>(options);
+    }
+
+    @Override
+    public void write(@Nonnull OutputStream out, @Nonnull Drawing drawing, WorkState workState) throws IOException {
+        try {
+            XMLStreamWriter w = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+            write(w, drawing);
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Writes the drawing to the specified writer.
+     *
+     * @param out     the writer
+     * @param drawing the drawing
+     * @throws IOException if an IO error occurs
+     */
+    public void write(@Nonnull Writer out, @Nonnull Drawing drawing) throws IOException {
+        try {
+            XMLStreamWriter w = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+            write(w, drawing);
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void write(@Nonnull XMLStreamWriter w, @Nonnull Drawing internal) throws XMLStreamException, IOException {
+        try {
+            SimpleBinaryReader.checkNoDeferredChildren(internal);
+            Drawing external = figureFactory.toExternalDrawing(internal);
+            idFactory.reset();
+            depth = 0;
+            indenting = true;
+
+            w.writeStartDocument("UTF-8", "1.0");
+            writeProcessingInstructions(w, external);
+            for (String string : external.get(SimpleXmlIO.XML_HEAD_COMMENT_KEY)) {
+                writeIndent(w);
+                w.writeComment(string);
+            }
+            writeIndent(w);
+            writeStartElement(w, figureFactory.figureToName(external));
+            if (namespaceURI != null) {
+                if (namespaceQualifier == null) {
+                    w.writeDefaultNamespace(namespaceURI);
+                } else {
+                    w.writeNamespace(namespaceQualifier, namespaceURI);
+                }
+            }
+            writeFigureContent(w, external);
+            for (String string : external.get(SimpleXmlIO.XML_EPILOG_COMMENT_KEY)) {
+                writeIndent(w);
+                w.writeComment(string);
+            }
+            w.writeCharacters("\n");
+            w.writeEndDocument();
+            w.flush();
+        } finally {
+            nodeListDocument = null;
+            w.close();
+        }
+    }
+
+    private void writeNodeRecursively(@Nonnull XMLStreamWriter w, @Nonnull Figure figure) throws IOException {
+        try {
+            String elementName = figureFactory.figureToName(figure);
+            if (elementName == null) {
+                // => the figureFactory decided that we should skip the figure
+                return;
+            }
+            for (String string : figure.get(SimpleXmlIO.XML_HEAD_COMMENT_KEY)) {
+                writeIndent(w);
+                w.writeComment(string);
+            }
+            writeIndent(w);
+            writeStartElement(w, elementName);
+            writeFigureContent(w, figure);
+        } catch (XMLStreamException | IOException e) {
+            throw new IOException("Error writing figure " + figure, e);
+        }
+    }
+
+    /**
+     * Writes the attributes, the node lists, the children and the body
+     * comments of a figure, and closes its element.
+     */
+    private void writeFigureContent(@Nonnull XMLStreamWriter w, @Nonnull Figure figure) throws XMLStreamException, IOException {
+        writeElementAttributes(w, figure);
+        boolean hasText = writeElementNodeList(w, figure);
+
+        depth++;
+        boolean hasChildElements = false;
+        for (Figure child : figure.getChildren()) {
+            if (figureFactory.figureToName(child) != null) {
+                if (hasText) {
+                    // we must not indent mixed content
+                    writeNodeRecursivelyWithoutIndent(w, child);
+                } else {
+                    writeNodeRecursively(w, child);
+                }
+                hasChildElements = true;
+            }
+        }
+        for (String string : figure.get(SimpleXmlIO.XML_BODY_COMMENT_KEY)) {
+            if (!hasText) {
+                writeIndent(w);
+            }
+            w.writeComment(string);
+            hasChildElements = true;
+        }
+        depth--;
+        if (hasChildElements && !hasText) {
+            writeIndent(w);
+        }
+        w.writeEndElement();
+    }
+
+    private void writeNodeRecursivelyWithoutIndent(@Nonnull XMLStreamWriter w, @Nonnull Figure figure) throws IOException {
+        boolean savedIndenting = indenting;
+        indenting = false;
+        try {
+            writeNodeRecursively(w, figure);
+        } finally {
+            indenting = savedIndenting;
+        }
+    }
+
+    private void writeIndent(@Nonnull XMLStreamWriter w) throws XMLStreamException {
+        if (indenting) {
+            StringBuilder buf = new StringBuilder(1 + depth * INDENT.length());
+            buf.append('\n');
+            for (int i = 0; i < depth; i++) {
+                buf.append(INDENT);
+            }
+            w.writeCharacters(buf.toString());
+        }
+    }
+
+    private void writeStartElement(@Nonnull XMLStreamWriter w, @Nonnull String unqualifiedName) throws XMLStreamException {
+        writtenAttributes.clear();
+        if (namespaceURI == null) {
+            w.writeStartElement(unqualifiedName);
+        } else if (namespaceQualifier == null) {
+            w.writeStartElement("", unqualifiedName, namespaceURI);
+        } else {
+            w.writeStartElement(namespaceQualifier, unqualifiedName, namespaceURI);
+        }
+    }
+
+    private void writeAttribute(@Nonnull XMLStreamWriter w, @Nonnull String unqualifiedName, @Nonnull String value) throws XMLStreamException {
+        if (!writtenAttributes.add(unqualifiedName)) {
+            return;
+        }
+        if (namespaceURI == null || namespaceQualifier == null) {
+            w.writeAttribute(unqualifiedName, value);
+        } else {
+            w.writeAttribute(namespaceQualifier, namespaceURI, unqualifiedName, value);
+        }
+    }
+
+    private void writeElementAttributes(@Nonnull XMLStreamWriter w, @Nonnull Figure figure) throws XMLStreamException, IOException {
+        String id = idFactory.createId(figure);
+        writeAttribute(w, figureFactory.getObjectIdAttribute(), id);
+
+        Set<MapAccessor<?>> todo = new LinkedHashSet<>(figureFactory.figureAttributeKeys(figure));
+
+        // First write all non-transient composite attributes, then write the remaining non-transient non-composite attributes
+        for (MapAccessor<?> k : new ArrayList<>(todo)) {
+            if (k instanceof CompositeMapAccessor) {
+                todo.remove(k);
+                if (!k.isTransient()) {
+                    @SuppressWarnings("unchecked") CompositeMapAccessor<Object> cmap = (CompositeMapAccessor<Object>) k;
+                    todo.removeAll(cmap.getSubAccessors());
+                    writeElementAttribute(w, figure, cmap);
+                }
+            }
+        }
+        for (MapAccessor<?> k : todo) {
+            if (!k.isTransient()) {
+                @SuppressWarnings("unchecked") MapAccessor<Object> key = (MapAccessor<Object>) k;
+                writeElementAttribute(w, figure, key);
+            }
+        }
+    }
+
+    private void writeElementAttribute(@Nonnull XMLStreamWriter w, @Nonnull Figure figure, @Nonnull MapAccessor<Object> key) throws XMLStreamException, IOException {
+        Object value = figure.get(key);
+        if (!key.isTransient() && !figureFactory.isDefaultValue(figure, key, value)) {
+            String name = figureFactory.keyToName(figure, key);
+            if (Figure.class.isAssignableFrom(key.getValueType())) {
+                writeAttribute(w, name, idFactory.createId(value));
+            } else {
+                writeAttribute(w, name, figureFactory.valueToString(key, value));
+            }
+        }
+    }
+
+    /**
+     * Writes the node lists of the figure.
+     *
+     * @return true if text has been written
+     */
+    private boolean writeElementNodeList(@Nonnull XMLStreamWriter w, @Nonnull Figure figure) throws XMLStreamException, IOException {
+        boolean hasText = false;
+        for (MapAccessor<?> k : figureFactory.figureNodeListKeys(figure)) {
+            @SuppressWarnings("unchecked")
+            MapAccessor<Object> key = (MapAccessor<Object>) k;
+            Object value = figure.get(key);
+            if (!key.isTransient() && figure.containsKey(StyleOrigin.USER, key) && !figureFactory.isDefaultValue(figure, key, value)) {
+                for (Node node : figureFactory.valueToNodeList(key, value, getNodeListDocument())) {
+                    writeNode(w, node);
+                    hasText = true;
+                }
+            }
+        }
+        return hasText;
+    }
+
+    /**
+     * Writes a DOM node of a node list.
+     */
+    private void writeNode(@Nonnull XMLStreamWriter w, @Nonnull Node node) throws XMLStreamException {
+        switch (node.getNodeType()) {
+            case Node.TEXT_NODE:
+                w.writeCharacters(node.getNodeValue());
+                break;
+            case Node.CDATA_SECTION_NODE:
+                w.writeCData(node.getNodeValue());
+                break;
+            case Node.COMMENT_NODE:
+                w.writeComment(node.getNodeValue());
+                break;
+            case Node.ELEMENT_NODE: {
+                String ns = node.getNamespaceURI();
+                String localName = node.getLocalName() == null ? node.getNodeName() : node.getLocalName();
+                if (ns == null) {
+                    w.writeStartElement(localName);
+                } else {
+                    String prefix = node.getPrefix() == null ? "" : node.getPrefix();
+                    w.writeStartElement(prefix, localName, ns);
+                    if (!ns.equals(w.getNamespaceContext().getNamespaceURI(prefix))) {
+                        w.writeNamespace(prefix, ns);
+                    }
+                }
+                NamedNodeMap attrs = node.getAttributes();
+                for (int i = 0, n = attrs.getLength(); i < n; i++) {
+                    Attr attr = (Attr) attrs.item(i);
+                    if (attr.getNamespaceURI() == null) {
+                        w.writeAttribute(attr.getName(), attr.getValue());
+                    } else {
+                        w.writeAttribute(attr.getPrefix() == null ? "" : attr.getPrefix(),
+                                attr.getNamespaceURI(), attr.getLocalName(), attr.getValue());
+                    }
+                }
+                NodeList children = node.getChildNodes();
+                for (int i = 0, n = children.getLength(); i < n; i++) {
+                    writeNode(w, children.item(i));
+                }
+                w.writeEndElement();
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    private void writeProcessingInstructions(@Nonnull XMLStreamWriter w, @Nonnull Drawing external) throws XMLStreamException {
+        MapAccessor<List<URI>> stylesheetsKey = figureFactory.getStylesheetsKey();
+        if (stylesheetsKey != null && external.get(stylesheetsKey) != null) {
+            for (Object stylesheet : external.get(stylesheetsKey)) {
+                if (stylesheet instanceof URI) {
+                    String stylesheetString = stylesheet.toString();
+                    String type = "text/" + stylesheetString.substring(stylesheetString.lastIndexOf('.') + 1);
+                    if ("text/".equals(type)) {
+                        type = "text/css";
+                    }
+                    writeIndent(w);
+                    w.writeProcessingInstruction("xml-stylesheet",
+                            "type=\"" + type + "\" href=\"" + stylesheet + "\"");
+                }
+            }
+        }
+    }
+
+    @Nonnull
+    private Document getNodeListDocument() throws IOException {
+        if (nodeListDocument == null) {
+            try {
+                DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
+                builderFactory.setNamespaceAware(true);
+                nodeListDocument = builderFactory.newDocumentBuilder().newDocument();
+            } catch (ParserConfigurationException e) {
+                throw new IOException(e);
+            }
+        }
+        return nodeListDocument;
+    }
+}
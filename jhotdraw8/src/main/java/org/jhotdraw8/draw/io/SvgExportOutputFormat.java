@@ -34,7 +34,6 @@ import org.jhotdraw8.svg.TransformFlattener;
 import org.jhotdraw8.svg.text.SvgPaintConverter;
 import org.jhotdraw8.svg.text.SvgTransformConverter;
 import org.jhotdraw8.text.Converter;
-import org.jhotdraw8.xml.XmlUtil;
 import org.jhotdraw8.xml.text.XmlNumberConverter;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -46,8 +45,11 @@ import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
@@ -143,6 +145,16 @@ public class SvgExportOutputFormat extends AbstractExportOutputFormat implements
         return doc;
     }
 
+    @Override
+    public void write(OutputStream out, Drawing drawing, Collection<Figure> selection) throws IOException {
+        Map<Key<?>, Object> hints = new HashMap<>();
+        RenderContext.RENDERING_INTENT.put(hints, RenderingIntent.EXPORT);
+        javafx.scene.Node drawingNode = toNode(drawing, selection, hints);
+        final SvgExporter exporter = createExporter();
+        exporter.setSkipInvisibleNodes(false);
+        exporter.write(new StreamResult(out), drawingNode, e -> writeDrawingElementAttributes(e, drawing));
+    }
+
     @Override
     public void write(@Nonnull Map<DataFormat, Object> clipboard, @Nonnull Drawing drawing, Collection<Figure> selection) throws IOException {
         setUriResolver(new UriResolver(drawing.get(Drawing.DOCUMENT_HOME), null));
@@ -161,10 +173,12 @@ public class SvgExportOutputFormat extends AbstractExportOutputFormat implements
 
     public void write(@Nonnull Path file, @Nonnull Drawing drawing, WorkState workState) throws IOException {
         if (isExportDrawing()) {
-            XmlOutputFormatMixin.super.write(file, drawing, workState);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                write(out, drawing, Collections.singleton(drawing));
+            }
         }
         if (isExportSlices()) {
-            writeSlices(file.getParent(), drawing);
+            writeSlices(file.getParent(), drawing, workState);
         }
         if (isExportPages()) {
             String basename = file.getFileName().toString();
@@ -172,11 +186,11 @@ public class SvgExportOutputFormat extends AbstractExportOutputFormat implements
             if (p != -1) {
                 basename = basename.substring(0, p);
             }
-            writePages(file.getParent(), basename, drawing);
+            writePages(file.getParent(), basename, drawing, workState);
         }
     }
 
-    private void writeDrawingElementAttributes(Element docElement, Drawing drawing) throws IOException {
+    private void writeDrawingElementAttributes(Element docElement, Drawing drawing) {
         docElement.setAttribute("width", sc.toString(drawing.get(Drawing.WIDTH)));
         docElement.setAttribute("height", sc.toString(drawing.get(Drawing.HEIGHT)));
     }
@@ -187,13 +201,13 @@ public class SvgExportOutputFormat extends AbstractExportOutputFormat implements
         markNodesOutsideBoundsWithSkip(node, Transforms.transform(page.getLocalToWorld(), page.getPageBounds(internalPageNumber)));
         node.getTransforms().setAll(page.getWorldToLocal());
         final SvgExporter exporter = createExporter();
-        final Document doc = exporter.toDocument(node);
-        writePageElementAttributes(doc.getDocumentElement(), page, internalPageNumber);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            exporter.write(new StreamResult(out), node, e -> writePageElementAttributes(e, page, internalPageNumber));
+        }
         node.getTransforms().clear();
-        XmlUtil.write(file, doc);
     }
 
-    private void writePageElementAttributes(Element docElement, Page page, int internalPageNumber) throws IOException {
+    private void writePageElementAttributes(Element docElement, Page page, int internalPageNumber) {
         Bounds b = page.getBoundsInLocal();
         Bounds pb = page.getPageBounds(internalPageNumber);
         docElement.setAttribute("width", sznb.toString(page.get(SimplePageFigure.PAPER_WIDTH)));
@@ -214,14 +228,14 @@ public class SvgExportOutputFormat extends AbstractExportOutputFormat implements
         }
         new TransformFlattener().flattenTranslates(node);
         final SvgExporter exporter = createExporter();
-        final Document doc = exporter.toDocument(node);
-        writeSliceElementAttributes(doc.getDocumentElement(), slice);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            exporter.write(new StreamResult(out), node, e -> writeSliceElementAttributes(e, slice));
+        }
         node.getTransforms().clear();
-        XmlUtil.write(file, doc);
         return true;
     }
 
-    private void writeSliceElementAttributes(Element docElement, Slice slice) throws IOException {
+    private void writeSliceElementAttributes(Element docElement, Slice slice) {
         Bounds b = slice.getBoundsInLocal();
         Point2D sliceOrigin = slice.getSliceOrigin();
         Transform tx = slice.getWorldToLocal();
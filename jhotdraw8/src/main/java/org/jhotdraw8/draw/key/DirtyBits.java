@@ -87,9 +87,13 @@ public enum DirtyBits {
     }
 
     /**
-     * API for DirtyMask.
+     * Returns the bit of this dirty bit in a bitmask.
+     * <p>
+     * This can be used for storing dirty bits in primitive int fields.
+     *
+     * @return the bitmask
      */
-    final int getMask() {
+    public final int getMask() {
         return mask;
     }
 
@@ -37,9 +37,13 @@ public class DirtyMask {
     }
 
     /**
-     * API for DirtyBits.
+     * Returns the dirty bits as a bitmask.
+     * <p>
+     * This can be used for storing dirty bits in primitive int fields.
+     *
+     * @return the bitmask
      */
-    final int getMask() {
+    public final int getMask() {
         return bitmask;
     }
 
@@ -19,10 +19,17 @@ import org.jhotdraw8.event.Listener;
 public abstract class AbstractDrawingModel extends AbstractTreeModel<Figure> implements DrawingModel {
 
     private final CopyOnWriteArrayList<Listener<DrawingModelEvent>> drawingModelListeners = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<BatchUpdateListener> batchUpdateListeners = new CopyOnWriteArrayList<>();
 
     @Nonnull
     @Override
     final public CopyOnWriteArrayList<Listener<DrawingModelEvent>> getDrawingModelListeners() {
         return drawingModelListeners;
     }
+
+    @Nonnull
+    @Override
+    final public CopyOnWriteArrayList<BatchUpdateListener> getBatchUpdateListeners() {
+        return batchUpdateListeners;
+    }
 }
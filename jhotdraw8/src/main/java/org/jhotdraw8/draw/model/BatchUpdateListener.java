@@ -0,0 +1,31 @@
+/* @(#)BatchUpdateListener.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.model;
+
+import org.jhotdraw8.annotation.Nonnull;
+
+/**
+ * Is notified when an outermost batch update of a {@link DrawingModel}
+ * begins and ends.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public interface BatchUpdateListener {
+
+    /**
+     * Invoked when the outermost batch update begins.
+     *
+     * @param model the drawing model
+     */
+    void batchUpdateBegun(@Nonnull DrawingModel model);
+
+    /**
+     * Invoked when the outermost batch update has ended, after the buffered
+     * events have been fired.
+     *
+     * @param model the drawing model
+     */
+    void batchUpdateEnded(@Nonnull DrawingModel model);
+}
@@ -88,6 +88,13 @@ public interface DrawingModel extends Observable, TreeModel<Figure> {
      */ 
     CopyOnWriteArrayList<InvalidationListener> getInvalidationListeners();
 
+    /**
+     * List of batch update listeners.
+     *
+     * @return a list of batch update listeners
+     */
+    CopyOnWriteArrayList<BatchUpdateListener> getBatchUpdateListeners();
+
     /**
      * The root of the drawing model.
      *
@@ -113,6 +120,25 @@ public interface DrawingModel extends Observable, TreeModel<Figure> {
         getDrawingModelListeners().remove(l);
     }
 
+    /**
+     * Adds a listener which is notified when an outermost batch update
+     * begins and ends.
+     *
+     * @param l the listener
+     */
+    default void addBatchUpdateListener(BatchUpdateListener l) {
+        getBatchUpdateListeners().add(l);
+    }
+
+    /**
+     * Removes a batch update listener.
+     *
+     * @param l the listener
+     */
+    default void removeBatchUpdateListener(BatchUpdateListener l) {
+        getBatchUpdateListeners().remove(l);
+    }
+
     @Override
     default void addListener( InvalidationListener l) {
         getInvalidationListeners().add(l);
@@ -332,6 +358,63 @@ public interface DrawingModel extends Observable, TreeModel<Figure> {
      */
     void validate(RenderContext ctx);
 
+    /**
+     * Begins a batch update.
+     * <p>
+     * Until the matching call of {@link #endUpdate}, the model does not
+     * notify its listeners about changes. Instead, it buffers the events and
+     * coalesces them: multiple changes of the same property of the same
+     * figure yield a single event, and so do multiple invalidations of the
+     * same figure. The events are fired when the outermost batch update
+     * ends, followed by a single invalidation of the model.
+     * <p>
+     * Batch updates can be nested. The {@link BatchUpdateListener}s are
+     * notified when the outermost batch update begins and ends.
+     */
+    void beginUpdate();
+
+    /**
+     * Ends a batch update, and fires the buffered events if this is the
+     * outermost batch update.
+     *
+     * @throws IllegalStateException if no batch update is in progress
+     */
+    void endUpdate();
+
+    /**
+     * Returns true while a batch update is in progress.
+     *
+     * @return true if a batch update is in progress
+     */
+    boolean isUpdating();
+
+    /**
+     * Performs the specified changes in a batch update.
+     *
+     * @param changes the changes
+     */
+    default void batch(@Nonnull Runnable changes) {
+        beginUpdate();
+        try {
+            changes.run();
+        } finally {
+            endUpdate();
+        }
+    }
+
+    /**
+     * Returns true while the model is being validated.
+     * <p>
+     * Property changes made during validation are derived from other
+     * properties, for example by applying stylesheets or by laying out
+     * figures.
+     *
+     * @return true if the model is being validated
+     */
+    default boolean isValidating() {
+        return false;
+    }
+
     // ---
     // convenience methods
     // ---
@@ -8,11 +8,13 @@ import javafx.beans.property.SimpleObjectProperty;
 import javafx.scene.transform.Transform;
 import org.jhotdraw8.annotation.Nonnull;
 import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.collection.IntArrayList;
 import org.jhotdraw8.collection.Key;
 import org.jhotdraw8.collection.MapAccessor;
 import org.jhotdraw8.collection.NonnullMapAccessor;
 import org.jhotdraw8.css.CssPoint2D;
 import org.jhotdraw8.css.CssSize;
+import org.jhotdraw8.draw.connector.OrthogonalConnectionRouter;
 import org.jhotdraw8.draw.figure.Drawing;
 import org.jhotdraw8.draw.figure.Figure;
 import org.jhotdraw8.draw.figure.FigurePropertyChangeEvent;
@@ -23,21 +25,27 @@ import org.jhotdraw8.draw.key.FigureKey;
 import org.jhotdraw8.draw.render.RenderContext;
 import org.jhotdraw8.draw.render.SimpleRenderContext;
 import org.jhotdraw8.event.Listener;
-import org.jhotdraw8.graph.DirectedGraphBuilder;
-import org.jhotdraw8.graph.GraphSearch;
 import org.jhotdraw8.tree.TreeModelEvent;
 
 import java.util.AbstractMap;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
-import java.util.function.BiFunction;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * A DrawingModel for drawings which contains {@code TransformableFigure}s and
@@ -56,6 +64,36 @@ public class SimpleDrawingModel extends AbstractDrawingModel {
         this.listenOnDrawing = listenOnDrawing;
     }
 
+    /**
+     * Whether figures are styled in parallel.
+     *
+     * @return true if figures are styled in parallel
+     */
+    public boolean isParallelStyling() {
+        return parallelStyling;
+    }
+
+    /**
+     * Sets whether figures are styled in parallel.
+     * <p>
+     * If this is set to true, and a large number of figures needs to be
+     * styled, method {@link #validate} computes the styles of the figures on
+     * the common {@link ForkJoinPool}. The figures are styled level by level,
+     * so that the ancestors of a figure have been styled when the figure is
+     * styled. If the stylesheets contain sibling selectors, the children of
+     * the same parent are styled by the same thread.
+     * <p>
+     * In parallel mode, {@link Figure#updateCss()} is invoked instead of
+     * {@link Figure#stylesheetNotify(RenderContext)}, except on the drawing.
+     * The figures are laid out in the layout phase, and all drawing model
+     * events are fired on the thread which invoked {@code validate}.
+     *
+     * @param newValue true if figures shall be styled in parallel
+     */
+    public void setParallelStyling(boolean newValue) {
+        this.parallelStyling = newValue;
+    }
+
     @Override
     public void invalidated() {
         // empty
@@ -105,10 +143,79 @@ public class SimpleDrawingModel extends AbstractDrawingModel {
     @Nonnull
     private MapProxy mapProxy = new MapProxy();
 
+    private final static int DIRTY_NODE = DirtyBits.NODE.getMask();
+    private final static int DIRTY_LAYOUT = DirtyBits.LAYOUT.getMask();
+    private final static int DIRTY_LAYOUT_OBSERVERS = DirtyBits.LAYOUT_OBSERVERS.getMask();
+    private final static int DIRTY_LAYOUT_OBSERVERS_ADDED_OR_REMOVED = DirtyBits.LAYOUT_OBSERVERS_ADDED_OR_REMOVED.getMask();
+    private final static int DIRTY_LAYOUT_SUBJECT = DirtyBits.LAYOUT_SUBJECT.getMask();
+    private final static int DIRTY_STYLE = DirtyBits.STYLE.getMask();
+    private final static int DIRTY_TRANSFORM = DirtyBits.TRANSFORM.getMask();
+
+    /**
+     * Figures are only styled in parallel, if at least this number of figures
+     * needs to be styled.
+     */
+    private final static int PARALLEL_STYLING_THRESHOLD = 1024;
+    /**
+     * A parallel styling task styles at most this number of figures
+     * sequentially.
+     */
+    private final static int PARALLEL_STYLING_CHUNK_SIZE = 256;
+
     private boolean isValidating = false;
     private boolean valid = true;
+    private boolean parallelStyling = false;
+    /**
+     * Holds the events which are fired by figures while they are styled in
+     * parallel. The events are fired after all figures have been styled.
+     */
+    @Nullable
+    private volatile Queue<DrawingModelEvent> deferredEvents;
+    /**
+     * The nesting depth of batch updates.
+     */
+    private int updateDepth;
+    /**
+     * Holds the events of a batch update in the order in which they were
+     * fired. A coalesced event is held at the position of its first
+     * occurrence. Tree model events are held as is, drawing model events
+     * are held by their key into {@link #pendingModelEvents}.
+     */
+    @Nonnull
+    private final List<Object> pendingEvents = new ArrayList<>();
+    /**
+     * Holds the figures for which "node changed" events were fired during a
+     * batch update.
+     */
+    @Nonnull
+    private final Set<Figure> pendingChangedNodes = new HashSet<>();
+    /**
+     * Holds the coalesced drawing model events of a batch update. The key is
+     * a pair of the figure and the property key for property changes, and a
+     * pair of the figure and the event type for all other events.
+     */
     @Nonnull
-    private Map<Figure, DirtyMask> dirties = new LinkedHashMap<>();
+    private final Map<Map.Entry<Figure, Object>, DrawingModelEvent> pendingModelEvents = new HashMap<>();
+    private boolean pendingInvalidation;
+    /**
+     * Maps each dirty figure to a dense index into {@link #dirtyFigures} and
+     * {@link #dirtyMasks}.
+     */
+    @Nonnull
+    private final Map<Figure, Integer> dirtyIndices = new HashMap<>();
+    /**
+     * The dirty figures in the order in which they were marked dirty.
+     * <p>
+     * A figure which has been removed from the drawing remains in this list
+     * until the next validation, but its dirty mask is cleared.
+     */
+    @Nonnull
+    private final List<Figure> dirtyFigures = new ArrayList<>();
+    /**
+     * The dirty masks of the dirty figures.
+     */
+    @Nonnull
+    private final IntArrayList dirtyMasks = new IntArrayList();
     private final Listener<FigurePropertyChangeEvent> propertyChangeHandler = this::handlePropertyChanged;
     @Nullable
     private final ObjectProperty<Drawing> root = new SimpleObjectProperty<Drawing>(this, ROOT_PROPERTY) {
@@ -122,16 +229,68 @@ public class SimpleDrawingModel extends AbstractDrawingModel {
             onRootChanged(oldValue, newValue);
         }
     };
-    @Nonnull
-    private BiFunction<? super DirtyMask, ? super DirtyMask, ? extends DirtyMask> mergeDirtyMask
-            = (a, b) -> a.add(b);
 
     private void invalidate() {
         if (valid) {
             valid = false;
-            fireDrawingModelInvalidated();
+            if (updateDepth > 0) {
+                pendingInvalidation = true;
+            } else {
+                fireDrawingModelInvalidated();
+            }
+        }
+    }
+
+    @Override
+    public void beginUpdate() {
+        if (updateDepth++ == 0) {
+            for (BatchUpdateListener l : getBatchUpdateListeners()) {
+                l.batchUpdateBegun(this);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void endUpdate() {
+        if (updateDepth == 0) {
+            throw new IllegalStateException("no batch update in progress");
+        }
+        if (--updateDepth > 0) {
+            return;
+        }
+
+        // Copy the buffers, because listeners may change the model again
+        List<Object> events = new ArrayList<>(pendingEvents);
+        Map<Map.Entry<Figure, Object>, DrawingModelEvent> modelEvents = new HashMap<>(pendingModelEvents);
+        boolean fireInvalidated = pendingInvalidation;
+        pendingEvents.clear();
+        pendingChangedNodes.clear();
+        pendingModelEvents.clear();
+        pendingInvalidation = false;
+
+        try {
+            for (Object event : events) {
+                if (event instanceof TreeModelEvent) {
+                    super.fireTreeModelEvent((TreeModelEvent<Figure>) event);
+                } else {
+                    super.fireDrawingModelEvent(modelEvents.get(event));
+                }
+            }
+            if (fireInvalidated && !valid) {
+                fireDrawingModelInvalidated();
+            }
+        } finally {
+            for (BatchUpdateListener l : getBatchUpdateListeners()) {
+                l.batchUpdateEnded(this);
+            }
         }
     }
+
+    @Override
+    public boolean isUpdating() {
+        return updateDepth > 0;
+    }
     private final boolean listenOnDrawing;
 
     private void onRootChanged(@Nullable Drawing oldValue, @Nullable Drawing newValue) {
@@ -151,9 +310,15 @@ public class SimpleDrawingModel extends AbstractDrawingModel {
     @SuppressWarnings("unchecked")
     private void handlePropertyChanged(FigurePropertyChangeEvent event) {
         if (!Objects.equals(event.getOldValue(), event.getNewValue())) {
-            fireDrawingModelEvent(DrawingModelEvent.propertyValueChanged(this, event.getSource(),
+            DrawingModelEvent modelEvent = DrawingModelEvent.propertyValueChanged(this, event.getSource(),
                     (Key<Object>) event.getKey(), event.getOldValue(),
-                    event.getNewValue()));
+                    event.getNewValue());
+            Queue<DrawingModelEvent> deferred = deferredEvents;
+            if (deferred != null) {
+                deferred.add(modelEvent);
+            } else {
+                fireDrawingModelEvent(modelEvent);
+            }
         }
     }
 
@@ -167,15 +332,40 @@ public class SimpleDrawingModel extends AbstractDrawingModel {
     }
 
     private void markDirty(Figure figure, DirtyBits... bits) {
-        dirties.merge(figure, DirtyMask.of(bits), mergeDirtyMask);
+        int mask = 0;
+        for (DirtyBits bit : bits) {
+            mask |= bit.getMask();
+        }
+        markDirty(figure, mask);
     }
 
     private void markDirty(Figure figure, @Nonnull DirtyMask mask) {
-        dirties.merge(figure, mask, mergeDirtyMask);
+        markDirty(figure, mask.getMask());
+    }
+
+    private void markDirty(Figure figure, int mask) {
+        Integer index = dirtyIndices.get(figure);
+        if (index == null) {
+            dirtyIndices.put(figure, dirtyFigures.size());
+            dirtyFigures.add(figure);
+            dirtyMasks.add(mask);
+        } else {
+            int i = index;
+            dirtyMasks.set(i, dirtyMasks.get(i) | mask);
+        }
     }
 
     private void removeDirty(Figure figure) {
-        dirties.remove(figure);
+        Integer index = dirtyIndices.remove(figure);
+        if (index != null) {
+            dirtyMasks.set(index, 0);
+        }
+    }
+
+    private void clearDirty() {
+        dirtyIndices.clear();
+        dirtyFigures.clear();
+        dirtyMasks.clear();
     }
 
     @Nullable
@@ -370,55 +560,63 @@ public class SimpleDrawingModel extends AbstractDrawingModel {
         }
     }
 
+    @Override
+    public boolean isValidating() {
+        return isValidating;
+    }
+
     @Override
     public void validate(RenderContext ctx) {
         if (!valid) {
             isValidating = true;
 
+            // The dirty figures are processed in phases. Each phase iterates
+            // over the dirty figures by their dense index. If a phase marks
+            // new figures as dirty, they are appended to the end of the list.
+            // A phase which must not process them, only iterates up to the
+            // size of the list at the start of the phase.
+
             // all figures with dirty bit LAYOUT_SUBJECT
             // invoke layoutSubjectChangedNotify
             // all figures with dirty bit LAYOUT_OBSERVERS
             // invoke layoutSubjectChangedNotify
-            DirtyMask dmLayoutSubject = DirtyMask.of(DirtyBits.LAYOUT_SUBJECT);
-            DirtyMask dmLayoutObserversAddRemove = DirtyMask.of(DirtyBits.LAYOUT_OBSERVERS_ADDED_OR_REMOVED);
-            for (Map.Entry<Figure, DirtyMask> entry : new ArrayList<>(dirties.entrySet())) {
-                DirtyMask dm = entry.getValue();
-                if (dm.intersects(dmLayoutSubject)) {
-                    Figure f = entry.getKey();
-                    f.layoutSubjectChangedNotify();
+            int n = dirtyFigures.size();
+            for (int i = 0; i < n; i++) {
+                int dm = dirtyMasks.get(i);
+                if ((dm & DIRTY_LAYOUT_SUBJECT) != 0) {
+                    dirtyFigures.get(i).layoutSubjectChangedNotify();
                 }
-                if (dm.intersects(dmLayoutObserversAddRemove)) {
-                    Figure f = entry.getKey();
-                    f.layoutObserverChangedNotify();
+                if ((dm & DIRTY_LAYOUT_OBSERVERS_ADDED_OR_REMOVED) != 0) {
+                    dirtyFigures.get(i).layoutObserverChangedNotify();
                 }
             }
 
             // all figures with dirty bit "STYLE"
             // invoke stylesheetNotify
             // induce a dirty bit "TRANSFORM", "NODE" and "LAYOUT
-            final Set<Figure> visited = new HashSet<>((int) (dirties.size() * 1.4));
-            DirtyMask dmStyle = DirtyMask.of(DirtyBits.STYLE);
-            for (Map.Entry<Figure, DirtyMask> entry : new ArrayList<>(dirties.entrySet())) {
-                DirtyMask dm = entry.getValue();
-                Figure f = entry.getKey();
-                if (dm.intersects(dmStyle) && visited.add(f)) {
-                    f.stylesheetNotify(ctx);
-                    markDirty(f, DirtyBits.NODE, DirtyBits.TRANSFORM, DirtyBits.LAYOUT);
+            n = dirtyFigures.size();
+            if (parallelStyling && n >= PARALLEL_STYLING_THRESHOLD) {
+                stylesheetNotifyInParallel(ctx, n);
+            } else {
+                for (int i = 0; i < n; i++) {
+                    if ((dirtyMasks.get(i) & DIRTY_STYLE) != 0) {
+                        dirtyFigures.get(i).stylesheetNotify(ctx);
+                        dirtyMasks.set(i, dirtyMasks.get(i) | DIRTY_NODE | DIRTY_TRANSFORM | DIRTY_LAYOUT);
+                    }
                 }
             }
 
             // all figures with dirty bit "TRANSFORM"
             // induce dirty bits "TRANSFORM" and "LAYOUT_OBSERVERS" on all descendants which implement the TransformableFigure interface.
-            visited.clear();
-            DirtyMask dmTransform = DirtyMask.of(DirtyBits.TRANSFORM);
-            for (Map.Entry<Figure, DirtyMask> entry : new ArrayList<>(dirties.entrySet())) {
-                Figure f = entry.getKey();
-                DirtyMask dm = entry.getValue();
-                if (dm.intersects(dmTransform) && visited.add(f)) {
+            final Set<Figure> visited = new HashSet<>();
+            n = dirtyFigures.size();
+            for (int i = 0; i < n; i++) {
+                Figure f = dirtyFigures.get(i);
+                if ((dirtyMasks.get(i) & DIRTY_TRANSFORM) != 0 && visited.add(f)) {
                     for (Figure a : f.preorderIterable()) {
                         if (visited.add(a)) {
                             if (a instanceof TransformableFigure) {
-                                markDirty(a, DirtyBits.TRANSFORM, DirtyBits.LAYOUT_OBSERVERS);
+                                markDirty(a, DIRTY_TRANSFORM | DIRTY_LAYOUT_OBSERVERS);
                             }
                         }
                     }
@@ -426,28 +624,19 @@ public class SimpleDrawingModel extends AbstractDrawingModel {
             }
             // all figures with dirty bit "TRANSFORM"
             // invoke transformNotify
-            for (Map.Entry<Figure, DirtyMask> entry : new ArrayList<>(dirties.entrySet())) {
-                Figure f = entry.getKey();
-                DirtyMask dm = entry.getValue();
-                if (dm.intersects(dmTransform)) {
-                    f.transformNotify();
+            n = dirtyFigures.size();
+            for (int i = 0; i < n; i++) {
+                if ((dirtyMasks.get(i) & DIRTY_TRANSFORM) != 0) {
+                    dirtyFigures.get(i).transformNotify();
                 }
             }
             // for all figures with dirty bit "LAYOUT" we must also update the node of their layoutable parents
-            DirtyMask dmLayout = DirtyMask.of(DirtyBits.LAYOUT);
-            for (Map.Entry<Figure, DirtyMask> entry : new ArrayList<>(dirties.entrySet())) {
-                Figure f = entry.getKey();
-                DirtyMask dm = entry.getValue();
-                if (dm.intersects(dmLayout)) {
-                    for (Figure p : f.ancestorIterable()) {
-                        if (p == f) {
-                            continue;
-                        }
-                        if (p.isLayoutable()) {
-                            markDirty(p, DirtyBits.LAYOUT, DirtyBits.NODE);
-                        } else {
-                            break;
-                        }
+            n = dirtyFigures.size();
+            for (int i = 0; i < n; i++) {
+                if ((dirtyMasks.get(i) & DIRTY_LAYOUT) != 0) {
+                    Figure f = dirtyFigures.get(i);
+                    for (Figure p = f.getParent(); p != null && p.isLayoutable(); p = p.getParent()) {
+                        markDirty(p, DIRTY_LAYOUT | DIRTY_NODE);
                     }
                 }
             }
@@ -455,88 +644,328 @@ public class SimpleDrawingModel extends AbstractDrawingModel {
             // all figures with dirty bit "LAYOUT" must be laid out
             // all observers of figures with dirty bit "LAYOUT_OBBSERVERS" must be laid out.
             // all layoutable parents must be laid out.
-            visited.clear();
-            DirtyMask dmLayoutObservers = DirtyMask.of(DirtyBits.LAYOUT_OBSERVERS);
-            Set<Figure> todo = new LinkedHashSet<>(dirties.size()); // FIXME will probably be more than dirties.size!
-            for (Map.Entry<Figure, DirtyMask> entry : new ArrayList<>(dirties.entrySet())) {
-                Figure f = entry.getKey();
-                DirtyMask dm = entry.getValue();
-
-                if (visited.add(f)) {
-                    if (dm.intersects(dmLayout)) {
-                        for (Figure a : f.preorderIterable()) {
-                            todo.add(a);
-                        }
-                    } else if (dm.intersects(dmLayoutObservers)) {
-                        for (Figure obs : f.getLayoutObservers()) {
-                            todo.add(obs);
-                        }
+            Set<Figure> todo = new LinkedHashSet<>();
+            n = dirtyFigures.size();
+            for (int i = 0; i < n; i++) {
+                int dm = dirtyMasks.get(i);
+                Figure f = dirtyFigures.get(i);
+                if ((dm & DIRTY_LAYOUT) != 0) {
+                    for (Figure a : f.preorderIterable()) {
+                        todo.add(a);
                     }
+                } else if ((dm & DIRTY_LAYOUT_OBSERVERS) != 0) {
+                    todo.addAll(f.getLayoutObservers());
                 }
             }
-            // build a graph which includes all figures that must be laid out and all their observers
-            // transitively
-            visited.clear();
-            DirectedGraphBuilder<Figure, Figure> graphBuilder = new DirectedGraphBuilder<>();
-            while (!todo.isEmpty()) {
-                Figure f = todo.iterator().next();
-                todo.remove(f);
-                if (visited.add(f)) {
-                    graphBuilder.addVertex(f);
-                    for (Figure obs : f.getLayoutObservers()) {
-                        graphBuilder.addVertex(obs);
-                        graphBuilder.addArrow(f, obs, f);
-                        todo.add(obs);
-                    }
-                }
+            // lay out all figures that must be laid out and all their
+            // observers transitively
+            for (Figure f : sortLayoutTopologically(todo)) {
+                f.layoutNotify(ctx);
+                markDirty(f, DIRTY_NODE);
             }
-            visited.clear();
-            if (graphBuilder.getVertexCount() > 0) {
-                for (Figure f : GraphSearch.sortTopologically(graphBuilder)) {
-                    if (visited.add(f)) {
-                        f.layoutNotify(ctx);
-                        markDirty(f, DirtyBits.NODE);
+
+            // all figures with dirty bit "LAYOUT" or "TRANSFORM" may have
+            // moved obstacles of orthogonal connections:
+            // lay out the connections whose route has become invalid
+            Drawing drawing = getDrawing();
+            OrthogonalConnectionRouter router = drawing == null ? null : OrthogonalConnectionRouter.getExistingRouter(drawing);
+            if (router != null) {
+                List<Figure> moved = new ArrayList<>();
+                n = dirtyFigures.size();
+                for (int i = 0; i < n; i++) {
+                    if ((dirtyMasks.get(i) & (DIRTY_LAYOUT | DIRTY_TRANSFORM)) != 0) {
+                        moved.add(dirtyFigures.get(i));
                     }
                 }
+                for (Figure f : router.updateObstacles(moved)) {
+                    f.layoutNotify(ctx);
+                    markDirty(f, DIRTY_NODE);
+                }
             }
 
             // For all figures with dirty flag Node
             // we must fireNodeInvalidated node
-            DirtyMask dmNode = DirtyMask.of(DirtyBits.NODE);
-            for (Map.Entry<Figure, DirtyMask> entry : dirties.entrySet()) {
-                Figure f = entry.getKey();
-                DirtyMask dm = entry.getValue();
-                if (dm.intersects(dmNode)) {
-                    fireNodeInvalidated(f);
+            n = dirtyFigures.size();
+            for (int i = 0; i < n; i++) {
+                if ((dirtyMasks.get(i) & DIRTY_NODE) != 0) {
+                    fireNodeInvalidated(dirtyFigures.get(i));
                 }
             }
 
-            for (Map.Entry<Figure, DirtyMask> entry : dirties.entrySet()) {
-                Figure f = entry.getKey();
-                DirtyMask dm = entry.getValue();
-                if (dm.intersects(dmTransform)) {
-                    f.transformNotify();
+            for (int i = 0; i < n; i++) {
+                if ((dirtyMasks.get(i) & DIRTY_TRANSFORM) != 0) {
+                    dirtyFigures.get(i).transformNotify();
                 }
             }
-            dirties.clear();
+            clearDirty();
 
             isValidating = false;
             valid = true;
         }
     }
 
+    /**
+     * Styles the first {@code n} dirty figures with dirty bit "STYLE" in
+     * parallel.
+     * <p>
+     * The drawing is styled first, because it provides the stylesheets for
+     * all other figures. Then the figures are grouped by their depth in the
+     * tree. The groups are styled one after the other, and the figures in
+     * each group are styled in parallel. Thus the selectors of a figure
+     * only see ancestors which have already been styled, and no figure is
+     * read while it is being styled by another thread. If the stylesheets
+     * contain sibling selectors, siblings are styled by the same thread.
+     *
+     * @param ctx the render context
+     * @param n   the number of dirty figures to be processed
+     */
+    private void stylesheetNotifyInParallel(@Nonnull RenderContext ctx, int n) {
+        Drawing drawing = getDrawing();
+        List<List<Figure>> levels = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int dm = dirtyMasks.get(i);
+            if ((dm & DIRTY_STYLE) != 0) {
+                Figure f = dirtyFigures.get(i);
+                if (f == drawing) {
+                    f.stylesheetNotify(ctx);
+                } else {
+                    int depth = 0;
+                    for (Figure p = f.getParent(); p != null; p = p.getParent()) {
+                        depth++;
+                    }
+                    while (levels.size() <= depth) {
+                        levels.add(new ArrayList<>());
+                    }
+                    levels.get(depth).add(f);
+                }
+                dirtyMasks.set(i, dm | DIRTY_NODE | DIRTY_TRANSFORM | DIRTY_LAYOUT);
+            }
+        }
+
+        boolean keepSiblingsTogether = drawing == null || drawing.getStyleManager().hasSiblingSelectors();
+        Queue<DrawingModelEvent> deferred = new ConcurrentLinkedQueue<>();
+        deferredEvents = deferred;
+        try {
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            for (List<Figure> level : levels) {
+                if (level.isEmpty()) {
+                    continue;
+                }
+                if (keepSiblingsTogether) {
+                    level = groupByParent(level);
+                }
+                pool.invoke(new UpdateCssTask(level, 0, level.size(), keepSiblingsTogether));
+            }
+        } finally {
+            deferredEvents = null;
+        }
+        for (DrawingModelEvent event; (event = deferred.poll()) != null; ) {
+            fireDrawingModelEvent(event);
+        }
+    }
+
+    /**
+     * Returns a list which contains the specified figures, so that children
+     * of the same parent are adjacent.
+     *
+     * @param figures the figures
+     * @return the figures grouped by parent
+     */
+    @Nonnull
+    private static List<Figure> groupByParent(@Nonnull List<Figure> figures) {
+        Map<Figure, List<Figure>> groups = new LinkedHashMap<>();
+        for (Figure f : figures) {
+            groups.computeIfAbsent(f.getParent(), k -> new ArrayList<>()).add(f);
+        }
+        List<Figure> result = new ArrayList<>(figures.size());
+        for (List<Figure> group : groups.values()) {
+            result.addAll(group);
+        }
+        return result;
+    }
+
+    /**
+     * Invokes {@link Figure#updateCss()} on a range of figures.
+     * <p>
+     * The range is split in halves until it is small enough. If siblings must
+     * be kept together, the range is only split between children of
+     * different parents.
+     */
+    private static class UpdateCssTask extends RecursiveAction {
+
+        private final static long serialVersionUID = 1L;
+        @Nonnull
+        private final List<Figure> figures;
+        private final int from;
+        private final int to;
+        private final boolean keepSiblingsTogether;
+
+        UpdateCssTask(@Nonnull List<Figure> figures, int from, int to, boolean keepSiblingsTogether) {
+            this.figures = figures;
+            this.from = from;
+            this.to = to;
+            this.keepSiblingsTogether = keepSiblingsTogether;
+        }
+
+        @Override
+        protected void compute() {
+            int mid = to - from <= PARALLEL_STYLING_CHUNK_SIZE ? from : findSplitIndex();
+            if (mid == from) {
+                for (int i = from; i < to; i++) {
+                    figures.get(i).updateCss();
+                }
+            } else {
+                invokeAll(new UpdateCssTask(figures, from, mid, keepSiblingsTogether),
+                        new UpdateCssTask(figures, mid, to, keepSiblingsTogether));
+            }
+        }
+
+        /**
+         * Returns an index in the range (from,to) at which the range can be
+         * split, or {@code from} if the range can not be split.
+         */
+        private int findSplitIndex() {
+            int mid = (from + to) >>> 1;
+            if (!keepSiblingsTogether) {
+                return mid;
+            }
+            Figure parent = figures.get(mid).getParent();
+            for (int i = mid; i > from; i--) {
+                if (figures.get(i - 1).getParent() != parent) {
+                    return i;
+                }
+            }
+            for (int i = mid + 1; i < to; i++) {
+                if (figures.get(i).getParent() != parent) {
+                    return i;
+                }
+            }
+            return from;
+        }
+    }
+
+    /**
+     * Sorts the specified figures and all their transitive layout observers
+     * topologically.
+     * <p>
+     * The layout observers of the figures form the layout dependency graph.
+     * The graph is maintained incrementally by the figures. Here we only
+     * traverse the part of the graph which is reachable from the specified
+     * figures. Thus the time needed for sorting is proportional to the number
+     * of dependent figures, and not to the size of the drawing.
+     * <p>
+     * Independent figures are returned in the iteration order of the
+     * specified collection. If the graph contains a cycle, the cycle is
+     * broken at an arbitrary arrow.
+     *
+     * @param figures the figures
+     * @return the figures and their transitive layout observers in
+     * topological order
+     */
+    @Nonnull
+    private List<Figure> sortLayoutTopologically(@Nonnull Collection<Figure> figures) {
+        // We perform a depth first search and return the vertices in reverse
+        // post order. To keep independent figures in iteration order, we
+        // start the searches from the last figure.
+        List<Figure> roots = new ArrayList<>(figures);
+        Set<Figure> visited = new HashSet<>();
+        List<Figure> postOrder = new ArrayList<>();
+        Deque<Figure> stack = new ArrayDeque<>();
+        Deque<Iterator<Figure>> iterators = new ArrayDeque<>();
+        for (int i = roots.size() - 1; i >= 0; i--) {
+            Figure root = roots.get(i);
+            if (!visited.add(root)) {
+                continue;
+            }
+            stack.push(root);
+            iterators.push(root.getLayoutObservers().iterator());
+            while (!stack.isEmpty()) {
+                Iterator<Figure> it = iterators.peek();
+                if (it.hasNext()) {
+                    Figure next = it.next();
+                    if (visited.add(next)) {
+                        stack.push(next);
+                        iterators.push(next.getLayoutObservers().iterator());
+                    }
+                } else {
+                    postOrder.add(stack.pop());
+                    iterators.pop();
+                }
+            }
+        }
+        Collections.reverse(postOrder);
+        return postOrder;
+    }
+
     @Override
     public void fireDrawingModelEvent(@Nonnull DrawingModelEvent event) {
-        super.fireDrawingModelEvent(event);
+        if (updateDepth > 0) {
+            bufferDrawingModelEvent(event);
+        } else {
+            super.fireDrawingModelEvent(event);
+        }
         handleDrawingModelEvent(event);
     }
 
     @Override
     public void fireTreeModelEvent(@Nonnull TreeModelEvent<Figure> event) {
-        super.fireTreeModelEvent(event);
+        if (updateDepth > 0) {
+            bufferTreeModelEvent(event);
+        } else {
+            super.fireTreeModelEvent(event);
+        }
         handleTreeModelEvent(event);
     }
 
+    /**
+     * Buffers a drawing model event during a batch update. Property changes
+     * of the same figure and key are merged into a single event which
+     * carries the first old value and the last new value.
+     */
+    @SuppressWarnings("unchecked")
+    private void bufferDrawingModelEvent(@Nonnull DrawingModelEvent event) {
+        Figure figure = event.getNode();
+        if (event.getEventType() == DrawingModelEvent.EventType.PROPERTY_VALUE_CHANGED) {
+            Key<Object> key = event.getKey();
+            Map.Entry<Figure, Object> k = new AbstractMap.SimpleImmutableEntry<>(figure, key);
+            DrawingModelEvent pending = pendingModelEvents.get(k);
+            if (pending == null) {
+                pendingEvents.add(k);
+            }
+            pendingModelEvents.put(k, pending == null ? event
+                    : DrawingModelEvent.propertyValueChanged(this, figure, key, pending.getOldValue(), event.getNewValue()));
+        } else {
+            Map.Entry<Figure, Object> k = new AbstractMap.SimpleImmutableEntry<>(figure, event.getEventType());
+            if (pendingModelEvents.putIfAbsent(k, event) == null) {
+                pendingEvents.add(k);
+            }
+        }
+    }
+
+    /**
+     * Buffers a tree model event during a batch update. "Node changed"
+     * events are merged per figure. A "root changed" event discards all
+     * buffered events, because they concern the old root.
+     */
+    private void bufferTreeModelEvent(@Nonnull TreeModelEvent<Figure> event) {
+        switch (event.getEventType()) {
+            case NODE_CHANGED:
+                if (pendingChangedNodes.add(event.getNode())) {
+                    pendingEvents.add(event);
+                }
+                break;
+            case ROOT_CHANGED:
+                pendingEvents.clear();
+                pendingChangedNodes.clear();
+                pendingModelEvents.clear();
+                pendingEvents.add(event);
+                break;
+            default:
+                pendingEvents.add(event);
+                break;
+        }
+    }
+
     protected void handleDrawingModelEvent(@Nonnull DrawingModelEvent event) {
         if (isValidating) {
             return;
@@ -619,6 +1048,13 @@ public class SimpleDrawingModel extends AbstractDrawingModel {
             case NODE_REMOVED_FROM_TREE:
                 if (event.getRoot() instanceof Drawing) {
                     figure.removeNotify((Drawing) event.getRoot());
+                    OrthogonalConnectionRouter router = OrthogonalConnectionRouter.getExistingRouter((Drawing) event.getRoot());
+                    if (router != null) {
+                        for (Figure f : router.remove(figure)) {
+                            markDirty(f, DirtyBits.LAYOUT, DirtyBits.NODE);
+                            invalidate();
+                        }
+                    }
                 }
                 removeDirty(figure);
                 break;
@@ -629,7 +1065,7 @@ public class SimpleDrawingModel extends AbstractDrawingModel {
             case NODE_CHANGED:
                 break;
             case ROOT_CHANGED:
-                dirties.clear();
+                clearDirty();
                 valid = true;
                 break;
             case SUBTREE_NODES_CHANGED:
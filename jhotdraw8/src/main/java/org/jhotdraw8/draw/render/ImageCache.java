@@ -0,0 +1,401 @@
+/* @(#)ImageCache.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.render;
+
+import javafx.geometry.Dimension2D;
+import javafx.scene.image.Image;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.concurrent.TaskScheduler;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * A size-bounded cache for images, which are shared by all figures that
+ * refer to the same URI.
+ * <p>
+ * The cache holds mipmap levels of each image. Level 0 has the full
+ * resolution of the image, each following level has half of the width and
+ * height of the previous level. {@link #getImage} returns the smallest level
+ * which is still large enough for the requested size. Thus, when a drawing
+ * is zoomed out, the cache does not hold the full resolution of an image.
+ * <p>
+ * The size of the images in the cache is bounded by a memory budget. When
+ * the budget is exceeded, the least recently used images are evicted from
+ * the cache. Evicted images stay valid for as long as they are referenced
+ * by a node.
+ * <p>
+ * To determine the levels of an image, the cache reads the size of the image
+ * from the header of the image file. The size is read in the background, so
+ * that {@link #getImage} never blocks on I/O. Until the size is known, the
+ * cache provides an image which is loaded with the requested size. If the
+ * size can not be read, the cache only provides level 0.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class ImageCache {
+
+    /**
+     * The default memory budget is 256 MiB.
+     */
+    public final static long DEFAULT_MEMORY_BUDGET = 256L << 20;
+    /**
+     * Levels smaller than this size are not created.
+     */
+    private final static int MIN_LEVEL_SIZE = 8;
+    /**
+     * The maximal number of image sizes that are remembered.
+     */
+    private final static int MAX_IMAGE_SIZES = 4096;
+    private final static int[] UNKNOWN_SIZE = new int[0];
+    /**
+     * The level of an image which is loaded with the requested size, because
+     * the size of the image has not been read yet.
+     */
+    private final static int PENDING_LEVEL = -1;
+
+    @Nullable
+    private static ImageCache instance;
+
+    /**
+     * The levels, in the order of their last access.
+     */
+    @Nonnull
+    private final LinkedHashMap<LevelKey, CacheEntry> levels = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * The full size of the images.
+     */
+    @Nonnull
+    private final Map<URI, int[]> imageSizes = new LinkedHashMap<URI, int[]>(16, 0.75f, true) {
+        private final static long serialVersionUID = 0L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<URI, int[]> eldest) {
+            return size() > MAX_IMAGE_SIZES;
+        }
+    };
+    /**
+     * The images whose size is being read.
+     */
+    @Nonnull
+    private final Set<URI> pendingSizes = new HashSet<>();
+    /**
+     * The executor for reading the size of the images.
+     */
+    @Nonnull
+    private final Executor executor;
+    private long memoryBudget;
+    private long memorySize;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    private static class LevelKey {
+
+        @Nonnull
+        final URI uri;
+        final int level;
+
+        LevelKey(@Nonnull URI uri, int level) {
+            this.uri = uri;
+            this.level = level;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            LevelKey that = (LevelKey) o;
+            return level == that.level && uri.equals(that.uri);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(uri, level);
+        }
+    }
+
+    private static class CacheEntry {
+
+        @Nullable
+        final Image image;
+        long memorySize;
+
+        CacheEntry(@Nullable Image image, long memorySize) {
+            this.image = image;
+            this.memorySize = memorySize;
+        }
+    }
+
+    /**
+     * Creates a new instance with the default memory budget.
+     */
+    public ImageCache() {
+        this(DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param memoryBudget the memory budget in bytes
+     */
+    public ImageCache(long memoryBudget) {
+        this(memoryBudget, TaskScheduler.getInstance().getExecutor(TaskScheduler.Category.IO));
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param memoryBudget the memory budget in bytes
+     * @param executor     the executor for reading the size of the images
+     */
+    public ImageCache(long memoryBudget, @Nonnull Executor executor) {
+        this.executor = executor;
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Returns the image cache which is shared by all drawings.
+     *
+     * @return the shared instance
+     */
+    @Nonnull
+    public static synchronized ImageCache getInstance() {
+        if (instance == null) {
+            instance = new ImageCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets an image.
+     *
+     * @param uri    the absolute URI of the image
+     * @param width  the width in pixels which is needed, or 0 if the full
+     *               resolution is needed
+     * @param height the height in pixels which is needed, or 0 if the full
+     *               resolution is needed
+     * @return the image, the image is loaded in the background
+     * @throws IllegalArgumentException if the image can not be loaded from
+     *                                  the URI
+     */
+    @Nullable
+    public synchronized Image getImage(@Nonnull URI uri, double width, double height) {
+        int[] size = getImageSize(uri);
+        int level = 0;
+        int levelWidth = 0, levelHeight = 0;
+        if (size == null) {
+            // the size is being read, we load the image with the requested size
+            if (width > 0 && height > 0) {
+                level = PENDING_LEVEL;
+                levelWidth = (int) Math.ceil(width);
+                levelHeight = (int) Math.ceil(height);
+            }
+        } else if (size != UNKNOWN_SIZE) {
+            levelWidth = size[0];
+            levelHeight = size[1];
+            if (width > 0 && height > 0) {
+                while (levelWidth / 2 >= Math.max(width, MIN_LEVEL_SIZE)
+                        && levelHeight / 2 >= Math.max(height, MIN_LEVEL_SIZE)) {
+                    levelWidth /= 2;
+                    levelHeight /= 2;
+                    level++;
+                }
+            }
+        }
+
+        LevelKey key = new LevelKey(uri, level);
+        CacheEntry entry = levels.get(key);
+        if (entry != null) {
+            hitCount++;
+            return entry.image;
+        }
+        missCount++;
+        Image image = level == 0 ? createImage(uri, 0, 0) : createImage(uri, levelWidth, levelHeight);
+        CacheEntry newEntry = new CacheEntry(image, 4L * levelWidth * levelHeight);
+        if (size == UNKNOWN_SIZE && image != null) {
+            // we learn the size of the image when it has been loaded
+            image.progressProperty().addListener((o, oldValue, newValue) -> {
+                if (newValue.doubleValue() >= 1.0) {
+                    updateMemorySize(key, newEntry, 4L * (long) image.getWidth() * (long) image.getHeight());
+                }
+            });
+        }
+        levels.put(key, newEntry);
+        memorySize += newEntry.memorySize;
+        trim();
+        return image;
+    }
+
+    private synchronized void updateMemorySize(@Nonnull LevelKey key, @Nonnull CacheEntry entry, long newSize) {
+        if (levels.get(key) == entry) {
+            memorySize += newSize - entry.memorySize;
+        }
+        entry.memorySize = newSize;
+        trim();
+    }
+
+    /**
+     * Creates an image. Subclasses may override this method.
+     *
+     * @param uri    the URI of the image
+     * @param width  the requested width, or 0 for the full width
+     * @param height the requested height, or 0 for the full height
+     * @return the image
+     */
+    @Nullable
+    protected Image createImage(@Nonnull URI uri, int width, int height) {
+        return new Image(uri.toString(), width, height, false, true, true);
+    }
+
+    /**
+     * Reads the full size of an image from the header of the image file.
+     * Subclasses may override this method.
+     *
+     * @param uri the URI of the image
+     * @return an array with the width and the height, or null if the size
+     * can not be read
+     */
+    @Nullable
+    protected int[] readImageSize(@Nonnull URI uri) {
+        try (InputStream in = uri.toURL().openStream();
+             ImageInputStream iin = ImageIO.createImageInputStream(in)) {
+            if (iin == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iin);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iin, true, true);
+                return new int[]{reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the intrinsic size of an image, this is the size of level 0. If
+     * the size is not known yet, starts reading it in the background.
+     *
+     * @param uri the absolute URI of the image
+     * @return the size, or null if the size is being read or can not be read
+     */
+    @Nullable
+    public synchronized Dimension2D getIntrinsicSize(@Nonnull URI uri) {
+        int[] size = getImageSize(uri);
+        return size == null || size == UNKNOWN_SIZE ? null : new Dimension2D(size[0], size[1]);
+    }
+
+    /**
+     * Returns the size of the image. If the size is not known yet, starts
+     * reading it in the background.
+     *
+     * @param uri the URI of the image
+     * @return the size, {@link #UNKNOWN_SIZE} if the size can not be read, or
+     * null if the size is being read
+     */
+    @Nullable
+    private int[] getImageSize(@Nonnull URI uri) {
+        int[] size = imageSizes.get(uri);
+        if (size == null && pendingSizes.add(uri)) {
+            executor.execute(() -> {
+                // read the size without holding the lock of the cache
+                int[] newSize = readImageSize(uri);
+                if (newSize == null || newSize.length != 2 || newSize[0] <= 0 || newSize[1] <= 0) {
+                    newSize = UNKNOWN_SIZE;
+                }
+                synchronized (this) {
+                    pendingSizes.remove(uri);
+                    imageSizes.put(uri, newSize);
+                }
+            });
+            size = imageSizes.get(uri);
+        }
+        return size;
+    }
+
+    /**
+     * Evicts the least recently used images until the memory size is within
+     * the budget. The most recently used image is never evicted.
+     */
+    private void trim() {
+        for (Iterator<CacheEntry> i = levels.values().iterator(); memorySize > memoryBudget && levels.size() > 1; ) {
+            CacheEntry eldest = i.next();
+            i.remove();
+            memorySize -= eldest.memorySize;
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Removes all images from the cache.
+     */
+    public synchronized void clear() {
+        levels.clear();
+        imageSizes.clear();
+        memorySize = 0;
+    }
+
+    public synchronized long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Sets the memory budget and evicts images if necessary.
+     *
+     * @param memoryBudget the memory budget in bytes
+     */
+    public synchronized void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        trim();
+    }
+
+    /**
+     * Returns the estimated memory size of the images in the cache.
+     *
+     * @return the memory size in bytes
+     */
+    public synchronized long getMemorySize() {
+        return memorySize;
+    }
+
+    public synchronized int getImageCount() {
+        return levels.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+}
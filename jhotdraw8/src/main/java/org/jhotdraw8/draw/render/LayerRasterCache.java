@@ -0,0 +1,383 @@
+/* @(#)LayerRasterCache.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.render;
+
+import javafx.geometry.Bounds;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Transform;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.collection.Key;
+import org.jhotdraw8.collection.ObjectKey;
+import org.jhotdraw8.draw.figure.CacheableFigure;
+import org.jhotdraw8.draw.figure.Drawing;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.figure.Layer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Caches the rendering of a layer as a pyramid of bitmap tiles.
+ * <p>
+ * Each level of the pyramid renders the layer at a scale which is a power
+ * of two. {@link #getTiles} picks the smallest level which has at least the
+ * requested scale, and returns {@link ImageView}s for the tiles that
+ * intersect the requested bounds. The image views are placed in world
+ * coordinates, so that they can be shown instead of the nodes of the
+ * children of the layer. Tiles are rendered on first use, and the least
+ * recently used tiles are evicted when the cache holds too many tiles.
+ * <p>
+ * The cache does not observe the figures. The owner of the cache must call
+ * {@link #invalidate} when a descendant of the layer has changed. Method
+ * {@link #invalidateCaches} finds the cache of the layer that contains a
+ * figure.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class LayerRasterCache {
+
+    /**
+     * The width and height of a tile in pixels.
+     */
+    public final static int TILE_SIZE = 256;
+    /**
+     * The default maximal number of tiles: 256 tiles use 64 MiB.
+     */
+    public final static int DEFAULT_MAX_TILES = 256;
+    /**
+     * The smallest level has a scale of 1/256.
+     */
+    private final static int MIN_LEVEL = -8;
+    /**
+     * The largest level has a scale of 16.
+     */
+    private final static int MAX_LEVEL = 4;
+    /**
+     * The key under which a layer stores its cache.
+     */
+    public final static Key<LayerRasterCache> RASTER_CACHE_KEY = new ObjectKey<>("layerRasterCache",
+            LayerRasterCache.class, null, true, true, null);
+    /**
+     * The properties of the drawing which affect the rendering of the
+     * children of its layers.
+     */
+    private final static Set<Key<?>> DRAWING_RENDERING_KEYS = new HashSet<>(Arrays.asList(
+            Drawing.AUTHOR_STYLESHEETS, Drawing.USER_AGENT_STYLESHEETS, Drawing.INLINE_STYLESHEETS,
+            Drawing.DOCUMENT_HOME, Drawing.BACKGROUND));
+
+    @Nonnull
+    private final Figure layer;
+    private final int maxTiles;
+    /**
+     * The tiles, in the order of their last access.
+     */
+    @Nonnull
+    private final Map<TileKey, Image> tiles;
+    /**
+     * The rendered children of the layer, or null if they have not been
+     * rendered yet.
+     */
+    @Nullable
+    private Node content;
+    /**
+     * The visual bounds of the children of the layer, or null if they have
+     * not been computed yet.
+     */
+    @Nullable
+    private Bounds layerBounds;
+    private boolean layerBoundsValid;
+    private long renderCount;
+
+    private static class TileKey {
+
+        final int level;
+        final int x;
+        final int y;
+
+        TileKey(int level, int x, int y) {
+            this.level = level;
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            TileKey that = (TileKey) o;
+            return level == that.level && x == that.x && y == that.y;
+        }
+
+        @Override
+        public int hashCode() {
+            return (level * 31 + x) * 31 + y;
+        }
+    }
+
+    /**
+     * Creates a new instance with the default maximal number of tiles.
+     *
+     * @param layer the layer
+     */
+    public LayerRasterCache(@Nonnull Figure layer) {
+        this(layer, DEFAULT_MAX_TILES);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param layer    the layer
+     * @param maxTiles the maximal number of tiles
+     */
+    public LayerRasterCache(@Nonnull Figure layer, int maxTiles) {
+        this.layer = layer;
+        this.maxTiles = maxTiles;
+        this.tiles = new LinkedHashMap<TileKey, Image>(16, 0.75f, true) {
+            private final static long serialVersionUID = 0L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TileKey, Image> eldest) {
+                return size() > LayerRasterCache.this.maxTiles;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache of the specified layer, creates it if necessary.
+     *
+     * @param layer a layer
+     * @return the cache, or null if the layer can not hold a cache
+     */
+    @Nullable
+    public static LayerRasterCache getCache(@Nonnull Figure layer) {
+        if (!(layer instanceof CacheableFigure)) {
+            return null;
+        }
+        CacheableFigure cf = (CacheableFigure) layer;
+        LayerRasterCache cache = cf.getCachedValue(RASTER_CACHE_KEY);
+        if (cache == null) {
+            cache = new LayerRasterCache(layer);
+            cf.setCachedValue(RASTER_CACHE_KEY, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Invalidates the cache of the layer which contains the specified figure.
+     * If the figure is not contained in a layer, invalidates the caches of
+     * all layers which are children of the figure.
+     *
+     * @param figure a figure
+     * @return the layers whose cache has been invalidated
+     */
+    @Nonnull
+    public static List<Figure> invalidateCaches(@Nonnull Figure figure) {
+        for (Figure f = figure; f != null; f = f.getParent()) {
+            if (f instanceof Layer) {
+                return invalidateCache(f) ? Collections.singletonList(f) : Collections.emptyList();
+            }
+        }
+        List<Figure> invalidated = new ArrayList<>();
+        for (Figure child : figure.getChildren()) {
+            if (child instanceof Layer && invalidateCache(child)) {
+                invalidated.add(child);
+            }
+        }
+        return invalidated;
+    }
+
+    /**
+     * Invalidates the caches which are affected by a change of the specified
+     * property of the specified figure.
+     * <p>
+     * A property of a figure in a layer affects the cache of the layer. A
+     * property of a figure which is not contained in a layer, such as the
+     * drawing, only affects the caches of its child layers, if it affects
+     * the rendering of their children, such as the stylesheets.
+     *
+     * @param figure a figure
+     * @param key    the key of the property that has changed
+     * @return the layers whose cache has been invalidated
+     */
+    @Nonnull
+    public static List<Figure> invalidateCaches(@Nonnull Figure figure, @Nonnull Key<?> key) {
+        for (Figure f = figure; f != null; f = f.getParent()) {
+            if (f instanceof Layer) {
+                return invalidateCaches(figure);
+            }
+        }
+        return DRAWING_RENDERING_KEYS.contains(key) ? invalidateCaches(figure) : Collections.emptyList();
+    }
+
+    private static boolean invalidateCache(@Nonnull Figure layer) {
+        LayerRasterCache cache = layer instanceof CacheableFigure
+                ? ((CacheableFigure) layer).getCachedValue(RASTER_CACHE_KEY) : null;
+        if (cache == null) {
+            return false;
+        }
+        cache.invalidate();
+        return true;
+    }
+
+    /**
+     * Returns the level of the pyramid for the specified scale.
+     *
+     * @param scale the scale from world coordinates to pixels
+     * @return the smallest level with a scale of at least the specified
+     * scale
+     */
+    public static int getLevel(double scale) {
+        int level = (int) Math.ceil(Math.log(scale) / Math.log(2) - 1e-9);
+        return Math.max(MIN_LEVEL, Math.min(MAX_LEVEL, level));
+    }
+
+    /**
+     * Returns image views for the tiles which intersect the specified
+     * bounds. Renders the missing tiles.
+     *
+     * @param ctx           the render context for rendering the children of
+     *                      the layer
+     * @param boundsInWorld the bounds in world coordinates
+     * @param scale         the scale from world coordinates to pixels
+     * @return the image views in world coordinates
+     */
+    @Nonnull
+    public List<Node> getTiles(@Nonnull RenderContext ctx, @Nonnull Bounds boundsInWorld, double scale) {
+        if (!layerBoundsValid) {
+            layerBounds = Figure.visualBounds(layer.getChildren());
+            layerBoundsValid = true;
+        }
+        if (layerBounds == null || !layerBounds.intersects(boundsInWorld)) {
+            return Collections.emptyList();
+        }
+        int level = getLevel(scale);
+        double tileSizeInWorld = TILE_SIZE / Math.scalb(1.0, level);
+        int minX = (int) Math.floor(Math.max(boundsInWorld.getMinX(), layerBounds.getMinX()) / tileSizeInWorld);
+        int minY = (int) Math.floor(Math.max(boundsInWorld.getMinY(), layerBounds.getMinY()) / tileSizeInWorld);
+        int maxX = (int) Math.floor(Math.min(boundsInWorld.getMaxX(), layerBounds.getMaxX()) / tileSizeInWorld);
+        int maxY = (int) Math.floor(Math.min(boundsInWorld.getMaxY(), layerBounds.getMaxY()) / tileSizeInWorld);
+
+        List<Node> views = new ArrayList<>((maxX - minX + 1) * (maxY - minY + 1));
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                TileKey key = new TileKey(level, x, y);
+                Image image = tiles.get(key);
+                if (image == null && !tiles.containsKey(key)) {
+                    image = renderTile(ctx, level, x, y);
+                    renderCount++;
+                    tiles.put(key, image);
+                }
+                if (image != null) {
+                    ImageView view = new ImageView(image);
+                    view.setX(x * tileSizeInWorld);
+                    view.setY(y * tileSizeInWorld);
+                    view.setFitWidth(tileSizeInWorld);
+                    view.setFitHeight(tileSizeInWorld);
+                    view.setSmooth(true);
+                    views.add(view);
+                }
+            }
+        }
+        return views;
+    }
+
+    /**
+     * Renders a tile.
+     * <p>
+     * This method takes a snapshot of the rendered children of the layer,
+     * and must therefore be called on the JavaFX application thread.
+     *
+     * @param ctx   the render context
+     * @param level the level
+     * @param x     the column of the tile
+     * @param y     the row of the tile
+     * @return the image of the tile
+     */
+    @Nullable
+    protected Image renderTile(@Nonnull RenderContext ctx, int level, int x, int y) {
+        double scale = Math.scalb(1.0, level);
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        parameters.setTransform(Transform.scale(scale, scale));
+        parameters.setViewport(new Rectangle2D(x * TILE_SIZE, y * TILE_SIZE, TILE_SIZE, TILE_SIZE));
+        return getContent(ctx).snapshot(parameters, null);
+    }
+
+    /**
+     * Renders the children of the layer into a separate scene graph, which is
+     * kept until the cache is invalidated.
+     * <p>
+     * The scene graph is shared by the tiles of all levels. Therefore it is
+     * rendered with full detail, regardless of the zoom factor and the detail
+     * threshold of the specified render context.
+     *
+     * @param ctx the render context of the drawing view
+     * @return the rendered children
+     */
+    @Nonnull
+    protected Node getContent(@Nonnull RenderContext ctx) {
+        if (content == null) {
+            SimpleRenderContext rc = new SimpleRenderContext();
+            rc.getProperties().putAll(ctx.getProperties());
+            rc.getProperties().remove(RenderContext.CLIP_BOUNDS);
+            rc.set(RenderContext.DETAIL_THRESHOLD, 0.0);
+            rc.set(RenderContext.RENDER_SCALE, 1.0);
+            Group group = new Group();
+            for (Figure child : layer.getChildren()) {
+                for (Figure f : child.preorderIterable()) {
+                    f.updateNode(rc, rc.getNode(f));
+                }
+                group.getChildren().add(rc.getNode(child));
+            }
+            content = group;
+        }
+        return content;
+    }
+
+    /**
+     * Discards all tiles and the rendered children of the layer.
+     */
+    public void invalidate() {
+        tiles.clear();
+        content = null;
+        layerBounds = null;
+        layerBoundsValid = false;
+    }
+
+    /**
+     * Returns the number of tiles in the cache.
+     *
+     * @return the number of tiles
+     */
+    public int getTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * Returns the number of tiles that have been rendered so far.
+     *
+     * @return the number of rendered tiles
+     */
+    public long getRenderCount() {
+        return renderCount;
+    }
+}
@@ -4,6 +4,7 @@
 package org.jhotdraw8.draw.render;
 
 import javafx.geometry.Bounds;
+import org.jhotdraw8.annotation.Nonnull;
 import org.jhotdraw8.annotation.Nullable;
 
 import org.jhotdraw8.collection.NonnullObjectKey;
@@ -17,6 +18,7 @@ import org.jhotdraw8.io.DefaultUnitConverter;
 import org.jhotdraw8.io.UnitConverter;
 
 import java.time.Instant;
+import java.util.List;
 
 /**
  * RenderContext.
@@ -52,6 +54,19 @@ public interface RenderContext extends PropertyBean {
      * Number of nodes that can be rendered per layer in the drawing editor..
      */
     Key<Integer> MAX_NODES_PER_LAYER = new ObjectKey<>("maxNodesPerLayer", Integer.class, Integer.MAX_VALUE);
+    /**
+     * The scale from world coordinates to the pixels of the rendering device,
+     * for example the zoom factor of a drawing view.
+     */
+    Key<Double> RENDER_SCALE = new ObjectKey<>("renderScale", Double.class, 1.0);
+    /**
+     * Figures whose details are smaller than this number of pixels on the
+     * rendering device are rendered with a simplified node. A value of
+     * {@code 0} disables level-of-detail rendering.
+     *
+     * @see org.jhotdraw8.draw.figure.SimplifiableFigure
+     */
+    Key<Double> DETAIL_THRESHOLD = new ObjectKey<>("detailThreshold", Double.class, 0.0);
     
     @Nullable
     Key<Page> RENDER_PAGE = new ObjectKey<>("renderPage", Page.class, null);
@@ -72,4 +87,22 @@ public interface RenderContext extends PropertyBean {
      */
      Node getNode( Figure f);
 
+    /**
+     * Returns the children of the specified figure which intersect the
+     * specified bounds, in the order of the child list.
+     * <p>
+     * A render context which maintains a spatial index over the figures can
+     * answer this query without visiting all children. The default
+     * implementation returns null, which means that the caller has to test
+     * the children itself.
+     *
+     * @param parent        the parent figure
+     * @param boundsInWorld the bounds in world coordinates
+     * @return the intersecting children or null
+     */
+    @Nullable
+    default List<Figure> findChildrenIntersecting(@Nonnull Figure parent, @Nonnull Bounds boundsInWorld) {
+        return null;
+    }
+
 }
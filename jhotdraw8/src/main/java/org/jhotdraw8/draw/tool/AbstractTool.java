@@ -29,6 +29,7 @@ import org.jhotdraw8.app.EditableComponent;
 import org.jhotdraw8.collection.Key;
 import org.jhotdraw8.draw.DrawingEditor;
 import org.jhotdraw8.draw.DrawingView;
+import org.jhotdraw8.draw.undo.DrawingModelUndoManager;
 import org.jhotdraw8.event.Listener;
 import org.jhotdraw8.util.Resources;
 
@@ -55,6 +56,11 @@ public abstract class AbstractTool extends AbstractDisableable implements Tool {
      * The active editor.
      */
     private final ObjectProperty<DrawingEditor> drawingEditor = new SimpleObjectProperty<>(this, DRAWING_EDITOR_PROPERTY);
+    /**
+     * The undo manager on which a compound edit is in progress.
+     */
+    @Nullable
+    private DrawingModelUndoManager undoManager;
 
     {
         drawingView.addListener((ObservableValue<? extends DrawingView> observable, DrawingView oldValue, DrawingView newValue) -> {
@@ -381,10 +387,40 @@ public abstract class AbstractTool extends AbstractDisableable implements Tool {
     }
 
     /**
-     * This implementation is empty.
+     * This implementation ends the compound edit of a gesture that is in
+     * progress.
      */
     @Override
     public void deactivate(DrawingEditor editor) {
+        endCompoundEdit();
+    }
+
+    /**
+     * Begins a compound edit on the undo manager of the drawing view, so
+     * that all changes until {@link #endCompoundEdit} are combined into a
+     * single edit. Does nothing if the drawing view has no undo manager.
+     *
+     * @param view             the drawing view
+     * @param presentationName the presentation name of the edit
+     */
+    protected void beginCompoundEdit(@Nonnull DrawingView view, @Nonnull String presentationName) {
+        endCompoundEdit();
+        undoManager = view.getUndoManager();
+        if (undoManager != null) {
+            undoManager.beginCompoundEdit(presentationName);
+        }
+    }
+
+    /**
+     * Ends the compound edit that was begun with {@link #beginCompoundEdit}.
+     * Does nothing if no compound edit has been begun.
+     */
+    protected void endCompoundEdit() {
+        if (undoManager != null) {
+            DrawingModelUndoManager m = undoManager;
+            undoManager = null;
+            m.endCompoundEdit();
+        }
     }
 
     // ---
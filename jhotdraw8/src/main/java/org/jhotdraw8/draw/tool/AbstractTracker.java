@@ -6,7 +6,10 @@ package org.jhotdraw8.draw.tool;
 import javafx.scene.Node;
 import javafx.scene.layout.BorderPane;
 import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
 import org.jhotdraw8.app.AbstractDisableable;
+import org.jhotdraw8.draw.DrawingView;
+import org.jhotdraw8.draw.undo.DrawingModelUndoManager;
 
 /**
  * AbstractAction.
@@ -20,6 +23,11 @@ public abstract class AbstractTracker extends AbstractDisableable implements Tra
     // Fields
     // ---
     protected final BorderPane node = new BorderPane();
+    /**
+     * The undo manager on which a compound edit is in progress.
+     */
+    @Nullable
+    private DrawingModelUndoManager undoManager;
 
     // ---
     // Constructors
@@ -42,4 +50,32 @@ public abstract class AbstractTracker extends AbstractDisableable implements Tra
     public Node getNode() {
         return node;
     }
+
+    /**
+     * Begins a compound edit on the undo manager of the drawing view, so
+     * that all changes until {@link #endCompoundEdit} are combined into a
+     * single edit. Does nothing if the drawing view has no undo manager.
+     *
+     * @param view             the drawing view
+     * @param presentationName the presentation name of the edit
+     */
+    protected void beginCompoundEdit(@Nonnull DrawingView view, @Nonnull String presentationName) {
+        endCompoundEdit();
+        undoManager = view.getUndoManager();
+        if (undoManager != null) {
+            undoManager.beginCompoundEdit(presentationName);
+        }
+    }
+
+    /**
+     * Ends the compound edit that was begun with {@link #beginCompoundEdit}.
+     * Does nothing if no compound edit has been begun.
+     */
+    protected void endCompoundEdit() {
+        if (undoManager != null) {
+            DrawingModelUndoManager m = undoManager;
+            undoManager = null;
+            m.endCompoundEdit();
+        }
+    }
 }
@@ -106,6 +106,7 @@ public class BezierCreationTool extends AbstractCreationTool<Figure> {
                 }
                 createdFigure = null;
                 points = null;
+                endCompoundEdit();
                 fireToolDone();
             }
         }
@@ -165,6 +166,7 @@ public class BezierCreationTool extends AbstractCreationTool<Figure> {
         DrawingModel dm = view.getModel();
         CssPoint2D c = view.getConstrainer().constrainPoint(createdFigure, new CssPoint2D(view.viewToWorld(new Point2D(x1, y1))));
         if (createdFigure == null) {
+            beginCompoundEdit(view, "Create");
             createdFigure = createFigure();
             points = new ArrayList<>();
             points.add(new BezierNode(c.getConvertedValue()));
@@ -227,6 +229,7 @@ public class BezierCreationTool extends AbstractCreationTool<Figure> {
             createdFigure = null;
             points = null;
         }
+        endCompoundEdit();
     }
 
     @Override
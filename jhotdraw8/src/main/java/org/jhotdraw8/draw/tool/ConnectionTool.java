@@ -15,7 +15,6 @@ import org.jhotdraw8.css.CssPoint2D;
 import org.jhotdraw8.draw.DrawingView;
 import org.jhotdraw8.draw.figure.Figure;
 
-import java.util.List;
 
 import org.jhotdraw8.draw.figure.Drawing;
 import org.jhotdraw8.draw.model.DrawingModel;
@@ -23,8 +22,8 @@ import org.jhotdraw8.draw.figure.SimpleLayer;
 import org.jhotdraw8.util.Resources;
 import org.jhotdraw8.draw.figure.Layer;
 import org.jhotdraw8.draw.figure.SimpleLineConnectionFigure;
+import org.jhotdraw8.draw.connector.ConnectionTarget;
 import org.jhotdraw8.draw.connector.Connector;
-import org.jhotdraw8.draw.figure.ConnectableFigure;
 import org.jhotdraw8.draw.figure.ConnectingFigure;
 import org.jhotdraw8.draw.handle.HandleType;
 import org.jhotdraw8.util.ReversedList;
@@ -130,22 +129,10 @@ public class ConnectionTool extends AbstractTool {
             // must clear end target, otherwise findConnector won't work as expected
             model.set(figure, SimpleLineConnectionFigure.END_TARGET, null);
             if (!event.isMetaDown()) {
-                List<Figure> list = view.findFigures(pointInViewCoordinates, true);
-                SearchLoop:
-                for (Figure f1 : list) {
-                    for (Figure ff : f1.breadthFirstIterable()) {
-                        if (figure != ff && (ff instanceof ConnectableFigure)) {
-                            ConnectableFigure cff = (ConnectableFigure) ff;
-                            Point2D pointInLocal = cff.worldToLocal(unconstrainedPoint);
-                            if (ff.getBoundsInLocal().contains(pointInLocal)) {
-                                newConnector = cff.findConnector(cff.worldToLocal(constrainedPoint), figure);
-                                if (newConnector != null && figure.canConnect(ff, newConnector)) {
-                                    newConnectionTarget = ff;
-                                    break SearchLoop;
-                                }
-                            }
-                        }
-                    }
+                ConnectionTarget target = view.findConnectionTarget(pointInViewCoordinates, constrainedPoint, figure);
+                if (target != null) {
+                    newConnector = target.getConnector();
+                    newConnectionTarget = target.getFigure();
                 }
             }
 
@@ -159,6 +146,7 @@ public class ConnectionTool extends AbstractTool {
     @Override
     protected void handleMousePressed(@Nonnull MouseEvent event, @Nonnull DrawingView view) {
         requestFocus();
+        beginCompoundEdit(view, "Create");
         figure = figureFactory.get();
         if (handleType != null) {
             view.setHandleType(handleType);
@@ -176,23 +164,10 @@ public class ConnectionTool extends AbstractTool {
         Connector newConnector = null;
         Figure newConnectedFigure = null;
         if (!event.isMetaDown()) {
-            List<Figure> list = view.findFigures(pointInViewCoordinates, true);
-
-            SearchLoop:
-            for (Figure f1 : list) {
-                for (Figure ff : f1.breadthFirstIterable()) {
-                    if (figure != ff && (ff instanceof ConnectableFigure)) {
-                        ConnectableFigure cff = (ConnectableFigure) ff;
-                        Point2D pointInLocal = cff.worldToLocal(unconstrainedPoint);
-                        if (ff.getBoundsInLocal().contains(pointInLocal)) {
-                            newConnector = cff.findConnector(cff.worldToLocal(constrainedPoint), figure);
-                            if (newConnector != null && figure.canConnect(ff, newConnector)) {
-                                newConnectedFigure = ff;
-                                break SearchLoop;
-                            }
-                        }
-                    }
-                }
+            ConnectionTarget target = view.findConnectionTarget(pointInViewCoordinates, constrainedPoint, figure);
+            if (target != null) {
+                newConnector = target.getConnector();
+                newConnectedFigure = target.getFigure();
             }
         }
         figure.set(SimpleLineConnectionFigure.START_CONNECTOR, newConnector);
@@ -210,12 +185,14 @@ public class ConnectionTool extends AbstractTool {
             view.getSelectedFigures().add(figure);
             figure = null;
         }
+        endCompoundEdit();
         fireToolDone();
     }
 
     @Override
     protected void stopEditing() {
         figure = null;
+        endCompoundEdit();
     }
 
     @Override
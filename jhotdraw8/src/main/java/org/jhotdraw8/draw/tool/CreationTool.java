@@ -79,6 +79,7 @@ public class CreationTool extends AbstractCreationTool<Figure> {
     @Override
     protected void stopEditing() {
         createdFigure = null;
+        endCompoundEdit();
     }
 
     @Override
@@ -87,6 +88,7 @@ public class CreationTool extends AbstractCreationTool<Figure> {
         y1 = event.getY();
         x2 = x1;
         y2 = y1;
+        beginCompoundEdit(view, "Create");
         createdFigure = createFigure();
 
         double anchorX = Geom.clamp(createdFigure.getNonnull(AnchorableFigure.ANCHOR_X), 0, 1);
@@ -127,6 +129,7 @@ public class CreationTool extends AbstractCreationTool<Figure> {
             dv.selectedFiguresProperty().add(createdFigure);
             createdFigure = null;
         }
+        endCompoundEdit();
         event.consume();
         fireToolDone();
     }
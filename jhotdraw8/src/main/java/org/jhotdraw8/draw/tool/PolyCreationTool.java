@@ -59,6 +59,7 @@ public class PolyCreationTool extends AbstractCreationTool<Figure> {
             createdFigure = null;
             points = null;
         }
+        endCompoundEdit();
     }
 
     @Override
@@ -72,6 +73,7 @@ public class PolyCreationTool extends AbstractCreationTool<Figure> {
         DrawingModel dm = view.getModel();
         Point2D c = view.getConstrainer().constrainPoint(createdFigure, new CssPoint2D(view.viewToWorld(new Point2D(x1, y1)))).getConvertedValue();
         if (createdFigure == null) {
+            beginCompoundEdit(view, "Create");
             createdFigure = createFigure();
             points = new ArrayList<>();
             points.add(c);
@@ -133,6 +135,7 @@ public class PolyCreationTool extends AbstractCreationTool<Figure> {
                 }
                 createdFigure = null;
                 points = null;
+                endCompoundEdit();
                 fireToolDone();
             }
         }
@@ -132,6 +132,18 @@ public class SelectionTool extends AbstractTool {
         setTracker(null);
     }
 
+    /**
+     * This implementation also ends the compound edit of a gesture that the
+     * current tracker is performing.
+     */
+    @Override
+    public void deactivate(DrawingEditor editor) {
+        if (tracker instanceof AbstractTracker) {
+            ((AbstractTracker) tracker).endCompoundEdit();
+        }
+        super.deactivate(editor);
+    }
+
     @Override
     protected void handleMousePressed(@Nonnull MouseEvent event, @Nonnull DrawingView view) {
         requestFocus();
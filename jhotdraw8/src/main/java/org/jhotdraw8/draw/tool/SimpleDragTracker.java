@@ -83,13 +83,14 @@ public class SimpleDragTracker extends AbstractTracker implements DragTracker {
 
     @Override
     public void trackMousePressed(@Nonnull MouseEvent event, @Nonnull DrawingView view) {
+        beginCompoundEdit(view, "Move");
         oldPoint = anchor = view.getConstrainer().constrainPoint(anchorFigure,
                 new CssPoint2D(view.viewToWorld(new Point2D(event.getX(), event.getY()))));
     }
 
     @Override
     public void trackMouseReleased(MouseEvent event, DrawingView dv) {
-// FIXME fire undoable edit
+        endCompoundEdit();
         dv.recreateHandles();
         //  fireToolDone();
     }
@@ -48,6 +48,7 @@ public class SimpleHandleTracker extends AbstractTracker implements HandleTracke
 
     @Override
     public void trackMousePressed(MouseEvent event, DrawingView dv) {
+        beginCompoundEdit(dv, "Edit");
         handle.handleMousePressed(event, dv);
         node.setCursor(handle.getCursor());
     }
@@ -58,7 +59,11 @@ public class SimpleHandleTracker extends AbstractTracker implements HandleTracke
 
     @Override
     public void trackMouseReleased(MouseEvent event, DrawingView dv) {
-        handle.handleMouseReleased(event, dv);
+        try {
+            handle.handleMouseReleased(event, dv);
+        } finally {
+            endCompoundEdit();
+        }
         node.setCursor(handle.getCursor());
     }
 
@@ -0,0 +1,66 @@
+/* @(#)ChildEdit.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.undo;
+
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.model.DrawingModel;
+
+/**
+ * Records the addition of a child to a parent figure, or the removal of a
+ * child from a parent figure.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+class ChildEdit implements UndoableEdit {
+
+    /**
+     * Object header plus two references, an int and a boolean.
+     */
+    private final static long SHALLOW_SIZE = 40;
+
+    @Nonnull
+    private final Figure child;
+    @Nonnull
+    private final Figure parent;
+    private final int index;
+    private final boolean added;
+
+    ChildEdit(@Nonnull Figure child, @Nonnull Figure parent, int index, boolean added) {
+        this.child = child;
+        this.parent = parent;
+        this.index = index;
+        this.added = added;
+    }
+
+    @Override
+    public void undo(@Nonnull DrawingModel model) {
+        if (added) {
+            model.removeFromParent(child);
+        } else {
+            model.insertChildAt(child, parent, index);
+        }
+    }
+
+    @Override
+    public void redo(@Nonnull DrawingModel model) {
+        if (added) {
+            model.insertChildAt(child, parent, index);
+        } else {
+            model.removeFromParent(child);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public String getPresentationName() {
+        return "";
+    }
+
+    @Override
+    public long getMemorySize() {
+        return SHALLOW_SIZE;
+    }
+}
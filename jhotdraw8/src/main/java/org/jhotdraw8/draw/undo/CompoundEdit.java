@@ -0,0 +1,165 @@
+/* @(#)CompoundEdit.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.undo;
+
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.collection.Key;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.model.DrawingModel;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@code CompoundEdit} combines a sequence of edits into a single edit.
+ * <p>
+ * While the compound edit is open, all changes of the same property of the
+ * same figure are coalesced into a single {@link PropertyEdit}. Thus, a
+ * compound edit which records a drag of many figures only retains the value
+ * before and after the drag of each property, no matter how many mouse
+ * events the drag consisted of.
+ * <p>
+ * Undoing a compound edit undoes its edits in reverse order.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class CompoundEdit implements UndoableEdit {
+
+    /**
+     * Object header plus the list.
+     */
+    private final static long SHALLOW_SIZE = 64;
+
+    @Nonnull
+    private final String presentationName;
+    @Nonnull
+    private final ArrayList<UndoableEdit> edits = new ArrayList<>();
+    /**
+     * Maps pairs of figure and key to property edits. This map is only
+     * needed for coalescing, and is discarded when the edit is closed.
+     */
+    @Nullable
+    private Map<Map.Entry<Figure, Key<?>>, PropertyEdit> propertyEdits = new HashMap<>();
+    private long memorySize = SHALLOW_SIZE;
+
+    /**
+     * Creates a new open compound edit.
+     *
+     * @param presentationName the presentation name
+     */
+    public CompoundEdit(@Nonnull String presentationName) {
+        this.presentationName = presentationName;
+    }
+
+    /**
+     * Adds a property change to this edit.
+     *
+     * @param figure   the figure
+     * @param key      the key
+     * @param oldValue the old value
+     * @param newValue the new value
+     * @param oldSet   whether the property was set before the change
+     * @param newSet   whether the property is set after the change
+     * @throws IllegalStateException if this edit is closed
+     */
+    void addPropertyChange(@Nonnull Figure figure, @Nonnull Key<?> key, @Nullable Object oldValue, @Nullable Object newValue,
+                           boolean oldSet, boolean newSet) {
+        if (propertyEdits == null) {
+            throw new IllegalStateException("edit is closed");
+        }
+        PropertyEdit edit = propertyEdits.get(new AbstractMap.SimpleImmutableEntry<>(figure, key));
+        if (edit == null) {
+            edit = new PropertyEdit(figure, key, oldValue, newValue, oldSet, newSet);
+            propertyEdits.put(new AbstractMap.SimpleImmutableEntry<>(figure, key), edit);
+            edits.add(edit);
+            memorySize += edit.getMemorySize();
+        } else {
+            memorySize -= edit.getMemorySize();
+            edit.setNewValue(newValue, newSet);
+            memorySize += edit.getMemorySize();
+        }
+    }
+
+    /**
+     * Adds an edit to this edit.
+     *
+     * @param edit an edit
+     * @throws IllegalStateException if this edit is closed
+     */
+    void addEdit(@Nonnull UndoableEdit edit) {
+        if (propertyEdits == null) {
+            throw new IllegalStateException("edit is closed");
+        }
+        edits.add(edit);
+        memorySize += edit.getMemorySize();
+    }
+
+    /**
+     * Closes this edit. No more changes can be added to a closed edit.
+     */
+    void close() {
+        propertyEdits = null;
+        edits.trimToSize();
+    }
+
+    /**
+     * Returns true if this edit is open.
+     *
+     * @return true if open
+     */
+    public boolean isOpen() {
+        return propertyEdits != null;
+    }
+
+    /**
+     * Returns true if this edit does not contain any edits.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return edits.isEmpty();
+    }
+
+    /**
+     * Returns the number of edits in this compound edit.
+     *
+     * @return the number of edits
+     */
+    public int size() {
+        return edits.size();
+    }
+
+    @Override
+    public void undo(@Nonnull DrawingModel model) {
+        for (int i = edits.size() - 1; i >= 0; i--) {
+            edits.get(i).undo(model);
+        }
+    }
+
+    @Override
+    public void redo(@Nonnull DrawingModel model) {
+        for (int i = 0, n = edits.size(); i < n; i++) {
+            edits.get(i).redo(model);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public String getPresentationName() {
+        return presentationName;
+    }
+
+    /**
+     * Returns the estimated memory size. The coalescing map of an open edit
+     * is not included.
+     */
+    @Override
+    public long getMemorySize() {
+        return memorySize + 8L * edits.size();
+    }
+}
@@ -0,0 +1,488 @@
+/* @(#)DrawingModelUndoManager.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.undo;
+
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.draw.figure.Drawing;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.figure.FigurePropertyChangeEvent;
+import org.jhotdraw8.draw.model.BatchUpdateListener;
+import org.jhotdraw8.draw.model.DrawingModel;
+import org.jhotdraw8.event.Listener;
+import org.jhotdraw8.tree.TreeModelEvent;
+
+import java.util.ArrayDeque;
+
+/**
+ * Records the changes that are made to the drawing of a {@link DrawingModel}
+ * as compact deltas, and undoes and redoes them.
+ * <p>
+ * The undo manager records the old and the new value of each property
+ * change, and the parent and the index of each child that is added or
+ * removed. Property changes that the drawing model makes while it is
+ * validating are not recorded, because they are derived from other
+ * properties.
+ * <p>
+ * Each change is a separate edit, unless it is made during a gesture. A
+ * gesture is delimited by {@link #beginCompoundEdit} and
+ * {@link #endCompoundEdit}; the tools and the handles of the drawing view
+ * open a gesture when the user presses the mouse and close it when the user
+ * releases it. All changes of a gesture are combined into a single edit, and
+ * changes of the same property of the same figure are coalesced into a
+ * single delta. Thus, dragging any number of figures yields a single edit
+ * which only retains the values before and after the drag.
+ * <p>
+ * A batch update of the drawing model, see {@link DrawingModel#beginUpdate},
+ * is recorded like a gesture. Thus, an action which changes many figures in
+ * a batch update, for example an align action, yields a single edit.
+ * <p>
+ * The removal and the subsequent addition of the same child, which is how
+ * the drawing model moves a figure to another parent, are combined into a
+ * single edit even outside of a gesture.
+ * <p>
+ * The history is capped by a memory budget rather than by an edit count.
+ * When the estimated memory size of the recorded edits exceeds the budget,
+ * the oldest edits are discarded.
+ * <p>
+ * Undoing and redoing an edit replays the deltas through the drawing model
+ * in a single batch update. Thus listeners receive coalesced events, and the
+ * drawing view validates the changed figures in a single pass when it
+ * renders the drawing the next time.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class DrawingModelUndoManager {
+
+    /**
+     * The default memory budget in bytes.
+     */
+    public final static long DEFAULT_MEMORY_BUDGET = 16L << 20;
+    /**
+     * Name of the can undo property.
+     */
+    public final static String CAN_UNDO_PROPERTY = "canUndo";
+    /**
+     * Name of the can redo property.
+     */
+    public final static String CAN_REDO_PROPERTY = "canRedo";
+
+    @Nonnull
+    private final DrawingModel model;
+    @Nullable
+    private Drawing drawing;
+    @Nonnull
+    private final ArrayDeque<UndoableEdit> undoStack = new ArrayDeque<>();
+    @Nonnull
+    private final ArrayDeque<UndoableEdit> redoStack = new ArrayDeque<>();
+    private long undoMemorySize;
+    private long redoMemorySize;
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+
+    /**
+     * The compound edit that is being recorded with
+     * {@link #beginCompoundEdit}.
+     */
+    @Nullable
+    private CompoundEdit compoundEdit;
+    private int compoundDepth;
+    /**
+     * The edit which records the removal of a child outside of a compound
+     * edit, so that a subsequent addition of the same child can be combined
+     * with it. This edit is on top of the undo stack.
+     */
+    @Nullable
+    private CompoundEdit childEdit;
+    @Nullable
+    private Figure childEditSubject;
+
+    /**
+     * The number of compound edits which have been begun for batch updates
+     * of the model.
+     */
+    private int batchDepth;
+
+    /**
+     * This flag is set while an edit is undone or redone.
+     */
+    private boolean replaying;
+
+    private final ReadOnlyBooleanWrapper canUndo = new ReadOnlyBooleanWrapper(this, CAN_UNDO_PROPERTY);
+    private final ReadOnlyBooleanWrapper canRedo = new ReadOnlyBooleanWrapper(this, CAN_REDO_PROPERTY);
+
+    private final Listener<FigurePropertyChangeEvent> propertyChangeHandler = this::handlePropertyChanged;
+    private final Listener<TreeModelEvent<Figure>> treeModelHandler = this::handleTreeModelEvent;
+    private final BatchUpdateListener batchUpdateHandler = new BatchUpdateListener() {
+        @Override
+        public void batchUpdateBegun(@Nonnull DrawingModel model) {
+            if (!replaying) {
+                batchDepth++;
+                beginCompoundEdit("");
+            }
+        }
+
+        @Override
+        public void batchUpdateEnded(@Nonnull DrawingModel model) {
+            // the model fires the buffered events before it invokes this
+            // method, so they have been recorded in the compound edit
+            if (batchDepth > 0) {
+                batchDepth--;
+                endCompoundEdit();
+            }
+        }
+    };
+
+    /**
+     * Creates a new undo manager which records the changes of the drawing
+     * of the specified model.
+     *
+     * @param model the drawing model
+     */
+    public DrawingModelUndoManager(@Nonnull DrawingModel model) {
+        this.model = model;
+        model.addTreeModelListener(treeModelHandler);
+        model.addBatchUpdateListener(batchUpdateHandler);
+        setDrawing(model.getDrawing());
+    }
+
+    /**
+     * Stops recording changes and discards all edits.
+     */
+    public void dispose() {
+        model.removeTreeModelListener(treeModelHandler);
+        model.removeBatchUpdateListener(batchUpdateHandler);
+        setDrawing(null);
+        discardAllEdits();
+    }
+
+    @Nonnull
+    public DrawingModel getModel() {
+        return model;
+    }
+
+    private void setDrawing(@Nullable Drawing newValue) {
+        if (drawing != null) {
+            drawing.getPropertyChangeListeners().remove(propertyChangeHandler);
+        }
+        drawing = newValue;
+        if (drawing != null) {
+            drawing.getPropertyChangeListeners().add(propertyChangeHandler);
+        }
+    }
+
+    private boolean isRecording() {
+        return !replaying && !model.isValidating();
+    }
+
+    private void handlePropertyChanged(@Nonnull FigurePropertyChangeEvent event) {
+        if (isRecording()) {
+            CompoundEdit edit = compoundEdit != null ? compoundEdit : createEdit();
+            long oldSize = edit.getMemorySize();
+            edit.addPropertyChange(event.getSource(), event.getKey(), event.getOldValue(), event.getNewValue(),
+                    event.wasRemoved(), event.wasAdded());
+            if (edit != compoundEdit) {
+                edit.close();
+            }
+            editChanged(edit, oldSize);
+        }
+    }
+
+    private void handleTreeModelEvent(@Nonnull TreeModelEvent<Figure> event) {
+        switch (event.getEventType()) {
+            case ROOT_CHANGED:
+                setDrawing(model.getDrawing());
+                discardAllEdits();
+                break;
+            case NODE_ADDED_TO_PARENT:
+                recordChildChange(event.getChild(), event.getParent(), event.getIndex(), true);
+                break;
+            case NODE_REMOVED_FROM_PARENT:
+                recordChildChange(event.getChild(), event.getParent(), event.getIndex(), false);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void recordChildChange(@Nonnull Figure child, @Nonnull Figure parent, int index, boolean added) {
+        if (isRecording() && drawing != null && parent.getRoot() == drawing) {
+            CompoundEdit edit;
+            if (compoundEdit != null) {
+                edit = compoundEdit;
+            } else if (added && childEdit != null && childEditSubject == child) {
+                edit = childEdit;
+            } else {
+                edit = createEdit();
+            }
+            long oldSize = edit.getMemorySize();
+            edit.addEdit(new ChildEdit(child, parent, index, added));
+            if (edit != compoundEdit) {
+                if (added) {
+                    closeChildEdit();
+                    edit.close();
+                } else {
+                    childEdit = edit;
+                    childEditSubject = child;
+                }
+            }
+            editChanged(edit, oldSize);
+        }
+    }
+
+    /**
+     * Creates an edit for a change outside of a compound edit, and adds it
+     * to the undo stack.
+     */
+    @Nonnull
+    private CompoundEdit createEdit() {
+        closeChildEdit();
+        CompoundEdit edit = new CompoundEdit("");
+        addEdit(edit);
+        return edit;
+    }
+
+    /**
+     * Updates the memory size after an edit on the undo stack has changed.
+     */
+    private void editChanged(@Nonnull CompoundEdit edit, long oldSize) {
+        if (edit != compoundEdit) {
+            undoMemorySize += edit.getMemorySize() - oldSize;
+            trimToMemoryBudget();
+        }
+    }
+
+    private void closeChildEdit() {
+        if (childEdit != null) {
+            childEdit.close();
+            childEdit = null;
+            childEditSubject = null;
+        }
+    }
+
+    /**
+     * Adds an edit to the undo stack and discards all redoable edits.
+     */
+    private void addEdit(@Nonnull UndoableEdit edit) {
+        redoStack.clear();
+        redoMemorySize = 0;
+        undoStack.addLast(edit);
+        undoMemorySize += edit.getMemorySize();
+        trimToMemoryBudget();
+        updateProperties();
+    }
+
+    /**
+     * Discards the oldest edits until the memory size is within the memory
+     * budget. The newest edit is never discarded.
+     */
+    private void trimToMemoryBudget() {
+        while (undoMemorySize + redoMemorySize > memoryBudget && undoStack.size() > 1) {
+            undoMemorySize -= undoStack.removeFirst().getMemorySize();
+        }
+    }
+
+    private void updateProperties() {
+        canUndo.set(!undoStack.isEmpty());
+        canRedo.set(!redoStack.isEmpty());
+    }
+
+    /**
+     * Begins a compound edit. All changes until the matching call of
+     * {@link #endCompoundEdit} are combined into a single edit.
+     * <p>
+     * Compound edits can be nested. Only the outermost compound edit is
+     * added to the undo stack.
+     *
+     * @param presentationName the presentation name of the edit
+     */
+    public void beginCompoundEdit(@Nonnull String presentationName) {
+        if (compoundDepth++ == 0) {
+            closeChildEdit();
+            compoundEdit = new CompoundEdit(presentationName);
+        }
+    }
+
+    /**
+     * Ends a compound edit.
+     *
+     * @throws IllegalStateException if no compound edit is in progress
+     */
+    public void endCompoundEdit() {
+        if (compoundDepth == 0) {
+            throw new IllegalStateException("no compound edit in progress");
+        }
+        if (--compoundDepth == 0) {
+            CompoundEdit edit = compoundEdit;
+            compoundEdit = null;
+            edit.close();
+            if (!edit.isEmpty()) {
+                addEdit(edit);
+            }
+        }
+    }
+
+    /**
+     * Returns true if a compound edit is in progress.
+     *
+     * @return true if a compound edit is in progress
+     */
+    public boolean isInCompoundEdit() {
+        return compoundDepth > 0;
+    }
+
+    /**
+     * Undoes the most recent edit.
+     *
+     * @throws IllegalStateException if there is no edit to undo, or if a
+     *                               compound edit is in progress
+     */
+    public void undo() {
+        if (compoundDepth > 0) {
+            throw new IllegalStateException("compound edit in progress");
+        }
+        if (undoStack.isEmpty()) {
+            throw new IllegalStateException("nothing to undo");
+        }
+        closeChildEdit();
+        UndoableEdit edit = undoStack.removeLast();
+        long size = edit.getMemorySize();
+        undoMemorySize -= size;
+        replaying = true;
+        model.beginUpdate();
+        try {
+            edit.undo(model);
+        } finally {
+            model.endUpdate();
+            replaying = false;
+        }
+        redoStack.addLast(edit);
+        redoMemorySize += size;
+        updateProperties();
+    }
+
+    /**
+     * Redoes the most recently undone edit.
+     *
+     * @throws IllegalStateException if there is no edit to redo, or if a
+     *                               compound edit is in progress
+     */
+    public void redo() {
+        if (compoundDepth > 0) {
+            throw new IllegalStateException("compound edit in progress");
+        }
+        if (redoStack.isEmpty()) {
+            throw new IllegalStateException("nothing to redo");
+        }
+        UndoableEdit edit = redoStack.removeLast();
+        long size = edit.getMemorySize();
+        redoMemorySize -= size;
+        replaying = true;
+        model.beginUpdate();
+        try {
+            edit.redo(model);
+        } finally {
+            model.endUpdate();
+            replaying = false;
+        }
+        undoStack.addLast(edit);
+        undoMemorySize += size;
+        updateProperties();
+    }
+
+    /**
+     * Discards all edits.
+     * <p>
+     * A compound edit that is in progress keeps recording, but the changes
+     * that it has recorded so far are discarded.
+     */
+    public void discardAllEdits() {
+        closeChildEdit();
+        if (compoundEdit != null) {
+            compoundEdit = new CompoundEdit(compoundEdit.getPresentationName());
+        }
+        undoStack.clear();
+        redoStack.clear();
+        undoMemorySize = 0;
+        redoMemorySize = 0;
+        updateProperties();
+    }
+
+    /**
+     * Returns the presentation name of the edit that would be undone.
+     *
+     * @return the presentation name, empty if there is no such edit
+     */
+    @Nonnull
+    public String getUndoPresentationName() {
+        return undoStack.isEmpty() ? "" : undoStack.getLast().getPresentationName();
+    }
+
+    /**
+     * Returns the presentation name of the edit that would be redone.
+     *
+     * @return the presentation name, empty if there is no such edit
+     */
+    @Nonnull
+    public String getRedoPresentationName() {
+        return redoStack.isEmpty() ? "" : redoStack.getLast().getPresentationName();
+    }
+
+    /**
+     * Returns the estimated memory size of all recorded edits.
+     *
+     * @return the memory size in bytes
+     */
+    public long getMemorySize() {
+        return undoMemorySize + redoMemorySize;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Sets the memory budget. Discards the oldest edits if the recorded
+     * edits exceed the new budget.
+     *
+     * @param newValue the memory budget in bytes
+     */
+    public void setMemoryBudget(long newValue) {
+        if (newValue < 0) {
+            throw new IllegalArgumentException("memoryBudget=" + newValue);
+        }
+        memoryBudget = newValue;
+        trimToMemoryBudget();
+        updateProperties();
+    }
+
+    /**
+     * Returns the number of edits that can be undone.
+     *
+     * @return the number of undoable edits
+     */
+    public int getUndoCount() {
+        return undoStack.size();
+    }
+
+    @Nonnull
+    public ReadOnlyBooleanProperty canUndoProperty() {
+        return canUndo.getReadOnlyProperty();
+    }
+
+    @Nonnull
+    public ReadOnlyBooleanProperty canRedoProperty() {
+        return canRedo.getReadOnlyProperty();
+    }
+
+    public boolean canUndo() {
+        return canUndo.get();
+    }
+
+    public boolean canRedo() {
+        return canRedo.get();
+    }
+}
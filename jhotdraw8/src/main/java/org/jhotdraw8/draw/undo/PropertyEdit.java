@@ -0,0 +1,144 @@
+/* @(#)PropertyEdit.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.undo;
+
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.collection.Key;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.model.DrawingModel;
+
+import java.util.Collection;
+
+/**
+ * Records the change of a property value of a figure.
+ * <p>
+ * Subsequent changes of the same property can be coalesced into this edit
+ * with {@link #setNewValue}.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+class PropertyEdit implements UndoableEdit {
+
+    /**
+     * Object header plus four references and two flags.
+     */
+    private final static long SHALLOW_SIZE = 48;
+
+    @Nonnull
+    private final Figure figure;
+    @Nonnull
+    private final Key<Object> key;
+    @Nullable
+    private final Object oldValue;
+    @Nullable
+    private Object newValue;
+    /**
+     * Whether the property was set before the change.
+     */
+    private final boolean oldSet;
+    /**
+     * Whether the property is set after the change.
+     */
+    private boolean newSet;
+
+    @SuppressWarnings("unchecked")
+    PropertyEdit(@Nonnull Figure figure, @Nonnull Key<?> key, @Nullable Object oldValue, @Nullable Object newValue,
+                 boolean oldSet, boolean newSet) {
+        this.figure = figure;
+        this.key = (Key<Object>) key;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.oldSet = oldSet;
+        this.newSet = newSet;
+    }
+
+    @Nonnull
+    Figure getFigure() {
+        return figure;
+    }
+
+    @Nonnull
+    Key<?> getKey() {
+        return key;
+    }
+
+    /**
+     * Coalesces a subsequent change of the same property into this edit.
+     *
+     * @param newValue the new value of the property
+     * @param newSet   whether the property is set after the change
+     */
+    void setNewValue(@Nullable Object newValue, boolean newSet) {
+        this.newValue = newValue;
+        this.newSet = newSet;
+    }
+
+    /**
+     * Sets the old value of the property.
+     * <p>
+     * If the property was not set before the change, the property is
+     * removed from the figure instead, so that stylesheets can provide the
+     * value again. A value which was set explicitly is restored, even if it
+     * is null or the default value.
+     */
+    @Override
+    public void undo(@Nonnull DrawingModel model) {
+        if (oldSet) {
+            model.set(figure, key, oldValue);
+        } else {
+            model.remove(figure, key);
+        }
+    }
+
+    /**
+     * Sets the new value of the property, or removes the property if it was
+     * not set after the change.
+     */
+    @Override
+    public void redo(@Nonnull DrawingModel model) {
+        if (newSet) {
+            model.set(figure, key, newValue);
+        } else {
+            model.remove(figure, key);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public String getPresentationName() {
+        return key.getName();
+    }
+
+    @Override
+    public long getMemorySize() {
+        return SHALLOW_SIZE + estimateSize(oldValue) + estimateSize(newValue);
+    }
+
+    /**
+     * Returns a rough estimate of the number of bytes retained by the
+     * specified value.
+     *
+     * @param value a value
+     * @return the estimated size in bytes
+     */
+    static long estimateSize(@Nullable Object value) {
+        if (value == null || value instanceof Boolean || value instanceof Enum<?>) {
+            return 0;
+        } else if (value instanceof Number) {
+            return 24;
+        } else if (value instanceof CharSequence) {
+            return 40 + 2L * ((CharSequence) value).length();
+        } else if (value instanceof Collection<?>) {
+            long size = 32;
+            for (Object elem : (Collection<?>) value) {
+                size += 8 + estimateSize(elem);
+            }
+            return size;
+        } else {
+            return 48;
+        }
+    }
+}
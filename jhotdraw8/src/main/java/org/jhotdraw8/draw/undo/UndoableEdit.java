@@ -0,0 +1,49 @@
+/* @(#)UndoableEdit.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.undo;
+
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.draw.model.DrawingModel;
+
+/**
+ * An {@code UndoableEdit} records a change of a drawing, so that the change
+ * can be undone and redone through a {@link DrawingModel}.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public interface UndoableEdit {
+
+    /**
+     * Undoes the change.
+     *
+     * @param model the drawing model
+     */
+    void undo(@Nonnull DrawingModel model);
+
+    /**
+     * Redoes the change.
+     *
+     * @param model the drawing model
+     */
+    void redo(@Nonnull DrawingModel model);
+
+    /**
+     * Returns a name for this edit, suitable for display in a menu item.
+     *
+     * @return the presentation name, empty if the edit has no name
+     */
+    @Nonnull
+    String getPresentationName();
+
+    /**
+     * Returns an estimate of the number of bytes that this edit retains.
+     * <p>
+     * The estimate does not include the figures, because they are retained
+     * by the drawing anyway.
+     *
+     * @return the estimated memory size in bytes
+     */
+    long getMemorySize();
+}
@@ -0,0 +1,8 @@
+/* @(#)package-info.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+/**
+ * Provides undo and redo support for changes made to a drawing through a
+ * {@link org.jhotdraw8.draw.model.DrawingModel}.
+ */
+package org.jhotdraw8.draw.undo;
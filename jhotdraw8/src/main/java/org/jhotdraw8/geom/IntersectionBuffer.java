@@ -0,0 +1,217 @@
+/* @(#)IntersectionBuffer.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.geom;
+
+import javafx.geometry.Point2D;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A reusable buffer for the results of an intersection test.
+ * <p>
+ * The buffer holds the parameters 't' and the coordinates of the
+ * intersection points in {@code double} arrays. The intersection methods of
+ * {@link Intersections} which take a buffer clear the buffer and then fill
+ * it with the results, sorted by 't'. They do not allocate memory unless the
+ * buffer needs to grow.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class IntersectionBuffer {
+
+    @Nonnull
+    private double[] ts;
+    @Nonnull
+    private double[] xs;
+    @Nonnull
+    private double[] ys;
+    private int size;
+
+    /**
+     * Scratch space for the coefficients of polynomials.
+     */
+    @Nonnull
+    final double[] coefs = new double[10];
+    /**
+     * Scratch space for the roots of polynomials.
+     */
+    @Nonnull
+    final double[] roots = new double[10];
+    @Nonnull
+    final double[] xRoots = new double[4];
+    @Nonnull
+    final double[] yRoots = new double[4];
+    /**
+     * Scratch space for the coordinates of a path segment.
+     */
+    @Nonnull
+    final double[] seg = new double[6];
+    @Nullable
+    private PolynomialRootFinder rootFinder;
+
+    /**
+     * Creates a new instance with an initial capacity of 8 intersections.
+     */
+    public IntersectionBuffer() {
+        this(8);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param initialCapacity the initial capacity
+     */
+    public IntersectionBuffer(int initialCapacity) {
+        ts = new double[initialCapacity];
+        xs = new double[initialCapacity];
+        ys = new double[initialCapacity];
+    }
+
+    /**
+     * Removes all intersections.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds an intersection.
+     *
+     * @param t the parameter 't'
+     * @param x the x-coordinate of the intersection point
+     * @param y the y-coordinate of the intersection point
+     */
+    public void add(double t, double x, double y) {
+        if (size == ts.length) {
+            int newCapacity = Math.max(8, size * 2);
+            double[] newTs = new double[newCapacity];
+            double[] newXs = new double[newCapacity];
+            double[] newYs = new double[newCapacity];
+            System.arraycopy(ts, 0, newTs, 0, size);
+            System.arraycopy(xs, 0, newXs, 0, size);
+            System.arraycopy(ys, 0, newYs, 0, size);
+            ts = newTs;
+            xs = newXs;
+            ys = newYs;
+        }
+        ts[size] = t;
+        xs[size] = x;
+        ys[size] = y;
+        size++;
+    }
+
+    /**
+     * Sorts the intersections by their parameter 't'. The sort is stable.
+     */
+    public void sort() {
+        // insertion sort, because we have only few intersections
+        for (int i = 1; i < size; i++) {
+            double t = ts[i], x = xs[i], y = ys[i];
+            int j = i - 1;
+            for (; j >= 0 && ts[j] > t; j--) {
+                ts[j + 1] = ts[j];
+                xs[j + 1] = xs[j];
+                ys[j + 1] = ys[j];
+            }
+            ts[j + 1] = t;
+            xs[j + 1] = x;
+            ys[j + 1] = y;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public double getT(int index) {
+        checkIndex(index);
+        return ts[index];
+    }
+
+    public double getX(int index) {
+        checkIndex(index);
+        return xs[index];
+    }
+
+    public double getY(int index) {
+        checkIndex(index);
+        return ys[index];
+    }
+
+    public double getFirstT() {
+        return getT(0);
+    }
+
+    public double getLastT() {
+        return getT(size - 1);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + " size=" + size);
+        }
+    }
+
+    /**
+     * Gets a root finder which can find the roots of polynomials up to
+     * degree 9.
+     *
+     * @return the root finder
+     */
+    @Nonnull
+    PolynomialRootFinder getRootFinder() {
+        if (rootFinder == null) {
+            rootFinder = new PolynomialRootFinder(9);
+        }
+        return rootFinder;
+    }
+
+    /**
+     * Converts the contents of this buffer into an {@link Intersection}.
+     *
+     * @param status the status of the intersection
+     * @return a new intersection
+     */
+    @Nonnull
+    public Intersection toIntersection(@Nonnull Intersection.Status status) {
+        List<Map.Entry<Double, Point2D>> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(new AbstractMap.SimpleEntry<>(ts[i], new Point2D(xs[i], ys[i])));
+        }
+        return new Intersection(status, list);
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder();
+        b.append("IntersectionBuffer{points=");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                b.append(' ');
+            }
+            b.append(xs[i]).append(',').append(ys[i]);
+        }
+        b.append(", ts=[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                b.append(", ");
+            }
+            b.append(ts[i]);
+        }
+        return b.append("]}").toString();
+    }
+}
@@ -767,9 +767,9 @@ public class Intersections {
     public static Intersection intersectCubicCurveCubicCurve(
             double ax0, double ay0, double ax1, double ay1, double ax2, double ay2, double ax3, double ay3,
             double bx0, double by0, double bx1, double by1, double bx2, double by2, double bx3, double by3) {
-        return intersectCubicCurveCubicCurve(new Point2D(ax0, ay0), new Point2D(ax1, ay1), new Point2D(ax2, ay2), new Point2D(ax3, ay3),
-                new Point2D(bx0, by0), new Point2D(bx1, by1), new Point2D(bx2, by2), new Point2D(bx3, by3));
-
+        IntersectionBuffer result = new IntersectionBuffer();
+        return result.toIntersection(intersectCubicCurveCubicCurve(ax0, ay0, ax1, ay1, ax2, ay2, ax3, ay3,
+                bx0, by0, bx1, by1, bx2, by2, bx3, by3, result));
     }
 
     /**
@@ -791,38 +791,61 @@ public class Intersections {
      */
     public static Intersection intersectCubicCurveCubicCurve(Point2D a0, Point2D a1, Point2D a2, @Nonnull Point2D a3,
                                                              Point2D b0, Point2D b1, Point2D b2, @Nonnull Point2D b3) {
-        Point2D a, b, c, d;         // temporary variables
-        List<Map.Entry<Double, Point2D>> result = new ArrayList<>();
+        return intersectCubicCurveCubicCurve(a0.getX(), a0.getY(), a1.getX(), a1.getY(), a2.getX(), a2.getY(), a3.getX(), a3.getY(),
+                b0.getX(), b0.getY(), b1.getX(), b1.getY(), b2.getX(), b2.getY(), b3.getX(), b3.getY());
+    }
 
-        // Calculate the coefficients of cubic polynomial
-        final Point2D c13, c12, c11, c10;
-        final Point2D c23, c22, c21, c20;
-        c13 = a0.multiply(-1).add(a1.multiply(3).add(a2.multiply(-3).add(a3)));
-        c12 = a0.multiply(3).add(a1.multiply(-6).add(a2.multiply(3)));
-        c11 = a0.multiply(-3).add(a1.multiply(3));
-        c10 = a0;
-        c23 = b0.multiply(-1).add(b1.multiply(3).add(b2.multiply(-3).add(b3)));
-        c22 = b0.multiply(3).add(b1.multiply(-6).add(b2.multiply(3)));
-        c21 = b0.multiply(-3).add(b1.multiply(3));
-        c20 = b0;
+    /**
+     * Computes the intersection between cubic bezier curve 'a' and cubic bezier
+     * curve 'b'.
+     * <p>
+     * The buffer will contain the parameters 't' of curve 'a' in range
+     * [0,1]. This method does not allocate memory unless the buffer needs
+     * to grow.
+     *
+     * @param ax0 control point P0 of 'a'
+     * @param ay0 control point P0 of 'a'
+     * @param ax1 control point P1 of 'a'
+     * @param ay1 control point P1 of 'a'
+     * @param ax2 control point P2 of 'a'
+     * @param ay2 control point P2 of 'a'
+     * @param ax3 control point P3 of 'a'
+     * @param ay3 control point P3 of 'a'
+     * @param bx0 control point P0 of 'b'
+     * @param by0 control point P0 of 'b'
+     * @param bx1 control point P1 of 'b'
+     * @param by1 control point P1 of 'b'
+     * @param bx2 control point P2 of 'b'
+     * @param by2 control point P2 of 'b'
+     * @param bx3 control point P3 of 'b'
+     * @param by3 control point P3 of 'b'
+     * @param result the buffer which receives the intersections
+     * @return the status of the intersection
+     */
+    public static Status intersectCubicCurveCubicCurve(
+            double ax0, double ay0, double ax1, double ay1, double ax2, double ay2, double ax3, double ay3,
+            double bx0, double by0, double bx1, double by1, double bx2, double by2, double bx3, double by3,
+            @Nonnull IntersectionBuffer result) {
+        result.clear();
 
+        // Calculate the coefficients of cubic polynomial
         final double c10x, c10y, c11x, c11y, c12x, c12y, c13x, c13y, c20x, c20y, c21x, c21y, c22x, c22y, c23y, c23x;
-        c10x = c10.getX();
-        c10y = c10.getY();
-        c11x = c11.getX();
-        c11y = c11.getY();
-        c12x = c12.getX();
-        c12y = c12.getY();
-        c13x = c13.getX();
-        c13y = c13.getY();
-        c20x = c20.getX();
-        c20y = c20.getY();
-        c21x = c21.getX();
-        c21y = c21.getY();
-        c22x = c22.getX();
-        c22y = c22.getY();
-        c23y = c23.getY();
-        c23x = c23.getX();
+        c13x = ax0 * -1 + (ax1 * 3 + (ax2 * -3 + ax3));
+        c13y = ay0 * -1 + (ay1 * 3 + (ay2 * -3 + ay3));
+        c12x = ax0 * 3 + (ax1 * -6 + ax2 * 3);
+        c12y = ay0 * 3 + (ay1 * -6 + ay2 * 3);
+        c11x = ax0 * -3 + ax1 * 3;
+        c11y = ay0 * -3 + ay1 * 3;
+        c10x = ax0;
+        c10y = ay0;
+        c23x = bx0 * -1 + (bx1 * 3 + (bx2 * -3 + bx3));
+        c23y = by0 * -1 + (by1 * 3 + (by2 * -3 + by3));
+        c22x = bx0 * 3 + (bx1 * -6 + bx2 * 3);
+        c22y = by0 * 3 + (by1 * -6 + by2 * 3);
+        c21x = bx0 * -3 + bx1 * 3;
+        c21y = by0 * -3 + by1 * 3;
+        c20x = bx0;
+        c20y = by0;
 
         final double c10x2, c10x3, c10y2, c10y3, c11x2, c11x3, c11y2, c11y3, c12x2, c12x3, c12y2, c12y3, c13x2, c13x3, c13y2, c13y3, c20x2, c20x3, c20y2, c20y3, c21x2, c21x3, c21y2, c22x2, c22x3, c22y2, c23x2, c23x3, c23y2, c23y3;
         c10x2 = c10x * c10x;
@@ -856,16 +879,16 @@ public class Intersections {
         c23y2 = c23y * c23y;
         c23y3 = c23y * c23y * c23y;
 
-        Polynomial poly = new Polynomial(
-                -c13x3 * c23y3 + c13y3 * c23x3 - 3 * c13x * c13y2 * c23x2 * c23y
-                + 3 * c13x2 * c13y * c23x * c23y2,
-                -6 * c13x * c22x * c13y2 * c23x * c23y + 6 * c13x2 * c13y * c22y * c23x * c23y + 3 * c22x * c13y3 * c23x2
-                - 3 * c13x3 * c22y * c23y2 - 3 * c13x * c13y2 * c22y * c23x2 + 3 * c13x2 * c22x * c13y * c23y2,
-                -6 * c21x * c13x * c13y2 * c23x * c23y - 6 * c13x * c22x * c13y2 * c22y * c23x + 6 * c13x2 * c22x * c13y * c22y * c23y
+        final double[] coefs = result.coefs;
+        coefs[9] = -c13x3 * c23y3 + c13y3 * c23x3 - 3 * c13x * c13y2 * c23x2 * c23y
+                + 3 * c13x2 * c13y * c23x * c23y2;
+        coefs[8] = -6 * c13x * c22x * c13y2 * c23x * c23y + 6 * c13x2 * c13y * c22y * c23x * c23y + 3 * c22x * c13y3 * c23x2
+                - 3 * c13x3 * c22y * c23y2 - 3 * c13x * c13y2 * c22y * c23x2 + 3 * c13x2 * c22x * c13y * c23y2;
+        coefs[7] = -6 * c21x * c13x * c13y2 * c23x * c23y - 6 * c13x * c22x * c13y2 * c22y * c23x + 6 * c13x2 * c22x * c13y * c22y * c23y
                 + 3 * c21x * c13y3 * c23x2 + 3 * c22x2 * c13y3 * c23x + 3 * c21x * c13x2 * c13y * c23y2 - 3 * c13x * c21y * c13y2 * c23x2
                 - 3 * c13x * c22x2 * c13y2 * c23y + c13x2 * c13y * c23x * (6 * c21y * c23y + 3 * c22y2) + c13x3 * (-c21y * c23y2
-                - 2 * c22y2 * c23y - c23y * (2 * c21y * c23y + c22y2)),
-                c11x * c12y * c13x * c13y * c23x * c23y - c11y * c12x * c13x * c13y * c23x * c23y + 6 * c21x * c22x * c13y3 * c23x
+                - 2 * c22y2 * c23y - c23y * (2 * c21y * c23y + c22y2));
+        coefs[6] = c11x * c12y * c13x * c13y * c23x * c23y - c11y * c12x * c13x * c13y * c23x * c23y + 6 * c21x * c22x * c13y3 * c23x
                 + 3 * c11x * c12x * c13x * c13y * c23y2 + 6 * c10x * c13x * c13y2 * c23x * c23y - 3 * c11x * c12x * c13y2 * c23x * c23y
                 - 3 * c11y * c12y * c13x * c13y * c23x2 - 6 * c10y * c13x2 * c13y * c23x * c23y - 6 * c20x * c13x * c13y2 * c23x * c23y
                 + 3 * c11y * c12y * c13x2 * c23x * c23y - 2 * c12x * c12y2 * c13x * c23x * c23y - 6 * c21x * c13x * c22x * c13y2 * c23y
@@ -876,8 +899,8 @@ public class Intersections {
                 + 2 * c11y * c12x * c13y2 * c23x2 + 3 * c20x * c13x2 * c13y * c23y2 - c12x * c12y2 * c13y * c23x2
                 - 3 * c20y * c13x * c13y2 * c23x2 + c12x2 * c12y * c13x * c23y2 - 3 * c13x * c22x2 * c13y2 * c22y
                 + c13x2 * c13y * c23x * (6 * c20y * c23y + 6 * c21y * c22y) + c13x2 * c22x * c13y * (6 * c21y * c23y + 3 * c22y2)
-                + c13x3 * (-2 * c21y * c22y * c23y - c20y * c23y2 - c22y * (2 * c21y * c23y + c22y2) - c23y * (2 * c20y * c23y + 2 * c21y * c22y)),
-                6 * c11x * c12x * c13x * c13y * c22y * c23y + c11x * c12y * c13x * c22x * c13y * c23y + c11x * c12y * c13x * c13y * c22y * c23x
+                + c13x3 * (-2 * c21y * c22y * c23y - c20y * c23y2 - c22y * (2 * c21y * c23y + c22y2) - c23y * (2 * c20y * c23y + 2 * c21y * c22y));
+        coefs[5] = 6 * c11x * c12x * c13x * c13y * c22y * c23y + c11x * c12y * c13x * c22x * c13y * c23y + c11x * c12y * c13x * c13y * c22y * c23x
                 - c11y * c12x * c13x * c22x * c13y * c23y - c11y * c12x * c13x * c13y * c22y * c23x - 6 * c11y * c12y * c13x * c22x * c13y * c23x
                 - 6 * c10x * c22x * c13y3 * c23x + 6 * c20x * c22x * c13y3 * c23x + 6 * c10y * c13x3 * c22y * c23y + 2 * c12y3 * c13x * c22x * c23x
                 - 2 * c12x3 * c13y * c22y * c23y + 6 * c10x * c13x * c22x * c13y2 * c23y + 6 * c10x * c13x * c13y2 * c22y * c23x
@@ -892,8 +915,8 @@ public class Intersections {
                 + 3 * c21x * c22x2 * c13y3 + 3 * c21x2 * c13y3 * c23x - 3 * c13x * c21y * c22x2 * c13y2 - 3 * c21x2 * c13x * c13y2 * c23y
                 + c13x2 * c22x * c13y * (6 * c20y * c23y + 6 * c21y * c22y) + c13x2 * c13y * c23x * (6 * c20y * c22y + 3 * c21y2)
                 + c21x * c13x2 * c13y * (6 * c21y * c23y + 3 * c22y2) + c13x3 * (-2 * c20y * c22y * c23y - c23y * (2 * c20y * c22y + c21y2)
-                - c21y * (2 * c21y * c23y + c22y2) - c22y * (2 * c20y * c23y + 2 * c21y * c22y)),
-                c11x * c21x * c12y * c13x * c13y * c23y + c11x * c12y * c13x * c21y * c13y * c23x + c11x * c12y * c13x * c22x * c13y * c22y
+                - c21y * (2 * c21y * c23y + c22y2) - c22y * (2 * c20y * c23y + 2 * c21y * c22y));
+        coefs[4] = c11x * c21x * c12y * c13x * c13y * c23y + c11x * c12y * c13x * c21y * c13y * c23x + c11x * c12y * c13x * c22x * c13y * c22y
                 - c11y * c12x * c21x * c13x * c13y * c23y - c11y * c12x * c13x * c21y * c13y * c23x - c11y * c12x * c13x * c22x * c13y * c22y
                 - 6 * c11y * c21x * c12y * c13x * c13y * c23x - 6 * c10x * c21x * c13y3 * c23x + 6 * c20x * c21x * c13y3 * c23x
                 + 2 * c21x * c12y3 * c13x * c23x + 6 * c10x * c21x * c13x * c13y2 * c23y + 6 * c10x * c13x * c21y * c13y2 * c23x
@@ -915,8 +938,8 @@ public class Intersections {
                 + c11x * c12y * c13x2 * (-4 * c21y * c23y - 2 * c22y2) + c10x * c13x2 * c13y * (-6 * c21y * c23y - 3 * c22y2)
                 + c13x2 * c22x * c13y * (6 * c20y * c22y + 3 * c21y2) + c20x * c13x2 * c13y * (6 * c21y * c23y + 3 * c22y2)
                 + c13x3 * (-2 * c20y * c21y * c23y - c22y * (2 * c20y * c22y + c21y2) - c20y * (2 * c21y * c23y + c22y2)
-                - c21y * (2 * c20y * c23y + 2 * c21y * c22y)),
-                -c10x * c11x * c12y * c13x * c13y * c23y + c10x * c11y * c12x * c13x * c13y * c23y + 6 * c10x * c11y * c12y * c13x * c13y * c23x
+                - c21y * (2 * c20y * c23y + 2 * c21y * c22y));
+        coefs[3] = -c10x * c11x * c12y * c13x * c13y * c23y + c10x * c11y * c12x * c13x * c13y * c23y + 6 * c10x * c11y * c12y * c13x * c13y * c23x
                 - 6 * c10y * c11x * c12x * c13x * c13y * c23y - c10y * c11x * c12y * c13x * c13y * c23x + c10y * c11y * c12x * c13x * c13y * c23x
                 + c11x * c11y * c12x * c12y * c13x * c23y - c11x * c11y * c12x * c12y * c13y * c23x + c11x * c20x * c12y * c13x * c13y * c23y
                 + c11x * c20y * c12y * c13x * c13y * c23x + c11x * c21x * c12y * c13x * c13y * c22y + c11x * c12y * c13x * c21y * c22x * c13y
@@ -952,8 +975,8 @@ public class Intersections {
                 + c12x2 * c12y * c13x * (2 * c20y * c23y + 2 * c21y * c22y) + c11x * c12y * c13x2 * (-4 * c20y * c23y - 4 * c21y * c22y)
                 + c10x * c13x2 * c13y * (-6 * c20y * c23y - 6 * c21y * c22y) + c20x * c13x2 * c13y * (6 * c20y * c23y + 6 * c21y * c22y)
                 + c21x * c13x2 * c13y * (6 * c20y * c22y + 3 * c21y2) + c13x3 * (-2 * c20y * c21y * c22y - c20y2 * c23y
-                - c21y * (2 * c20y * c22y + c21y2) - c20y * (2 * c20y * c23y + 2 * c21y * c22y)),
-                -c10x * c11x * c12y * c13x * c13y * c22y + c10x * c11y * c12x * c13x * c13y * c22y + 6 * c10x * c11y * c12y * c13x * c22x * c13y
+                - c21y * (2 * c20y * c22y + c21y2) - c20y * (2 * c20y * c23y + 2 * c21y * c22y));
+        coefs[2] = -c10x * c11x * c12y * c13x * c13y * c22y + c10x * c11y * c12x * c13x * c13y * c22y + 6 * c10x * c11y * c12y * c13x * c22x * c13y
                 - 6 * c10y * c11x * c12x * c13x * c13y * c22y - c10y * c11x * c12y * c13x * c22x * c13y + c10y * c11y * c12x * c13x * c22x * c13y
                 + c11x * c11y * c12x * c12y * c13x * c22y - c11x * c11y * c12x * c12y * c22x * c13y + c11x * c20x * c12y * c13x * c13y * c22y
                 + c11x * c20y * c12y * c13x * c22x * c13y + c11x * c21x * c12y * c13x * c21y * c13y - c20x * c11y * c12x * c13x * c13y * c22y
@@ -984,8 +1007,8 @@ public class Intersections {
                 + c12x3 * c13y * (-2 * c20y * c22y - c21y2) + c10y * c13x3 * (6 * c20y * c22y + 3 * c21y2)
                 + c11y * c12x * c13x2 * (-2 * c20y * c22y - c21y2) + c11x * c12y * c13x2 * (-4 * c20y * c22y - 2 * c21y2)
                 + c10x * c13x2 * c13y * (-6 * c20y * c22y - 3 * c21y2) + c20x * c13x2 * c13y * (6 * c20y * c22y + 3 * c21y2)
-                + c13x3 * (-2 * c20y * c21y2 - c20y2 * c22y - c20y * (2 * c20y * c22y + c21y2)),
-                -c10x * c11x * c12y * c13x * c21y * c13y + c10x * c11y * c12x * c13x * c21y * c13y + 6 * c10x * c11y * c21x * c12y * c13x * c13y
+                + c13x3 * (-2 * c20y * c21y2 - c20y2 * c22y - c20y * (2 * c20y * c22y + c21y2));
+        coefs[1] = -c10x * c11x * c12y * c13x * c21y * c13y + c10x * c11y * c12x * c13x * c21y * c13y + 6 * c10x * c11y * c21x * c12y * c13x * c13y
                 - 6 * c10y * c11x * c12x * c13x * c21y * c13y - c10y * c11x * c21x * c12y * c13x * c13y + c10y * c11y * c12x * c21x * c13x * c13y
                 - c11x * c11y * c12x * c21x * c12y * c13y + c11x * c11y * c12x * c12y * c13x * c21y + c11x * c20x * c12y * c13x * c21y * c13y
                 + 6 * c11x * c12x * c20y * c13x * c21y * c13y + c11x * c20y * c21x * c12y * c13x * c13y - c20x * c11y * c12x * c13x * c21y * c13y
@@ -1009,8 +1032,8 @@ public class Intersections {
                 + 3 * c10x2 * c21x * c13y3 - 3 * c10y2 * c13x3 * c21y + 3 * c20x2 * c21x * c13y3 + c11y3 * c21x * c13x2 - c11x3 * c21y * c13y2
                 - 3 * c20y2 * c13x3 * c21y - c11x * c11y2 * c13x2 * c21y + c11x2 * c11y * c21x * c13y2 - 3 * c10x2 * c13x * c21y * c13y2
                 + 3 * c10y2 * c21x * c13x2 * c13y - c11x2 * c12y2 * c13x * c21y + c11y2 * c12x2 * c21x * c13y - 3 * c20x2 * c13x * c21y * c13y2
-                + 3 * c20y2 * c21x * c13x2 * c13y,
-                c10x * c10y * c11x * c12y * c13x * c13y - c10x * c10y * c11y * c12x * c13x * c13y + c10x * c11x * c11y * c12x * c12y * c13y
+                + 3 * c20y2 * c21x * c13x2 * c13y;
+        coefs[0] = c10x * c10y * c11x * c12y * c13x * c13y - c10x * c10y * c11y * c12x * c13x * c13y + c10x * c11x * c11y * c12x * c12y * c13y
                 - c10y * c11x * c11y * c12x * c12y * c13x - c10x * c11x * c20y * c12y * c13x * c13y + 6 * c10x * c20x * c11y * c12y * c13x * c13y
                 + c10x * c11y * c12x * c20y * c13x * c13y - c10y * c11x * c20x * c12y * c13x * c13y - 6 * c10y * c11x * c12x * c20y * c13x * c13y
                 + c10y * c20x * c11y * c12x * c13x * c13y - c11x * c20x * c11y * c12x * c12y * c13y + c11x * c11y * c12x * c20y * c12y * c13x
@@ -1039,32 +1062,38 @@ public class Intersections {
                 - 3 * c10x * c20y2 * c13x2 * c13y + 3 * c10y * c20x2 * c13x * c13y2 + c11x * c20x2 * c12y * c13y2 - 2 * c11x * c20y2 * c12y * c13x2
                 + c20x * c11y2 * c12x2 * c13y - c11y * c12x * c20y2 * c13x2 - c10x2 * c12x * c12y2 * c13y - 3 * c10x2 * c20y * c13x * c13y2
                 + 3 * c10y2 * c20x * c13x2 * c13y + c10y2 * c12x2 * c12y * c13x - c11x2 * c20y * c12y2 * c13x + 2 * c20x2 * c11y * c12x * c13y2
-                + 3 * c20x * c20y2 * c13x2 * c13y - c20x2 * c12x * c12y2 * c13y - 3 * c20x2 * c20y * c13x * c13y2 + c12x2 * c20y2 * c12y * c13x
-        );
+                + 3 * c20x * c20y2 * c13x2 * c13y - c20x2 * c12x * c12y2 * c13y - 3 * c20x2 * c20y * c13x * c13y2 + c12x2 * c20y2 * c12y * c13x;
 
-        final double[] roots = poly.getRootsInInterval(0, 1);
+        final double[] roots = result.roots;
+        final int numRoots = result.getRootFinder().getRootsInInterval(coefs, 9, 0, 1, roots);
 
-        for (int i = 0; i < roots.length; i++) {
+        for (int i = 0; i < numRoots; i++) {
             double s = roots[i];
-            double[] xRoots = new Polynomial(
-                    c13x, c12x, c11x,
-                    c10x - c20x - s * c21x - s * s * c22x - s * s * s * c23x
-            ).getRoots();
-            double[] yRoots = new Polynomial(
-                    c13y, c12y, c11y,
-                    c10y - c20y - s * c21y - s * s * c22y - s * s * s * c23y
-            ).getRoots();
-
-            if (xRoots.length > 0 && yRoots.length > 0) {
+            coefs[3] = c13x;
+            coefs[2] = c12x;
+            coefs[1] = c11x;
+            coefs[0] = c10x - c20x - s * c21x - s * s * c22x - s * s * s * c23x;
+            final double[] xRoots = result.xRoots;
+            final int numXRoots = Polynomial.getRoots(coefs, 0, 3, xRoots);
+            coefs[3] = c13y;
+            coefs[2] = c12y;
+            coefs[1] = c11y;
+            coefs[0] = c10y - c20y - s * c21y - s * s * c22y - s * s * s * c23y;
+            final double[] yRoots = result.yRoots;
+            final int numYRoots = Polynomial.getRoots(coefs, 0, 3, yRoots);
+
+            if (numXRoots > 0 && numYRoots > 0) {
                 double TOLERANCE = 1e-4;
 
                 checkRoots:
-                for (int j = 0; j < xRoots.length; j++) {
+                for (int j = 0; j < numXRoots; j++) {
                     double xRoot = xRoots[j];
                     if (0 <= xRoot && xRoot <= 1) {
-                        for (int k = 0; k < yRoots.length; k++) {
+                        for (int k = 0; k < numYRoots; k++) {
                             if (Math.abs(xRoot - yRoots[k]) < TOLERANCE) {
-                                result.add(new AbstractMap.SimpleEntry<>(xRoot, c23.multiply(s * s * s).add(c22.multiply(s * s).add(c21.multiply(s).add(c20)))));
+                                result.add(xRoot,
+                                        c23x * (s * s * s) + (c22x * (s * s) + (c21x * s + c20x)),
+                                        c23y * (s * s * s) + (c22y * (s * s) + (c21y * s + c20y)));
                                 break checkRoots;
                             }
                         }
@@ -1073,7 +1102,8 @@ public class Intersections {
             }
         }
 
-        return new Intersection(result);
+        result.sort();
+        return result.isEmpty() ? Status.NO_INTERSECTION : Status.INTERSECTION;
     }
 
     /**
@@ -1856,6 +1886,46 @@ public static Intersection intersectEllipseRectangle(@Nonnull Point2D c, double
 
     public static Intersection intersectLineQuadraticCurve(double a0x, double a0y, double a1x, double a1y,
             double p0x, double p0y, double p1x, double p1y, double p2x, double p2y) {
+        IntersectionBuffer result = new IntersectionBuffer();
+        return result.toIntersection(intersectLineQuadraticCurve(a0x, a0y, a1x, a1y, p0x, p0y, p1x, p1y, p2x, p2y, result));
+    }
+
+    /**
+     * Computes the intersection between quadratic bezier curve 'p' and the
+     * line 'a'.
+     * <p>
+     * The buffer will contain the parameters 't' of the line in range [0,1].
+     * This method does not allocate memory unless the buffer needs to grow.
+     *
+     * @param a0x point 0 of 'a'
+     * @param a0y point 0 of 'a'
+     * @param a1x point 1 of 'a'
+     * @param a1y point 1 of 'a'
+     * @param p0x control point P0 of 'p'
+     * @param p0y control point P0 of 'p'
+     * @param p1x control point P1 of 'p'
+     * @param p1y control point P1 of 'p'
+     * @param p2x control point P2 of 'p'
+     * @param p2y control point P2 of 'p'
+     * @param result the buffer which receives the intersections
+     * @return the status of the intersection
+     */
+    public static Status intersectLineQuadraticCurve(double a0x, double a0y, double a1x, double a1y,
+            double p0x, double p0y, double p1x, double p1y, double p2x, double p2y,
+            @Nonnull IntersectionBuffer result) {
+        result.clear();
+        addLineQuadraticCurve(a0x, a0y, a1x, a1y, p0x, p0y, p1x, p1y, p2x, p2y, result);
+        result.sort();
+        return result.isEmpty() ? Status.NO_INTERSECTION : Status.INTERSECTION;
+    }
+
+    /**
+     * Adds the intersections between quadratic bezier curve 'p' and the line
+     * 'a' to the buffer.
+     */
+    private static void addLineQuadraticCurve(double a0x, double a0y, double a1x, double a1y,
+            double p0x, double p0y, double p1x, double p1y, double p2x, double p2y,
+            @Nonnull IntersectionBuffer result) {
         /* steps:
         * 1. Rotate the bezier curve so that the line coincides with the x-axis.
         *    This will position the curve in a way that makes it cross the line at points where its y-function is zero.
@@ -1863,23 +1933,21 @@ public static Intersection intersectEllipseRectangle(@Nonnull Point2D c, double
         * 3. Find the roots of the polynomial equation.
          */
 
-        Point2D topLeft = topLeft(a0x, a0y, a1x, a1y); // used to determine if point is on line segment
-        Point2D bottomRight = bottomRight(a0x, a0y, a1x, a1y); // used to determine if point is on line segment
-        List<Map.Entry<Double, Point2D>> result = new ArrayList<>();
-
-        final Point2D p0, p1;
-        p0 = new Point2D(p0x, p0y);
-        p1 = new Point2D(p1x, p1y);
+        // used to determine if point is on line segment
+        final double minx = Math.min(a0x, a1x), miny = Math.min(a0y, a1y);
+        final double maxx = Math.max(a0x, a1x), maxy = Math.max(a0y, a1y);
 
-        final Point2D c2, c1, c0;       // coefficients of quadratic
-        c2 = p0.add(p1.multiply(-2).add(p2x, p2y));
-        c1 = p0.multiply(-2).add(p1.multiply(2));
-        c0 = p0;
+        final double c2x, c2y, c1x, c1y; // coefficients of quadratic
+        c2x = p0x + (p1x * -2 + p2x);
+        c2y = p0y + (p1y * -2 + p2y);
+        c1x = p0x * -2 + p1x * 2;
+        c1y = p0y * -2 + p1y * 2;
 
         // Convert line to normal form: ax + by + c = 0
         // Find normal to line: negative inverse of original line's slope
-        final Point2D n;                // normal for normal form of line
-        n = new Point2D(a0y - a1y, a1x - a0x);
+        final double nx, ny;            // normal for normal form of line
+        nx = a0y - a1y;
+        ny = a1x - a0x;
 
         // Determine new c coefficient
         final double cl;               // c coefficient for normal form of line
@@ -1887,47 +1955,46 @@ public static Intersection intersectEllipseRectangle(@Nonnull Point2D c, double
 
         // Transform cubic coefficients to line's coordinate system and find roots
         // of cubic
-        double[] roots = new Polynomial(
-                n.dotProduct(c2),
-                n.dotProduct(c1),
-                n.dotProduct(c0) + cl
-        ).getRoots();
-// Any roots in closed interval [0,1] are intersections on Bezier, but
-// might not be on the line segment.
-// Find intersections and calculate point coordinates
-        Intersection.Status status = Intersection.Status.NO_INTERSECTION;
-        for (int i = 0; i < roots.length; i++) {
+        final double[] coefs = result.coefs;
+        coefs[2] = nx * c2x + ny * c2y;
+        coefs[1] = nx * c1x + ny * c1y;
+        coefs[0] = nx * p0x + ny * p0y + cl;
+        final double[] roots = result.roots;
+        final int numRoots = Polynomial.getRoots(coefs, 0, 2, roots);
+
+        // Any roots in closed interval [0,1] are intersections on Bezier, but
+        // might not be on the line segment.
+        // Find intersections and calculate point coordinates
+        for (int i = 0; i < numRoots; i++) {
             double t = roots[i];
 
             if (0 <= t && t <= 1) {
                 // We're within the Bezier curve
                 // Find point on Bezier
-                final Point2D p4, p5, p6;
-                p4 = lerp(p0, p1, t);
-                p5 = lerp(p1x, p1y, p2x, p2y, t);
-                p6 = lerp(p4, p5, t);
+                final double p4x, p4y, p5x, p5y, p6x, p6y;
+                p4x = p0x + (p1x - p0x) * t;
+                p4y = p0y + (p1y - p0y) * t;
+                p5x = p1x + (p2x - p1x) * t;
+                p5y = p1y + (p2y - p1y) * t;
+                p6x = p4x + (p5x - p4x) * t;
+                p6y = p4y + (p5y - p4y) * t;
 
                 // See if point is on line segment
                 // Had to make special cases for vertical and horizontal lines due
                 // to slight errors in calculation of p6
                 if (a0x == a1x) {
-                    if (topLeft.getY() <= p6.getY() && p6.getY() <= bottomRight.getY()) {
-                        status = Intersection.Status.INTERSECTION;
-                        result.add(new AbstractMap.SimpleEntry<>(pointOnLine(p6.getX(), p6.getY(), a0x, a0y, a1x, a1y), p6));
+                    if (miny <= p6y && p6y <= maxy) {
+                        result.add(pointOnLine(p6x, p6y, a0x, a0y, a1x, a1y), p6x, p6y);
                     }
                 } else if (a0y == a1y) {
-                    if (topLeft.getX() <= p6.getX() && p6.getX() <= bottomRight.getX()) {
-                        status = Intersection.Status.INTERSECTION;
-                        result.add(new AbstractMap.SimpleEntry<>(pointOnLine(p6.getX(), p6.getY(), a0x, a0y, a1x, a1y), p6));
+                    if (minx <= p6x && p6x <= maxx) {
+                        result.add(pointOnLine(p6x, p6y, a0x, a0y, a1x, a1y), p6x, p6y);
                     }
-                } else if (gte(p6, topLeft) && lte(p6, bottomRight)) {
-                    status = Intersection.Status.INTERSECTION;
-                    result.add(new AbstractMap.SimpleEntry<>(pointOnLine(p6.getX(), p6.getY(), a0x, a0y, a1x, a1y), p6));
+                } else if (p6x >= minx && p6y >= miny && p6x <= maxx && p6y <= maxy) {
+                    result.add(pointOnLine(p6x, p6y, a0x, a0y, a1x, a1y), p6x, p6y);
                 }
             }
         }
-
-        return new Intersection(status, result);
     }
 
     /**
@@ -1952,14 +2019,8 @@ public static Intersection intersectEllipseRectangle(@Nonnull Point2D c, double
     public static Intersection intersectLineCubicCurve(
             double a0x, double a0y, double a1x, double a1y,
             double p0x, double p0y, double p1x, double p1y, double p2x, double p2y, double p3x, double p3y) {
-
-        Point2D a0 = new Point2D(a0x, a0y);
-        Point2D a1 = new Point2D(a1x, a1y);
-        Point2D p0 = new Point2D(p0x, p0y);
-        Point2D p1 = new Point2D(p1x, p1y);
-        Point2D p2 = new Point2D(p2x, p2y);
-        Point2D p3 = new Point2D(p3x, p3y);
-        return intersectLineCubicCurve(a0, a1, p0, p1, p2, p3);
+        IntersectionBuffer result = new IntersectionBuffer();
+        return result.toIntersection(intersectLineCubicCurve(a0x, a0y, a1x, a1y, p0x, p0y, p1x, p1y, p2x, p2y, p3x, p3y, result));
     }
 
     /**
@@ -1975,15 +2036,53 @@ public static Intersection intersectEllipseRectangle(@Nonnull Point2D c, double
      * @return the computed intersection
      */
     public static Intersection intersectLineCubicCurve(Point2D a0, Point2D a1, Point2D p0, Point2D p1, Point2D p2, @Nonnull Point2D p3) {
-        final double a0x, a0y, a1x, a1y;
-        a0x = a0.getX();
-        a0y = a0.getY();
-        a1x = a1.getX();
-        a1y = a1.getY();
+        return intersectLineCubicCurve(a0.getX(), a0.getY(), a1.getX(), a1.getY(),
+                p0.getX(), p0.getY(), p1.getX(), p1.getY(), p2.getX(), p2.getY(), p3.getX(), p3.getY());
+    }
 
-        final Point2D amin = topLeft(a0, a1); // used to determine if point is on line segment
-        final Point2D amax = bottomRight(a0, a1); // used to determine if point is on line segment
-        List<Map.Entry<Double, Point2D>> result = new ArrayList<>();
+    /**
+     * Computes the intersection between cubic bezier curve 'p' and the line
+     * 'a'.
+     * <p>
+     * The buffer will contain the parameters 't' of the line in range [0,1].
+     * This method does not allocate memory unless the buffer needs to grow.
+     *
+     * @param a0x point 0 of 'a'
+     * @param a0y point 0 of 'a'
+     * @param a1x point 1 of 'a'
+     * @param a1y point 1 of 'a'
+     * @param p0x control point P0 of 'p'
+     * @param p0y control point P0 of 'p'
+     * @param p1x control point P1 of 'p'
+     * @param p1y control point P1 of 'p'
+     * @param p2x control point P2 of 'p'
+     * @param p2y control point P2 of 'p'
+     * @param p3x control point P3 of 'p'
+     * @param p3y control point P3 of 'p'
+     * @param result the buffer which receives the intersections
+     * @return the status of the intersection
+     */
+    public static Status intersectLineCubicCurve(
+            double a0x, double a0y, double a1x, double a1y,
+            double p0x, double p0y, double p1x, double p1y, double p2x, double p2y, double p3x, double p3y,
+            @Nonnull IntersectionBuffer result) {
+        result.clear();
+        addLineCubicCurve(a0x, a0y, a1x, a1y, p0x, p0y, p1x, p1y, p2x, p2y, p3x, p3y, result);
+        result.sort();
+        return result.isEmpty() ? Status.NO_INTERSECTION : Status.INTERSECTION;
+    }
+
+    /**
+     * Adds the intersections between cubic bezier curve 'p' and the line 'a'
+     * to the buffer.
+     */
+    private static void addLineCubicCurve(
+            double a0x, double a0y, double a1x, double a1y,
+            double p0x, double p0y, double p1x, double p1y, double p2x, double p2y, double p3x, double p3y,
+            @Nonnull IntersectionBuffer result) {
+        // used to determine if point is on line segment
+        final double minx = Math.min(a0x, a1x), miny = Math.min(a0y, a1y);
+        final double maxx = Math.max(a0x, a1x), maxy = Math.max(a0y, a1y);
 
         // Start with Bezier using Bernstein polynomials for weighting functions:
         //     (1-t^3)P0 + 3t(1-t)^2P1 + 3t^2(1-t)P2 + t^3P3
@@ -1995,16 +2094,19 @@ public static Intersection intersectEllipseRectangle(@Nonnull Point2D c, double
         //             ||                  ||                ||       ||
         //             c3                  c2                c1       c0
         // Calculate the coefficients
-        final Point2D c3, c2, c1, c0;   // coefficients of cubic
-        c3 = p0.multiply(-1).add(p1.multiply(3).add(p2.multiply(-3).add(p3)));
-        c2 = p0.multiply(3).add(p1.multiply(-6).add(p2.multiply(3)));
-        c1 = p0.multiply(-3).add(p1.multiply(3));
-        c0 = p0;
+        final double c3x, c3y, c2x, c2y, c1x, c1y;   // coefficients of cubic
+        c3x = p0x * -1 + (p1x * 3 + (p2x * -3 + p3x));
+        c3y = p0y * -1 + (p1y * 3 + (p2y * -3 + p3y));
+        c2x = p0x * 3 + (p1x * -6 + p2x * 3);
+        c2y = p0y * 3 + (p1y * -6 + p2y * 3);
+        c1x = p0x * -3 + p1x * 3;
+        c1y = p0y * -3 + p1y * 3;
 
         // Convert line to normal form: ax + by + c = 0
         // Find normal to line: negative inverse of original line's slope
-        final Point2D n;                // normal for normal form of line
-        n = new Point2D(a0y - a1y, a1x - a0x);
+        final double nx, ny;            // normal for normal form of line
+        nx = a0y - a1y;
+        ny = a1x - a0x;
 
         // Determine new c coefficient
         final double cl;               // c coefficient for normal form of line
@@ -2012,55 +2114,55 @@ public static Intersection intersectEllipseRectangle(@Nonnull Point2D c, double
 
         // ?Rotate each cubic coefficient using line for new coordinate system?
         // Find roots of rotated cubic
-        final Polynomial polynomial = new Polynomial(
-                n.dotProduct(c3),
-                n.dotProduct(c2),
-                n.dotProduct(c1),
-                n.dotProduct(c0) + cl
-        );
-        double[] roots = polynomial.getRoots();
+        final double[] coefs = result.coefs;
+        coefs[3] = nx * c3x + ny * c3y;
+        coefs[2] = nx * c2x + ny * c2y;
+        coefs[1] = nx * c1x + ny * c1y;
+        coefs[0] = nx * p0x + ny * p0y + cl;
+        final double[] roots = result.roots;
+        final int numRoots = Polynomial.getRoots(coefs, 0, 3, roots);
 
         // Any roots in closed interval [0,1] are intersections on Bezier, but
         // might not be on the line segment.
         // Find intersections and calculate point coordinates
-        Intersection.Status status = Intersection.Status.NO_INTERSECTION;
-        for (int i = 0; i < roots.length; i++) {
+        for (int i = 0; i < numRoots; i++) {
             double t = roots[i];
 
             if (0 <= t && t <= 1) {
                 // We're within the Bezier curve
                 // Find point on Bezier
-                final Point2D p5, p6, p7, p8, p9, p10;
-                p5 = lerp(p0, p1, t);
-                p6 = lerp(p1, p2, t);
-                p7 = lerp(p2, p3, t);
-
-                p8 = lerp(p5, p6, t);
-                p9 = lerp(p6, p7, t);
-
-                p10 = lerp(p8, p9, t);
+                final double p5x, p5y, p6x, p6y, p7x, p7y, p8x, p8y, p9x, p9y, p10x, p10y;
+                p5x = p0x + (p1x - p0x) * t;
+                p5y = p0y + (p1y - p0y) * t;
+                p6x = p1x + (p2x - p1x) * t;
+                p6y = p1y + (p2y - p1y) * t;
+                p7x = p2x + (p3x - p2x) * t;
+                p7y = p2y + (p3y - p2y) * t;
+
+                p8x = p5x + (p6x - p5x) * t;
+                p8y = p5y + (p6y - p5y) * t;
+                p9x = p6x + (p7x - p6x) * t;
+                p9y = p6y + (p7y - p6y) * t;
+
+                p10x = p8x + (p9x - p8x) * t;
+                p10y = p8y + (p9y - p8y) * t;
 
                 // See if point is on line segment
                 // Had to make special cases for vertical and horizontal lines due
                 // to slight errors in calculation of p10
                 if (a0x == a1x) {
-                    if (amin.getY() <= p10.getY() && p10.getY() <= amax.getY()) {
-                        status = Intersection.Status.INTERSECTION;
-                        result.add(new AbstractMap.SimpleEntry<>(pointOnLine(p10.getX(), p10.getY(), a0x, a0y, a1x, a1y), p10));
+                    if (miny <= p10y && p10y <= maxy) {
+                        result.add(pointOnLine(p10x, p10y, a0x, a0y, a1x, a1y), p10x, p10y);
                     }
                 } else if (a0y == a1y) {
-                    if (amin.getX() <= p10.getX() && p10.getX() <= amax.getX()) {
-                        status = Intersection.Status.INTERSECTION;
-                        result.add(new AbstractMap.SimpleEntry<>(pointOnLine(p10.getX(), p10.getY(), a0x, a0y, a1x, a1y), p10));
+                    if (minx <= p10x && p10x <= maxx) {
+                        result.add(pointOnLine(p10x, p10y, a0x, a0y, a1x, a1y), p10x, p10y);
                     }
-                } else if (gte(p10, amin) && lte(p10, amax)) {
-                    status = Intersection.Status.INTERSECTION;
-                    result.add(new AbstractMap.SimpleEntry<>(pointOnLine(p10.getX(), p10.getY(), a0x, a0y, a1x, a1y), p10));
+                } else if (p10x >= minx && p10y >= miny && p10x <= maxx && p10y <= maxy) {
+                    result.add(pointOnLine(p10x, p10y, a0x, a0y, a1x, a1y), p10x, p10y);
                 }
             }
         }
-
-        return new Intersection(status, result);
     }
 
     /**
@@ -2277,8 +2379,43 @@ public static Intersection intersectEllipseRectangle(@Nonnull Point2D c, double
     public static Intersection intersectLineLine(
             double a0x, double a0y, double a1x, double a1y,
             double b0x, double b0y, double b1x, double b1y) {
-        List<Map.Entry<Double, Point2D>> result = new ArrayList<>();
-        Intersection.Status status = Intersection.Status.NO_INTERSECTION;
+        IntersectionBuffer result = new IntersectionBuffer(1);
+        return result.toIntersection(intersectLineLine(a0x, a0y, a1x, a1y, b0x, b0y, b1x, b1y, result));
+    }
+
+    /**
+     * Computes the intersection between two lines 'a' and 'b'.
+     * <p>
+     * The buffer will contain the parameter 't' of line 'a' in range [0,1].
+     * This method does not allocate memory unless the buffer needs to grow.
+     *
+     * @param a0x point 0 of line 'a'
+     * @param a0y point 0 of line 'a'
+     * @param a1x point 1 of line 'a'
+     * @param a1y point 1 of line 'a'
+     * @param b0x point 0 of line 'b'
+     * @param b0y point 0 of line 'b'
+     * @param b1x point 1 of line 'b'
+     * @param b1y point 1 of line 'b'
+     * @param result the buffer which receives the intersection
+     * @return the status of the intersection
+     */
+    public static Status intersectLineLine(
+            double a0x, double a0y, double a1x, double a1y,
+            double b0x, double b0y, double b1x, double b1y,
+            @Nonnull IntersectionBuffer result) {
+        result.clear();
+        return addLineLine(a0x, a0y, a1x, a1y, b0x, b0y, b1x, b1y, result);
+    }
+
+    /**
+     * Adds the intersection between two lines 'a' and 'b' to the buffer.
+     */
+    private static Status addLineLine(
+            double a0x, double a0y, double a1x, double a1y,
+            double b0x, double b0y, double b1x, double b1y,
+            @Nonnull IntersectionBuffer result) {
+        Intersection.Status status;
 
         double ua_t = (b1x - b0x) * (a0y - b0y) - (b1y - b0y) * (a0x - b0x);
         double ub_t = (a1x - a0x) * (a0y - b0y) - (a1y - a0y) * (a0x - b0x);
@@ -2290,11 +2427,9 @@ public static Intersection intersectEllipseRectangle(@Nonnull Point2D c, double
 
             if (0 <= ua && ua <= 1 && 0 <= ub && ub <= 1) {
                 status = Intersection.Status.INTERSECTION;
-                result.add(new AbstractMap.SimpleEntry<>(ua, new Point2D(
+                result.add(ua,
                         a0x + ua * (a1x - a0x),
-                        a0y + ua * (a1y - a0y)
-                )
-                ));
+                        a0y + ua * (a1y - a0y));
             } else {
                 status = Intersection.Status.NO_INTERSECTION;
             }
@@ -2306,41 +2441,52 @@ public static Intersection intersectEllipseRectangle(@Nonnull Point2D c, double
             }
         }
 
-        return new Intersection(status, result);
+        return status;
     }
 
     public static Intersection intersectLinePathIterator(Point2D a0, Point2D a1, PathIterator pit) {
-        List<Map.Entry<Double, Point2D>> result = new ArrayList<>();
-        Intersection.Status status = Intersection.Status.NO_INTERSECTION;
-        final double a0x, a0y, a1x, a1y;
-        a0x = a0.getX();
-        a0y = a0.getY();
-        a1x = a1.getX();
-        a1y = a1.getY();
-        final double[] seg = new double[6];
+        IntersectionBuffer result = new IntersectionBuffer();
+        return result.toIntersection(intersectLinePathIterator(a0.getX(), a0.getY(), a1.getX(), a1.getY(), pit, result));
+    }
+
+    /**
+     * Computes the intersections between the line 'a' and the segments of
+     * the path iterator.
+     * <p>
+     * The buffer will contain the parameters 't' of the line in range [0,1].
+     * This method does not allocate memory unless the buffer needs to grow.
+     *
+     * @param a0x point 0 of 'a'
+     * @param a0y point 0 of 'a'
+     * @param a1x point 1 of 'a'
+     * @param a1y point 1 of 'a'
+     * @param pit the path iterator
+     * @param result the buffer which receives the intersections
+     * @return the status of the intersection
+     */
+    public static Status intersectLinePathIterator(double a0x, double a0y, double a1x, double a1y,
+            @Nonnull PathIterator pit, @Nonnull IntersectionBuffer result) {
+        result.clear();
+        final double[] seg = result.seg;
         double firstx = 0, firsty = 0;
         double lastx = 0, lasty = 0;
         double x, y;
         for (; !pit.isDone(); pit.next()) {
-            Intersection inter;
             switch (pit.currentSegment(seg)) {
                 case PathIterator.SEG_CLOSE:
-                    inter = Intersections.intersectLineLine(a0x, a0y, a1x, a1y, lastx, lasty, firstx, firsty);
-                    result.addAll(inter.getIntersections());
+                    addLineLine(a0x, a0y, a1x, a1y, lastx, lasty, firstx, firsty, result);
                     break;
                 case PathIterator.SEG_CUBICTO:
                     x = seg[4];
                     y = seg[5];
-                    inter = Intersections.intersectLineCubicCurve(a0x, a0y, a1x, a1y, lastx, lasty, seg[0], seg[1], seg[2], seg[3], x, y);
-                    result.addAll(inter.getIntersections());
+                    addLineCubicCurve(a0x, a0y, a1x, a1y, lastx, lasty, seg[0], seg[1], seg[2], seg[3], x, y, result);
                     lastx = x;
                     lasty = y;
                     break;
                 case PathIterator.SEG_LINETO:
                     x = seg[0];
                     y = seg[1];
-                    inter = Intersections.intersectLineLine(a0x, a0y, a1x, a1y, lastx, lasty, x, y);
-                    result.addAll(inter.getIntersections());
+                    addLineLine(a0x, a0y, a1x, a1y, lastx, lasty, x, y, result);
                     lastx = x;
                     lasty = y;
                     break;
@@ -2351,15 +2497,15 @@ public static Intersection intersectEllipseRectangle(@Nonnull Point2D c, double
                 case PathIterator.SEG_QUADTO:
                     x = seg[2];
                     y = seg[3];
-                    inter = Intersections.intersectLineQuadraticCurve(a0x, a0y, a1x, a1y, lastx, lasty, seg[0], seg[1], x, y);
-                    result.addAll(inter.getIntersections());
+                    addLineQuadraticCurve(a0x, a0y, a1x, a1y, lastx, lasty, seg[0], seg[1], x, y, result);
                     lastx = x;
                     lasty = y;
                     break;
             }
         }
 
-        return new Intersection(result);
+        result.sort();
+        return result.isEmpty() ? Status.NO_INTERSECTION : Status.INTERSECTION;
     }
 
     /**
@@ -0,0 +1,532 @@
+/* @(#)OrthogonalRouter.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.geom;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.collection.ImmutableList;
+import org.jhotdraw8.graph.IntDirectedGraphCostPathBuilder;
+import org.jhotdraw8.graph.VertexPath;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes orthogonal routes which avoid rectangular obstacles.
+ * <p>
+ * A route is searched in a sparse orthogonal visibility graph. The graph is
+ * built from the obstacles inside a corridor around the start and the end
+ * point of the route. Its vertices are the intersections of the lines through
+ * the start point, the end point, the edges of the corridor, and the edges of
+ * the obstacles grown by the clearance. Its edges connect adjacent vertices
+ * if they do not pass through an obstacle. If there is no route inside the
+ * corridor, the corridor is enlarged.
+ * <p>
+ * The graph is searched with {@link IntDirectedGraphCostPathBuilder}. Each
+ * vertex of the graph is split into a horizontal and a vertical state, so
+ * that a change of direction can be charged with a bend penalty. The search
+ * uses the Manhattan distance to the end point as the heuristic of an A*
+ * search, by searching with the reduced costs
+ * {@code cost(u,v) + h(v) - h(u)}.
+ * <p>
+ * Routes are cached by a key. A cached route remains valid until an obstacle
+ * is added, moved or removed inside its corridor. The keys of invalidated
+ * routes can be polled with {@link #pollInvalidatedRoutes}, so that only the
+ * affected connections need to be rerouted.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class OrthogonalRouter {
+
+    /**
+     * The number of times that the corridor is enlarged if there is no route
+     * inside of it.
+     */
+    private final static int MAX_CORRIDOR_ENLARGEMENTS = 3;
+
+    private static class Route {
+
+        @Nonnull
+        final Point2D start;
+        @Nonnull
+        final Point2D end;
+        @Nonnull
+        final Set<?> ignoredObstacles;
+        @Nonnull
+        final ImmutableList<Point2D> points;
+        boolean valid = true;
+
+        Route(@Nonnull Point2D start, @Nonnull Point2D end, @Nonnull Set<?> ignoredObstacles, @Nonnull ImmutableList<Point2D> points) {
+            this.start = start;
+            this.end = end;
+            this.ignoredObstacles = ignoredObstacles;
+            this.points = points;
+        }
+    }
+
+    @Nonnull
+    private final QuadTree<Object> obstacles = new QuadTree<>();
+    @Nonnull
+    private final QuadTree<Object> corridors = new QuadTree<>();
+    @Nonnull
+    private final Map<Object, Route> routes = new HashMap<>();
+    @Nonnull
+    private final Set<Object> invalidatedRoutes = new LinkedHashSet<>();
+    private double clearance = 10.0;
+    private double bendPenalty = 40.0;
+    private double corridorMargin = 50.0;
+    private long computedRouteCount;
+
+    public OrthogonalRouter() {
+    }
+
+    /**
+     * The minimal distance between a route and an obstacle.
+     *
+     * @return the clearance
+     */
+    public double getClearance() {
+        return clearance;
+    }
+
+    public void setClearance(double clearance) {
+        this.clearance = clearance;
+        invalidateAllRoutes();
+    }
+
+    /**
+     * The cost of a bend in a route, in units of the route length.
+     *
+     * @return the bend penalty
+     */
+    public double getBendPenalty() {
+        return bendPenalty;
+    }
+
+    public void setBendPenalty(double bendPenalty) {
+        this.bendPenalty = bendPenalty;
+        invalidateAllRoutes();
+    }
+
+    /**
+     * The margin of the corridor around the start and the end point of a
+     * route.
+     *
+     * @return the corridor margin
+     */
+    public double getCorridorMargin() {
+        return corridorMargin;
+    }
+
+    public void setCorridorMargin(double corridorMargin) {
+        this.corridorMargin = corridorMargin;
+        invalidateAllRoutes();
+    }
+
+    /**
+     * Returns the number of routes which have been computed since this
+     * router was created. Routes which are returned from the cache are not
+     * counted.
+     *
+     * @return the number of computed routes
+     */
+    public long getComputedRouteCount() {
+        return computedRouteCount;
+    }
+
+    /**
+     * Adds or moves an obstacle. Invalidates all routes whose corridor
+     * intersects with the old or with the new bounds of the obstacle.
+     *
+     * @param key    the key of the obstacle
+     * @param bounds the bounds of the obstacle
+     */
+    public void putObstacle(@Nonnull Object key, @Nonnull Bounds bounds) {
+        Bounds oldBounds = obstacles.getBounds(key);
+        if (bounds.equals(oldBounds)) {
+            return;
+        }
+        if (oldBounds != null) {
+            invalidateRoutesIntersecting(oldBounds);
+        }
+        obstacles.put(key, bounds);
+        invalidateRoutesIntersecting(bounds);
+    }
+
+    /**
+     * Removes an obstacle. Invalidates all routes whose corridor intersects
+     * with the bounds of the obstacle.
+     *
+     * @param key the key of the obstacle
+     * @return true if the obstacle was present
+     */
+    public boolean removeObstacle(@Nonnull Object key) {
+        Bounds oldBounds = obstacles.getBounds(key);
+        if (oldBounds == null) {
+            return false;
+        }
+        obstacles.remove(key);
+        invalidateRoutesIntersecting(oldBounds);
+        return true;
+    }
+
+    /**
+     * Returns true if the specified obstacle is present.
+     *
+     * @param key the key of the obstacle
+     * @return true if present
+     */
+    public boolean containsObstacle(@Nonnull Object key) {
+        return obstacles.contains(key);
+    }
+
+    /**
+     * Returns the number of obstacles.
+     *
+     * @return the number of obstacles
+     */
+    public int getObstacleCount() {
+        return obstacles.size();
+    }
+
+    private void invalidateRoutesIntersecting(@Nonnull Bounds b) {
+        corridors.findIntersecting(b.getMinX() - clearance, b.getMinY() - clearance,
+                b.getMaxX() + clearance, b.getMaxY() + clearance, this::invalidateRoute);
+    }
+
+    private void invalidateRoute(@Nonnull Object key) {
+        Route route = routes.get(key);
+        if (route != null && route.valid) {
+            route.valid = false;
+            invalidatedRoutes.add(key);
+        }
+    }
+
+    /**
+     * Invalidates all cached routes.
+     */
+    public void invalidateAllRoutes() {
+        for (Object key : routes.keySet()) {
+            invalidateRoute(key);
+        }
+    }
+
+    /**
+     * Returns the keys of the routes which have been invalidated since the
+     * last invocation of this method, and which have not been recomputed or
+     * removed in the mean time.
+     *
+     * @return the keys of the invalidated routes
+     */
+    @Nonnull
+    public Set<Object> pollInvalidatedRoutes() {
+        if (invalidatedRoutes.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<Object> result = new LinkedHashSet<>(invalidatedRoutes);
+        invalidatedRoutes.clear();
+        return result;
+    }
+
+    /**
+     * Returns true if the specified route is in the cache and valid.
+     *
+     * @param key the key of the route
+     * @return true if the route is valid
+     */
+    public boolean isRouteValid(@Nonnull Object key) {
+        Route route = routes.get(key);
+        return route != null && route.valid;
+    }
+
+    /**
+     * Removes a route from the cache.
+     *
+     * @param key the key of the route
+     */
+    public void removeRoute(@Nonnull Object key) {
+        routes.remove(key);
+        corridors.remove(key);
+        invalidatedRoutes.remove(key);
+    }
+
+    /**
+     * Removes all obstacles and all routes.
+     */
+    public void clear() {
+        obstacles.clear();
+        corridors.clear();
+        routes.clear();
+        invalidatedRoutes.clear();
+    }
+
+    /**
+     * Returns an orthogonal route from the start point to the end point.
+     * <p>
+     * Returns the cached route, if the route with the specified key is
+     * valid, and has been computed for the same parameters.
+     *
+     * @param key              the key of the route
+     * @param start            the start point
+     * @param end              the end point
+     * @param ignoredObstacles the keys of the obstacles which the route may
+     *                         pass through, for example the obstacles at the
+     *                         start and at the end of the route
+     * @return the points of the route, starting with the start point and
+     * ending with the end point
+     */
+    @Nonnull
+    public ImmutableList<Point2D> route(@Nonnull Object key, @Nonnull Point2D start, @Nonnull Point2D end,
+                                        @Nonnull Set<?> ignoredObstacles) {
+        Route route = routes.get(key);
+        if (route != null && route.valid && route.start.equals(start) && route.end.equals(end)
+                && route.ignoredObstacles.equals(ignoredObstacles)) {
+            return route.points;
+        }
+
+        computedRouteCount++;
+        double margin = corridorMargin;
+        Bounds corridor = null;
+        ImmutableList<Point2D> points = null;
+        for (int i = 0; i <= MAX_CORRIDOR_ENLARGEMENTS && points == null; i++, margin *= 4) {
+            corridor = new BoundingBox(Math.min(start.getX(), end.getX()) - margin,
+                    Math.min(start.getY(), end.getY()) - margin,
+                    Math.abs(start.getX() - end.getX()) + 2 * margin,
+                    Math.abs(start.getY() - end.getY()) + 2 * margin);
+            points = search(start, end, corridor, ignoredObstacles);
+        }
+        if (points == null) {
+            // there is no route around the obstacles
+            points = start.getX() == end.getX() || start.getY() == end.getY()
+                    ? ImmutableList.of(start, end)
+                    : ImmutableList.of(start, new Point2D(end.getX(), start.getY()), end);
+        }
+
+        routes.put(key, new Route(start, end, ignoredObstacles, points));
+        corridors.put(key, corridor);
+        invalidatedRoutes.remove(key);
+        return points;
+    }
+
+    /**
+     * Searches a route inside the specified corridor.
+     *
+     * @return the route or null
+     */
+    @Nullable
+    private ImmutableList<Point2D> search(@Nonnull Point2D start, @Nonnull Point2D end, @Nonnull Bounds corridor,
+                                          @Nonnull Set<?> ignoredObstacles) {
+        final double sx = start.getX(), sy = start.getY(), ex = end.getX(), ey = end.getY();
+
+        // Collect the obstacles grown by the clearance. Obstacles which
+        // contain the start or the end point are ignored, because the route
+        // could not leave or enter them.
+        List<Bounds> grown = new ArrayList<>();
+        obstacles.findIntersecting(corridor.getMinX(), corridor.getMinY(), corridor.getMaxX(), corridor.getMaxY(), o -> {
+            if (!ignoredObstacles.contains(o)) {
+                Bounds b = obstacles.getBounds(o);
+                double minX = b.getMinX() - clearance, minY = b.getMinY() - clearance;
+                double maxX = b.getMaxX() + clearance, maxY = b.getMaxY() + clearance;
+                if (!(minX < sx && sx < maxX && minY < sy && sy < maxY)
+                        && !(minX < ex && ex < maxX && minY < ey && ey < maxY)) {
+                    grown.add(new BoundingBox(minX, minY, maxX - minX, maxY - minY));
+                }
+            }
+        });
+
+        // Build the coordinates of the grid
+        double[] xs = new double[4 + 2 * grown.size()];
+        double[] ys = new double[xs.length];
+        int n = 0;
+        xs[n] = sx;
+        ys[n++] = sy;
+        xs[n] = ex;
+        ys[n++] = ey;
+        xs[n] = corridor.getMinX();
+        ys[n++] = corridor.getMinY();
+        xs[n] = corridor.getMaxX();
+        ys[n++] = corridor.getMaxY();
+        for (Bounds b : grown) {
+            xs[n] = clamp(b.getMinX(), corridor.getMinX(), corridor.getMaxX());
+            ys[n++] = clamp(b.getMinY(), corridor.getMinY(), corridor.getMaxY());
+            xs[n] = clamp(b.getMaxX(), corridor.getMinX(), corridor.getMaxX());
+            ys[n++] = clamp(b.getMaxY(), corridor.getMinY(), corridor.getMaxY());
+        }
+        xs = unique(xs);
+        ys = unique(ys);
+        final int nx = xs.length, ny = ys.length;
+        final int gridSize = nx * ny;
+
+        // Mark blocked vertices and blocked edges. A vertex is blocked if
+        // it lies strictly inside of an obstacle. A horizontal edge goes from
+        // vertex i to i+1, a vertical edge from vertex i to i+nx. An edge is
+        // blocked if it passes through the inside of an obstacle.
+        boolean[] blocked = new boolean[gridSize];
+        boolean[] blockedH = new boolean[gridSize];
+        boolean[] blockedV = new boolean[gridSize];
+        for (Bounds b : grown) {
+            int x0 = firstIndexAbove(xs, b.getMinX(), false), x1 = lastIndexBelow(xs, b.getMaxX(), false);
+            int y0 = firstIndexAbove(ys, b.getMinY(), false), y1 = lastIndexBelow(ys, b.getMaxY(), false);
+            int xi0 = firstIndexAbove(xs, b.getMinX(), true), xi1 = lastIndexBelow(xs, b.getMaxX(), true);
+            int yi0 = firstIndexAbove(ys, b.getMinY(), true), yi1 = lastIndexBelow(ys, b.getMaxY(), true);
+            for (int y = yi0; y <= yi1; y++) {
+                for (int x = xi0; x <= xi1; x++) {
+                    blocked[y * nx + x] = true;
+                }
+                for (int x = x0; x < x1; x++) {
+                    blockedH[y * nx + x] = true;
+                }
+            }
+            for (int x = xi0; x <= xi1; x++) {
+                for (int y = y0; y < y1; y++) {
+                    blockedV[y * nx + x] = true;
+                }
+            }
+        }
+
+        final int startVertex = Arrays.binarySearch(ys, sy) * nx + Arrays.binarySearch(xs, sx);
+        final int endVertex = Arrays.binarySearch(ys, ey) * nx + Arrays.binarySearch(xs, ex);
+        blocked[startVertex] = false;
+        blocked[endVertex] = false;
+
+        // The search graph has a horizontal state 2*i and a vertical state
+        // 2*i+1 for each grid vertex i, and a virtual root 2*gridSize,
+        // which leads to both states of the start vertex.
+        final int root = 2 * gridSize;
+        final double[] gx = xs, gy = ys;
+        IntDirectedGraphCostPathBuilder<Integer, Double> builder = new IntDirectedGraphCostPathBuilder<>(root + 1, v -> {
+            List<Map.Entry<Integer, Double>> next = new ArrayList<>(3);
+            if (v == root) {
+                next.add(new AbstractMap.SimpleImmutableEntry<>(2 * startVertex, 0.0));
+                next.add(new AbstractMap.SimpleImmutableEntry<>(2 * startVertex + 1, 0.0));
+                return next;
+            }
+            int g = v >>> 1;
+            if (blocked[g]) {
+                return next;
+            }
+            int x = g % nx, y = g / nx;
+            if ((v & 1) == 0) {
+                if (x > 0 && !blockedH[g - 1] && !blocked[g - 1]) {
+                    next.add(new AbstractMap.SimpleImmutableEntry<>(v - 2, gx[x] - gx[x - 1]));
+                }
+                if (x < nx - 1 && !blockedH[g] && !blocked[g + 1]) {
+                    next.add(new AbstractMap.SimpleImmutableEntry<>(v + 2, gx[x + 1] - gx[x]));
+                }
+                next.add(new AbstractMap.SimpleImmutableEntry<>(v + 1, bendPenalty));
+            } else {
+                if (y > 0 && !blockedV[g - nx] && !blocked[g - nx]) {
+                    next.add(new AbstractMap.SimpleImmutableEntry<>(v - 2 * nx, gy[y] - gy[y - 1]));
+                }
+                if (y < ny - 1 && !blockedV[g] && !blocked[g + nx]) {
+                    next.add(new AbstractMap.SimpleImmutableEntry<>(v + 2 * nx, gy[y + 1] - gy[y]));
+                }
+                next.add(new AbstractMap.SimpleImmutableEntry<>(v - 1, bendPenalty));
+            }
+            return next;
+        }, (u, v, cost) -> Math.max(0.0, cost + heuristic(v, root, startVertex, gx, gy, ex, ey)
+                - heuristic(u, root, startVertex, gx, gy, ex, ey)));
+
+        Map.Entry<VertexPath<Integer>, Double> result = builder.findShortestVertexPath(root,
+                v -> v >>> 1 == endVertex && v != root, Double.POSITIVE_INFINITY);
+        if (result == null) {
+            return null;
+        }
+
+        // Convert the path into points, and remove the vertices on straight
+        // lines
+        List<Point2D> points = new ArrayList<>();
+        ImmutableList<Integer> vertices = result.getKey().getVertices();
+        int prevG = -1;
+        for (int i = 1, size = vertices.size(); i < size; i++) {
+            int g = vertices.get(i) >>> 1;
+            if (g == prevG) {
+                continue;
+            }
+            prevG = g;
+            Point2D p = new Point2D(xs[g % nx], ys[g / nx]);
+            int last = points.size() - 1;
+            if (last >= 1) {
+                Point2D a = points.get(last - 1);
+                Point2D b = points.get(last);
+                if (a.getX() == b.getX() && b.getX() == p.getX()
+                        || a.getY() == b.getY() && b.getY() == p.getY()) {
+                    points.set(last, p);
+                    continue;
+                }
+            }
+            points.add(p);
+        }
+        if (points.size() == 1) {
+            points.add(end);
+        }
+        return ImmutableList.ofCollection(points);
+    }
+
+    /**
+     * The Manhattan distance from a vertex to the end point.
+     */
+    private static double heuristic(int v, int root, int startVertex, @Nonnull double[] xs, @Nonnull double[] ys,
+                                    double ex, double ey) {
+        int g = v == root ? startVertex : v >>> 1;
+        int nx = xs.length;
+        return Math.abs(xs[g % nx] - ex) + Math.abs(ys[g / nx] - ey);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return value < min ? min : value > max ? max : value;
+    }
+
+    /**
+     * Sorts the values and removes duplicates.
+     */
+    @Nonnull
+    private static double[] unique(@Nonnull double[] values) {
+        Arrays.sort(values);
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (i == 0 || values[i] != values[n - 1]) {
+                values[n++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, n);
+    }
+
+    /**
+     * Returns the index of the first value which is greater than (or equal
+     * to, if not strict) the specified value.
+     */
+    private static int firstIndexAbove(@Nonnull double[] sorted, double value, boolean strict) {
+        int i = Arrays.binarySearch(sorted, value);
+        if (i < 0) {
+            return -i - 1;
+        }
+        return strict ? i + 1 : i;
+    }
+
+    /**
+     * Returns the index of the last value which is less than (or equal
+     * to, if not strict) the specified value.
+     */
+    private static int lastIndexBelow(@Nonnull double[] sorted, double value, boolean strict) {
+        int i = Arrays.binarySearch(sorted, value);
+        if (i < 0) {
+            return -i - 2;
+        }
+        return strict ? i - 1 : i;
+    }
+}
@@ -12,7 +12,7 @@
 package org.jhotdraw8.geom;
 
 import static java.lang.Math.*;
-import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.ToDoubleFunction;
 import javafx.geometry.Point2D;
 import org.jhotdraw8.annotation.Nullable;
@@ -166,9 +166,24 @@ public class Polynomial implements ToDoubleFunction<Double> {
      */
     @Nullable
     public static Double bisection( final ToDoubleFunction<Double> func, double min, double max) {
+        double root = bisectionPrimitive(func::applyAsDouble, min, max);
+        return Double.isNaN(root) ? null : root;
+    }
+
+    /**
+     * Searches for a root in the given interval using the bisection method.
+     * <p>
+     * This method does not allocate memory.
+     *
+     * @param func the function
+     * @param min the lower bound of the interval
+     * @param max the upper bound of the interval
+     * @return the root, NaN if no root could be found
+     */
+    public static double bisectionPrimitive(@Nonnull DoubleUnaryOperator func, double min, double max) {
         double minValue = func.applyAsDouble(min);
         double maxValue = func.applyAsDouble(max);
-        Double result = null;
+        double result = Double.NaN;
 
         if (abs(minValue) <= EPSILON) {
             result = min;
@@ -224,31 +239,48 @@ public class Polynomial implements ToDoubleFunction<Double> {
      * @return the value of the polynomial at x
      */
     public double eval(double x) {
+        return eval(coefs, 0, getDegree(), x);
+    }
+
+    /**
+     * Evaluates the polynomial with the given coefficients at the specified
+     * x value.
+     *
+     * @param coefs the coefficients from lowest to highest degree, that is
+     * {@literal coefs[offset+i]*x^i}
+     * @param offset the index of the coefficient of the lowest degree
+     * @param degree the degree of the polynomial
+     * @param x is a number that is "plugged into" the polynomial to evaluate
+     * it.
+     * @return the value of the polynomial at x
+     */
+    static double eval(@Nonnull double[] coefs, int offset, int degree, double x) {
         double result = 0;
-        for (int i = this.coefs.length - 1; i >= 0; i--) {
-            result = result * x + this.coefs[i];
+        for (int i = offset + degree; i >= offset; i--) {
+            result = result * x + coefs[i];
         }
         return result;
     }
 
     /**
-     * Returns the roots of a cubic polynomial (degree equals three).
+     * Computes the roots of a cubic polynomial (degree equals three).
      *
-     * @return the roots
+     * @param c3 the coefficient of x^3
+     * @param c2 the coefficient of x^2
+     * @param c1 the coefficient of x
+     * @param c0 the constant coefficient
+     * @param results an array of length 3 or more, receives the roots
+     * @return the number of roots
      */
-    @Nonnull
-    private double[] getCubicRoots() {
-        final double[] results = new double[4];
+    private static int getCubicRoots(double c3, double c2, double c1, double c0, @Nonnull double[] results) {
         int numResults = 0;
 
-        final double c3, c2, c1, c0;
-        c3 = this.coefs[3];
-        c2 = this.coefs[2] / c3;
-        c1 = this.coefs[1] / c3;
-        c0 = this.coefs[0] / c3;
         if (c3 == 0) {
-            throw new IllegalArgumentException("Not a cubic root! simplifiedDegree=" + simplifiedDegree());
+            throw new IllegalArgumentException("Not a cubic root! c3=" + c3);
         }
+        c2 = c2 / c3;
+        c1 = c1 / c3;
+        c0 = c0 / c3;
 
         final double a, b, offset, halfB;
         a = (3 * c1 - c2 * c2) / 3;
@@ -305,7 +337,7 @@ public class Polynomial implements ToDoubleFunction<Double> {
             results[numResults++] = -tmp - offset;
         }
 
-        return trim(numResults, results);
+        return numResults;
     }
 
     /**
@@ -334,71 +366,73 @@ public class Polynomial implements ToDoubleFunction<Double> {
     }
 
     /**
-     * Returns the root of a linear polynomial (degree equals one).
+     * Computes the root of a linear polynomial (degree equals one).
      *
-     * @return the roots
+     * @param c1 the coefficient of x
+     * @param c0 the constant coefficient
+     * @param results an array of length 1 or more, receives the root
+     * @return the number of roots
      */
-    @Nonnull
-    private double[] getLinearRoot() {
-        double[] result = new double[0];
-        double a = this.coefs[1];
-
-        if (a != 0) {
-            result = new double[]{-this.coefs[0] / a};
+    private static int getLinearRoot(double c1, double c0, @Nonnull double[] results) {
+        if (c1 != 0) {
+            results[0] = -c0 / c1;
+            return 1;
         }
-
-        return result;
+        return 0;
     }
 
     /**
-     * Returns the roots of a quadratic polynomial (degree equals two).
+     * Computes the roots of a quadratic polynomial (degree equals two).
      *
-     * @return the roots
-     *
-     * @return the roots
+     * @param c2 the coefficient of x^2
+     * @param c1 the coefficient of x
+     * @param c0 the constant coefficient
+     * @param results an array of length 2 or more, receives the roots
+     * @return the number of roots
      */
-    private double[] getQuadraticRoots() {
-        double a = this.coefs[2];
-        double b = this.coefs[1] / a;
-        double c = this.coefs[0] / a;
+    private static int getQuadraticRoots(double c2, double c1, double c0, @Nonnull double[] results) {
+        double a = c2;
+        double b = c1 / a;
+        double c = c0 / a;
         double d = b * b - 4 * c;
 
         if (d > 0) {
             double e = sqrt(d);
 
-            return new double[]{
-                0.5 * (-b + e),
-                0.5 * (-b - e)};
+            results[0] = 0.5 * (-b + e);
+            results[1] = 0.5 * (-b - e);
+            return 2;
         } else if (d == 0) {
             // really two roots with same value, but we only return one
-            return new double[]{0.5 * -b};
+            results[0] = 0.5 * -b;
+            return 1;
         }
 
-        return new double[0];
+        return 0;
     }
 
     /**
-     * Returns the roots of a quartic polynomial (degree equals four).
+     * Computes the roots of a quartic polynomial (degree equals four).
      *
-     * @return the roots
+     * @param c4 the coefficient of x^4
+     * @param c3 the coefficient of x^3
+     * @param c2 the coefficient of x^2
+     * @param c1 the coefficient of x
+     * @param c0 the constant coefficient
+     * @param results an array of length 4 or more, receives the roots
+     * @return the number of roots
      */
-    @Nonnull
-    private double[] getQuarticRoots() {
-
-        double[] results = new double[4];
+    private static int getQuarticRoots(double c4, double c3, double c2, double c1, double c0, @Nonnull double[] results) {
         int numResults = 0;
 
-        final double c4, c3, c2, c1, c0;
-        c4 = this.coefs[4];
-        c3 = this.coefs[3] / c4;
-        c2 = this.coefs[2] / c4;
-        c1 = this.coefs[1] / c4;
-        c0 = this.coefs[0] / c4;
-
-        double[] resolveRoots = new Polynomial(
-                1, -c2, c3 * c1 - 4 * c0, -c3 * c3 * c0 + 4 * c2 * c0 - c1 * c1
-        ).getCubicRoots();
-        double y = resolveRoots[0];
+        c3 = c3 / c4;
+        c2 = c2 / c4;
+        c1 = c1 / c4;
+        c0 = c0 / c4;
+
+        // the results array is used as a temporary storage for the roots of the resolvent cubic
+        getCubicRoots(1, -c2, c3 * c1 - 4 * c0, -c3 * c3 * c0 + 4 * c2 * c0 - c1 * c1, results);
+        double y = results[0];
         double discrim = c3 * c3 / 4 - c2 + y;
 
         // Note: setting epsilon too high results in roots not being found!
@@ -458,7 +492,7 @@ public class Polynomial implements ToDoubleFunction<Double> {
             }
         }
 
-        return trim(numResults, results);
+        return numResults;
     }
 
     /**
@@ -475,30 +509,41 @@ public class Polynomial implements ToDoubleFunction<Double> {
      * @return the roots of the polynomial
      */
     public double[] getRoots() {
-        double[] result;
-        final int simplifiedDegree = simplifiedDegree();
+        double[] result = new double[4];
+        return trim(getRoots(coefs, 0, getDegree(), result), result);
+    }
+
+    /**
+     * Computes the roots of the polynomial with the given coefficients. This
+     * method does not allocate memory.
+     * <p>
+     * NOTE This method does not find roots for polynomials, which can not be
+     * simplfied to 4th degree or less.
+     *
+     * @param coefs the coefficients from lowest to highest degree, that is
+     * {@literal coefs[offset+i]*x^i}
+     * @param offset the index of the coefficient of the lowest degree
+     * @param degree the degree of the polynomial
+     * @param results an array of length 4 or more, receives the roots
+     * @return the number of roots
+     */
+    static int getRoots(@Nonnull double[] coefs, int offset, int degree, @Nonnull double[] results) {
+        final int simplifiedDegree = simplifiedDegree(coefs, offset, degree);
 
         switch (simplifiedDegree) {
             case 0:
-                result = new double[0];
-                break;
+                return 0;
             case 1:
-                result = getLinearRoot();
-                break;
+                return getLinearRoot(coefs[offset + 1], coefs[offset], results);
             case 2:
-                result = getQuadraticRoots();
-                break;
+                return getQuadraticRoots(coefs[offset + 2], coefs[offset + 1], coefs[offset], results);
             case 3:
-                result = getCubicRoots();
-                break;
+                return getCubicRoots(coefs[offset + 3], coefs[offset + 2], coefs[offset + 1], coefs[offset], results);
             case 4:
-                result = getQuarticRoots();
-                break;
+                return getQuarticRoots(coefs[offset + 4], coefs[offset + 3], coefs[offset + 2], coefs[offset + 1], coefs[offset], results);
             default:
                 throw new UnsupportedOperationException("Degree is too high. simplifiedDegree=" + simplifiedDegree);
         }
-
-        return result;
     }
 
     /**
@@ -512,36 +557,7 @@ public class Polynomial implements ToDoubleFunction<Double> {
     @Nonnull
     public double[] getRootsInInterval(double min, double max) {
         double[] roots = new double[getDegree()];
-        int numRoots = 0;
-
-        switch (this.simplifiedDegree()) {
-            case 0:
-                break;
-            case 1:
-            case 2:
-            case 3:
-            case 4: {
-                double[] allroots = getRoots();
-                for (int i = 0; i < allroots.length; i++) {
-                    double root = allroots[i];
-                    if (min <= root && root <= max) {
-                        roots[numRoots++] = root;
-                    }
-                    Arrays.sort(roots, 0, numRoots);
-                }
-                break;
-            }
-            default: {
-                // get roots of derivative
-                Polynomial deriv = this.getDerivative();
-                double[] droots = deriv.getRootsInInterval(min, max);
-
-                roots = getRootsInInterval(this, droots, min, max);
-                numRoots = roots.length;
-                break;
-            }
-        }
-
+        int numRoots = new PolynomialRootFinder(getDegree()).getRootsInInterval(coefs, getDegree(), min, max, roots);
         return trim(numRoots, roots);
     }
 
@@ -558,37 +574,58 @@ public class Polynomial implements ToDoubleFunction<Double> {
         @Nonnull
         public static double[] getRootsInInterval(@Nonnull ToDoubleFunction<Double> func, double[] droots, double min, double max) {
         final double[] roots = new double[droots.length + 1];
+        int numRoots = getRootsInInterval((DoubleUnaryOperator) func::applyAsDouble, droots, droots.length, min, max, roots);
+        return trim(numRoots, roots);
+    }
+
+    /**
+     * Gets roots in the given interval. Uses the bisection method for root
+     * finding. Can work with a polynomial of any degree.
+     * <p>
+     * This method does not allocate memory.
+     *
+     * @param func the function
+     * @param droots the roots of the derivative of the function in the
+     * interval [min,max] in ascending order.
+     * @param numDroots the number of roots of the derivative
+     * @param min the lower bound of the interval (inclusive)
+     * @param max the upper bound of the interval (inclusive)
+     * @param roots an array of length numDroots+1 or more, receives the roots
+     * @return the number of roots
+     */
+    public static int getRootsInInterval(@Nonnull DoubleUnaryOperator func, @Nonnull double[] droots, int numDroots,
+                                         double min, double max, @Nonnull double[] roots) {
         int numRoots = 0;
 
-        if (droots.length > 0) {
+        if (numDroots > 0) {
             // find root on [min, droots[0]]
-            Double root = bisection(func, min, droots[0]);
-            if (root != null) {
+            double root = bisectionPrimitive(func, min, droots[0]);
+            if (!Double.isNaN(root)) {
                 roots[numRoots++] = root;
             }
 
             // find root on [droots[i],droots[i+1]] for 0 <= i <= count-2
-            for (int i = 0; i <= droots.length - 2; i++) {
-                root = bisection(func, droots[i], droots[i + 1]);
-                if (root != null) {
+            for (int i = 0; i <= numDroots - 2; i++) {
+                root = bisectionPrimitive(func, droots[i], droots[i + 1]);
+                if (!Double.isNaN(root)) {
                     roots[numRoots++] = root;
                 }
             }
 
             // find root on [droots[count-1],xmax]
-            root = bisection(func, droots[droots.length - 1], max);
-            if (root != null) {
+            root = bisectionPrimitive(func, droots[numDroots - 1], max);
+            if (!Double.isNaN(root)) {
                 roots[numRoots++] = root;
             }
         } else {
             // polynomial is monotone on [min,max], has at most one root
-            Double root = bisection(func, min, max);
-            if (root != null) {
+            double root = bisectionPrimitive(func, min, max);
+            if (!Double.isNaN(root)) {
                 roots[numRoots++] = root;
             }
         }
 
-        return trim(numRoots, roots);
+        return numRoots;
     }
 
     /**
@@ -611,8 +648,12 @@ public class Polynomial implements ToDoubleFunction<Double> {
     }
 
     private int simplifiedDegree() {
-        int i = this.getDegree();
-        while (i > 0 && abs(this.coefs[i]) <= EPSILON) {
+        return simplifiedDegree(coefs, 0, getDegree());
+    }
+
+    static int simplifiedDegree(@Nonnull double[] coefs, int offset, int degree) {
+        int i = degree;
+        while (i > 0 && abs(coefs[offset + i]) <= EPSILON) {
             i--;
         }
         return i;
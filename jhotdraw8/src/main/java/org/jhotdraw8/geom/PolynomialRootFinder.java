@@ -0,0 +1,118 @@
+/* @(#)PolynomialRootFinder.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.geom;
+
+import org.jhotdraw8.annotation.Nonnull;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Finds the roots of polynomials in an interval without allocating memory.
+ * <p>
+ * This class performs the same computation as
+ * {@link Polynomial#getRootsInInterval(double, double)}, but it keeps the
+ * coefficients of the derivatives and the intermediate roots in arrays, which
+ * are reused on every invocation.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class PolynomialRootFinder {
+
+    private final int maxDegree;
+    /**
+     * Holds the coefficients of the polynomial and of its derivatives.
+     */
+    @Nonnull
+    private final double[] work;
+    @Nonnull
+    private double[] roots;
+    @Nonnull
+    private double[] droots;
+    private int evalOffset;
+    private int evalDegree;
+    /**
+     * Evaluates the polynomial at evalOffset in the work array.
+     */
+    @Nonnull
+    private final DoubleUnaryOperator function;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxDegree the maximal degree of the polynomials
+     */
+    public PolynomialRootFinder(int maxDegree) {
+        this.maxDegree = maxDegree;
+        this.work = new double[(maxDegree + 1) * (maxDegree + 2) / 2];
+        this.roots = new double[Math.max(maxDegree, 4) + 1];
+        this.droots = new double[roots.length];
+        this.function = x -> Polynomial.eval(work, evalOffset, evalDegree, x);
+    }
+
+    /**
+     * Gets roots in the given interval. Uses the bisection method for root
+     * finding. Can work with a polynomial of any degree up to the maximal
+     * degree.
+     *
+     * @param coefs the coefficients from lowest to highest degree, that is
+     * {@literal coefs[i]*x^i}
+     * @param degree the degree of the polynomial
+     * @param min the lower bound of the interval (inclusive)
+     * @param max the upper bound of the interval (inclusive)
+     * @param result an array of length degree or more, receives the roots in
+     * ascending order
+     * @return the number of roots
+     * @throws IllegalArgumentException if degree is greater than the maximal
+     * degree
+     */
+    public int getRootsInInterval(@Nonnull double[] coefs, int degree, double min, double max, @Nonnull double[] result) {
+        if (degree > maxDegree) {
+            throw new IllegalArgumentException("degree=" + degree + " is greater than maxDegree=" + maxDegree);
+        }
+        System.arraycopy(coefs, 0, work, 0, degree + 1);
+
+        // compute the derivatives until we reach one which we can solve directly
+        int offset = 0;
+        int deg = degree;
+        while (Polynomial.simplifiedDegree(work, offset, deg) > 4) {
+            int next = offset + deg + 1;
+            for (int i = 1; i <= deg; i++) {
+                work[next + i - 1] = i * work[offset + i];
+            }
+            offset = next;
+            deg--;
+        }
+
+        int numRoots = 0;
+        if (Polynomial.simplifiedDegree(work, offset, deg) > 0) {
+            int numAllRoots = Polynomial.getRoots(work, offset, deg, droots);
+            for (int i = 0; i < numAllRoots; i++) {
+                double root = droots[i];
+                if (min <= root && root <= max) {
+                    roots[numRoots++] = root;
+                }
+            }
+            Arrays.sort(roots, 0, numRoots);
+        }
+
+        // use the roots of each derivative to find the roots of its antiderivative
+        while (deg < degree) {
+            deg++;
+            offset -= deg + 1;
+            double[] tmp = droots;
+            droots = roots;
+            roots = tmp;
+            evalOffset = offset;
+            evalDegree = deg;
+            numRoots = Polynomial.getRootsInInterval(function, droots, numRoots, min, max, roots);
+        }
+
+        System.arraycopy(roots, 0, result, 0, numRoots);
+        return numRoots;
+    }
+}
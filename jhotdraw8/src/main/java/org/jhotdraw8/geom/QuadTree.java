@@ -0,0 +1,372 @@
+/* @(#)QuadTree.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.geom;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A loose quadtree which maps items to axis-aligned bounding boxes.
+ * <p>
+ * Each node of the tree covers a square region. The loose bounds of a node
+ * are twice as large as its region. An item is stored in the deepest node
+ * whose region contains the center of the item and whose loose bounds
+ * contain the bounds of the item. Thus, items which straddle the boundaries
+ * of a region do not accumulate at the root of the tree.
+ * <p>
+ * The tree grows automatically when an item is added outside of the region
+ * of the root node.
+ * <p>
+ * Adding, updating and removing an item takes {@code O(log n)} time for
+ * items of similar size. Querying the items intersecting a rectangle takes
+ * {@code O(log n + k)} time, where {@code k} is the number of items in the
+ * visited nodes.
+ *
+ * @param <T> the item type
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class QuadTree<T> {
+
+    /**
+     * The maximal depth of the tree.
+     */
+    private final static int MAX_DEPTH = 24;
+
+    /**
+     * The region of a newly created root node is at least this large.
+     */
+    private final static double MIN_HALF_SIZE = 64.0;
+
+    private static class Node<T> {
+
+        final double cx;
+        final double cy;
+        final double halfSize;
+        final int depth;
+        @Nullable
+        Node<T> parent;
+        @Nullable
+        Node<T>[] children;
+        @Nonnull
+        final List<Entry<T>> entries = new ArrayList<>();
+
+        Node(@Nullable Node<T> parent, double cx, double cy, double halfSize, int depth) {
+            this.parent = parent;
+            this.cx = cx;
+            this.cy = cy;
+            this.halfSize = halfSize;
+            this.depth = depth;
+        }
+
+        /**
+         * Returns true if the loose bounds of this node intersect the
+         * specified rectangle.
+         */
+        boolean looseIntersects(double minX, double minY, double maxX, double maxY) {
+            double loose = 2 * halfSize;
+            return minX <= cx + loose && maxX >= cx - loose
+                    && minY <= cy + loose && maxY >= cy - loose;
+        }
+
+        /**
+         * Returns true if the item with the specified center and half extent
+         * fits into this node.
+         */
+        boolean fits(double x, double y, double halfExtent) {
+            return halfExtent <= halfSize
+                    && x >= cx - halfSize && x <= cx + halfSize
+                    && y >= cy - halfSize && y <= cy + halfSize;
+        }
+
+        int quadrant(double x, double y) {
+            return (x < cx ? 0 : 1) + (y < cy ? 0 : 2);
+        }
+
+        @Nonnull
+        @SuppressWarnings("unchecked")
+        Node<T> getOrCreateChild(int quadrant) {
+            if (children == null) {
+                children = (Node<T>[]) new Node<?>[4];
+            }
+            Node<T> child = children[quadrant];
+            if (child == null) {
+                double h = halfSize * 0.5;
+                child = new Node<>(this, (quadrant & 1) == 0 ? cx - h : cx + h,
+                        (quadrant & 2) == 0 ? cy - h : cy + h, h, depth + 1);
+                children[quadrant] = child;
+            }
+            return child;
+        }
+
+        boolean isEmpty() {
+            if (!entries.isEmpty()) {
+                return false;
+            }
+            if (children != null) {
+                for (Node<T> child : children) {
+                    if (child != null) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class Entry<T> {
+
+        final T item;
+        double minX;
+        double minY;
+        double maxX;
+        double maxY;
+        Node<T> node;
+        int indexInNode;
+
+        Entry(T item) {
+            this.item = item;
+        }
+
+        boolean intersects(double minX, double minY, double maxX, double maxY) {
+            return minX <= this.maxX && maxX >= this.minX
+                    && minY <= this.maxY && maxY >= this.minY;
+        }
+    }
+
+    @Nullable
+    private Node<T> root;
+    @Nonnull
+    private final Map<T, Entry<T>> entries = new HashMap<>();
+
+    /**
+     * Creates a new empty quadtree.
+     */
+    public QuadTree() {
+    }
+
+    /**
+     * Removes all items from the tree.
+     */
+    public void clear() {
+        root = null;
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of items in the tree.
+     *
+     * @return the number of items
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns true if the tree contains the specified item.
+     *
+     * @param item an item
+     * @return true if the item is in the tree
+     */
+    public boolean contains(T item) {
+        return entries.containsKey(item);
+    }
+
+    /**
+     * Returns the bounds of the specified item.
+     *
+     * @param item an item
+     * @return the bounds of the item, or null if the item is not in the tree
+     */
+    @Nullable
+    public Bounds getBounds(T item) {
+        Entry<T> e = entries.get(item);
+        return e == null ? null : new BoundingBox(e.minX, e.minY, e.maxX - e.minX, e.maxY - e.minY);
+    }
+
+    /**
+     * Adds the specified item to the tree, or updates its bounds if it is
+     * already in the tree.
+     *
+     * @param item   an item
+     * @param bounds the bounds of the item
+     * @return true if the tree has changed
+     */
+    public boolean put(T item, @Nonnull Bounds bounds) {
+        return put(item, bounds.getMinX(), bounds.getMinY(), bounds.getMaxX(), bounds.getMaxY());
+    }
+
+    /**
+     * Adds the specified item to the tree, or updates its bounds if it is
+     * already in the tree.
+     * <p>
+     * If the bounds are empty or not finite, the item is removed from the
+     * tree.
+     *
+     * @param item an item
+     * @param minX the min x coordinate of the bounds of the item
+     * @param minY the min y coordinate of the bounds of the item
+     * @param maxX the max x coordinate of the bounds of the item
+     * @param maxY the max y coordinate of the bounds of the item
+     * @return true if the tree has changed
+     */
+    public boolean put(T item, double minX, double minY, double maxX, double maxY) {
+        if (!(minX <= maxX && minY <= maxY)
+                || Double.isInfinite(minX) || Double.isInfinite(minY)
+                || Double.isInfinite(maxX) || Double.isInfinite(maxY)) {
+            // bounds are empty, infinite or contain NaN
+            return remove(item);
+        }
+        Entry<T> e = entries.get(item);
+        if (e != null) {
+            if (e.minX == minX && e.minY == minY && e.maxX == maxX && e.maxY == maxY) {
+                return false;
+            }
+            removeFromNode(e);
+        } else {
+            e = new Entry<>(item);
+            entries.put(item, e);
+        }
+        e.minX = minX;
+        e.minY = minY;
+        e.maxX = maxX;
+        e.maxY = maxY;
+        insert(e);
+        return true;
+    }
+
+    /**
+     * Removes the specified item from the tree.
+     *
+     * @param item an item
+     * @return true if the tree has changed
+     */
+    public boolean remove(T item) {
+        Entry<T> e = entries.remove(item);
+        if (e == null) {
+            return false;
+        }
+        removeFromNode(e);
+        return true;
+    }
+
+    /**
+     * Finds all items whose bounds intersect the specified rectangle.
+     *
+     * @param bounds the rectangle
+     * @return a list of items in unspecified order
+     */
+    @Nonnull
+    public List<T> findIntersecting(@Nonnull Bounds bounds) {
+        List<T> found = new ArrayList<>();
+        findIntersecting(bounds.getMinX(), bounds.getMinY(), bounds.getMaxX(), bounds.getMaxY(), found::add);
+        return found;
+    }
+
+    /**
+     * Finds all items whose bounds intersect the specified rectangle.
+     *
+     * @param minX     the min x coordinate of the rectangle
+     * @param minY     the min y coordinate of the rectangle
+     * @param maxX     the max x coordinate of the rectangle
+     * @param maxY     the max y coordinate of the rectangle
+     * @param consumer receives the items in unspecified order
+     */
+    public void findIntersecting(double minX, double minY, double maxX, double maxY, @Nonnull Consumer<T> consumer) {
+        if (root != null) {
+            findIntersecting(root, minX, minY, maxX, maxY, consumer);
+        }
+    }
+
+    private void findIntersecting(@Nonnull Node<T> node, double minX, double minY, double maxX, double maxY, @Nonnull Consumer<T> consumer) {
+        for (Entry<T> e : node.entries) {
+            if (e.intersects(minX, minY, maxX, maxY)) {
+                consumer.accept(e.item);
+            }
+        }
+        if (node.children != null) {
+            for (Node<T> child : node.children) {
+                if (child != null && child.looseIntersects(minX, minY, maxX, maxY)) {
+                    findIntersecting(child, minX, minY, maxX, maxY, consumer);
+                }
+            }
+        }
+    }
+
+    private void insert(@Nonnull Entry<T> e) {
+        double x = (e.minX + e.maxX) * 0.5;
+        double y = (e.minY + e.maxY) * 0.5;
+        double halfExtent = Math.max(e.maxX - e.minX, e.maxY - e.minY) * 0.5;
+        if (root == null) {
+            root = new Node<>(null, x, y, Math.max(MIN_HALF_SIZE, halfExtent), 0);
+        }
+        growRoot(x, y, halfExtent);
+
+        Node<T> node = root;
+        while (node.depth < MAX_DEPTH && halfExtent <= node.halfSize * 0.5) {
+            node = node.getOrCreateChild(node.quadrant(x, y));
+        }
+        e.node = node;
+        e.indexInNode = node.entries.size();
+        node.entries.add(e);
+    }
+
+    /**
+     * Grows the tree until the root node can hold an item with the specified
+     * center and half extent.
+     * <p>
+     * The old root becomes a quadrant of the new root. Since the depth of
+     * the nodes is only used for limiting the height of the tree, we do not
+     * need to update it.
+     */
+    @SuppressWarnings("unchecked")
+    private void growRoot(double x, double y, double halfExtent) {
+        while (!root.fits(x, y, halfExtent)) {
+            Node<T> oldRoot = root;
+            double h = oldRoot.halfSize;
+            double ncx = x < oldRoot.cx ? oldRoot.cx - h : oldRoot.cx + h;
+            double ncy = y < oldRoot.cy ? oldRoot.cy - h : oldRoot.cy + h;
+            Node<T> newRoot = new Node<>(null, ncx, ncy, h * 2, 0);
+            newRoot.children = (Node<T>[]) new Node<?>[4];
+            newRoot.children[newRoot.quadrant(oldRoot.cx, oldRoot.cy)] = oldRoot;
+            oldRoot.parent = newRoot;
+            root = newRoot;
+        }
+    }
+
+    private void removeFromNode(@Nonnull Entry<T> e) {
+        Node<T> node = e.node;
+        List<Entry<T>> list = node.entries;
+        // swap with last entry, so that we can remove in constant time
+        Entry<T> last = list.remove(list.size() - 1);
+        if (last != e) {
+            list.set(e.indexInNode, last);
+            last.indexInNode = e.indexInNode;
+        }
+        e.node = null;
+
+        // prune empty nodes
+        while (node != null && node.isEmpty()) {
+            Node<T> parent = node.parent;
+            if (parent == null) {
+                root = null;
+            } else {
+                for (int i = 0; i < 4; i++) {
+                    if (parent.children[i] == node) {
+                        parent.children[i] = null;
+                    }
+                }
+            }
+            node = parent;
+        }
+    }
+}
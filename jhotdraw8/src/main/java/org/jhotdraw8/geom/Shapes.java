@@ -1030,6 +1030,65 @@ public class Shapes {
         return fxelem;
     }
 
+    /**
+     * Converts a Java Path iterator to JavaFX path elements, and decimates
+     * the path.
+     * <p>
+     * Curves are flattened into line segments. Points which are closer than
+     * the tolerance to the previous point of the path are omitted, except for
+     * the last point of a subpath.
+     *
+     * @param iter      AWT Path Iterator
+     * @param tolerance the tolerance, must be greater than 0
+     * @return JavaFX path elements
+     */
+    @Nonnull
+    public static List<PathElement> fxPathElementsFromAWT(PathIterator iter, double tolerance) {
+        List<PathElement> fxelem = new ArrayList<>();
+        double[] coords = new double[6];
+        double squaredTolerance = tolerance * tolerance;
+        double lastX = 0, lastY = 0;
+        double moveX = 0, moveY = 0;
+        double skippedX = 0, skippedY = 0;
+        boolean skipped = false;
+        for (PathIterator i = new FlatteningPathIterator(iter, tolerance); !i.isDone(); i.next()) {
+            switch (i.currentSegment(coords)) {
+                case PathIterator.SEG_CLOSE:
+                    fxelem.add(new ClosePath());
+                    lastX = moveX;
+                    lastY = moveY;
+                    skipped = false;
+                    break;
+                case PathIterator.SEG_LINETO:
+                    double dx = coords[0] - lastX, dy = coords[1] - lastY;
+                    if (dx * dx + dy * dy < squaredTolerance) {
+                        skippedX = coords[0];
+                        skippedY = coords[1];
+                        skipped = true;
+                    } else {
+                        fxelem.add(new LineTo(coords[0], coords[1]));
+                        lastX = coords[0];
+                        lastY = coords[1];
+                        skipped = false;
+                    }
+                    break;
+                case PathIterator.SEG_MOVETO:
+                    if (skipped) {
+                        fxelem.add(new LineTo(skippedX, skippedY));
+                        skipped = false;
+                    }
+                    fxelem.add(new MoveTo(coords[0], coords[1]));
+                    lastX = moveX = coords[0];
+                    lastY = moveY = coords[1];
+                    break;
+            }
+        }
+        if (skipped) {
+            fxelem.add(new LineTo(skippedX, skippedY));
+        }
+        return fxelem;
+    }
+
     public static List<PathElement> fxPathElementsFromFXSVGPath(SVGPath path) {
         return fxPathElementsFromSvgString(path.getContent());
     }
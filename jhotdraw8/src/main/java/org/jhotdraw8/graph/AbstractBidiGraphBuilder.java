@@ -38,6 +38,7 @@ public class AbstractBidiGraphBuilder extends AbstractDirectedGraphBuilder imple
     }
 
     public AbstractBidiGraphBuilder(int vertexCapacity, int arrowCapacity) {
+        super(vertexCapacity, arrowCapacity);
         if (vertexCapacity < 0) {
             throw new IllegalArgumentException("vertexCapacity: " + vertexCapacity);
         }
@@ -82,6 +83,27 @@ public class AbstractBidiGraphBuilder extends AbstractDirectedGraphBuilder imple
         super.buildAddArrow(vidxa, vidxb);
     }
 
+    @Override
+    protected void buildAddVertex() {
+        super.buildAddVertex();
+        growPrevLastArrow();
+    }
+
+    @Override
+    protected void buildSetVertexCount(int newValue) {
+        super.buildSetVertexCount(newValue);
+        growPrevLastArrow();
+    }
+
+    private void growPrevLastArrow() {
+        int vertexCount = getVertexCount();
+        if (prevLastArrow.length < vertexCount * LASTARROW_NUM_FIELDS) {
+            int[] tmp = prevLastArrow;
+            prevLastArrow = new int[Math.max(prevLastArrow.length * 2, vertexCount * LASTARROW_NUM_FIELDS)];
+            System.arraycopy(tmp, 0, prevLastArrow, 0, tmp.length);
+        }
+    }
+
     /**
      * Removes the i-th arrow of vertex vi.
      *
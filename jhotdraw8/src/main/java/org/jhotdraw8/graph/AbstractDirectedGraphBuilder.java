@@ -169,7 +169,7 @@ public abstract class AbstractDirectedGraphBuilder implements IntDirectedGraph {
         vertexCount = newValue;
         if (nextLastArrow.length < vertexCount * LASTARROW_NUM_FIELDS) {
             int[] tmp = nextLastArrow;
-            nextLastArrow = new int[nextLastArrow.length * LASTARROW_NUM_FIELDS];
+            nextLastArrow = new int[Math.max(nextLastArrow.length * 2, vertexCount * LASTARROW_NUM_FIELDS)];
             System.arraycopy(tmp, 0, nextLastArrow, 0, tmp.length);
         }
 
@@ -25,6 +25,7 @@ public class IntBidiGraphBuilder extends AbstractBidiGraphBuilder {
         int arrowCount = graph.getArrowCount();
 
         IntBidiGraphBuilder b = new IntBidiGraphBuilder(graph.getVertexCount(), arrowCount);
+        b.setVertexCount(graph.getVertexCount());
         for (int i = 0, n = graph.getVertexCount(); i < n; i++) {
             int v = i;
             for (int j = 0, m = graph.getNextCount(v); j < m; j++) {
@@ -45,6 +46,7 @@ public class IntBidiGraphBuilder extends AbstractBidiGraphBuilder {
         int arrowCount = graph.getArrowCount();
 
         IntBidiGraphBuilder b = new IntBidiGraphBuilder(graph.getVertexCount(), arrowCount);
+        b.setVertexCount(graph.getVertexCount());
         for (int i = 0, n = graph.getVertexCount(); i < n; i++) {
             int v = i;
             for (int j = 0, m = graph.getNextCount(v); j < m; j++) {
@@ -7,6 +7,7 @@ import org.jhotdraw8.collection.IntArrayList;
 
 import org.jhotdraw8.annotation.Nonnull;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -15,6 +16,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
 
 /**
  * Provides search algorithms for directed graphs.
@@ -24,6 +30,12 @@ import java.util.Set;
  */
 public class IntGraphSearch {
 
+    /**
+     * Partitions with at most this many vertices are processed with the
+     * sequential algorithm by the parallel methods.
+     */
+    private final static int SEQUENTIAL_THRESHOLD = 4096;
+
     /**
      * Prevents instance creation.
      */
@@ -174,4 +186,364 @@ public class IntGraphSearch {
         return result;
     }
 
+
+    /**
+     * Sorts the specified directed graph topologically, processing the
+     * vertices level by level in parallel.
+     * <p>
+     * Uses Kahn's algorithm: all vertices without unprocessed predecessors
+     * form a level. The arrows of a level are removed in parallel in the
+     * common {@link ForkJoinPool}, which yields the next level. The vertices
+     * of each level are sorted by index, so that the result does not depend
+     * on thread scheduling.
+     * <p>
+     * If the graph has a loop, the loop is broken at the vertex with the
+     * lowest index that has unprocessed predecessors.
+     *
+     * @param g a directed graph
+     * @return the sorted vertices
+     */
+    @Nonnull
+    public static int[] sortTopologicallyParallel(@Nonnull IntDirectedGraph g) {
+        final int n = g.getVertexCount();
+
+        // Step 1: compute number of incoming arrows for each vertex
+        final AtomicIntegerArray deg = new AtomicIntegerArray(n);
+        IntStream.range(0, n).parallel().forEach(v -> {
+            for (int i = 0, m = g.getNextCount(v); i < m; i++) {
+                deg.incrementAndGet(g.getNext(v, i));
+            }
+        });
+
+        // Step 2: the first level consists of all vertices with degree zero
+        final int[] result = new int[n];
+        int levelStart = 0, levelEnd = 0;
+        for (int v = 0; v < n; v++) {
+            if (deg.get(v) == 0) {
+                result[levelEnd++] = v;
+            }
+        }
+
+        // Step 3: process the levels, the next level is appended to the result
+        final AtomicInteger last = new AtomicInteger(levelEnd);
+        int loopCursor = 0;
+        while (levelEnd < n) {
+            if (levelStart == levelEnd) {
+                // => the graph has a loop!
+                while (deg.get(loopCursor) <= 0) {
+                    loopCursor++;
+                }
+                deg.set(loopCursor, 0);// this can actually remove more than one arrow
+                result[levelEnd] = loopCursor;
+                last.set(++levelEnd);
+                continue;
+            }
+            final int from = levelStart, to = levelEnd;
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                removeArrowsOfLevel(g, result, from, to, deg, last);
+            } else {
+                IntStream.range(0, (to - from + SEQUENTIAL_THRESHOLD - 1) / SEQUENTIAL_THRESHOLD).parallel().forEach(
+                        chunk -> removeArrowsOfLevel(g, result, from + chunk * SEQUENTIAL_THRESHOLD,
+                                Math.min(to, from + (chunk + 1) * SEQUENTIAL_THRESHOLD), deg, last));
+            }
+            levelStart = levelEnd;
+            levelEnd = last.get();
+            Arrays.sort(result, levelStart, levelEnd);
+        }
+        return result;
+    }
+
+    private static void removeArrowsOfLevel(@Nonnull IntDirectedGraph g, @Nonnull int[] result, int from, int to,
+                                            @Nonnull AtomicIntegerArray deg, @Nonnull AtomicInteger last) {
+        for (int j = from; j < to; j++) {
+            final int v = result[j];
+            for (int i = 0, m = g.getNextCount(v); i < m; i++) {
+                final int u = g.getNext(v, i);
+                if (deg.decrementAndGet(u) == 0) {
+                    result[last.getAndIncrement()] = u;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the strongly connected components of the specified graph.
+     * <p>
+     * Uses an iterative version of Tarjan's algorithm which only allocates
+     * a few int arrays of the size of the graph.
+     *
+     * @param g a directed graph
+     * @param components on output, maps each vertex to its component id;
+     *                   must have at least {@code g.getVertexCount()} elements.
+     *                   The ids are numbered in reverse topological order of
+     *                   the condensed graph.
+     * @return the number of components
+     */
+    public static int findStronglyConnectedComponentsInt(@Nonnull IntDirectedGraph g, @Nonnull int[] components) {
+        final int n = g.getVertexCount();
+        Arrays.fill(components, 0, n, -1);
+        final int[] roots = new int[n];
+        for (int i = 0; i < n; i++) {
+            roots[i] = i;
+        }
+        AtomicInteger count = new AtomicInteger();
+        tarjan(g, roots, null, 0, components, count, new int[n], new int[n]);
+        return count.get();
+    }
+
+    /**
+     * Returns the strongly connected components of the specified graph in
+     * parallel.
+     * <p>
+     * Removes all vertices without predecessors or successors first
+     * (trimming), and then recursively partitions the remaining vertices
+     * with the forward-backward algorithm: the vertices that are both
+     * reachable from a pivot vertex and can reach it form a component, the
+     * vertices that are only forward reachable, only backward reachable or
+     * neither form three independent partitions, which are processed in
+     * parallel in the common {@link ForkJoinPool}. Small partitions are
+     * processed with Tarjan's algorithm.
+     *
+     * @param g a directed graph
+     * @param components on output, maps each vertex to its component id;
+     *                   must have at least {@code g.getVertexCount()} elements.
+     *                   The numbering of the ids is unspecified.
+     * @return the number of components
+     */
+    public static int findStronglyConnectedComponentsParallel(@Nonnull IntBidiGraph g, @Nonnull int[] components) {
+        final int n = g.getVertexCount();
+        Arrays.fill(components, 0, n, -1);
+        final AtomicInteger count = new AtomicInteger();
+
+        // Trim vertices which can not be part of a cycle
+        final int[] in = new int[n];
+        final int[] out = new int[n];
+        final int[] queue = new int[n];
+        int first = 0, last = 0;
+        for (int v = 0; v < n; v++) {
+            in[v] = g.getPrevCount(v);
+            out[v] = g.getNextCount(v);
+            if (in[v] == 0 || out[v] == 0) {
+                components[v] = count.getAndIncrement();
+                queue[last++] = v;
+            }
+        }
+        while (first < last) {
+            int v = queue[first++];
+            for (int i = 0, m = g.getNextCount(v); i < m; i++) {
+                int u = g.getNext(v, i);
+                if (components[u] < 0 && --in[u] == 0) {
+                    components[u] = count.getAndIncrement();
+                    queue[last++] = u;
+                }
+            }
+            for (int i = 0, m = g.getPrevCount(v); i < m; i++) {
+                int u = g.getPrev(v, i);
+                if (components[u] < 0 && --out[u] == 0) {
+                    components[u] = count.getAndIncrement();
+                    queue[last++] = u;
+                }
+            }
+        }
+        if (last == n) {
+            return count.get();
+        }
+
+        // Partition the remaining vertices
+        final int[] remaining = new int[n - last];
+        for (int v = 0, j = 0; v < n; v++) {
+            if (components[v] < 0) {
+                remaining[j++] = v;
+            }
+        }
+        final int[] colors = in;// reuse the arrays
+        Arrays.fill(colors, 0);
+        final int[] index = queue;
+        Arrays.fill(index, 0);
+        ForkJoinPool.commonPool().invoke(new ForwardBackwardTask(g, remaining, 0,
+                new AtomicInteger(1), colors, components, count, index, out));
+        return count.get();
+    }
+
+    /**
+     * Processes one partition of the forward-backward algorithm.
+     * <p>
+     * The partitions of concurrently running tasks are disjoint. A task only
+     * reads and writes the elements of the shared arrays that belong to
+     * vertices of its own partition.
+     */
+    private static class ForwardBackwardTask extends RecursiveAction {
+
+        private final static long serialVersionUID = 1L;
+        private final IntBidiGraph g;
+        private final int[] vertices;
+        private final int color;
+        private final AtomicInteger colorCounter;
+        private final int[] colors;
+        private final int[] components;
+        private final AtomicInteger componentCounter;
+        private final int[] index;
+        private final int[] low;
+
+        ForwardBackwardTask(IntBidiGraph g, int[] vertices, int color, AtomicInteger colorCounter, int[] colors,
+                            int[] components, AtomicInteger componentCounter, int[] index, int[] low) {
+            this.g = g;
+            this.vertices = vertices;
+            this.color = color;
+            this.colorCounter = colorCounter;
+            this.colors = colors;
+            this.components = components;
+            this.componentCounter = componentCounter;
+            this.index = index;
+            this.low = low;
+        }
+
+        @Override
+        protected void compute() {
+            final int n = vertices.length;
+            if (n <= SEQUENTIAL_THRESHOLD) {
+                tarjan(g, vertices, colors, color, components, componentCounter, index, low);
+                return;
+            }
+
+            // Forward search from the pivot
+            final int pivot = vertices[0];
+            final int forward = colorCounter.getAndIncrement();
+            final int backward = colorCounter.getAndIncrement();
+            final int[] queue = new int[n];
+            int first = 0, last = 0;
+            colors[pivot] = forward;
+            queue[last++] = pivot;
+            while (first < last) {
+                int v = queue[first++];
+                for (int i = 0, m = g.getNextCount(v); i < m; i++) {
+                    int u = g.getNext(v, i);
+                    if (colors[u] == color && components[u] < 0) {
+                        colors[u] = forward;
+                        queue[last++] = u;
+                    }
+                }
+            }
+            int forwardCount = last;
+
+            // Backward search from the pivot, the intersection is a component
+            final int component = componentCounter.getAndIncrement();
+            first = last = 0;
+            components[pivot] = component;
+            queue[last++] = pivot;
+            int componentSize = 1;
+            while (first < last) {
+                int v = queue[first++];
+                for (int i = 0, m = g.getPrevCount(v); i < m; i++) {
+                    int u = g.getPrev(v, i);
+                    if (components[u] >= 0) {
+                        continue;
+                    }
+                    if (colors[u] == forward) {
+                        components[u] = component;
+                        componentSize++;
+                        queue[last++] = u;
+                    } else if (colors[u] == color) {
+                        colors[u] = backward;
+                        queue[last++] = u;
+                    }
+                }
+            }
+            int backwardCount = last - componentSize;
+            forwardCount -= componentSize;
+
+            // Split the rest of the partition
+            final int[] fw = new int[forwardCount];
+            final int[] bw = new int[backwardCount];
+            final int[] rest = new int[n - forwardCount - backwardCount - componentSize];
+            int fi = 0, bi = 0, ri = 0;
+            for (int v : vertices) {
+                if (components[v] >= 0) {
+                    continue;
+                }
+                int c = colors[v];
+                if (c == forward) {
+                    fw[fi++] = v;
+                } else if (c == backward) {
+                    bw[bi++] = v;
+                } else {
+                    rest[ri++] = v;
+                }
+            }
+            invokeAll(new ForwardBackwardTask(g, fw, forward, colorCounter, colors, components, componentCounter, index, low),
+                    new ForwardBackwardTask(g, bw, backward, colorCounter, colors, components, componentCounter, index, low),
+                    new ForwardBackwardTask(g, rest, color, colorCounter, colors, components, componentCounter, index, low));
+        }
+    }
+
+    /**
+     * Iterative Tarjan's algorithm over the specified root vertices.
+     *
+     * @param g          the graph
+     * @param roots      the vertices of the (sub-)graph
+     * @param colors     if not null, only vertices with the specified color
+     *                   are part of the (sub-)graph
+     * @param color      the color of the (sub-)graph
+     * @param components the component ids, -1 for unvisited vertices
+     * @param count      the component counter
+     * @param index      scratch array indexed by vertex, must be 0 for all
+     *                   vertices of the (sub-)graph
+     * @param low        scratch array indexed by vertex
+     */
+    private static void tarjan(@Nonnull IntDirectedGraph g, @Nonnull int[] roots, int[] colors, int color,
+                               @Nonnull int[] components, @Nonnull AtomicInteger count,
+                               @Nonnull int[] index, @Nonnull int[] low) {
+        final int[] stack = new int[roots.length];
+        int stackSize = 0;
+        final int[] callStack = new int[roots.length];
+        final int[] arrowIndex = new int[roots.length];
+        int callSize = 0;
+        int counter = 0;
+
+        for (int root : roots) {
+            if (index[root] != 0 || components[root] >= 0 || (colors != null && colors[root] != color)) {
+                continue;
+            }
+            index[root] = low[root] = ++counter;
+            stack[stackSize++] = root;
+            callStack[callSize] = root;
+            arrowIndex[callSize++] = 0;
+            while (callSize > 0) {
+                final int v = callStack[callSize - 1];
+                final int i = arrowIndex[callSize - 1];
+                if (i < g.getNextCount(v)) {
+                    arrowIndex[callSize - 1]++;
+                    final int u = g.getNext(v, i);
+                    if (components[u] >= 0 || (colors != null && colors[u] != color)) {
+                        continue;
+                    }
+                    if (index[u] == 0) {
+                        index[u] = low[u] = ++counter;
+                        stack[stackSize++] = u;
+                        callStack[callSize] = u;
+                        arrowIndex[callSize++] = 0;
+                    } else if (index[u] < low[v]) {
+                        low[v] = index[u];
+                    }
+                } else {
+                    callSize--;
+                    if (low[v] == index[v]) {
+                        final int component = count.getAndIncrement();
+                        int u;
+                        do {
+                            u = stack[--stackSize];
+                            components[u] = component;
+                        } while (u != v);
+                    }
+                    if (callSize > 0) {
+                        final int parent = callStack[callSize - 1];
+                        if (low[v] < low[parent]) {
+                            low[parent] = low[v];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
 }
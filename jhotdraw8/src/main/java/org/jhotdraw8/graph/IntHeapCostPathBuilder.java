@@ -0,0 +1,464 @@
+/* @(#)IntHeapCostPathBuilder.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.graph;
+
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.collection.IntArrayList;
+import org.jhotdraw8.util.function.IntIntToDoubleFunction;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Finds lowest cost paths in an {@link IntDirectedGraph} with Dijkstra's
+ * algorithm or with A*.
+ * <p>
+ * Unlike {@link IntDirectedGraphCostPathBuilder}, this builder does not
+ * allocate objects during a search. The distances, the predecessors and the
+ * positions in the priority queue are kept in primitive arrays, which are
+ * indexed by vertex. The priority queue is an indexed binary heap over these
+ * arrays, which supports decrease-key in place.
+ * <p>
+ * The search state is reused across searches. A vertex belongs to the
+ * current search only if it has been stamped with the current generation.
+ * Thus clearing the search state takes constant time, regardless of how
+ * many vertices the previous search has touched.
+ * <p>
+ * The cost of an arrow is given by a function of the start vertex and the
+ * end vertex of the arrow. All costs must be non-negative.
+ * <p>
+ * The result of the last search is kept until the next search. It can be
+ * read with {@link #getPath(IntArrayList)} without allocating objects, if
+ * the provided list has sufficient capacity.
+ * <p>
+ * This class is not thread safe. Use one instance per thread.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class IntHeapCostPathBuilder {
+
+    /**
+     * Position of a vertex which has been removed from the heap.
+     */
+    private final static int SETTLED = -1;
+    private final static int NO_VERTEX = -1;
+
+    /**
+     * The search state of one search direction.
+     */
+    private static class SearchState {
+
+        /**
+         * The distance of each vertex from the origin of the search.
+         */
+        double[] dist;
+        /**
+         * The priority of each vertex in the heap.
+         */
+        double[] key;
+        /**
+         * The predecessor of each vertex on the lowest cost path from the
+         * origin of the search.
+         */
+        int[] pred;
+        /**
+         * The position of each vertex in the heap, or {@link #SETTLED}.
+         */
+        int[] pos;
+        /**
+         * The generation in which each vertex has been touched.
+         */
+        int[] stamp;
+        /**
+         * The heap of vertices ordered by their key.
+         */
+        int[] heap;
+        int heapSize;
+        int generation;
+
+        SearchState(int vertexCount) {
+            dist = new double[vertexCount];
+            key = new double[vertexCount];
+            pred = new int[vertexCount];
+            pos = new int[vertexCount];
+            stamp = new int[vertexCount];
+            heap = new int[vertexCount];
+        }
+
+        void ensureCapacity(int vertexCount) {
+            if (stamp.length < vertexCount) {
+                dist = Arrays.copyOf(dist, vertexCount);
+                key = Arrays.copyOf(key, vertexCount);
+                pred = Arrays.copyOf(pred, vertexCount);
+                pos = Arrays.copyOf(pos, vertexCount);
+                stamp = Arrays.copyOf(stamp, vertexCount);
+                heap = Arrays.copyOf(heap, vertexCount);
+            }
+        }
+
+        void clear() {
+            heapSize = 0;
+            if (++generation == 0) {
+                Arrays.fill(stamp, 0);
+                generation = 1;
+            }
+        }
+
+        boolean isTouched(int v) {
+            return stamp[v] == generation;
+        }
+
+        /**
+         * Relaxes the distance of vertex {@code v}.
+         *
+         * @param v        a vertex
+         * @param u        the predecessor of the vertex
+         * @param distance the distance of the vertex over u
+         * @param priority the priority of the vertex over u
+         * @return true if the distance has been decreased
+         */
+        boolean relax(int v, int u, double distance, double priority) {
+            if (stamp[v] != generation) {
+                stamp[v] = generation;
+                dist[v] = distance;
+                key[v] = priority;
+                pred[v] = u;
+                pos[v] = heapSize;
+                heap[heapSize++] = v;
+                siftUp(pos[v]);
+                return true;
+            }
+            int p = pos[v];
+            if (p == SETTLED || distance >= dist[v]) {
+                return false;
+            }
+            dist[v] = distance;
+            key[v] = priority;
+            pred[v] = u;
+            siftUp(p);
+            return true;
+        }
+
+        double peekKey() {
+            return heapSize == 0 ? Double.POSITIVE_INFINITY : key[heap[0]];
+        }
+
+        int poll() {
+            int v = heap[0];
+            pos[v] = SETTLED;
+            int last = heap[--heapSize];
+            if (heapSize > 0) {
+                heap[0] = last;
+                pos[last] = 0;
+                siftDown(0);
+            }
+            return v;
+        }
+
+        private void siftUp(int i) {
+            int v = heap[i];
+            double k = key[v];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                int pv = heap[parent];
+                if (key[pv] <= k) {
+                    break;
+                }
+                heap[i] = pv;
+                pos[pv] = i;
+                i = parent;
+            }
+            heap[i] = v;
+            pos[v] = i;
+        }
+
+        private void siftDown(int i) {
+            int v = heap[i];
+            double k = key[v];
+            int half = heapSize >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int cv = heap[child];
+                int right = child + 1;
+                if (right < heapSize && key[heap[right]] < key[cv]) {
+                    child = right;
+                    cv = heap[child];
+                }
+                if (k <= key[cv]) {
+                    break;
+                }
+                heap[i] = cv;
+                pos[cv] = i;
+                i = child;
+            }
+            heap[i] = v;
+            pos[v] = i;
+        }
+    }
+
+    @Nonnull
+    private final IntDirectedGraph graph;
+    @Nonnull
+    private final IntIntToDoubleFunction costf;
+    @Nonnull
+    private final SearchState forward;
+    @Nullable
+    private SearchState backward;
+    /**
+     * The vertex at which the last search has ended, or {@link #NO_VERTEX}.
+     */
+    private int resultVertex = NO_VERTEX;
+    /**
+     * The vertex at which the two directions of the last bidirectional search
+     * have met, or {@link #NO_VERTEX} if the last search was unidirectional.
+     */
+    private int meetingVertex = NO_VERTEX;
+    private double resultCost = Double.POSITIVE_INFINITY;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param graph the graph
+     * @param costf the cost function, receives the start vertex and the end
+     *              vertex of an arrow, must return a non-negative value
+     */
+    public IntHeapCostPathBuilder(@Nonnull IntDirectedGraph graph, @Nonnull IntIntToDoubleFunction costf) {
+        this.graph = graph;
+        this.costf = costf;
+        this.forward = new SearchState(graph.getVertexCount());
+    }
+
+    /**
+     * Finds the lowest cost path from the start vertex to the goal vertex.
+     *
+     * @param start the start vertex
+     * @param goal  the goal vertex
+     * @return the cost of the path, {@link Double#POSITIVE_INFINITY} if there
+     * is no path
+     */
+    public double findShortestPath(int start, int goal) {
+        return search(start, goal, null, null, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Finds the lowest cost path from the start vertex to the goal vertex
+     * with the A* algorithm.
+     *
+     * @param start     the start vertex
+     * @param goal      the goal vertex
+     * @param heuristic estimates the cost from a vertex to the goal vertex.
+     *                  The estimate must be consistent: it must be zero at the
+     *                  goal, and it must not decrease by more than the cost
+     *                  of any arrow.
+     * @return the cost of the path, {@link Double#POSITIVE_INFINITY} if there
+     * is no path
+     */
+    public double findShortestPath(int start, int goal, @Nonnull IntToDoubleFunction heuristic) {
+        return search(start, goal, null, heuristic, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Finds the lowest cost path from the start vertex to the nearest vertex
+     * which satisfies the goal predicate.
+     *
+     * @param start         the start vertex
+     * @param goalPredicate the goal predicate
+     * @param maxCost       the search does not go beyond vertices with this
+     *                      cost
+     * @return the cost of the path, {@link Double#POSITIVE_INFINITY} if there
+     * is no path
+     */
+    public double findShortestPath(int start, @Nonnull IntPredicate goalPredicate, double maxCost) {
+        return search(start, NO_VERTEX, goalPredicate, null, maxCost);
+    }
+
+    private double search(int start, int goal, @Nullable IntPredicate goalPredicate,
+                          @Nullable IntToDoubleFunction heuristic, double maxCost) {
+        final SearchState f = forward;
+        final IntDirectedGraph g = graph;
+        f.ensureCapacity(g.getVertexCount());
+        f.clear();
+        resultVertex = NO_VERTEX;
+        meetingVertex = NO_VERTEX;
+        resultCost = Double.POSITIVE_INFINITY;
+
+        f.relax(start, NO_VERTEX, 0.0, heuristic == null ? 0.0 : heuristic.applyAsDouble(start));
+        while (f.heapSize > 0) {
+            final int u = f.poll();
+            final double du = f.dist[u];
+            if (u == goal || goalPredicate != null && goalPredicate.test(u)) {
+                resultVertex = u;
+                resultCost = du;
+                return du;
+            }
+            if (du < maxCost) {
+                for (int i = 0, n = g.getNextCount(u); i < n; i++) {
+                    final int v = g.getNext(u, i);
+                    final double dv = du + costf.applyAsDouble(u, v);
+                    f.relax(v, u, dv, heuristic == null ? dv : dv + heuristic.applyAsDouble(v));
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Finds the lowest cost path from the start vertex to the goal vertex
+     * with a bidirectional search.
+     * <p>
+     * The search alternates between a forward search from the start vertex
+     * and a backward search from the goal vertex, and stops as soon as the
+     * sum of the lowest priorities of both searches reaches the cost of the
+     * best path found so far. On large graphs, this typically touches far
+     * fewer vertices than a unidirectional search.
+     *
+     * @param start the start vertex
+     * @param goal  the goal vertex
+     * @return the cost of the path, {@link Double#POSITIVE_INFINITY} if there
+     * is no path
+     * @throws UnsupportedOperationException if the graph is not an
+     *                                       {@link IntBidiGraph}
+     */
+    public double findShortestPathBidirectional(int start, int goal) {
+        if (!(graph instanceof IntBidiGraph)) {
+            throw new UnsupportedOperationException("graph must be an IntBidiGraph");
+        }
+        final IntBidiGraph g = (IntBidiGraph) graph;
+        final int vertexCount = g.getVertexCount();
+        final SearchState f = forward;
+        if (backward == null) {
+            backward = new SearchState(vertexCount);
+        }
+        final SearchState b = backward;
+        f.ensureCapacity(vertexCount);
+        b.ensureCapacity(vertexCount);
+        f.clear();
+        b.clear();
+        resultVertex = NO_VERTEX;
+        meetingVertex = NO_VERTEX;
+        resultCost = Double.POSITIVE_INFINITY;
+
+        f.relax(start, NO_VERTEX, 0.0, 0.0);
+        b.relax(goal, NO_VERTEX, 0.0, 0.0);
+        double best = Double.POSITIVE_INFINITY;
+        int meet = NO_VERTEX;
+        if (start == goal) {
+            best = 0.0;
+            meet = start;
+        }
+        while (f.heapSize > 0 && b.heapSize > 0) {
+            final double fk = f.peekKey(), bk = b.peekKey();
+            if (fk + bk >= best) {
+                break;
+            }
+            if (fk <= bk) {
+                final int u = f.poll();
+                final double du = f.dist[u];
+                for (int i = 0, n = g.getNextCount(u); i < n; i++) {
+                    final int v = g.getNext(u, i);
+                    final double dv = du + costf.applyAsDouble(u, v);
+                    if (f.relax(v, u, dv, dv) && b.isTouched(v) && dv + b.dist[v] < best) {
+                        best = dv + b.dist[v];
+                        meet = v;
+                    }
+                }
+            } else {
+                final int u = b.poll();
+                final double du = b.dist[u];
+                for (int i = 0, n = g.getPrevCount(u); i < n; i++) {
+                    final int v = g.getPrev(u, i);
+                    final double dv = du + costf.applyAsDouble(v, u);
+                    if (b.relax(v, u, dv, dv) && f.isTouched(v) && dv + f.dist[v] < best) {
+                        best = dv + f.dist[v];
+                        meet = v;
+                    }
+                }
+            }
+        }
+        if (meet != NO_VERTEX) {
+            resultVertex = goal;
+            meetingVertex = meet;
+            resultCost = best;
+        }
+        return best;
+    }
+
+    /**
+     * Returns the cost of the path found by the last search.
+     *
+     * @return the cost, {@link Double#POSITIVE_INFINITY} if no path was found
+     */
+    public double getCost() {
+        return resultCost;
+    }
+
+    /**
+     * Returns the vertex at the end of the path found by the last search.
+     *
+     * @return the vertex, or -1 if no path was found
+     */
+    public int getGoal() {
+        return resultVertex;
+    }
+
+    /**
+     * Copies the vertices of the path found by the last search into the
+     * provided list.
+     *
+     * @param path the list is cleared, and then receives the vertices from
+     *             the start vertex to the goal vertex
+     * @return true if a path was found
+     */
+    public boolean getPath(@Nonnull IntArrayList path) {
+        path.clear();
+        if (resultVertex == NO_VERTEX) {
+            return false;
+        }
+        final SearchState f = forward;
+        for (int v = meetingVertex == NO_VERTEX ? resultVertex : meetingVertex; v != NO_VERTEX; v = f.pred[v]) {
+            path.add(v);
+        }
+        for (int i = 0, j = path.size() - 1; i < j; i++, j--) {
+            int tmp = path.get(i);
+            path.set(i, path.get(j));
+            path.set(j, tmp);
+        }
+        if (meetingVertex != NO_VERTEX) {
+            final SearchState b = backward;
+            for (int v = b.pred[meetingVertex]; v != NO_VERTEX; v = b.pred[v]) {
+                path.add(v);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the lowest cost path from the start vertex to the goal vertex,
+     * and returns it as a {@link VertexPath}.
+     * <p>
+     * This is a convenience method, which allocates the returned path.
+     *
+     * @param start the start vertex
+     * @param goal  the goal vertex
+     * @return the path and its cost, null if there is no path
+     */
+    @Nullable
+    public Map.Entry<VertexPath<Integer>, Double> findShortestVertexPath(int start, int goal) {
+        findShortestPath(start, goal);
+        IntArrayList path = new IntArrayList();
+        if (!getPath(path)) {
+            return null;
+        }
+        List<Integer> vertices = new ArrayList<>(path.size());
+        path.addAllInto(vertices);
+        return new AbstractMap.SimpleEntry<>(new VertexPath<>(vertices), resultCost);
+    }
+}
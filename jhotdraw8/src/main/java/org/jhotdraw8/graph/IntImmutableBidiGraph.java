@@ -131,8 +131,9 @@ public class IntImmutableBidiGraph implements IntBidiGraph {
         return getNextPrev(vi,i,prevArrowOffsets,prevArrowHeads);
     }
        private int getNextPrev(int vi, int i, int[] arrows, int[] arrowHeads) {
-        if (i < 0 || i >= getNextCount(vi)) {
-            throw new IllegalArgumentException("i(" + i + ") < 0 || i >= " + getNext(vi, i));
+        final int count = getNextPrevCount(vi, arrows, arrowHeads);
+        if (i < 0 || i >= count) {
+            throw new IllegalArgumentException("i(" + i + ") < 0 || i >= " + count);
         }
         return arrowHeads[arrows[vi] + i];
     }
@@ -96,6 +96,8 @@ import org.jhotdraw8.draw.io.FigureFactory;
 import org.jhotdraw8.draw.io.PrinterExportFormat;
 import org.jhotdraw8.draw.io.SimpleFigureIdFactory;
 import org.jhotdraw8.draw.io.SimpleXmlIO;
+import org.jhotdraw8.draw.io.SimpleXmlStaxReader;
+import org.jhotdraw8.draw.io.SimpleXmlStaxWriter;
 import org.jhotdraw8.draw.io.SvgExportOutputFormat;
 import org.jhotdraw8.draw.io.XMLEncoderOutputFormat;
 import org.jhotdraw8.draw.tool.BezierCreationTool;
@@ -407,10 +409,10 @@ public class GrapherActivityController extends AbstractDocumentBasedActivity imp
 
     @Override
     public CompletionStage<DataFormat> read(@Nonnull URI uri, DataFormat format, Map<? super Key<?>, Object> options, boolean insert, WorkState workState) {
-        return FXWorker.supply(() -> {
+        return FXWorker.supply(workState, () -> {
             FigureFactory factory = new DefaultFigureFactory();
             IdFactory idFactory = new SimpleFigureIdFactory();
-            SimpleXmlIO io = new SimpleXmlIO(factory, idFactory, GRAPHER_NAMESPACE_URI, null);
+            SimpleXmlStaxReader io = new SimpleXmlStaxReader(factory, idFactory, GRAPHER_NAMESPACE_URI);
             SimpleDrawing drawing = (SimpleDrawing) io.read(uri, null, workState);
             System.out.println("READING..." + uri);
             return drawing;
@@ -434,7 +436,7 @@ public class GrapherActivityController extends AbstractDocumentBasedActivity imp
     @Override
     public CompletionStage<Void> write(@Nonnull URI uri, DataFormat format, Map<? super Key<?>, Object> options, WorkState workState) {
         Drawing drawing = drawingView.getDrawing();
-        return FXWorker.run(() -> {
+        return FXWorker.run(workState, () -> {
             if (SvgExporter.SVG_FORMAT.equals(format) || uri.getPath().endsWith(".svg")) {
                 SvgExportOutputFormat io = new SvgExportOutputFormat();
                 io.setOptions(options);
@@ -449,7 +451,7 @@ public class GrapherActivityController extends AbstractDocumentBasedActivity imp
             } else {
                 FigureFactory factory = new DefaultFigureFactory();
                 IdFactory idFactory = new SimpleFigureIdFactory();
-                SimpleXmlIO io = new SimpleXmlIO(factory, idFactory, GRAPHER_NAMESPACE_URI, null);
+                SimpleXmlStaxWriter io = new SimpleXmlStaxWriter(factory, idFactory, GRAPHER_NAMESPACE_URI, null);
                 io.write(uri, drawing, workState);
             }
         }).handle((voidvalue, ex) -> {
@@ -85,7 +85,7 @@ public class TeddyActivityController extends AbstractDocumentBasedActivity imple
 
     @Override
     public CompletionStage<DataFormat> read(@Nonnull URI uri, DataFormat format, Map<? super Key<?>, Object> options, boolean insert, WorkState workState) {
-        return FXWorker.supply(() -> {
+        return FXWorker.supply(workState, () -> {
             StringBuilder builder = new StringBuilder();
             char[] cbuf = new char[8192];
             try (Reader in = Files.newBufferedReader(Paths.get(uri))) {
@@ -107,7 +107,7 @@ public class TeddyActivityController extends AbstractDocumentBasedActivity imple
     @Override
     public CompletionStage<Void> write(@Nonnull URI uri, DataFormat format, Map<? super Key<?>, Object> options, WorkState workState) {
         final String text = textArea.getText();
-        return FXWorker.run(() -> {
+        return FXWorker.run(workState, () -> {
             try (Writer out = Files.newBufferedWriter(Paths.get(uri))) {
                 out.write(text);
             }
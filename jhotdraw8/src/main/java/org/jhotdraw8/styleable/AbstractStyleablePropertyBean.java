@@ -6,6 +6,7 @@ package org.jhotdraw8.styleable;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javafx.collections.MapChangeListener;
 import javafx.collections.ObservableMap;
@@ -17,6 +18,7 @@ import org.jhotdraw8.annotation.Nullable;
 
 import org.jhotdraw8.collection.Key;
 import org.jhotdraw8.collection.MapAccessor;
+import org.jhotdraw8.collection.NonnullMapAccessor;
 
 /**
  * AbstractStyleablePropertyBean.
@@ -34,13 +36,14 @@ public abstract class AbstractStyleablePropertyBean implements StyleableProperty
     // protected StyleablePropertyMap styleableProperties = new StyleablePropertyMap();
     //protected final StyleableMap<Key<?>, Object> properties = new OldStyleableMap<Key<?>, Object>() {
     protected final StyleableMap<Key<?>, Object> properties = new SimpleStyleableMap<Key<?>, Object>(
-            keyMaps.computeIfAbsent(getClass(), k -> Collections.synchronizedMap(new HashMap<>()))
+            keyMaps.computeIfAbsent(getClass(), k -> new ConcurrentHashMap<>())
     ) {
 
         @Override
         @SuppressWarnings("unchecked")
         protected void callObservers(StyleOrigin origin, MapChangeListener.Change<Key<?>, Object> change) {
-            changed((Key<Object>) change.getKey(), change.getValueRemoved(), change.getValueAdded());
+            changed((Key<Object>) change.getKey(), change.getValueRemoved(), change.getValueAdded(),
+                    change.wasAdded(), change.wasRemoved());
             AbstractStyleablePropertyBean.this.callObservers(origin, false, change);
             super.callObservers(origin, change);
         }
@@ -85,6 +88,37 @@ public abstract class AbstractStyleablePropertyBean implements StyleableProperty
         return ret;
     }
 
+    @Override
+    public double getStyledAsDouble(@Nonnull NonnullMapAccessor<Double> key) {
+        if (key instanceof Key) {
+            @SuppressWarnings("unchecked")
+            Key<Double> k = (Key<Double>) key;
+            return getStyleableMap().getDouble(null, k, key.getDefaultValueNonnull());
+        }
+        return getStyledNonnull(key);
+    }
+
+    @Override
+    public double getAsDouble(@Nonnull NonnullMapAccessor<Double> key) {
+        if (key instanceof Key) {
+            @SuppressWarnings("unchecked")
+            Key<Double> k = (Key<Double>) key;
+            return getStyleableMap().getDouble(StyleOrigin.USER, k, key.getDefaultValueNonnull());
+        }
+        return getNonnull(key);
+    }
+
+    @Override
+    public void setAsDouble(@Nonnull NonnullMapAccessor<Double> key, double value) {
+        if (key instanceof Key) {
+            @SuppressWarnings("unchecked")
+            Key<Double> k = (Key<Double>) key;
+            getStyleableMap().putDouble(StyleOrigin.USER, k, value);
+        } else {
+            set(key, value);
+        }
+    }
+
     @Override
     public <T> T getStyled(@Nullable StyleOrigin origin, @Nonnull MapAccessor<T> key) {
         if (origin == null) {
@@ -134,6 +168,21 @@ public abstract class AbstractStyleablePropertyBean implements StyleableProperty
     protected <T> void changed(Key<T> key, T oldValue, T newValue) {
     }
 
+    /**
+     * This method is invoked just before listeners are notified. This
+     * implementation invokes {@link #changed(Key, Object, Object)}.
+     *
+     * @param <T>        the type
+     * @param key        the changed key
+     * @param oldValue   the old value
+     * @param newValue   the new value
+     * @param wasAdded   true if the key is set after the change
+     * @param wasRemoved true if the key was set before the change
+     */
+    protected <T> void changed(Key<T> key, T oldValue, T newValue, boolean wasAdded, boolean wasRemoved) {
+        changed(key, oldValue, newValue);
+    }
+
     /**
      * This method is invoked just before listeners are notified. This
      * implementation is empty.
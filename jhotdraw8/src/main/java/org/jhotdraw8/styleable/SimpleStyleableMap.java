@@ -6,7 +6,7 @@ package org.jhotdraw8.styleable;
 import java.util.AbstractCollection;
 import java.util.AbstractMap;
 import java.util.AbstractSet;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -24,7 +24,11 @@ import org.jhotdraw8.annotation.Nullable;
  * A map which stores its values in an array, and which can share its keys with
  * other SimpleStyleableMaps.
  * <p>
- * This map stores one distinct value for each StyleOrigin.
+ * This map stores one distinct value for each StyleOrigin. The values of each
+ * origin are stored in a separate array, which is only allocated when a value
+ * is put into that origin. Values of type {@code Double} are stored unboxed in
+ * a {@code double} array. They can be accessed without boxing with
+ * {@link #getDouble} and {@link #putDouble}.
  *
  * @author Werner Randelshofer
  * @param <K> key type
@@ -33,7 +37,12 @@ import org.jhotdraw8.annotation.Nullable;
 public class SimpleStyleableMap<K, V> extends AbstractMap<K, V> implements StyleableMap<K, V> {
 
     private final static Object NULL_VALUE = new Object();
+    /**
+     * Marks a slot which holds its value in the double array of its origin.
+     */
+    private final static Object DOUBLE_VALUE = new Object();
     private final static int numOrigins = 4;
+    private final static StyleOrigin[] ORIGINS = StyleOrigin.values();
     private CopyOnWriteArrayList<MapChangeListener<? super K, ? super V>> changeListenerList;
 
     private CopyOnWriteArrayList<InvalidationListener> invalidationListenerList;
@@ -42,7 +51,16 @@ public class SimpleStyleableMap<K, V> extends AbstractMap<K, V> implements Style
     private final StyleOrigin origin;
     private final int originOrdinal;
     private final int[] sizes;
-    private final ArrayList<Object> values;
+    /**
+     * Holds an array of values for each origin. The array of an origin is
+     * null, until a value is put into the origin.
+     */
+    private final Object[][] values;
+    /**
+     * Holds the double values for each origin. The array of an origin is
+     * null, until a double value is put into the origin.
+     */
+    private final double[][] doubles;
     @Nonnull
     private final SimpleStyleableMap<K, V> originalMap;
     private final static int AUTO_ORIGIN = -1;
@@ -64,7 +82,8 @@ public class SimpleStyleableMap<K, V> extends AbstractMap<K, V> implements Style
      */
     public SimpleStyleableMap(Map<K, Integer> keyMap) {
         this.keyMap = keyMap;
-        this.values = new ArrayList<>(keyMap.size() * numOrigins);
+        this.values = new Object[numOrigins][];
+        this.doubles = new double[numOrigins][];
         this.origin = StyleOrigin.USER;
         this.originOrdinal = origin.ordinal();
         this.sizes = new int[numOrigins];
@@ -74,6 +93,7 @@ public class SimpleStyleableMap<K, V> extends AbstractMap<K, V> implements Style
     private SimpleStyleableMap(SimpleStyleableMap<K, V> that, @Nullable StyleOrigin styleOrigin) {
         this.keyMap = that.keyMap;
         this.values = that.values;
+        this.doubles = that.doubles;
         this.origin = styleOrigin;
         this.originOrdinal = (styleOrigin == null) ? AUTO_ORIGIN : styleOrigin.ordinal();
         this.sizes = that.sizes;
@@ -121,16 +141,8 @@ public class SimpleStyleableMap<K, V> extends AbstractMap<K, V> implements Style
 
     @Override
     public void clearAuthorAndInlineValues() {
-        int author = StyleOrigin.AUTHOR.ordinal();
-        int inline = StyleOrigin.INLINE.ordinal();
-        for (Iterator<Entry<K, Integer>> i = keyMap.entrySet().iterator(); i.hasNext();) {
-            Entry<K, Integer> e = i.next();
-            Integer index = e.getValue();
-            if (index < values.size()) {
-                removeValue(author, index, e.getKey());
-                removeValue(inline, index, e.getKey());
-            }
-        }
+        removeAllValues(StyleOrigin.AUTHOR.ordinal());
+        removeAllValues(StyleOrigin.INLINE.ordinal());
     }
 
     @Override
@@ -139,16 +151,11 @@ public class SimpleStyleableMap<K, V> extends AbstractMap<K, V> implements Style
     }
 
     public boolean containsKey(@Nullable StyleOrigin origin, Object key) {
-        Integer index = keyMap.get(key);
-
         if (origin == null) {
             return getStyleOrigin(key) != null;
         }
-
-        boolean result = index != null
-                && index * numOrigins + origin.ordinal() < values.size()
-                && values.get(index * numOrigins + origin.ordinal()) != null;
-        return result;
+        Integer index = keyMap.get(key);
+        return index != null && getSlot(origin.ordinal(), index) != null;
     }
 
     @Override
@@ -156,29 +163,73 @@ public class SimpleStyleableMap<K, V> extends AbstractMap<K, V> implements Style
         return containsValue(origin, value);
     }
 
-    public boolean containsValue(StyleOrigin origin, @Nullable Object value) {
-        if (value == null) {
-            value = NULL_VALUE;
-        }
-        for (int i = originOrdinal, n = values.size(); i < n; i += numOrigins) {
-            if (Objects.equals(values.get(i), value)) {
+    public boolean containsValue(@Nullable StyleOrigin origin, @Nullable Object value) {
+        int ordinal = origin == null ? AUTO_ORIGIN : origin.ordinal();
+        for (int i = 0, n = keyMap.size(); i < n; i++) {
+            if (hasValue(ordinal, i) && Objects.equals(getValue(ordinal, i, null, null), value)) {
                 return true;
             }
         }
         return false;
     }
 
-    @SuppressWarnings("unchecked")
-    private int ensureCapacity(K key) {
-        final int indexIfAbsent = keyMap.size();
-        Integer indexIfPresent = keyMap.putIfAbsent(key, indexIfAbsent);
-        int index = indexIfPresent == null ? indexIfAbsent : indexIfPresent;
-        int n = n = (1 + index) * numOrigins;
-        values.ensureCapacity(n);
-        for (int i = values.size(); i < n; i++) {
-            values.add(null);
+    /**
+     * Returns the index of the key. Adds the key to the key map if necessary.
+     */
+    private int indexOf(K key) {
+        Integer indexIfPresent = keyMap.get(key);
+        if (indexIfPresent == null) {
+            // The key map is shared by all maps of the same class. They may
+            // be accessed concurrently, for example when figures are styled
+            // in parallel.
+            synchronized (keyMap) {
+                final int indexIfAbsent = keyMap.size();
+                indexIfPresent = keyMap.putIfAbsent(key, indexIfAbsent);
+                if (indexIfPresent == null) {
+                    indexIfPresent = indexIfAbsent;
+                }
+            }
+        }
+        return indexIfPresent;
+    }
+
+    /**
+     * Returns the value array of the specified origin. Allocates or grows
+     * the array if necessary.
+     */
+    @Nonnull
+    private Object[] ensureCapacity(int ordinal, int index) {
+        Object[] layer = values[ordinal];
+        if (layer == null || index >= layer.length) {
+            int n = Math.max(index + 1, keyMap.size());
+            layer = layer == null ? new Object[n] : Arrays.copyOf(layer, n);
+            values[ordinal] = layer;
         }
-        return index;
+        return layer;
+    }
+
+    /**
+     * Returns the double array of the specified origin. Allocates or grows
+     * the array if necessary.
+     */
+    @Nonnull
+    private double[] ensureDoubleCapacity(int ordinal, int index) {
+        double[] layer = doubles[ordinal];
+        if (layer == null || index >= layer.length) {
+            int n = Math.max(index + 1, keyMap.size());
+            layer = layer == null ? new double[n] : Arrays.copyOf(layer, n);
+            doubles[ordinal] = layer;
+        }
+        return layer;
+    }
+
+    /**
+     * Returns the content of the slot, or null if the slot is empty.
+     */
+    @Nullable
+    private Object getSlot(int ordinal, int index) {
+        Object[] layer = values[ordinal];
+        return layer == null || index >= layer.length ? null : layer[index];
     }
 
     @Nonnull
@@ -211,23 +262,97 @@ public class SimpleStyleableMap<K, V> extends AbstractMap<K, V> implements Style
         return index == null ? defaultValue : getValue(originOrdinal, index, (K) key, defaultValue);
     }
 
+    /**
+     * Returns a double value without boxing it.
+     *
+     * @param origin       the style origin, or null for the styled value
+     * @param key          the key
+     * @param defaultValue the value that is returned if the map does not
+     *                     contain a value for the key, or if the value is null
+     * @return the value
+     */
+    @Override
+    public double getDouble(@Nullable StyleOrigin origin, K key, double defaultValue) {
+        Integer index = keyMap.get(key);
+        if (index == null) {
+            return defaultValue;
+        }
+        int ordinal = origin == null ? getStyleOrdinal(index) : origin.ordinal();
+        if (ordinal == AUTO_ORIGIN) {
+            return defaultValue;
+        }
+        Object value = getSlot(ordinal, index);
+        if (value == DOUBLE_VALUE) {
+            return doubles[ordinal][index];
+        }
+        return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+    }
+
+    /**
+     * Puts a double value without boxing it.
+     * <p>
+     * The value is only boxed if listeners must be notified. Like
+     * {@link #put(StyleOrigin, Object, Object)}, this method notifies the
+     * listeners if the origin of this map is {@code USER}.
+     *
+     * @param styleOrigin the style origin
+     * @param key         the key
+     * @param value       the new value
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void putDouble(@Nonnull StyleOrigin styleOrigin, K key, double value) {
+        int ordinal = styleOrigin.ordinal();
+        int index = indexOf(key);
+        Object[] layer = ensureCapacity(ordinal, index);
+        double[] doubleLayer = ensureDoubleCapacity(ordinal, index);
+        Object oldSlot = layer[index];
+        if (oldSlot == DOUBLE_VALUE && doubleLayer[index] == value) {
+            return;
+        }
+        V oldValue = getValue(ordinal, index, key, null);
+        if (oldSlot == null) {
+            sizes[ordinal]++;
+        }
+        layer[index] = DOUBLE_VALUE;
+        doubleLayer[index] = value;
+        if (origin == StyleOrigin.USER) {
+            V newValue = (V) (Double) value;
+            if (!Objects.equals(oldValue, newValue)) {
+                ChangeEvent change = new ChangeEvent(key, oldValue, newValue, true, oldSlot != null);
+                callObservers(this.origin, change);
+            }
+        }
+    }
+
     @Nonnull
     public Map<K, V> getMap(StyleOrigin origin) {
         return (origin == this.origin) ? this : new SimpleStyleableMap<>(this, origin);
     }
 
     @Nullable
-    @SuppressWarnings("unchecked")
     public StyleOrigin getStyleOrigin(Object key) {
-        int index = ensureCapacity((K) key);
+        Integer index = keyMap.get(key);
+        if (index == null) {
+            return null;
+        }
+        int ordinal = getStyleOrdinal(index);
+        return ordinal == AUTO_ORIGIN ? null : ORIGINS[ordinal];
+    }
+
+    /**
+     * Returns the ordinal of the origin with the highest precedence that has
+     * a value for the specified index.
+     *
+     * @return the ordinal or {@link #AUTO_ORIGIN} if no origin has a value
+     */
+    private int getStyleOrdinal(int index) {
         for (int i = numOrigins - 1; i >= 0; i--) {
-            final int arrayIndex = index * numOrigins + i;
-            Object value = arrayIndex < values.size() ? values.get(arrayIndex) : null;
-            if (value != null) {
-                return StyleOrigin.values()[i];
+            if (getSlot(i, index) != null) {
+                return i;
             }
         }
-        return null;
+        return AUTO_ORIGIN;
     }
 
     @Nullable
@@ -242,21 +367,15 @@ public class SimpleStyleableMap<K, V> extends AbstractMap<K, V> implements Style
 
     @SuppressWarnings("unchecked")
     private V getValue(int ordinal, int index, K key, V defaultValue) {
-        Object value;
-        if (ordinal == -1) {
-            value = (V) null;
-            if ((index + 1) * numOrigins <= values.size()) {
-                for (int i = numOrigins - 1; i >= 0; i--) {
-                    final int arrayIndex = index * numOrigins + i;
-                    value = (V) values.get(arrayIndex);
-                    if (value != null) {
-                        break;
-                    }
-                }
+        if (ordinal == AUTO_ORIGIN) {
+            ordinal = getStyleOrdinal(index);
+            if (ordinal == AUTO_ORIGIN) {
+                return defaultValue;
             }
-        } else {
-            final int arrayIndex = index * numOrigins + ordinal;
-            value = arrayIndex < values.size() ? values.get(arrayIndex) : null;
+        }
+        Object value = getSlot(ordinal, index);
+        if (value == DOUBLE_VALUE) {
+            return (V) (Double) doubles[ordinal][index];
         }
         return value == null ? defaultValue : (V) (value == NULL_VALUE ? null : value);
     }
@@ -267,16 +386,9 @@ public class SimpleStyleableMap<K, V> extends AbstractMap<K, V> implements Style
 
     private boolean hasValue(int ordinal, int index) {
         if (ordinal == AUTO_ORIGIN) {
-            for (int i = 0; i < numOrigins; i++) {
-                final int arrayIndex = index + i;
-                if (values.get(arrayIndex) != null) {
-                    return true;
-                }
-            }
-            return false;
+            return getStyleOrdinal(index) != AUTO_ORIGIN;
         }
-        final int arrayIndex = index * numOrigins + ordinal;
-        return arrayIndex < values.size() && values.get(arrayIndex) != null;
+        return getSlot(ordinal, index) != null;
     }
 
     @Override
@@ -292,13 +404,13 @@ public class SimpleStyleableMap<K, V> extends AbstractMap<K, V> implements Style
 
     @Override
     public V put(K key, V value) {
-        int index = ensureCapacity(key);
+        int index = indexOf(key);
         return setValue(originOrdinal, index, key, value);
     }
 
     @Nullable
     public V put(@Nonnull StyleOrigin styleOrigin, K key, V value) {
-        int index = ensureCapacity(key);
+        int index = indexOf(key);
         return setValue(styleOrigin.ordinal(), index, key, value);
     }
 
@@ -306,19 +418,31 @@ public class SimpleStyleableMap<K, V> extends AbstractMap<K, V> implements Style
     @Override
     @SuppressWarnings("unchecked")
     public V remove(Object key) {
-        int index = ensureCapacity((K) key);
-        return removeValue(originOrdinal, index, (K) key);
+        Integer index = keyMap.get(key);
+        return index == null ? null : removeValue(originOrdinal, index, (K) key);
     }
 
     public void removeAll(@Nonnull StyleOrigin origin) {
-        int ordinal = origin.ordinal();
-        for (Iterator<Entry<K, Integer>> i = keyMap.entrySet().iterator(); i.hasNext();) {
-            Entry<K, Integer> e = i.next();
-            Integer index = e.getValue();
-            if (index < values.size()) {
-                removeValue(ordinal, index, e.getKey());
+        removeAllValues(origin.ordinal());
+    }
+
+    private void removeAllValues(int ordinal) {
+        if (sizes[ordinal] == 0) {
+            return;
+        }
+        if (origin == StyleOrigin.USER) {
+            // we must notify the observers
+            for (Iterator<Entry<K, Integer>> i = keyMap.entrySet().iterator(); i.hasNext() && sizes[ordinal] > 0; ) {
+                Entry<K, Integer> e = i.next();
+                removeValue(ordinal, e.getValue(), e.getKey());
             }
         }
+        if (ordinal != StyleOrigin.USER.ordinal()) {
+            // release the memory of the origin
+            values[ordinal] = null;
+            doubles[ordinal] = null;
+            sizes[ordinal] = 0;
+        }
     }
 
     @Override
@@ -337,18 +461,16 @@ public class SimpleStyleableMap<K, V> extends AbstractMap<K, V> implements Style
 
     @SuppressWarnings("unchecked")
     private V removeValue(int ordinal, int index, K key) {
-        if (ordinal == -1) {
+        if (ordinal == AUTO_ORIGIN) {
             throw new UnsupportedOperationException("can not remove styled value");
         }
-        final int arrayIndex = index * numOrigins + ordinal;
-
-        Object oldValue = arrayIndex < values.size() ? values.get(arrayIndex) : null;
-        if (oldValue == null) {
+        Object oldSlot = getSlot(ordinal, index);
+        if (oldSlot == null) {
             return null;
         } else {
-            values.set(index * numOrigins + ordinal, null);
+            V returnValue = getValue(ordinal, index, key, null);
+            values[ordinal][index] = null;
             sizes[ordinal]--;
-            V returnValue = oldValue == NULL_VALUE ? null : (V) oldValue;
             if (origin == StyleOrigin.USER) {
                 @SuppressWarnings("unchecked")
                 ChangeEvent change = new ChangeEvent(key, returnValue, null, false, true);
@@ -363,19 +485,25 @@ public class SimpleStyleableMap<K, V> extends AbstractMap<K, V> implements Style
     @Nullable
     @SuppressWarnings("unchecked")
     private V setValue(int ordinal, int index, K key, @Nullable V newValue) {
-        if (ordinal == -1) {
+        if (ordinal == AUTO_ORIGIN) {
             throw new UnsupportedOperationException("can not set styled value");
         }
-        V oldValue = (V) values.get(index * numOrigins + ordinal);
-        if (oldValue == null) {
+        Object[] layer = ensureCapacity(ordinal, index);
+        Object oldSlot = layer[index];
+        V returnValue = getValue(ordinal, index, key, null);
+        if (oldSlot == null) {
             sizes[ordinal]++;
         }
-        values.set(index * numOrigins + ordinal, newValue == null ? NULL_VALUE : newValue);
+        if (newValue != null && newValue.getClass() == Double.class) {
+            ensureDoubleCapacity(ordinal, index)[index] = (Double) newValue;
+            layer[index] = DOUBLE_VALUE;
+        } else {
+            layer[index] = newValue == null ? NULL_VALUE : newValue;
+        }
 
-        V returnValue = oldValue == NULL_VALUE ? null : oldValue;
         if (!Objects.equals(returnValue, newValue)) {
             if (origin == StyleOrigin.USER) {
-                ChangeEvent change = new ChangeEvent(key, returnValue, newValue, true, oldValue != null);
+                ChangeEvent change = new ChangeEvent(key, returnValue, newValue, true, oldSlot != null);
                 callObservers(this.origin, change);
             }
         }
@@ -31,6 +31,34 @@ public interface StyleableMap<K, V> extends ObservableMap<K, V> {
 
     StyleOrigin getStyleOrigin(Object key);
 
+    /**
+     * Returns a double value. Implementations may store double values
+     * unboxed.
+     *
+     * @param origin       the style origin, or null for the styled value
+     * @param key          the key
+     * @param defaultValue the value that is returned if the map does not
+     *                     contain a value for the key, or if the value is null
+     * @return the value
+     */
+    default double getDouble(StyleOrigin origin, K key, double defaultValue) {
+        V value = origin == null ? getStyledMap().get(key) : get(origin, key);
+        return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+    }
+
+    /**
+     * Puts a double value. Implementations may store double values
+     * unboxed.
+     *
+     * @param origin the style origin
+     * @param key    the key
+     * @param value  the new value
+     */
+    @SuppressWarnings("unchecked")
+    default void putDouble(StyleOrigin origin, K key, double value) {
+        put(origin, key, (V) (Double) value);
+    }
+
     Map<K, V> getStyledMap();
 
     V put(StyleOrigin styleOrigin, K key, V value);
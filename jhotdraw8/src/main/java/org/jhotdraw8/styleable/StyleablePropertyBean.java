@@ -69,6 +69,39 @@ public interface StyleablePropertyBean extends PropertyBean, Styleable {
         return value;
     }
 
+    /**
+     * Returns the styled value of a double property. Implementations may
+     * return the value without boxing it.
+     *
+     * @param key The property key
+     * @return The styled value.
+     */
+    default double getStyledAsDouble(@Nonnull NonnullMapAccessor<Double> key) {
+        return getStyledNonnull(key);
+    }
+
+    /**
+     * Returns the user value of a double property. Implementations may
+     * return the value without boxing it.
+     *
+     * @param key The property key
+     * @return The user value.
+     */
+    default double getAsDouble(@Nonnull NonnullMapAccessor<Double> key) {
+        return getNonnull(key);
+    }
+
+    /**
+     * Sets the user value of a double property. Implementations may store
+     * the value without boxing it.
+     *
+     * @param key   The property key
+     * @param value The new value
+     */
+    default void setAsDouble(@Nonnull NonnullMapAccessor<Double> key, double value) {
+        set(key, value);
+    }
+
     /**
      * Returns the styled value.
      *
@@ -76,14 +76,22 @@ import org.jhotdraw8.svg.text.SvgTransformConverter;
 import org.jhotdraw8.text.Converter;
 import org.jhotdraw8.xml.XmlUtil;
 import org.jhotdraw8.xml.text.XmlNumberConverter;
+import org.w3c.dom.Attr;
 import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
 
 import javax.imageio.ImageIO;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Result;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
 import java.awt.font.FontRenderContext;
 import java.awt.font.LineBreakMeasurer;
 import java.awt.font.TextAttribute;
@@ -99,10 +107,14 @@ import java.text.AttributedCharacterIterator;
 import java.text.AttributedString;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -142,6 +154,16 @@ public class SvgExporter {
     private final Converter<ImmutableList<Transform>> tx = new CssListConverter<>(new SvgTransformConverter(false));
     @Nullable
     private Function<URI, URI> uriResolver = new UriResolver(null, null);
+    /**
+     * Maps clip nodes to the ids of their clip paths.
+     */
+    @Nonnull
+    private final Map<Node, String> clipPathIds = new IdentityHashMap<>();
+    /**
+     * Maps the content of clip paths to their ids.
+     */
+    @Nonnull
+    private final Map<String, String> clipPathContentIds = new HashMap<>();
 
     /**
      * @param imageUriKey this property is used to retrieve an URL from an
@@ -210,48 +232,155 @@ public class SvgExporter {
         return false;
     }
 
-    public Document toDocument(javafx.scene.Node drawingNode) throws IOException {
+    @Nonnull
+    private Document createDocument() throws IOException {
         try {
             DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
-            Document doc;
             builderFactory.setNamespaceAware(true);
             DocumentBuilder builder = builderFactory.newDocumentBuilder();
             DOMImplementation domImpl = builder.getDOMImplementation();
-            doc = domImpl.createDocument(SVG_NS, namespaceQualifier == null ? "svg" : namespaceQualifier + ":" + "svg", null);
-
+            Document doc = domImpl.createDocument(SVG_NS, namespaceQualifier == null ? "svg" : namespaceQualifier + ":" + "svg", null);
             Element docElement = doc.getDocumentElement();
             docElement.setAttributeNS(XMLNS_NS, "xmlns:" + XLINK_Q, XLINK_NS);
+            return doc;
+        } catch (ParserConfigurationException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Assigns ids to all nodes, and creates the defs element with the paints
+     * and clip paths which are used by the nodes.
+     */
+    @Nonnull
+    private Element createDefs(@Nonnull Document doc, javafx.scene.Node drawingNode) throws IOException {
+        idFactory.reset();
+        clipPathIds.clear();
+        clipPathContentIds.clear();
+        initIdFactoryRecursively(drawingNode);
+        Element defsElement = doc.createElement("defs");
+        writeDefsRecursively(doc, defsElement, drawingNode);
+        return defsElement;
+    }
+
+    public Document toDocument(javafx.scene.Node drawingNode) throws IOException {
+        Document doc = createDocument();
+        Element docElement = doc.getDocumentElement();
+
+        writeProcessingInstructions(doc, drawingNode);
+        String commentText = createFileComment();
+        if (commentText != null) {
+            docElement.getParentNode().insertBefore(doc.createComment(commentText), docElement);
+        }
+
+        Element defsElement = createDefs(doc, drawingNode);
+        if (defsElement.getChildNodes().getLength() > 0) {
+            docElement.appendChild(defsElement);
+        }
+        writeDocumentElementAttributes(docElement, drawingNode);
+        writeNodeRecursively(doc, docElement, drawingNode);
+
+        return doc;
+    }
+
+    public void write(OutputStream out, javafx.scene.Node drawing) throws IOException {
+        write(new StreamResult(out), drawing, null);
+    }
+
+    public void write(Writer out, javafx.scene.Node drawing) throws IOException {
+        write(new StreamResult(out), drawing, null);
+    }
 
-            writeProcessingInstructions(doc, drawingNode);
+    /**
+     * Writes the scene graph as an SVG document to the specified result.
+     * <p>
+     * Unlike {@link #toDocument}, this method does not build a DOM of the
+     * entire document. The defs are written first, and then each node is
+     * converted into a small DOM element, which is written and discarded
+     * immediately.
+     * <p>
+     * The output is identical to the output of
+     * {@link XmlUtil#write(Result, Document)} with the document created by
+     * {@link #toDocument}, if the document element attributes are applied to
+     * that document as well.
+     *
+     * @param result                    the result
+     * @param drawingNode               the scene graph
+     * @param documentElementAttributes sets additional attributes on the
+     *                                  document element, or null
+     * @throws IOException in case of failure
+     */
+    public void write(@Nonnull Result result, javafx.scene.Node drawingNode,
+                      @Nullable Consumer<Element> documentElementAttributes) throws IOException {
+        Document doc = createDocument();
+        Element docElement = doc.getDocumentElement();
+        Element defsElement = createDefs(doc, drawingNode);
+        writeDocumentElementAttributes(docElement, drawingNode);
+        if (documentElementAttributes != null) {
+            documentElementAttributes.accept(docElement);
+        }
+
+        try {
+            TransformerHandler h = XmlUtil.createTransformerHandler(result);
+            h.startDocument();
             String commentText = createFileComment();
             if (commentText != null) {
-                docElement.getParentNode().insertBefore(doc.createComment(commentText), docElement);
+                h.comment(commentText.toCharArray(), 0, commentText.length());
             }
-
-            idFactory.reset();
-            initIdFactoryRecursively(drawingNode);
-            Element defsElement = doc.createElement("defs");
-            writeDefsRecursively(doc, defsElement, drawingNode);
+            writeStartElement(h, docElement);
             if (defsElement.getChildNodes().getLength() > 0) {
-                docElement.appendChild(defsElement);
+                writeElement(h, defsElement);
             }
-            writeDocumentElementAttributes(docElement, drawingNode);
-            writeNodeRecursively(doc, docElement, drawingNode);
-
-            return doc;
-        } catch (ParserConfigurationException ex) {
+            writeNodeRecursively(h, doc, doc.createElement("g"), drawingNode);
+            h.endElement("", "", docElement.getTagName());
+            h.endDocument();
+        } catch (SAXException ex) {
             throw new IOException(ex);
         }
     }
 
-    public void write(OutputStream out, javafx.scene.Node drawing) throws IOException {
-        Document doc = toDocument(drawing);
-        XmlUtil.write(out, doc);
+    /**
+     * Writes the start tag of an element in the same way as a
+     * {@link javax.xml.transform.dom.DOMSource} does: first the namespace
+     * declarations, then the other attributes, and then the namespace of the
+     * element.
+     */
+    private void writeStartElement(@Nonnull ContentHandler h, @Nonnull Element elem) throws SAXException {
+        AttributesImpl atts = new AttributesImpl();
+        NamedNodeMap attributes = elem.getAttributes();
+        for (int i = 0, n = attributes.getLength(); i < n; i++) {
+            Attr attr = (Attr) attributes.item(i);
+            if (attr.getName().startsWith("xmlns")) {
+                atts.addAttribute("", "", attr.getName(), "CDATA", attr.getValue());
+            }
+        }
+        for (int i = 0, n = attributes.getLength(); i < n; i++) {
+            Attr attr = (Attr) attributes.item(i);
+            if (!attr.getName().startsWith("xmlns")) {
+                atts.addAttribute("", "", attr.getName(), "CDATA", attr.getValue());
+            }
+        }
+        if (elem.getNamespaceURI() != null) {
+            atts.addAttribute("", "", "xmlns", "CDATA", elem.getNamespaceURI());
+        }
+        h.startElement("", "", elem.getTagName(), atts);
     }
 
-    public void write(Writer out, javafx.scene.Node drawing) throws IOException {
-        Document doc = toDocument(drawing);
-        XmlUtil.write(out, doc);
+    private void writeElement(@Nonnull ContentHandler h, @Nonnull Element elem) throws SAXException {
+        writeStartElement(h, elem);
+        writeChildNodes(h, elem);
+        h.endElement("", "", elem.getTagName());
+    }
+
+    private void writeChildNodes(@Nonnull ContentHandler h, @Nonnull Element elem) throws SAXException {
+        for (org.w3c.dom.Node child = elem.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) {
+                writeElement(h, (Element) child);
+            } else if (child instanceof org.w3c.dom.Text) {
+                String text = child.getNodeValue();
+                h.characters(text.toCharArray(), 0, text.length());
+            }
+        }
     }
 
     private Element writeArc(Document doc, Element parent, Arc node) {
@@ -333,7 +462,7 @@ public class SvgExporter {
             return;
         }
 
-        String id = idFactory.getId(clip);
+        String id = clipPathIds.get(clip);
         if (id != null) {
             elem.setAttribute("clip-path", "url(#" + id + ")");
         } else {
@@ -347,12 +476,43 @@ public class SvgExporter {
         if (clip == null) {
             return;
         }
-        if (idFactory.getId(clip) == null) {
-            String id = idFactory.createId(clip, "clipPath");
+        if (!clipPathIds.containsKey(clip)) {
             Element elem = doc.createElement("clipPath");
             writeNodeRecursively(doc, elem, clip);
-            elem.setAttribute("id", id);
-            defsNode.appendChild(elem);
+
+            // clips with the same content share the same clip path
+            StringBuilder buf = new StringBuilder();
+            appendContent(buf, elem);
+            String content = buf.toString();
+            String id = clipPathContentIds.get(content);
+            if (id == null) {
+                id = idFactory.createId(clip, "clipPath");
+                elem.setAttribute("id", id);
+                defsNode.appendChild(elem);
+                clipPathContentIds.put(content, id);
+            }
+            clipPathIds.put(clip, id);
+        }
+    }
+
+    /**
+     * Appends the content of an element in a canonical form.
+     */
+    private void appendContent(@Nonnull StringBuilder buf, @Nonnull org.w3c.dom.Node node) {
+        if (node instanceof Element) {
+            buf.append('<').append(node.getNodeName());
+            NamedNodeMap attributes = node.getAttributes();
+            for (int i = 0, n = attributes.getLength(); i < n; i++) {
+                org.w3c.dom.Node attr = attributes.item(i);
+                buf.append(' ').append(attr.getNodeName()).append("=\"").append(attr.getNodeValue()).append('"');
+            }
+            buf.append('>');
+            for (org.w3c.dom.Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                appendContent(buf, child);
+            }
+            buf.append("</>");
+        } else {
+            buf.append(node.getNodeValue());
         }
     }
 
@@ -540,6 +700,62 @@ public class SvgExporter {
         if (isSkipNode(node)) {
             return;
         }
+        Element elem = writeNode(doc, parent, node);
+
+        if (node instanceof Parent) {
+            final Parent pp = (Parent) node;
+            final Element parentElement = elem == null ? parent : elem;
+            for (javafx.scene.Node child : pp.getChildrenUnmodifiable()) {
+                writeNodeRecursively(doc, parentElement, child);
+            }
+        }
+    }
+
+    /**
+     * Writes the node and its descendants to the content handler.
+     *
+     * @param h       the content handler
+     * @param doc     the document for creating elements
+     * @param scratch an empty element, which is used as a temporary parent
+     * @param node    the node
+     */
+    private void writeNodeRecursively(@Nonnull ContentHandler h, Document doc, @Nonnull Element scratch, javafx.scene.Node node) throws IOException, SAXException {
+        if (isSkipNode(node)) {
+            return;
+        }
+        Element elem = writeNode(doc, scratch, node);
+
+        for (org.w3c.dom.Node child = scratch.getFirstChild(); child != null; child = scratch.getFirstChild()) {
+            scratch.removeChild(child);
+            if (child != elem || !(node instanceof Parent)) {
+                writeElement(h, (Element) child);
+            }
+        }
+        if (node instanceof Parent) {
+            if (elem != null) {
+                writeStartElement(h, elem);
+                writeChildNodes(h, elem);
+            }
+            final Parent pp = (Parent) node;
+            for (javafx.scene.Node child : pp.getChildrenUnmodifiable()) {
+                writeNodeRecursively(h, doc, scratch, child);
+            }
+            if (elem != null) {
+                h.endElement("", "", elem.getTagName());
+            }
+        }
+    }
+
+    /**
+     * Writes the node without its children.
+     *
+     * @param doc    the document
+     * @param parent the parent element
+     * @param node   the node
+     * @return the element of the node, or null if the node is omitted
+     */
+    @Nullable
+    private Element writeNode(Document doc, Element parent, javafx.scene.Node node) throws IOException {
         Element elem = null;
         if (node instanceof Shape) {
             elem = writeShape(doc, parent, (Shape) node);
@@ -576,15 +792,7 @@ public class SvgExporter {
             writeTransformAttributes(elem, node);
             writeCompositingAttributes(elem, node);
         }
-
-        if (node instanceof Parent) {
-            final Parent pp = (Parent) node;
-            final Element parentElement = elem == null ? parent : elem;
-            for (javafx.scene.Node child : pp.getChildrenUnmodifiable()) {
-                writeNodeRecursively(doc, parentElement, child);
-            }
-        }
-
+        return elem;
     }
 
     private void writePaintDefs(@Nonnull Document doc, @Nonnull Element defsNode, Paint paint) throws IOException {
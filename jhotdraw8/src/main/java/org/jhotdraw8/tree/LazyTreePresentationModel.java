@@ -0,0 +1,256 @@
+/* @(#)LazyTreePresentationModel.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.tree;
+
+import javafx.collections.ObservableList;
+import javafx.event.Event;
+import javafx.scene.control.TreeItem;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.event.Listener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This model can be used to present a large {@code TreeModel} in a
+ * {@code TreeView} or a {@code TreeTableView}.
+ * <p>
+ * Maps {@code TreeModel} to a {@code TreeItem&lt;E&gt;} hierarchy.
+ * <p>
+ * Unlike {@link SimpleTreePresentationModel}, this model creates the tree
+ * items of the children of a node only when the tree view requests them,
+ * which is usually when the node is expanded. Thus, memory usage and the
+ * time for opening the tree grow with the number of expanded nodes, and not
+ * with the size of the tree model. Method {@link #getTreeItem} looks up the
+ * tree items in an index.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class LazyTreePresentationModel<N> extends AbstractTreePresentationModel<N> {
+
+    /**
+     * Maps each node to its tree item. Contains only the nodes for which a
+     * tree item has been created.
+     */
+    private final Map<N, LazyTreeItem> items = new HashMap<>();
+    private final Listener<TreeModelEvent<N>> modelHandler = new Listener<TreeModelEvent<N>>() {
+        @Override
+        public void handle(TreeModelEvent<N> event) {
+            updating++;
+            try {
+                N f = event.getNode();
+                switch (event.getEventType()) {
+                    case NODE_ADDED_TO_PARENT:
+                        handleNodeAdded(f, event.getParent(), event.getIndex());
+                        break;
+                    case NODE_REMOVED_FROM_PARENT:
+                        handleNodeRemoved(f, event.getParent(), event.getIndex());
+                        break;
+                    case NODE_ADDED_TO_TREE:
+                        break;
+                    case NODE_REMOVED_FROM_TREE:
+                        handleNodeRemovedFromTree(f);
+                        break;
+                    case NODE_CHANGED:
+                        handleNodeInvalidated(f);
+                        break;
+                    case ROOT_CHANGED:
+                        handleRootChanged();
+                        break;
+                    case SUBTREE_NODES_CHANGED:
+                        break;
+                    default:
+                        throw new UnsupportedOperationException(event.getEventType()
+                                + " not supported");
+                }
+            } finally {
+                updating--;
+            }
+        }
+    };
+
+    private boolean reversed = true;
+    private final LazyTreeItem root = new LazyTreeItem(null);
+
+    protected int updating;
+
+    /**
+     * A tree item which creates the tree items of its children on the first
+     * call of {@link #getChildren}.
+     */
+    private class LazyTreeItem extends TreeItem<N> {
+
+        private boolean materialized;
+
+        LazyTreeItem(@Nullable N value) {
+            super(value);
+        }
+
+        @Override
+        public boolean isLeaf() {
+            if (materialized) {
+                return super.isLeaf();
+            }
+            N value = getValue();
+            return value == null || getTreeModel().getChildCount(value) == 0;
+        }
+
+        @Override
+        public ObservableList<TreeItem<N>> getChildren() {
+            ObservableList<TreeItem<N>> children = super.getChildren();
+            if (!materialized) {
+                materialized = true;
+                N value = getValue();
+                if (value != null) {
+                    TreeModel<N> m = getTreeModel();
+                    List<TreeItem<N>> list = new ArrayList<>(m.getChildCount(value));
+                    for (int i = 0, n = m.getChildCount(value); i < n; i++) {
+                        list.add(getOrCreateTreeItem(m.getChild(value, i)));
+                    }
+                    if (reversed) {
+                        Collections.reverse(list);
+                    }
+                    children.setAll(list);
+                }
+            }
+            return children;
+        }
+
+        boolean isMaterialized() {
+            return materialized;
+        }
+
+        /**
+         * Discards the tree items of the children.
+         */
+        void reset() {
+            materialized = false;
+            super.getChildren().clear();
+        }
+
+        /**
+         * Notifies the tree view that the value or the leaf state of this
+         * item has changed.
+         */
+        void fireValueChanged() {
+            Event.fireEvent(this, new TreeModificationEvent<>(valueChangedEvent(), this));
+        }
+    }
+
+    @Nonnull
+    @Override
+    public TreeItem<N> getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the tree item associated to the specified node.
+     *
+     * @param f the node value
+     * @return a TreeItem. Returns null if no tree item has been created for
+     * the node, because its parent has not been expanded yet.
+     */
+    @Nullable
+    @Override
+    public TreeItem<N> getTreeItem(N f) {
+        return items.get(f);
+    }
+
+    @Nonnull
+    private LazyTreeItem getOrCreateTreeItem(N f) {
+        LazyTreeItem item = items.get(f);
+        if (item == null) {
+            item = new LazyTreeItem(f);
+            items.put(f, item);
+        }
+        return item;
+    }
+
+    /**
+     * Returns the number of tree items that have been created.
+     *
+     * @return the number of tree items
+     */
+    public int getTreeItemCount() {
+        return items.size();
+    }
+
+    public N getValue(@Nonnull TreeItem<N> item) {
+        return item.getValue();
+    }
+
+    protected void handleNodeAdded(N f, N parentE, int index) {
+        LazyTreeItem newParent = items.get(parentE);
+        if (newParent == null || !newParent.isMaterialized()) {
+            // the tree item of the child is created when the parent is expanded
+            return;
+        }
+        LazyTreeItem item = getOrCreateTreeItem(f);
+        ObservableList<TreeItem<N>> children = newParent.getChildren();
+        if (reversed) {
+            children.add(children.size() - index, item);
+        } else {
+            children.add(index, item);
+        }
+    }
+
+    protected void handleNodeInvalidated(N f) {
+        LazyTreeItem node = items.get(f);
+        if (node != null) {
+            node.fireValueChanged();
+        }
+    }
+
+    protected void handleNodeRemoved(N f, N parentE, int index) {
+        LazyTreeItem parent = items.get(parentE);
+        if (parent == null || !parent.isMaterialized()) {
+            return;
+        }
+        ObservableList<TreeItem<N>> children = parent.getChildren();
+        if (reversed) {
+            children.remove(children.size() - 1 - index);
+        } else {
+            children.remove(index);
+        }
+    }
+
+    protected void handleNodeRemovedFromTree(N f) {
+        items.remove(f);
+    }
+
+    protected void handleRootChanged() {
+        TreeModel<N> m = getTreeModel();
+        N drawing = m.getRoot();
+        items.clear();
+        root.reset();
+        root.setValue(drawing);
+        if (drawing != null) {
+            items.put(drawing, root);
+        }
+        root.fireValueChanged();
+        if (root.isExpanded()) {
+            root.getChildren();
+        }
+    }
+
+    @Override
+    protected void handleTreeModelChanged(@Nullable TreeModel<N> oldValue, @Nonnull TreeModel<N> newValue) {
+        if (oldValue != null) {
+            oldValue.removeTreeModelListener(modelHandler);
+        }
+        newValue.addTreeModelListener(modelHandler);
+        handleRootChanged();
+    }
+
+    @Override
+    public boolean isUpdating() {
+        return updating > 0;
+    }
+
+}
@@ -44,6 +44,7 @@ public class TreeModelEvent<E> extends Event<TreeModel<E>> {
          * <p>
          * The subtree of figures has become part of the root.
          * This event is fired, before NODE_ADDED_TO_PARENT is fired.
+         * This event is fired for each figure of the subtree.
          */
         NODE_ADDED_TO_TREE,
         /**
@@ -51,6 +52,7 @@ public class TreeModelEvent<E> extends Event<TreeModel<E>> {
          * <p>
          * The subtree of figures is no longer part of the root.
          * This event is fired, after NODE_REMOVED_FROM_PARENT is fired.
+         * This event is fired for each figure of the subtree.
          */
         NODE_REMOVED_FROM_TREE,
         /**
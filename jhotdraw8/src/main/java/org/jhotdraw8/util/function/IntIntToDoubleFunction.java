@@ -0,0 +1,24 @@
+/* @(#)IntIntToDoubleFunction.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.util.function;
+
+/**
+ * IntIntToDoubleFunction.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+@FunctionalInterface
+public interface IntIntToDoubleFunction {
+
+    /**
+     * Applies this function to the given arguments.
+     *
+     * @param t the first function argument
+     * @param u the second function argument
+     * @return the function result
+     */
+    double applyAsDouble(int t, int u);
+
+}
@@ -23,11 +23,14 @@ import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Result;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
@@ -267,6 +270,49 @@ public class XmlUtil {
         }
     }
 
+    /**
+     * Creates a transformer handler which writes SAX events to the specified
+     * result with the default output properties.
+     * <p>
+     * The output is identical to the output of {@link #write(Result, Document)}
+     * for a document with the same content.
+     *
+     * @param result the result
+     * @return the transformer handler
+     * @throws IOException if the transformer handler can not be created
+     */
+    public static TransformerHandler createTransformerHandler(Result result) throws IOException {
+        return createTransformerHandler(result, DEFAULT_PROPERTIES);
+    }
+
+    /**
+     * Creates a transformer handler which writes SAX events to the specified
+     * result.
+     *
+     * @param result           the result
+     * @param outputProperties the output properties, or null
+     * @return the transformer handler
+     * @throws IOException if the transformer handler can not be created
+     */
+    public static TransformerHandler createTransformerHandler(Result result, @Nullable Properties outputProperties) throws IOException {
+        try {
+            final SAXTransformerFactory factory = (SAXTransformerFactory) TransformerFactory.newInstance();
+            TransformerHandler h = factory.newTransformerHandler();
+            Transformer t = h.getTransformer();
+            if (outputProperties != null) {
+                t.setOutputProperties(outputProperties);
+            }
+            // a DOMSource writes the document as not standalone
+            if (outputProperties == null || outputProperties.getProperty(OutputKeys.STANDALONE) == null) {
+                t.setOutputProperty(OutputKeys.STANDALONE, "no");
+            }
+            h.setResult(result);
+            return h;
+        } catch (TransformerConfigurationException ex) {
+            throw new IOException(ex);
+        }
+    }
+
     /**
      * Returns a stream which iterates over the subtree starting at the
      * specified node in preorder sequence.
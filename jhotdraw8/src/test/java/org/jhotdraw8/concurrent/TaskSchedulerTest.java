@@ -0,0 +1,105 @@
+/* @(#)TaskSchedulerTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TaskSchedulerTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class TaskSchedulerTest {
+
+    @Test
+    public void testParallelismIsBounded() throws Exception {
+        TaskScheduler instance = new TaskScheduler(2, 1, 1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(instance.run(TaskScheduler.Category.IO, null, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(5);
+                running.decrementAndGet();
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(2, maxRunning.get());
+        assertEquals(10, instance.getCompletedTaskCount(TaskScheduler.Category.IO));
+        assertEquals(0, instance.getCompletedTaskCount(TaskScheduler.Category.PARSING));
+        assertTrue(instance.getAverageExecutionTime(TaskScheduler.Category.IO) > 0);
+        instance.shutdown();
+    }
+
+    @Test
+    public void testStatisticsAreUpdatedBeforeFutureCompletes() throws Exception {
+        TaskScheduler instance = new TaskScheduler(1, 1, 1);
+        for (int i = 0; i < 1000; i++) {
+            instance.supply(TaskScheduler.Category.PARSING, null, () -> "value").get(10, TimeUnit.SECONDS);
+            assertEquals(i + 1, instance.getCompletedTaskCount(TaskScheduler.Category.PARSING));
+        }
+        instance.shutdown();
+    }
+
+    @Test
+    public void testCancelledWorkStateSkipsQueuedTask() throws Exception {
+        TaskScheduler instance = new TaskScheduler(1, 1, 1);
+        CountDownLatch blocker = new CountDownLatch(1);
+        instance.execute(TaskScheduler.Category.IO, () -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        SimpleWorkState workState = new SimpleWorkState();
+        AtomicBoolean called = new AtomicBoolean();
+        CompletableFuture<String> f = instance.supply(TaskScheduler.Category.IO, workState, () -> {
+            called.set(true);
+            return "value";
+        });
+        assertEquals(1, instance.getQueueDepth(TaskScheduler.Category.IO));
+
+        workState.cancel();
+        blocker.countDown();
+        while (instance.getCompletedTaskCount(TaskScheduler.Category.IO) < 2) {
+            Thread.sleep(1);
+        }
+        assertTrue(f.isCancelled());
+        assertFalse(called.get());
+        instance.shutdown();
+    }
+
+    @Test
+    public void testCancelledFutureCancelsWorkState() throws Exception {
+        TaskScheduler instance = new TaskScheduler(1, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        SimpleWorkState workState = new SimpleWorkState();
+        CompletableFuture<Void> f = instance.run(TaskScheduler.Category.RENDERING, workState, () -> {
+            started.countDown();
+            while (!workState.isCancelled()) {
+                Thread.sleep(1);
+            }
+        });
+        started.await();
+        f.cancel(false);
+        assertTrue(workState.isCancelled());
+        instance.shutdown();
+    }
+}
@@ -0,0 +1,83 @@
+package org.jhotdraw8.css;
+
+import org.jhotdraw8.css.ast.Declaration;
+import org.jhotdraw8.css.ast.Stylesheet;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * StyleRuleIndexTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+class StyleRuleIndexTest {
+
+    private static final String STYLESHEET = ""
+            + "#o1 { id: a; }\n"
+            + ".red { red: a; }\n"
+            + "Car { type: a; }\n"
+            + "* { universal: a; }\n"
+            + "Car.red { typeclass: a; }\n"
+            + "Garage Car { descendant: a; }\n"
+            + "Garage > .red { child: a; }\n"
+            + "Bus, .red { group: a; }\n"
+            + ".blue, #o1 { group2: a; }\n"
+            + "Car { empty: ; }\n"
+            + "Car { type: b; }\n";
+
+    /**
+     * Tests if the applicable declarations are returned ordered by
+     * specificity and source order.
+     *
+     * @param type     the type of the element
+     * @param id       the id of the element
+     * @param clazz    the style class of the element
+     * @param expected the expected declarations
+     */
+    private void doTestCollectApplicableDeclarations(String type, String id, String clazz, String expected) throws Exception {
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Element garage = doc.createElement("Garage");
+        doc.appendChild(garage);
+        Element elem = doc.createElement(type);
+        if (id != null) {
+            elem.setAttribute("id", id);
+        }
+        if (clazz != null) {
+            elem.setAttribute("class", clazz);
+        }
+        garage.appendChild(elem);
+
+        Stylesheet stylesheet = new CssParser().parseStylesheet(STYLESHEET);
+        StyleRuleIndex instance = new StyleRuleIndex(Collections.singletonList(stylesheet));
+        List<Declaration> declarations = instance.collectApplicableDeclarations(new DocumentSelectorModel(), elem);
+
+        String actual = declarations.stream()
+                .map(d -> d.getPropertyName() + ":" + d.getTerms().get(0).fromToken())
+                .collect(Collectors.joining(" "));
+        assertEquals(expected, actual);
+    }
+
+    @TestFactory
+    public List<DynamicTest> testCollectApplicableDeclarationsFactory() {
+        return Arrays.asList(
+                dynamicTest("1", () -> doTestCollectApplicableDeclarations("Truck", null, null, "universal:a")),
+                dynamicTest("2", () -> doTestCollectApplicableDeclarations("Car", null, null, "universal:a type:a type:b descendant:a")),
+                dynamicTest("3", () -> doTestCollectApplicableDeclarations("Truck", null, "red", "universal:a red:a group:a child:a")),
+                dynamicTest("4", () -> doTestCollectApplicableDeclarations("Car", null, "red", "universal:a type:a type:b descendant:a red:a group:a typeclass:a child:a")),
+                dynamicTest("5", () -> doTestCollectApplicableDeclarations("Bus", "o1", null, "universal:a group:a id:a group2:a")),
+                dynamicTest("6", () -> doTestCollectApplicableDeclarations("Bus", "o1", "blue", "universal:a group:a group2:a id:a"))
+        );
+    }
+}
@@ -0,0 +1,187 @@
+/* @(#)FigureIndexTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw;
+
+import javafx.geometry.Bounds;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.figure.SimpleDrawing;
+import org.jhotdraw8.draw.figure.SimpleGroupFigure;
+import org.jhotdraw8.draw.figure.SimpleLayer;
+import org.jhotdraw8.draw.figure.SimpleRectangleFigure;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * FigureIndexTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class FigureIndexTest {
+
+    @Test
+    public void testScrollFiguresOutOfViewAndBack() {
+        SimpleDrawing drawing = new SimpleDrawing();
+        SimpleLayer layer = new SimpleLayer();
+        drawing.getChildren().add(layer);
+        SimpleRectangleFigure near = new SimpleRectangleFigure(0, 0, 10, 10);
+        SimpleRectangleFigure far = new SimpleRectangleFigure(1000, 0, 10, 10);
+        SimpleGroupFigure group = new SimpleGroupFigure();
+        SimpleRectangleFigure farChild = new SimpleRectangleFigure(1020, 0, 10, 10);
+        group.getChildren().add(farChild);
+        layer.getChildren().addAll(near, far, group);
+
+        // the layer attaches the nodes of the children which intersect the
+        // visible rectangle, the nodes of the descendants stay attached to
+        // the nodes of their parents
+        Set<Figure> attached = new HashSet<>();
+        FigureIndex instance = new FigureIndex();
+        Function<Figure, Bounds> boundsFunction = f -> attached.contains(f.getParent() instanceof SimpleLayer ? f : f.getParent())
+                ? f.getBoundsInWorld() : null;
+
+        // all figures are visible
+        Set<Figure> before = new HashSet<>(attached);
+        attached.addAll(layer.getChildren());
+        instance.invalidateAttachedChildren(before, attached);
+        assertTrue(instance.isDirty());
+        instance.validate(boundsFunction);
+        assertFalse(instance.isDirty());
+        assertEquals(setOf(near, far, group, farChild), findIntersecting(instance, 0, 0, 2000, 100));
+        assertTrue(instance.getConnectorIndex().contains(far));
+
+        // scroll the far figures out of view
+        before = new HashSet<>(attached);
+        attached.remove(far);
+        attached.remove(group);
+        instance.invalidateAttachedChildren(before, attached);
+        instance.validate(boundsFunction);
+        assertEquals(setOf(near), findIntersecting(instance, 0, 0, 2000, 100));
+        assertFalse(instance.contains(far));
+        assertFalse(instance.contains(farChild));
+        assertFalse(instance.getConnectorIndex().contains(far));
+        assertFalse(instance.getConnectorIndex().contains(farChild));
+
+        // scroll back
+        before = new HashSet<>(attached);
+        attached.add(far);
+        attached.add(group);
+        instance.invalidateAttachedChildren(before, attached);
+        instance.validate(boundsFunction);
+        assertEquals(setOf(near, far, group, farChild), findIntersecting(instance, 0, 0, 2000, 100));
+        assertTrue(instance.getConnectorIndex().contains(far));
+        assertTrue(instance.getConnectorIndex().contains(farChild));
+    }
+
+    @Test
+    public void testRemoveReleasedFigure() {
+        SimpleRectangleFigure a = new SimpleRectangleFigure(0, 0, 10, 10);
+        SimpleRectangleFigure b = new SimpleRectangleFigure(20, 0, 10, 10);
+        FigureIndex instance = new FigureIndex();
+        instance.invalidate(a);
+        instance.invalidate(b);
+        instance.validate(Figure::getBoundsInWorld);
+        assertEquals(setOf(a, b), findIntersecting(instance, 0, 0, 100, 100));
+
+        // the node of b is released before the index has been validated
+        instance.invalidate(b);
+        instance.remove(b);
+        assertFalse(instance.isDirty());
+        assertFalse(instance.contains(b));
+        assertFalse(instance.getConnectorIndex().contains(b));
+        assertEquals(setOf(a), findIntersecting(instance, 0, 0, 100, 100));
+    }
+
+    @Test
+    public void testAncestorBoundsFollowChild() {
+        SimpleDrawing drawing = new SimpleDrawing();
+        SimpleLayer layer = new SimpleLayer();
+        SimpleGroupFigure group = new SimpleGroupFigure();
+        SimpleRectangleFigure child = new SimpleRectangleFigure(0, 0, 10, 10);
+        drawing.getChildren().add(layer);
+        layer.getChildren().add(group);
+        group.getChildren().add(child);
+        FigureIndex instance = new FigureIndex();
+        for (Figure f : layer.preorderIterable()) {
+            instance.invalidate(f);
+        }
+        instance.validate(Figure::getBoundsInWorld);
+        assertTrue(findIntersecting(instance, 500, 500, 510, 510).isEmpty());
+
+        // only the child is invalidated
+        child.reshapeInLocal(500, 500, 10, 10);
+        instance.invalidate(child);
+        instance.validate(Figure::getBoundsInWorld);
+        assertEquals(setOf(layer, group, child), findIntersecting(instance, 500, 500, 510, 510));
+    }
+
+    @Test
+    public void testZOrder() {
+        SimpleDrawing drawing = new SimpleDrawing();
+        SimpleLayer back = new SimpleLayer();
+        SimpleLayer front = new SimpleLayer();
+        SimpleRectangleFigure a = new SimpleRectangleFigure(0, 0, 10, 10);
+        SimpleRectangleFigure b = new SimpleRectangleFigure(0, 0, 10, 10);
+        SimpleGroupFigure group = new SimpleGroupFigure();
+        SimpleRectangleFigure c = new SimpleRectangleFigure(0, 0, 10, 10);
+        SimpleRectangleFigure orphan = new SimpleRectangleFigure(0, 0, 10, 10);
+        FigureIndex instance = new FigureIndex();
+        addChild(instance, drawing, back);
+        addChild(instance, drawing, front);
+        addChild(instance, back, a);
+        addChild(instance, back, group);
+        addChild(instance, group, c);
+        addChild(instance, front, b);
+
+        List<Figure> figures = new ArrayList<>(Arrays.asList(orphan, a, c, back, group, b, front));
+        figures.sort(instance.getZOrderComparator(drawing));
+        assertEquals(Arrays.asList(front, b, back, group, c, a, orphan), figures);
+
+        // insert a figure in front of a
+        SimpleRectangleFigure d = new SimpleRectangleFigure(0, 0, 10, 10);
+        back.getChildren().add(1, d);
+        instance.childAdded(d);
+        figures.add(d);
+        figures.sort(instance.getZOrderComparator(drawing));
+        assertEquals(Arrays.asList(front, b, back, group, c, d, a, orphan), figures);
+
+        // remove the group, the order of its siblings does not change
+        back.getChildren().remove(group);
+        instance.childRemoved(group);
+        figures.sort(instance.getZOrderComparator(drawing));
+        // figures which are not in the drawing come last
+        assertEquals(Arrays.asList(front, b, back, d, a), figures.subList(0, 5));
+
+        // append a figure
+        SimpleRectangleFigure e = new SimpleRectangleFigure(0, 0, 10, 10);
+        addChild(instance, back, e);
+        figures = new ArrayList<>(Arrays.asList(a, d, e, back));
+        figures.sort(instance.getZOrderComparator(drawing));
+        assertEquals(Arrays.asList(back, e, d, a), figures);
+    }
+
+    private static void addChild(FigureIndex instance, Figure parent, Figure child) {
+        parent.getChildren().add(child);
+        instance.childAdded(child);
+    }
+
+    private static Set<Figure> findIntersecting(FigureIndex instance, double minX, double minY, double maxX, double maxY) {
+        Set<Figure> found = new HashSet<>();
+        instance.findIntersecting(minX, minY, maxX, maxY, found::add);
+        return found;
+    }
+
+    private static Set<Figure> setOf(Figure... figures) {
+        return new HashSet<>(Arrays.asList(figures));
+    }
+}
@@ -0,0 +1,89 @@
+/* @(#)HandleManagerTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw;
+
+import javafx.scene.Node;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.figure.SimpleRectangleFigure;
+import org.jhotdraw8.draw.handle.Handle;
+import org.jhotdraw8.draw.handle.HandleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HandleManagerTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class HandleManagerTest {
+
+    @Test
+    public void testSetSelectionKeepsHandlesOfFiguresWithSameRole() {
+        List<Node> pane = new ArrayList<>();
+        HandleManager instance = new HandleManager(pane);
+        Figure a = new SimpleRectangleFigure(0, 0, 10, 10);
+        Figure b = new SimpleRectangleFigure(20, 0, 10, 10);
+        Figure c = new SimpleRectangleFigure(40, 0, 10, 10);
+        Figure d = new SimpleRectangleFigure(60, 0, 10, 10);
+
+        instance.setSelection(Arrays.asList(a, b, c), HandleType.MOVE, HandleType.SELECT, HandleType.SELECT);
+        List<Handle> ha = instance.getHandles(a);
+        List<Handle> hb = instance.getHandles(b);
+        List<Handle> hc = instance.getHandles(c);
+        assertTrue(ha.size() > hb.size(), "anchor has additional handles");
+        assertEquals(ha.size(), hc.size(), "lead has additional handles");
+
+        // the lead changes from c to d
+        instance.setSelection(Arrays.asList(a, b, c, d), HandleType.MOVE, HandleType.SELECT, HandleType.SELECT);
+        assertSame(ha, instance.getHandles(a));
+        assertSame(hb, instance.getHandles(b));
+        assertNotSame(hc, instance.getHandles(c));
+        assertEquals(hb.size(), instance.getHandles(c).size());
+
+        // deselected figures have no handles
+        instance.setSelection(Collections.singletonList(b), HandleType.MOVE, HandleType.SELECT, HandleType.SELECT);
+        assertTrue(instance.getHandles(a).isEmpty());
+        assertSame(hb, instance.getHandles(b));
+        assertEquals(Collections.singleton(b), instance.getCreatedHandles().keySet());
+
+        // a new handle type recreates all handles
+        instance.setSelection(Collections.singletonList(b), HandleType.RESIZE, HandleType.SELECT, HandleType.SELECT);
+        assertNotSame(hb, instance.getHandles(b));
+        assertTrue(pane.isEmpty());
+    }
+
+    @Test
+    public void testEvictsHandlesOfLeastRecentlyShownFigures() {
+        List<Node> pane = new ArrayList<>();
+        HandleManager instance = new HandleManager(pane);
+        List<Figure> selection = new ArrayList<>();
+        for (int i = 0; i < HandleManager.MAX_HIDDEN_FIGURES + 10; i++) {
+            selection.add(new SimpleRectangleFigure(i * 20, 0, 10, 10));
+        }
+        instance.setSelection(selection, HandleType.MOVE, null, null);
+        for (Figure f : selection) {
+            instance.getHandles(f);
+        }
+        List<Handle> h0 = instance.getHandles(selection.get(0));
+
+        instance.evictHiddenHandles();
+        assertEquals(HandleManager.MAX_HIDDEN_FIGURES, instance.getCreatedHandles().size());
+        assertTrue(instance.getCreatedHandles().containsKey(selection.get(0)), "recently used handles are kept");
+        for (int i = 1; i <= 10; i++) {
+            assertFalse(instance.getCreatedHandles().containsKey(selection.get(i)), "least recently used handles are evicted");
+        }
+        assertSame(h0, instance.getHandles(selection.get(0)));
+    }
+}
@@ -0,0 +1,124 @@
+/* @(#)ConnectorIndexTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.connector;
+
+import javafx.geometry.Point2D;
+import org.jhotdraw8.draw.figure.ConnectableFigure;
+import org.jhotdraw8.draw.figure.SimpleEllipseFigure;
+import org.jhotdraw8.draw.figure.SimpleLineConnectionFigure;
+import org.jhotdraw8.draw.figure.SimpleRectangleFigure;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ConnectorIndexTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class ConnectorIndexTest {
+
+    @Test
+    public void testFindNearestAnchor() {
+        ConnectorIndex instance = new ConnectorIndex(10);
+        SimpleRectangleFigure rect = new SimpleRectangleFigure(0, 0, 100, 50);
+        SimpleEllipseFigure ellipse = new SimpleEllipseFigure(200, 200, 20, 20);
+        instance.put(rect);
+        instance.put(ellipse);
+
+        ConnectorIndex.Anchor a = instance.findNearestAnchor(98, 27, 5, x -> true);
+        assertNotNull(a);
+        assertSame(rect, a.getFigure());
+        assertTrue(a.getConnector() instanceof RectangleConnector);
+        assertEquals(100, a.getX(), 1e-9);
+        assertEquals(25, a.getY(), 1e-9);
+
+        a = instance.findNearestAnchor(201, 202, 5, x -> true);
+        assertNotNull(a);
+        assertSame(ellipse, a.getFigure());
+        assertTrue(a.getConnector() instanceof EllipseConnector);
+
+        assertNull(instance.findNearestAnchor(150, 150, 5, x -> true));
+        assertNull(instance.findNearestAnchor(98, 27, 5, x -> x.getFigure() != rect));
+    }
+
+    @Test
+    public void testPutUpdatesFigure() {
+        ConnectorIndex instance = new ConnectorIndex(10);
+        SimpleRectangleFigure rect = new SimpleRectangleFigure(0, 0, 100, 50);
+        instance.put(rect);
+
+        rect.reshapeInLocal(300, 300, 100, 50);
+        instance.put(rect);
+        assertEquals(1, instance.size());
+        assertNull(instance.findNearestAnchor(0, 0, 5, x -> true));
+        assertNotNull(instance.findNearestAnchor(300, 300, 5, x -> true));
+
+        assertTrue(instance.remove(rect));
+        assertNull(instance.findNearestAnchor(300, 300, 5, x -> true));
+        assertEquals(0, instance.size());
+    }
+
+    @Test
+    public void testFindFiguresContaining() {
+        ConnectorIndex instance = new ConnectorIndex(10);
+        SimpleRectangleFigure small = new SimpleRectangleFigure(0, 0, 20, 20);
+        SimpleRectangleFigure large = new SimpleRectangleFigure(-500, -500, 1000, 1000);
+        instance.put(small);
+        instance.put(large);
+
+        List<ConnectableFigure> found = new ArrayList<>();
+        instance.findFiguresContaining(10, 10, found::add);
+        assertEquals(2, found.size());
+
+        found.clear();
+        instance.findFiguresContaining(100, 100, found::add);
+        assertEquals(1, found.size());
+        assertSame(large, found.get(0));
+    }
+
+    @Test
+    public void testFindConnectionTargetRespectsZOrder() {
+        ConnectorIndex instance = new ConnectorIndex(10);
+        SimpleRectangleFigure back = new SimpleRectangleFigure(0, 0, 100, 50);
+        SimpleRectangleFigure front = new SimpleRectangleFigure(80, 10, 60, 30);
+        instance.put(back);
+        instance.put(front);
+        SimpleLineConnectionFigure line = new SimpleLineConnectionFigure();
+        List<ConnectableFigure> zOrder = Arrays.asList(front, back);
+        Comparator<ConnectableFigure> frontToBack = Comparator.comparingInt(zOrder::indexOf);
+
+        // the anchor of the back figure at (100,25) is covered by the front figure
+        Point2D p = new Point2D(99, 26);
+        ConnectionTarget target = instance.findConnectionTarget(p, p, 5, line, f -> true, frontToBack);
+        assertNotNull(target);
+        assertSame(front, target.getFigure());
+
+        // the anchor of the back figure at (0,25) is not covered
+        p = new Point2D(2, 26);
+        target = instance.findConnectionTarget(p, p, 5, line, f -> true, frontToBack);
+        assertNotNull(target);
+        assertSame(back, target.getFigure());
+        assertEquals(0, target.getConnector().getPositionInWorld(line, back).getX(), 1e-9);
+
+        // a filtered figure is not hit
+        p = new Point2D(99, 26);
+        target = instance.findConnectionTarget(p, p, 5, line, f -> f != front, frontToBack);
+        assertNotNull(target);
+        assertSame(back, target.getFigure());
+
+        p = new Point2D(300, 300);
+        assertNull(instance.findConnectionTarget(p, p, 5, line, f -> true, frontToBack));
+    }
+}
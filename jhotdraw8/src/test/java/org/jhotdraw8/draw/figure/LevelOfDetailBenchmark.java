@@ -0,0 +1,95 @@
+/* @(#)LevelOfDetailBenchmark.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.figure;
+
+import javafx.scene.Node;
+import org.jhotdraw8.collection.ImmutableList;
+import org.jhotdraw8.draw.render.RenderContext;
+import org.jhotdraw8.draw.render.SimpleRenderContext;
+import org.jhotdraw8.geom.BezierNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the time for updating the nodes of an overview of a large
+ * drawing, with and without level-of-detail rendering.
+ * <p>
+ * This is not a unit test. Run it with
+ * {@code java -Xmx3g org.jhotdraw8.draw.figure.LevelOfDetailBenchmark [figureCount]}.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class LevelOfDetailBenchmark {
+
+    private final static int RUNS = 5;
+    private final static double OVERVIEW_SCALE = 0.02;
+
+    public static void main(String[] args) {
+        int count = args.length == 0 ? 100_000 : Integer.parseInt(args[0]);
+        List<Figure> figures = createFigures(count);
+        List<Node> nodes = new ArrayList<>(count);
+        for (Figure f : figures) {
+            nodes.add(f.createNode(null));
+        }
+        System.out.println("figures: " + count + ", scale: " + OVERVIEW_SCALE);
+
+        for (int run = 0; run < RUNS; run++) {
+            long full = update(figures, nodes, 0.0);
+            long simplified = update(figures, nodes, 4.0);
+            System.out.printf("run %d: full %6d ms, simplified %6d ms, speedup %5.1f%n", run,
+                    full / 1_000_000, simplified / 1_000_000, (double) full / simplified);
+        }
+    }
+
+    private static long update(List<Figure> figures, List<Node> nodes, double threshold) {
+        SimpleRenderContext ctx = new SimpleRenderContext();
+        ctx.set(RenderContext.RENDER_SCALE, OVERVIEW_SCALE);
+        ctx.set(RenderContext.DETAIL_THRESHOLD, threshold);
+        long time = System.nanoTime();
+        for (int i = 0, n = figures.size(); i < n; i++) {
+            figures.get(i).updateNode(ctx, nodes.get(i));
+        }
+        return System.nanoTime() - time;
+    }
+
+    private static List<Figure> createFigures(int count) {
+        Random rnd = new Random(0);
+        List<Figure> figures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double x = rnd.nextDouble() * 10_000;
+            double y = rnd.nextDouble() * 10_000;
+            switch (i % 3) {
+                case 0: {
+                    List<BezierNode> nodes = new ArrayList<>();
+                    for (int j = 0; j < 40; j++) {
+                        nodes.add(new BezierNode(BezierNode.C0C1_MASK, false, false, x + j * 2, y + rnd.nextDouble() * 40,
+                                x + j * 2 - 1, y + rnd.nextDouble() * 40, x + j * 2 + 1, y + rnd.nextDouble() * 40));
+                    }
+                    SimpleBezierFigure f = new SimpleBezierFigure();
+                    f.set(SimpleBezierFigure.PATH, ImmutableList.ofCollection(nodes));
+                    figures.add(f);
+                    break;
+                }
+                case 1: {
+                    SimpleLineConnectionWithMarkersFigure f = new SimpleLineConnectionWithMarkersFigure(x, y, x + 80, y + 40);
+                    f.set(StartMarkerableFigure.MARKER_START_SHAPE, "M0,0 L10,5 L10,-5 Z");
+                    f.set(EndMarkerableFigure.MARKER_END_SHAPE, "M0,0 L10,5 L10,-5 Z");
+                    figures.add(f);
+                    break;
+                }
+                default: {
+                    SimpleCombinedPathFigure f = new SimpleCombinedPathFigure();
+                    f.addChild(new SimpleEllipseFigure(x, y, 60, 60));
+                    f.addChild(new SimpleEllipseFigure(x + 30, y + 10, 60, 60));
+                    figures.add(f);
+                    break;
+                }
+            }
+        }
+        return figures;
+    }
+}
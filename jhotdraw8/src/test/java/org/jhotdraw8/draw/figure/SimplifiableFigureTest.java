@@ -0,0 +1,128 @@
+/* @(#)SimplifiableFigureTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.figure;
+
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Text;
+import org.jhotdraw8.collection.ImmutableList;
+import org.jhotdraw8.draw.render.RenderContext;
+import org.jhotdraw8.draw.render.SimpleRenderContext;
+import org.jhotdraw8.geom.BezierNode;
+import org.jhotdraw8.svg.SvgExporter;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SimplifiableFigureTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class SimplifiableFigureTest {
+
+    private static SimpleRenderContext createRenderContext(double scale, double threshold) {
+        SimpleRenderContext ctx = new SimpleRenderContext();
+        ctx.set(RenderContext.RENDER_SCALE, scale);
+        ctx.set(RenderContext.DETAIL_THRESHOLD, threshold);
+        return ctx;
+    }
+
+    private static SimpleBezierFigure createWave(int nodeCount) {
+        List<BezierNode> nodes = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            nodes.add(new BezierNode(i * 100.0 / nodeCount, 50 + 50 * Math.sin(i * 0.1)));
+        }
+        SimpleBezierFigure f = new SimpleBezierFigure();
+        f.set(SimpleBezierFigure.PATH, ImmutableList.ofCollection(nodes));
+        return f;
+    }
+
+    @Test
+    public void testIsSimplified() {
+        SimpleBezierFigure f = createWave(10);
+        assertFalse(f.isSimplified(new SimpleRenderContext()));
+        assertFalse(f.isSimplified(createRenderContext(1.0, 4.0)));
+        assertFalse(f.isSimplified(createRenderContext(0.01, 0.0)));
+        assertTrue(f.isSimplified(createRenderContext(0.01, 4.0)));
+    }
+
+    @Test
+    public void testBezierFigureIsDecimated() {
+        SimpleBezierFigure f = createWave(1000);
+        Path full = (Path) f.createNode(null);
+        f.updateNode(createRenderContext(0.01, 0.0), full);
+        assertEquals(1000, full.getElements().size());
+
+        Path simplified = (Path) f.createNode(null);
+        f.updateNode(createRenderContext(0.01, 4.0), simplified);
+        assertTrue(simplified.getElements().size() <= 3, "elements: " + simplified.getElements().size());
+    }
+
+    @Test
+    public void testMarkersAreOmitted() {
+        SimpleLineConnectionWithMarkersFigure f = new SimpleLineConnectionWithMarkersFigure(0, 0, 100, 0);
+        f.set(StartMarkerableFigure.MARKER_START_SHAPE, "M0,0 L10,5 L10,-5 Z");
+        Group full = (Group) f.createNode(null);
+        f.updateNode(createRenderContext(1.0, 4.0), full);
+        assertTrue(full.getChildren().get(1).isVisible());
+
+        Group simplified = (Group) f.createNode(null);
+        f.updateNode(createRenderContext(0.01, 4.0), simplified);
+        assertFalse(simplified.getChildren().get(1).isVisible());
+        assertTrue(simplified.getChildren().get(0).isVisible());
+    }
+
+    @Test
+    public void testCombinedPathIsReplacedByBoundingBox() {
+        SimpleCombinedPathFigure f = new SimpleCombinedPathFigure();
+        f.addChild(new SimpleRectangleFigure(0, 0, 60, 60));
+        f.addChild(new SimpleRectangleFigure(40, 40, 60, 60));
+        Node node = f.createNode(null);
+        f.updateNode(createRenderContext(0.01, 4.0), node);
+        assertEquals(5, ((Path) node).getElements().size());
+    }
+
+    @Test
+    public void testTextNodeHasNoGreekingNodesWhenNotSimplified() throws IOException {
+        SimpleTextFigure f = new SimpleTextFigure(5, 6, "Hello");
+        SimpleRenderContext ctx = new SimpleRenderContext();
+        Node node = f.createNode(ctx);
+        assertTrue(node instanceof Text);
+        assertTrue(f.isNodeUpdatable(ctx, node));
+        assertFalse(f.isNodeUpdatable(ctx, new Rectangle()));
+
+        SimpleLabelFigure label = new SimpleLabelFigure();
+        assertEquals(2, ((Group) label.createNode(ctx)).getChildren().size());
+    }
+
+    /**
+     * The SVG export does not skip invisible nodes. Therefore a text figure
+     * must not have greeking nodes when it is not simplified.
+     * <p>
+     * This test needs text layout, and thus the native font libraries of
+     * JavaFX.
+     */
+    @Test
+    public void testExportedTextHasNoGreekingNodes() throws IOException {
+        SimpleTextFigure f = new SimpleTextFigure(5, 6, "Hello");
+        Node node = f.createNode(new SimpleRenderContext());
+        SvgExporter exporter = new SvgExporter(null, null);
+        exporter.setSkipInvisibleNodes(false);
+        Document doc = exporter.toDocument(new Group(node));
+        assertEquals(1, doc.getElementsByTagName("text").getLength());
+        assertEquals(0, doc.getElementsByTagName("rect").getLength());
+        assertEquals(1, doc.getElementsByTagName("g").getLength());
+    }
+}
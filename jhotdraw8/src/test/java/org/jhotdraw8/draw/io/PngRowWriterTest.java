@@ -0,0 +1,64 @@
+/* @(#)PngRowWriterTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.io;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * PngRowWriterTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class PngRowWriterTest {
+
+    @Test
+    public void testWriteRowsInBands() throws IOException {
+        int width = 301;
+        int height = 203;
+        int[] argb = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                argb[y * width + x] = ((x * 7 + y) & 0xff) << 24 | (x & 0xff) << 16 | (y & 0xff) << 8 | ((x ^ y) & 0xff);
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PngRowWriter instance = new PngRowWriter(out, width, height, 300.0);
+        for (int y = 0; y < height; y += 64) {
+            instance.writeRows(argb, y * width, width, Math.min(64, height - y));
+        }
+        instance.finish();
+
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ImageReader reader = ImageIO.getImageReaders(in).next();
+            reader.setInput(in);
+            BufferedImage image = reader.read(0);
+            assertEquals(width, image.getWidth());
+            assertEquals(height, image.getHeight());
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    assertEquals(argb[y * width + x], image.getRGB(x, y), "x=" + x + " y=" + y);
+                }
+            }
+
+            IIOMetadata metadata = reader.getImageMetadata(0);
+            IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree("javax_imageio_1.0");
+            IIOMetadataNode pixelSize = (IIOMetadataNode) root.getElementsByTagName("HorizontalPixelSize").item(0);
+            assertEquals(25.4 / 300.0, Double.parseDouble(pixelSize.getAttribute("value")), 1e-4);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/* @(#)SimpleBinaryIOTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.io;
+
+import org.jhotdraw8.collection.ImmutableList;
+import org.jhotdraw8.draw.figure.Drawing;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.figure.HideableFigure;
+import org.jhotdraw8.draw.figure.LineConnectingFigure;
+import org.jhotdraw8.draw.figure.SimpleDrawing;
+import org.jhotdraw8.draw.figure.SimpleGroupFigure;
+import org.jhotdraw8.draw.figure.SimpleLayer;
+import org.jhotdraw8.draw.figure.SimpleLineConnectionFigure;
+import org.jhotdraw8.draw.figure.SimpleRectangleFigure;
+import org.jhotdraw8.draw.figure.SimpleTextFigure;
+import org.jhotdraw8.draw.figure.StyleableFigure;
+import org.jhotdraw8.draw.model.SimpleDrawingModel;
+import org.jhotdraw8.io.IdFactory;
+import org.jhotdraw8.xml.XmlUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SimpleBinaryIOTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class SimpleBinaryIOTest {
+
+    private final static URI DOCUMENT_HOME = URI.create("file:/home/");
+
+    private static Drawing createDrawing() {
+        SimpleDrawing drawing = new SimpleDrawing();
+        drawing.set(SimpleXmlIO.XML_HEAD_COMMENT_KEY, Collections.singletonList(" head "));
+        drawing.set(SimpleXmlIO.XML_EPILOG_COMMENT_KEY, Collections.singletonList(" epilog "));
+        SimpleLayer layer = new SimpleLayer();
+        drawing.addChild(layer);
+
+        // the connection refers to a figure in a hidden layer
+        SimpleLineConnectionFigure line = new SimpleLineConnectionFigure(0, 0, 50, 50);
+        layer.addChild(line);
+        layer.addChild(new SimpleTextFigure(5, 6, "Hello <&> World"));
+
+        SimpleLayer hidden = new SimpleLayer();
+        hidden.set(HideableFigure.VISIBLE, false);
+        drawing.addChild(hidden);
+        SimpleGroupFigure group = new SimpleGroupFigure();
+        group.set(SimpleXmlIO.XML_BODY_COMMENT_KEY, Collections.singletonList(" body "));
+        hidden.addChild(group);
+        for (int i = 0; i < 10; i++) {
+            SimpleRectangleFigure rect = new SimpleRectangleFigure(i, 20, 30, 40);
+            rect.set(StyleableFigure.STYLE_CLASS, ImmutableList.of("a", "b"));
+            group.addChild(rect);
+        }
+        line.set(LineConnectingFigure.END_TARGET, group.getChild(0));
+        return drawing;
+    }
+
+    private static String writeWithXml(Drawing drawing) throws IOException {
+        IdFactory idFactory = new SimpleFigureIdFactory();
+        SimpleXmlIO io = new SimpleXmlIO(new DefaultFigureFactory(idFactory), idFactory, null, null);
+        StringWriter w = new StringWriter();
+        XmlUtil.write(w, io.toDocument(drawing));
+        return w.toString();
+    }
+
+    private static byte[] writeWithBinary(Drawing drawing) throws IOException {
+        IdFactory idFactory = new SimpleFigureIdFactory();
+        SimpleBinaryWriter io = new SimpleBinaryWriter(new DefaultFigureFactory(idFactory), idFactory);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        io.write(out, drawing, null);
+        return out.toByteArray();
+    }
+
+    private static byte[] writeWithStax(Drawing drawing) throws IOException {
+        IdFactory idFactory = new SimpleFigureIdFactory();
+        SimpleXmlStaxWriter io = new SimpleXmlStaxWriter(new DefaultFigureFactory(idFactory), idFactory);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        io.write(out, drawing, null);
+        return out.toByteArray();
+    }
+
+    private static Drawing readWithStax(byte[] bytes, URI documentHome) throws IOException {
+        IdFactory idFactory = new SimpleFigureIdFactory();
+        SimpleXmlStaxReader io = new SimpleXmlStaxReader(new DefaultFigureFactory(idFactory), idFactory, null);
+        return (Drawing) io.read(new ByteArrayInputStream(bytes), null, documentHome, null);
+    }
+
+    private static SimpleBinaryReader createReader() {
+        IdFactory idFactory = new SimpleFigureIdFactory();
+        return new SimpleBinaryReader(new DefaultFigureFactory(idFactory), idFactory);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Drawing drawing = createDrawing();
+        drawing.set(Drawing.DOCUMENT_HOME, DOCUMENT_HOME);
+        String expected = writeWithXml(drawing);
+        byte[] bytes = writeWithBinary(drawing);
+        Drawing actual = (Drawing) createReader().read(new ByteArrayInputStream(bytes), null, DOCUMENT_HOME, null);
+        assertEquals(expected, writeWithXml(actual));
+        assertTrue(bytes.length < expected.getBytes(StandardCharsets.UTF_8).length);
+
+        Figure line = actual.getChild(0).getChild(0);
+        assertSame(actual.getChild(1).getChild(0).getChild(0), line.get(LineConnectingFigure.END_TARGET));
+        assertEquals("Hello <&> World", actual.getChild(0).getChild(1).get(SimpleTextFigure.TEXT));
+    }
+
+    @Test
+    public void testDeferredHiddenLayer() throws IOException {
+        Path file = Files.createTempFile("SimpleBinaryIOTest", ".jhdb");
+        try {
+            Drawing drawing = createDrawing();
+            String expected = writeWithXml(drawing);
+            Files.write(file, writeWithBinary(drawing));
+
+            SimpleBinaryReader reader = createReader();
+            reader.setLoadHiddenLayers(false);
+            Drawing actual = (Drawing) reader.read(file, null, null);
+            Figure hidden = actual.getChild(1);
+            assertTrue(reader.isDeferred(hidden));
+            assertTrue(hidden.getChildren().isEmpty());
+            assertSame(null, actual.getChild(0).getChild(0).get(LineConnectingFigure.END_TARGET));
+
+            SimpleDrawingModel model = new SimpleDrawingModel();
+            model.setDrawing(actual);
+            reader.loadDeferredChildren(hidden, model);
+            assertFalse(reader.isDeferred(hidden));
+            assertEquals(1, hidden.getChildren().size());
+            assertSame(hidden.getChild(0).getChild(0), actual.getChild(0).getChild(0).get(LineConnectingFigure.END_TARGET));
+            assertEquals(expected, writeWithXml(actual).replace(" xml:base=\"" + file.getParent().toUri() + "\"", ""));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testSaveWhileDeferred() throws IOException {
+        Path file = Files.createTempFile("SimpleBinaryIOTest", ".jhdb");
+        try {
+            Drawing drawing = createDrawing();
+            String expected = writeWithXml(drawing);
+            Files.write(file, writeWithBinary(drawing));
+
+            List<Figure> converted = new ArrayList<>();
+            IdFactory idFactory = new SimpleFigureIdFactory();
+            SimpleBinaryReader reader = new SimpleBinaryReader(new DefaultFigureFactory(idFactory) {
+                @Override
+                public Drawing fromExternalDrawing(Drawing external) throws IOException {
+                    external.preorderIterable().forEach(converted::add);
+                    return external;
+                }
+            }, idFactory);
+            reader.setLoadHiddenLayers(false);
+            Drawing actual = (Drawing) reader.read(file, null, null);
+            Figure hidden = actual.getChild(1);
+            assertThrows(IOException.class, () -> writeWithBinary(actual), "deferred children must not be dropped");
+            assertThrows(IOException.class, () -> writeWithXml(actual), "deferred children must not be dropped");
+
+            SimpleDrawingModel model = new SimpleDrawingModel();
+            model.setDrawing(actual);
+            reader.loadAllDeferredChildren(model);
+            assertFalse(reader.isDeferred(hidden));
+            assertTrue(converted.contains(hidden.getChild(0)), "deferred children are converted");
+            assertTrue(converted.contains(hidden.getChild(0).getChild(9)), "deferred children are converted");
+
+            byte[] bytes = writeWithBinary(actual);
+            Drawing reloaded = (Drawing) createReader().read(new ByteArrayInputStream(bytes), null, file.getParent().toUri(), null);
+            assertSame(reloaded.getChild(1).getChild(0).getChild(0), reloaded.getChild(0).getChild(0).get(LineConnectingFigure.END_TARGET));
+            assertEquals(expected, writeWithXml(reloaded).replace(" xml:base=\"" + file.getParent().toUri() + "\"", ""));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testSaveAsXmlWhileDeferred() throws IOException {
+        Path file = Files.createTempFile("SimpleBinaryIOTest", ".jhdb");
+        try {
+            Drawing drawing = createDrawing();
+            String expected = writeWithXml(drawing);
+            Files.write(file, writeWithBinary(drawing));
+
+            SimpleBinaryReader reader = createReader();
+            reader.setLoadHiddenLayers(false);
+            Drawing actual = (Drawing) reader.read(file, null, null);
+            Figure hidden = actual.getChild(1);
+            assertTrue(reader.isDeferred(hidden));
+            assertThrows(IOException.class, () -> writeWithStax(actual), "deferred children must not be dropped");
+
+            SimpleDrawingModel model = new SimpleDrawingModel();
+            model.setDrawing(actual);
+            reader.loadAllDeferredChildren(model);
+            Drawing reloaded = readWithStax(writeWithStax(actual), file.getParent().toUri());
+            assertEquals(1, reloaded.getChild(1).getChildren().size());
+            assertSame(reloaded.getChild(1).getChild(0).getChild(0), reloaded.getChild(0).getChild(0).get(LineConnectingFigure.END_TARGET));
+            assertEquals(expected, writeWithXml(reloaded).replace(" xml:base=\"" + file.getParent().toUri() + "\"", ""));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testCorruptFile() throws IOException {
+        byte[] bytes = writeWithBinary(createDrawing());
+        byte[] truncated = new byte[bytes.length / 2];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        assertThrows(IOException.class, () -> createReader().read(new ByteArrayInputStream(truncated), null, DOCUMENT_HOME, null));
+    }
+}
@@ -0,0 +1,139 @@
+/* @(#)SimpleXmlStaxIOTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.io;
+
+import org.jhotdraw8.collection.ImmutableList;
+import org.jhotdraw8.draw.figure.Drawing;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.figure.LineConnectingFigure;
+import org.jhotdraw8.draw.figure.SimpleDrawing;
+import org.jhotdraw8.draw.figure.SimpleGroupFigure;
+import org.jhotdraw8.draw.figure.SimpleLayer;
+import org.jhotdraw8.draw.figure.SimpleLineConnectionFigure;
+import org.jhotdraw8.draw.figure.SimpleOrthogonalLineConnectionFigure;
+import org.jhotdraw8.draw.figure.SimpleRectangleFigure;
+import org.jhotdraw8.draw.figure.SimpleTextFigure;
+import org.jhotdraw8.draw.figure.StyleableFigure;
+import org.jhotdraw8.io.IdFactory;
+import org.jhotdraw8.xml.XmlUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SimpleXmlStaxIOTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class SimpleXmlStaxIOTest {
+
+    private final static String NAMESPACE_URI = "http://jhotdraw.org/test";
+    private final static URI DOCUMENT_HOME = URI.create("file:/home/");
+
+    private static Drawing createDrawing() {
+        SimpleDrawing drawing = new SimpleDrawing();
+        drawing.set(SimpleXmlIO.XML_HEAD_COMMENT_KEY, Collections.singletonList(" head "));
+        drawing.set(SimpleXmlIO.XML_EPILOG_COMMENT_KEY, Collections.singletonList(" epilog "));
+        SimpleLayer layer = new SimpleLayer();
+        drawing.addChild(layer);
+
+        // the connection refers to a figure which is written after it
+        SimpleLineConnectionFigure line = new SimpleLineConnectionFigure(0, 0, 50, 50);
+        layer.addChild(line);
+        SimpleGroupFigure group = new SimpleGroupFigure();
+        group.set(SimpleXmlIO.XML_HEAD_COMMENT_KEY, Collections.singletonList(" group "));
+        group.set(SimpleXmlIO.XML_BODY_COMMENT_KEY, Collections.singletonList(" body "));
+        layer.addChild(group);
+        SimpleRectangleFigure rect = new SimpleRectangleFigure(10, 20, 30, 40);
+        rect.set(StyleableFigure.STYLE_CLASS, ImmutableList.of("a", "b"));
+        group.addChild(rect);
+        line.set(LineConnectingFigure.END_TARGET, rect);
+        layer.addChild(new SimpleTextFigure(5, 6, "Hello <&> World"));
+        return drawing;
+    }
+
+    private static String writeWithDom(Drawing drawing) throws IOException {
+        IdFactory idFactory = new SimpleFigureIdFactory();
+        SimpleXmlIO io = new SimpleXmlIO(new DefaultFigureFactory(idFactory), idFactory, NAMESPACE_URI, null);
+        StringWriter w = new StringWriter();
+        XmlUtil.write(w, io.toDocument(drawing));
+        return w.toString();
+    }
+
+    private static Drawing readWithDom(byte[] bytes) throws IOException {
+        IdFactory idFactory = new SimpleFigureIdFactory();
+        SimpleXmlIO io = new SimpleXmlIO(new DefaultFigureFactory(idFactory), idFactory, NAMESPACE_URI, null);
+        return (Drawing) io.read(new ByteArrayInputStream(bytes), null, DOCUMENT_HOME, null);
+    }
+
+    private static byte[] writeWithStax(Drawing drawing) throws IOException {
+        IdFactory idFactory = new SimpleFigureIdFactory();
+        SimpleXmlStaxWriter io = new SimpleXmlStaxWriter(new DefaultFigureFactory(idFactory), idFactory, NAMESPACE_URI, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        io.write(out, drawing, null);
+        return out.toByteArray();
+    }
+
+    private static Drawing readWithStax(byte[] bytes) throws IOException {
+        IdFactory idFactory = new SimpleFigureIdFactory();
+        SimpleXmlStaxReader io = new SimpleXmlStaxReader(new DefaultFigureFactory(idFactory), idFactory, NAMESPACE_URI);
+        return (Drawing) io.read(new ByteArrayInputStream(bytes), null, DOCUMENT_HOME, null);
+    }
+
+    @Test
+    public void testStaxReaderReadsDomOutput() throws IOException {
+        String expected = writeWithDom(readWithDom(writeWithDom(createDrawing()).getBytes(StandardCharsets.UTF_8)));
+        Drawing actual = readWithStax(expected.getBytes(StandardCharsets.UTF_8));
+        assertEquals(expected, writeWithDom(actual));
+
+        Figure layer = actual.getChild(0);
+        Figure line = layer.getChild(0);
+        Figure rect = layer.getChild(1).getChild(0);
+        assertSame(rect, line.get(LineConnectingFigure.END_TARGET));
+        assertEquals("Hello <&> World", layer.getChild(2).get(SimpleTextFigure.TEXT));
+    }
+
+    @Test
+    public void testDomReaderReadsStaxOutput() throws IOException {
+        String expected = writeWithDom(readWithDom(writeWithDom(createDrawing()).getBytes(StandardCharsets.UTF_8)));
+        Drawing actual = readWithDom(writeWithStax(readWithDom(expected.getBytes(StandardCharsets.UTF_8))));
+        assertEquals(expected, writeWithDom(actual));
+    }
+
+    @Test
+    public void testStaxRoundTrip() throws IOException {
+        byte[] expected = writeWithStax(readWithStax(writeWithStax(createDrawing())));
+        byte[] actual = writeWithStax(readWithStax(expected));
+        assertEquals(new String(expected, StandardCharsets.UTF_8), new String(actual, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testOrthogonalLineConnectionRoundTrip() throws IOException {
+        SimpleDrawing drawing = new SimpleDrawing();
+        SimpleLayer layer = new SimpleLayer();
+        drawing.addChild(layer);
+        SimpleRectangleFigure rect = new SimpleRectangleFigure(100, 20, 30, 40);
+        SimpleOrthogonalLineConnectionFigure line = new SimpleOrthogonalLineConnectionFigure(0, 0, 50, 50);
+        line.set(LineConnectingFigure.END_TARGET, rect);
+        layer.addChild(line);
+        layer.addChild(rect);
+
+        Drawing actual = readWithStax(writeWithStax(drawing));
+        Figure actualLine = actual.getChild(0).getChild(0);
+        assertTrue(actualLine instanceof SimpleOrthogonalLineConnectionFigure);
+        assertSame(actual.getChild(0).getChild(1), actualLine.get(LineConnectingFigure.END_TARGET));
+        assertEquals(writeWithDom(drawing), writeWithDom(readWithDom(writeWithDom(drawing).getBytes(StandardCharsets.UTF_8))));
+    }
+}
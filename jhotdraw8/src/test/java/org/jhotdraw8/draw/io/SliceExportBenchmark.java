@@ -0,0 +1,97 @@
+/* @(#)SliceExportBenchmark.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.io;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.stage.Stage;
+import org.jhotdraw8.collection.Key;
+import org.jhotdraw8.draw.figure.Drawing;
+import org.jhotdraw8.draw.figure.SimpleDrawing;
+import org.jhotdraw8.draw.figure.SimpleEllipseFigure;
+import org.jhotdraw8.draw.figure.SimpleLayer;
+import org.jhotdraw8.draw.figure.SimpleRectangleFigure;
+import org.jhotdraw8.draw.figure.SimpleSliceFigure;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Compares the wall time of the serial and of the pipelined export of
+ * slices with {@link BitmapExportOutputFormat}.
+ * <p>
+ * This is not a unit test, because it needs a running JavaFX toolkit. Run it
+ * with {@code java org.jhotdraw8.draw.io.SliceExportBenchmark [slices]}.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class SliceExportBenchmark extends Application {
+
+    private final static int RUNS = 5;
+
+    @Override
+    public void start(Stage primaryStage) {
+        int numSlices = getParameters().getUnnamed().isEmpty() ? 800 : Integer.parseInt(getParameters().getUnnamed().get(0));
+        Thread worker = new Thread(() -> {
+            try {
+                Drawing drawing = createDrawing(numSlices);
+                System.out.println("slices: " + numSlices + " at 1x, 2x and 3x");
+                for (int run = 0; run < RUNS; run++) {
+                    System.out.printf("run %d serial: %6d ms, pipelined: %6d ms%n", run,
+                            export(drawing, false), export(drawing, true));
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                Platform.exit();
+            }
+        });
+        worker.start();
+    }
+
+    private static Drawing createDrawing(int numSlices) {
+        SimpleDrawing drawing = new SimpleDrawing();
+        SimpleLayer layer = new SimpleLayer();
+        drawing.addChild(layer);
+        int columns = (int) Math.ceil(Math.sqrt(numSlices));
+        for (int i = 0; i < numSlices; i++) {
+            double x = (i % columns) * 40;
+            double y = (i / columns) * 40;
+            layer.addChild(new SimpleRectangleFigure(x + 2, y + 2, 28, 20));
+            layer.addChild(new SimpleEllipseFigure(x + 10, y + 10, 24, 24));
+            layer.addChild(new SimpleSliceFigure(x, y, 36, 36));
+        }
+        return drawing;
+    }
+
+    private static long export(Drawing drawing, boolean pipelined) throws IOException {
+        Path dir = Files.createTempDirectory("slices");
+        try {
+            Map<Key<?>, Object> options = new HashMap<>();
+            ExportOutputFormat.EXPORT_SLICES_RESOLUTION_2X_KEY.put(options, true);
+            ExportOutputFormat.EXPORT_SLICES_RESOLUTION_3X_KEY.put(options, true);
+            BitmapExportOutputFormat format = new BitmapExportOutputFormat();
+            format.setOptions(options);
+            format.setPipelined(pipelined);
+
+            long start = System.nanoTime();
+            format.writeSlices(dir, drawing, null);
+            return (System.nanoTime() - start) / 1_000_000;
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                files.forEach(f -> f.toFile().delete());
+            }
+            Files.delete(dir);
+        }
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
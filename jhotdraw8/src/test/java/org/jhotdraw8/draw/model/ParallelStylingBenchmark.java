@@ -0,0 +1,96 @@
+/* @(#)ParallelStylingBenchmark.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.model;
+
+import org.jhotdraw8.collection.ImmutableList;
+import org.jhotdraw8.draw.figure.Drawing;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.figure.SimpleDrawing;
+import org.jhotdraw8.draw.figure.SimpleGroupFigure;
+import org.jhotdraw8.draw.figure.SimpleLayer;
+import org.jhotdraw8.draw.figure.SimpleRectangleFigure;
+import org.jhotdraw8.draw.figure.StyleableFigure;
+import org.jhotdraw8.draw.render.SimpleRenderContext;
+
+import java.util.Collections;
+
+/**
+ * Measures the time for restyling all figures of a drawing, with serial and
+ * with parallel styling.
+ * <p>
+ * This is not a unit test. Run it with
+ * {@code java -Xmx3g org.jhotdraw8.draw.model.ParallelStylingBenchmark [figureCount...]}.
+ * The default figure counts are 10'000, 100'000 and 500'000.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class ParallelStylingBenchmark {
+
+    private final static int RUNS = 5;
+    private final static int FIGURES_PER_GROUP = 50;
+    private final static String STYLESHEET = "Rectangle { fill: red; }\n"
+            + ".b { fill: blue; stroke: black; }\n"
+            + "Group.g > .c { fill: green; }\n"
+            + "#r7 { fill: yellow; }";
+
+    public static void main(String[] args) {
+        int[] counts = {10_000, 100_000, 500_000};
+        if (args.length > 0) {
+            counts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                counts[i] = Integer.parseInt(args[i]);
+            }
+        }
+        System.out.println("processors: " + Runtime.getRuntime().availableProcessors());
+
+        for (int count : counts) {
+            SimpleDrawingModel serialModel = new SimpleDrawingModel();
+            serialModel.setParallelStyling(false);
+            Drawing serialDrawing = createDrawing(serialModel, STYLESHEET, count);
+            SimpleDrawingModel parallelModel = new SimpleDrawingModel();
+            parallelModel.setParallelStyling(true);
+            Drawing parallelDrawing = createDrawing(parallelModel, STYLESHEET, count);
+            System.out.println("figures: " + count);
+
+            for (int run = 0; run < RUNS; run++) {
+                long serial = restyle(serialModel, serialDrawing);
+                long parallel = restyle(parallelModel, parallelDrawing);
+                System.out.printf("run %d: serial %6d ms, parallel %6d ms, speedup %5.1f%n", run,
+                        serial / 1_000_000, parallel / 1_000_000, (double) serial / parallel);
+            }
+        }
+    }
+
+    private static long restyle(SimpleDrawingModel model, Drawing drawing) {
+        for (Figure f : drawing.preorderIterable()) {
+            model.fireStyleInvalidated(f);
+        }
+        long time = System.nanoTime();
+        model.validate(new SimpleRenderContext());
+        return System.nanoTime() - time;
+    }
+
+    private static Drawing createDrawing(DrawingModel model, String stylesheet, int count) {
+        SimpleDrawing drawing = new SimpleDrawing();
+        drawing.set(Drawing.INLINE_STYLESHEETS, Collections.singletonList(stylesheet));
+        model.setDrawing(drawing);
+        SimpleLayer layer = new SimpleLayer();
+        model.addChildTo(layer, drawing);
+        for (int i = 0; i * FIGURES_PER_GROUP < count; i++) {
+            SimpleGroupFigure group = new SimpleGroupFigure();
+            if (i % 2 == 0) {
+                group.set(StyleableFigure.STYLE_CLASS, ImmutableList.of("g"));
+            }
+            model.addChildTo(group, layer);
+            for (int j = 0; j < FIGURES_PER_GROUP && i * FIGURES_PER_GROUP + j < count; j++) {
+                SimpleRectangleFigure r = new SimpleRectangleFigure(j * 2, i * 2, 1, 1);
+                r.set(StyleableFigure.ID, "r" + (i * FIGURES_PER_GROUP + j));
+                r.set(StyleableFigure.STYLE_CLASS, ImmutableList.of(j % 3 == 0 ? "b" : "c"));
+                model.addChildTo(r, group);
+            }
+        }
+        return drawing;
+    }
+}
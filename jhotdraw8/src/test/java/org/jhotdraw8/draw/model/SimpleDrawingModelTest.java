@@ -0,0 +1,247 @@
+/* @(#)SimpleDrawingModelTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.model;
+
+import javafx.geometry.Point2D;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.collection.ImmutableList;
+import org.jhotdraw8.css.Paintable;
+import org.jhotdraw8.draw.connector.RectangleConnector;
+import org.jhotdraw8.draw.figure.Drawing;
+import org.jhotdraw8.draw.figure.FillableFigure;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.figure.LineConnectingFigure;
+import org.jhotdraw8.draw.figure.SimpleDrawing;
+import org.jhotdraw8.draw.figure.SimpleGroupFigure;
+import org.jhotdraw8.draw.figure.SimpleLayer;
+import org.jhotdraw8.draw.figure.SimpleOrthogonalLineConnectionFigure;
+import org.jhotdraw8.draw.figure.SimpleRectangleFigure;
+import org.jhotdraw8.draw.figure.StyleableFigure;
+import org.jhotdraw8.draw.locator.RelativeLocator;
+import org.jhotdraw8.draw.render.SimpleRenderContext;
+import org.jhotdraw8.tree.TreeModelEvent;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * SimpleDrawingModelTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class SimpleDrawingModelTest {
+
+    private static Drawing createDrawing(DrawingModel model, String stylesheet) {
+        SimpleDrawing drawing = new SimpleDrawing();
+        drawing.set(Drawing.INLINE_STYLESHEETS, Collections.singletonList(stylesheet));
+        model.setDrawing(drawing);
+        SimpleLayer layer = new SimpleLayer();
+        model.addChildTo(layer, drawing);
+        int count = 0;
+        for (int i = 0; i < 40; i++) {
+            SimpleGroupFigure group = new SimpleGroupFigure();
+            if (i % 2 == 0) {
+                group.set(StyleableFigure.STYLE_CLASS, ImmutableList.of("g"));
+            }
+            model.addChildTo(group, layer);
+            for (int j = 0; j < 50; j++) {
+                SimpleRectangleFigure r = new SimpleRectangleFigure(j, i, 1, 1);
+                r.set(StyleableFigure.ID, "r" + (count++));
+                r.set(StyleableFigure.STYLE_CLASS, ImmutableList.of(j % 3 == 0 ? "b" : "c"));
+                model.addChildTo(r, group);
+            }
+        }
+        return drawing;
+    }
+
+    private static List<Paintable> styleAndCollectFills(String stylesheet, boolean parallel) {
+        SimpleDrawingModel model = new SimpleDrawingModel();
+        model.setParallelStyling(parallel);
+        Drawing drawing = createDrawing(model, stylesheet);
+        for (Figure f : drawing.preorderIterable()) {
+            model.fireStyleInvalidated(f);
+        }
+        model.validate(new SimpleRenderContext());
+
+        List<Paintable> fills = new ArrayList<>();
+        for (Figure f : drawing.preorderIterable()) {
+            if (f instanceof SimpleRectangleFigure) {
+                fills.add(f.getStyled(FillableFigure.FILL));
+            }
+        }
+        return fills;
+    }
+
+    /**
+     * Tests if parallel styling yields the same styles as serial styling.
+     *
+     * @param stylesheet the stylesheet
+     */
+    private void doTestParallelStyling(String stylesheet) {
+        List<Paintable> expected = styleAndCollectFills(stylesheet, false);
+        List<Paintable> actual = styleAndCollectFills(stylesheet, true);
+        assertEquals(2000, expected.size());
+        assertNotEquals(FillableFigure.FILL.getDefaultValue(), expected.get(expected.size() - 1), "stylesheet must have been applied");
+        assertEquals(expected, actual);
+    }
+
+    @TestFactory
+    public List<DynamicTest> testParallelStylingFactory() {
+        return Arrays.asList(
+                dynamicTest("1", () -> doTestParallelStyling("Rectangle { fill: red; }")),
+                dynamicTest("2", () -> doTestParallelStyling("Rectangle { fill: red; }\n"
+                        + ".b { fill: blue; }\n"
+                        + "Group.g > .c { fill: green; }\n"
+                        + "#r7 { fill: yellow; }")),
+                dynamicTest("3", () -> doTestParallelStyling(".c { fill: red; }\n"
+                        + ".b + .c { fill: blue; }\n"
+                        + "Group.g .b ~ .b { fill: green; }"))
+        );
+    }
+
+    @Test
+    public void testBatchUpdateCoalescesEvents() {
+        SimpleDrawingModel model = new SimpleDrawingModel();
+        Drawing drawing = createDrawing(model, "");
+        model.validate(new SimpleRenderContext());
+        List<DrawingModelEvent> modelEvents = new ArrayList<>();
+        List<TreeModelEvent<Figure>> treeEvents = new ArrayList<>();
+        int[] invalidations = new int[1];
+        model.addDrawingModelListener(modelEvents::add);
+        model.addTreeModelListener(treeEvents::add);
+        model.addListener(o -> invalidations[0]++);
+
+        List<Figure> rectangles = new ArrayList<>();
+        for (Figure f : drawing.preorderIterable()) {
+            if (f instanceof SimpleRectangleFigure) {
+                rectangles.add(f);
+            }
+        }
+        Figure layer = drawing.getChild(0);
+        model.beginUpdate();
+        for (int i = 0; i < 3; i++) {
+            for (Figure f : rectangles) {
+                model.set(f, StyleableFigure.ID, "x" + i);
+                model.fireNodeInvalidated(f);
+            }
+        }
+        model.removeFromParent(layer.getChild(0));
+        assertEquals(0, modelEvents.size() + treeEvents.size() + invalidations[0], "no events during a batch update");
+        model.endUpdate();
+
+        assertEquals(rectangles.size(), modelEvents.size());
+        DrawingModelEvent first = modelEvents.get(0);
+        assertSame(rectangles.get(0), first.getNode());
+        assertEquals("r0", first.getOldValue());
+        assertEquals("x2", first.getNewValue());
+        assertEquals(TreeModelEvent.EventType.NODE_CHANGED, treeEvents.get(0).getEventType());
+        assertSame(rectangles.get(0), treeEvents.get(0).getNode());
+        long nodeChanged = treeEvents.stream().filter(e -> e.getEventType() == TreeModelEvent.EventType.NODE_CHANGED).count();
+        assertEquals(rectangles.size() + 1, nodeChanged);
+        assertEquals(1, invalidations[0]);
+    }
+
+    @Test
+    public void testBatchUpdateFiresEventsInFiringOrder() {
+        SimpleDrawingModel model = new SimpleDrawingModel();
+        Drawing drawing = createDrawing(model, "");
+        model.validate(new SimpleRenderContext());
+        Figure layer = drawing.getChild(0);
+        Figure group = layer.getChild(0);
+        Figure r0 = group.getChild(0);
+        Figure r1 = group.getChild(1);
+        Map<Figure, String> names = new HashMap<>();
+        names.put(group, "group");
+        names.put(r0, "r0");
+        names.put(r1, "r1");
+        List<String> events = new ArrayList<>();
+        model.addDrawingModelListener(e -> events.add(e.getEventType() + " " + names.get(e.getNode())));
+        model.addTreeModelListener(e -> {
+            if (e.getEventType() == TreeModelEvent.EventType.NODE_REMOVED_FROM_PARENT
+                    || e.getEventType() == TreeModelEvent.EventType.NODE_CHANGED) {
+                events.add(e.getEventType() + " " + names.get(e.getNode()));
+            }
+        });
+        model.getBatchUpdateListeners().add(new BatchUpdateListener() {
+            @Override
+            public void batchUpdateBegun(@Nonnull DrawingModel m) {
+                events.add("begun");
+            }
+
+            @Override
+            public void batchUpdateEnded(@Nonnull DrawingModel m) {
+                events.add("ended");
+            }
+        });
+
+        model.beginUpdate();
+        model.set(r0, StyleableFigure.ID, "a");
+        model.removeFromParent(r1);
+        model.set(r0, StyleableFigure.ID, "b");
+        model.fireNodeInvalidated(r0);
+        model.fireNodeInvalidated(group);
+        model.endUpdate();
+
+        // coalesced events are fired at the position of their first
+        // occurrence, the batch update ends after all events
+        List<String> expected = Arrays.asList(
+                "begun",
+                "PROPERTY_VALUE_CHANGED r0",
+                "NODE_REMOVED_FROM_PARENT r1",
+                "NODE_CHANGED group",
+                "NODE_CHANGED r0",
+                "ended");
+        assertEquals(expected, events);
+    }
+
+    @Test
+    public void testMovingObstacleReroutesOrthogonalConnection() {
+        SimpleDrawingModel model = new SimpleDrawingModel();
+        SimpleDrawing drawing = new SimpleDrawing();
+        model.setDrawing(drawing);
+        SimpleLayer layer = new SimpleLayer();
+        model.addChildTo(layer, drawing);
+        SimpleRectangleFigure a = new SimpleRectangleFigure(0, 0, 40, 40);
+        SimpleRectangleFigure b = new SimpleRectangleFigure(300, 0, 40, 40);
+        SimpleRectangleFigure obstacle = new SimpleRectangleFigure(150, 1000, 40, 40);
+        SimpleOrthogonalLineConnectionFigure c = new SimpleOrthogonalLineConnectionFigure();
+        model.addChildTo(a, layer);
+        model.addChildTo(b, layer);
+        model.addChildTo(obstacle, layer);
+        model.addChildTo(c, layer);
+        model.set(c, LineConnectingFigure.START_CONNECTOR, new RectangleConnector(RelativeLocator.CENTER));
+        model.set(c, LineConnectingFigure.START_TARGET, a);
+        model.set(c, LineConnectingFigure.END_CONNECTOR, new RectangleConnector(RelativeLocator.CENTER));
+        model.set(c, LineConnectingFigure.END_TARGET, b);
+        model.validate(new SimpleRenderContext());
+        assertEquals(2, c.getPoints().size());
+        assertEquals(20, c.getPoints().get(0).getY());
+        assertEquals(20, c.getPoints().get(1).getY());
+
+        model.reshapeInLocal(obstacle, 150, 0, 40, 40);
+        model.validate(new SimpleRenderContext());
+        assertEquals(4, c.getPoints().size());
+        for (Point2D p : c.getPoints()) {
+            assertFalse(obstacle.getBoundsInLocal().contains(p));
+        }
+
+        model.removeFromParent(obstacle);
+        model.validate(new SimpleRenderContext());
+        assertEquals(2, c.getPoints().size());
+    }
+}
@@ -0,0 +1,128 @@
+/* @(#)ImageCacheTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.render;
+
+import javafx.geometry.Dimension2D;
+import javafx.scene.image.Image;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * ImageCacheTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class ImageCacheTest {
+
+    /**
+     * Does not load images, because this would require a running JavaFX
+     * toolkit. Records the requested image sizes instead. Reads the image
+     * sizes with the specified executor.
+     */
+    private static class TestImageCache extends ImageCache {
+
+        final List<String> requests = new ArrayList<>();
+
+        TestImageCache(long memoryBudget) {
+            this(memoryBudget, Runnable::run);
+        }
+
+        TestImageCache(long memoryBudget, @Nonnull Executor executor) {
+            super(memoryBudget, executor);
+        }
+
+        @Nullable
+        @Override
+        protected Image createImage(@Nonnull URI uri, int width, int height) {
+            requests.add(uri + " " + width + "x" + height);
+            return null;
+        }
+
+        @Nullable
+        @Override
+        protected int[] readImageSize(@Nonnull URI uri) {
+            return uri.getPath().endsWith("unknown.png") ? null : new int[]{4000, 2000};
+        }
+    }
+
+    @Test
+    public void testSelectsMipmapLevel() {
+        TestImageCache instance = new TestImageCache(Long.MAX_VALUE);
+        URI uri = URI.create("file:/logo.png");
+
+        instance.getImage(uri, 0, 0);
+        instance.getImage(uri, 4000, 2000);
+        instance.getImage(uri, 900, 400);
+        instance.getImage(uri, 1000, 500);
+        instance.getImage(uri, 1, 1);
+        instance.getImage(URI.create("file:/unknown.png"), 10, 10);
+
+        assertEquals("[file:/logo.png 0x0, file:/logo.png 1000x500, file:/logo.png 31x15, file:/unknown.png 0x0]",
+                instance.requests.toString());
+        assertEquals(2, instance.getHitCount());
+        assertEquals(4, instance.getMissCount());
+        assertEquals(4L * (4000 * 2000 + 1000 * 500 + 31 * 15), instance.getMemorySize());
+        assertEquals(new Dimension2D(4000, 2000), instance.getIntrinsicSize(uri));
+        assertNull(instance.getIntrinsicSize(URI.create("file:/unknown.png")));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        long levelSize = 4L * 1000 * 500;
+        TestImageCache instance = new TestImageCache(2 * levelSize);
+        URI a = URI.create("file:/a.png");
+        URI b = URI.create("file:/b.png");
+        URI c = URI.create("file:/c.png");
+
+        instance.getImage(a, 1000, 500);
+        instance.getImage(b, 1000, 500);
+        instance.getImage(a, 1000, 500);
+        instance.getImage(c, 1000, 500);
+        assertEquals(1, instance.getEvictionCount());
+        assertEquals(2, instance.getImageCount());
+
+        // b has been evicted, a is still cached
+        instance.getImage(a, 1000, 500);
+        instance.getImage(b, 1000, 500);
+        assertEquals(2, instance.getHitCount());
+        assertEquals(4, instance.getMissCount());
+
+        // the most recently used image is kept even if it exceeds the budget
+        instance.setMemoryBudget(0);
+        assertEquals(1, instance.getImageCount());
+        assertEquals(levelSize, instance.getMemorySize());
+    }
+
+    @Test
+    public void testDoesNotBlockWhileSizeIsRead() {
+        List<Runnable> tasks = new ArrayList<>();
+        TestImageCache instance = new TestImageCache(Long.MAX_VALUE, tasks::add);
+        URI uri = URI.create("file:/logo.png");
+
+        // the size is read in the background, meanwhile the image is loaded
+        // with the requested size
+        instance.getImage(uri, 900, 400);
+        instance.getImage(uri, 900, 400);
+        assertEquals(1, tasks.size());
+        assertEquals("[file:/logo.png 900x400]", instance.requests.toString());
+        assertNull(instance.getIntrinsicSize(uri));
+
+        // when the size is known, the mipmap level is used
+        tasks.get(0).run();
+        assertEquals(new Dimension2D(4000, 2000), instance.getIntrinsicSize(uri));
+        instance.getImage(uri, 900, 400);
+        assertEquals("[file:/logo.png 900x400, file:/logo.png 1000x500]", instance.requests.toString());
+        assertEquals(1, tasks.size());
+    }
+}
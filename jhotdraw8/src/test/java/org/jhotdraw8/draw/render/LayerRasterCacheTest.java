@@ -0,0 +1,187 @@
+/* @(#)LayerRasterCacheTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.render;
+
+import javafx.geometry.BoundingBox;
+import javafx.scene.Group;
+import javafx.scene.image.Image;
+import javafx.scene.shape.Path;
+import org.jhotdraw8.annotation.Nonnull;
+import org.jhotdraw8.annotation.Nullable;
+import org.jhotdraw8.collection.ImmutableList;
+import org.jhotdraw8.draw.figure.Drawing;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.figure.SimpleBezierFigure;
+import org.jhotdraw8.draw.figure.SimpleDrawing;
+import org.jhotdraw8.draw.figure.SimpleLayer;
+import org.jhotdraw8.draw.figure.SimpleRectangleFigure;
+import org.jhotdraw8.draw.figure.StyleableFigure;
+import org.jhotdraw8.geom.BezierNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LayerRasterCacheTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class LayerRasterCacheTest {
+
+    /**
+     * Does not take snapshots, because this would require a running JavaFX
+     * toolkit. Records the requested tiles instead.
+     */
+    private static class TestLayerRasterCache extends LayerRasterCache {
+
+        final List<String> requests = new ArrayList<>();
+
+        TestLayerRasterCache(@Nonnull Figure layer, int maxTiles) {
+            super(layer, maxTiles);
+        }
+
+        @Nullable
+        @Override
+        protected Image renderTile(@Nonnull RenderContext ctx, int level, int x, int y) {
+            requests.add(level + ":" + x + "," + y);
+            return null;
+        }
+    }
+
+    private static SimpleLayer createLayer() {
+        SimpleLayer layer = new SimpleLayer();
+        layer.getChildren().add(new SimpleRectangleFigure(0, 0, 1000, 600));
+        return layer;
+    }
+
+    @Test
+    public void testGetLevel() {
+        assertEquals(0, LayerRasterCache.getLevel(1.0));
+        assertEquals(1, LayerRasterCache.getLevel(1.5));
+        assertEquals(1, LayerRasterCache.getLevel(2.0));
+        assertEquals(-1, LayerRasterCache.getLevel(0.5));
+        assertEquals(-1, LayerRasterCache.getLevel(0.3));
+        assertEquals(-8, LayerRasterCache.getLevel(0.0001));
+        assertEquals(4, LayerRasterCache.getLevel(1000));
+    }
+
+    @Test
+    public void testTilesAreReusedWhenPanningAndZooming() {
+        SimpleLayer layer = createLayer();
+        TestLayerRasterCache instance = new TestLayerRasterCache(layer, LayerRasterCache.DEFAULT_MAX_TILES);
+        SimpleRenderContext ctx = new SimpleRenderContext();
+
+        instance.getTiles(ctx, new BoundingBox(0, 0, 1000, 600), 1.0);
+        assertEquals(12, instance.getRenderCount());
+        assertEquals(12, instance.getTileCount());
+
+        // panning inside the rendered area does not render new tiles
+        instance.getTiles(ctx, new BoundingBox(100, 100, 500, 300), 1.0);
+        assertEquals(12, instance.getRenderCount());
+
+        // zooming out renders the tiles of the next smaller level once
+        instance.getTiles(ctx, new BoundingBox(0, 0, 1000, 600), 0.5);
+        assertEquals(16, instance.getRenderCount());
+        instance.getTiles(ctx, new BoundingBox(0, 0, 1000, 600), 0.4);
+        assertEquals(16, instance.getRenderCount());
+
+        // tiles outside of the layer are not rendered
+        assertEquals(Collections.emptyList(), instance.getTiles(ctx, new BoundingBox(5000, 5000, 100, 100), 1.0));
+        assertEquals(16, instance.getRenderCount());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedTiles() {
+        SimpleLayer layer = createLayer();
+        TestLayerRasterCache instance = new TestLayerRasterCache(layer, 4);
+        SimpleRenderContext ctx = new SimpleRenderContext();
+
+        instance.getTiles(ctx, new BoundingBox(0, 0, 1000, 600), 1.0);
+        assertEquals(4, instance.getTileCount());
+        instance.getTiles(ctx, new BoundingBox(0, 0, 10, 10), 1.0);
+        assertEquals(13, instance.getRenderCount());
+    }
+
+    @Test
+    public void testInvalidateCachesOfChangedFigure() {
+        SimpleDrawing drawing = new SimpleDrawing();
+        SimpleLayer layer = createLayer();
+        SimpleLayer otherLayer = createLayer();
+        drawing.getChildren().add(layer);
+        drawing.getChildren().add(otherLayer);
+        TestLayerRasterCache instance = new TestLayerRasterCache(layer, LayerRasterCache.DEFAULT_MAX_TILES);
+        layer.setCachedValue(LayerRasterCache.RASTER_CACHE_KEY, instance);
+        SimpleRenderContext ctx = new SimpleRenderContext();
+
+        instance.getTiles(ctx, new BoundingBox(0, 0, 1000, 600), 1.0);
+        assertEquals(12, instance.getTileCount());
+
+        Figure child = layer.getChild(0);
+        assertEquals(Collections.singletonList(layer), LayerRasterCache.invalidateCaches(child));
+        assertEquals(0, instance.getTileCount());
+
+        // the other layer has no cache
+        assertTrue(LayerRasterCache.invalidateCaches(otherLayer.getChild(0)).isEmpty());
+
+        // a change of the drawing invalidates the caches of all layers
+        instance.getTiles(ctx, new BoundingBox(0, 0, 1000, 600), 1.0);
+        assertEquals(Collections.singletonList(layer), LayerRasterCache.invalidateCaches(drawing));
+        assertEquals(0, instance.getTileCount());
+        assertEquals(24, instance.getRenderCount());
+    }
+
+    @Test
+    public void testInvalidateCachesOnlyForRenderingPropertiesOfDrawing() {
+        SimpleDrawing drawing = new SimpleDrawing();
+        SimpleLayer layer = createLayer();
+        drawing.getChildren().add(layer);
+        TestLayerRasterCache instance = new TestLayerRasterCache(layer, LayerRasterCache.DEFAULT_MAX_TILES);
+        layer.setCachedValue(LayerRasterCache.RASTER_CACHE_KEY, instance);
+        SimpleRenderContext ctx = new SimpleRenderContext();
+        instance.getTiles(ctx, new BoundingBox(0, 0, 1000, 600), 1.0);
+
+        // the size of the drawing does not affect the tiles
+        assertTrue(LayerRasterCache.invalidateCaches(drawing, Drawing.WIDTH).isEmpty());
+        assertEquals(12, instance.getTileCount());
+
+        // any property of a figure in the layer affects the tiles
+        assertEquals(Collections.singletonList(layer),
+                LayerRasterCache.invalidateCaches(layer.getChild(0), StyleableFigure.ID));
+        assertEquals(0, instance.getTileCount());
+
+        // the stylesheets of the drawing affect the tiles
+        instance.getTiles(ctx, new BoundingBox(0, 0, 1000, 600), 1.0);
+        assertEquals(Collections.singletonList(layer),
+                LayerRasterCache.invalidateCaches(drawing, Drawing.INLINE_STYLESHEETS));
+        assertEquals(0, instance.getTileCount());
+    }
+
+    @Test
+    public void testContentIsRenderedWithFullDetail() {
+        List<BezierNode> nodes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            nodes.add(new BezierNode(i * 0.1, 50 + 50 * Math.sin(i * 0.1)));
+        }
+        SimpleBezierFigure f = new SimpleBezierFigure();
+        f.set(SimpleBezierFigure.PATH, ImmutableList.ofCollection(nodes));
+        SimpleLayer layer = new SimpleLayer();
+        layer.getChildren().add(f);
+        TestLayerRasterCache instance = new TestLayerRasterCache(layer, LayerRasterCache.DEFAULT_MAX_TILES);
+
+        // an overview with a detail threshold would simplify the figure
+        SimpleRenderContext ctx = new SimpleRenderContext();
+        ctx.set(RenderContext.RENDER_SCALE, 0.01);
+        ctx.set(RenderContext.DETAIL_THRESHOLD, 4.0);
+        assertTrue(f.isSimplified(ctx));
+
+        Group content = (Group) instance.getContent(ctx);
+        assertEquals(1000, ((Path) content.getChildren().get(0)).getElements().size());
+    }
+}
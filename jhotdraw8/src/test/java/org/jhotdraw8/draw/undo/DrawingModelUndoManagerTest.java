@@ -0,0 +1,252 @@
+/* @(#)DrawingModelUndoManagerTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.draw.undo;
+
+import javafx.css.StyleOrigin;
+import javafx.scene.paint.Color;
+import org.jhotdraw8.collection.ImmutableList;
+import org.jhotdraw8.css.CssColor;
+import org.jhotdraw8.css.CssPoint2D;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.figure.FillableFigure;
+import org.jhotdraw8.draw.figure.SimpleDrawing;
+import org.jhotdraw8.draw.figure.SimpleLayer;
+import org.jhotdraw8.draw.figure.SimpleRectangleFigure;
+import org.jhotdraw8.draw.figure.StrokableFigure;
+import org.jhotdraw8.draw.figure.StyleableFigure;
+import org.jhotdraw8.draw.model.DrawingModel;
+import org.jhotdraw8.draw.model.SimpleDrawingModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DrawingModelUndoManagerTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class DrawingModelUndoManagerTest {
+
+    private DrawingModel model;
+    private SimpleLayer layer;
+
+    private DrawingModelUndoManager createUndoManager() {
+        model = new SimpleDrawingModel();
+        SimpleDrawing drawing = new SimpleDrawing();
+        model.setDrawing(drawing);
+        layer = new SimpleLayer();
+        model.addChildTo(layer, drawing);
+        return new DrawingModelUndoManager(model);
+    }
+
+    @Test
+    public void testUndoRedoProperty() {
+        DrawingModelUndoManager instance = createUndoManager();
+        SimpleRectangleFigure r = new SimpleRectangleFigure(0, 0, 10, 10);
+        model.addChildTo(r, layer);
+        model.set(r, StyleableFigure.ID, "a");
+        model.set(r, StyleableFigure.ID, "b");
+        assertEquals(3, instance.getUndoCount(), "changes outside of a gesture are not combined");
+
+        instance.undo();
+        assertEquals("a", r.get(StyleableFigure.ID));
+        instance.undo();
+        assertEquals(StyleableFigure.ID.getDefaultValue(), r.get(StyleableFigure.ID));
+        assertSame(layer, r.getParent());
+        instance.undo();
+        assertFalse(instance.canUndo());
+        assertTrue(instance.canRedo());
+        assertSame(null, r.getParent());
+
+        instance.redo();
+        instance.redo();
+        instance.redo();
+        assertSame(layer, r.getParent());
+        assertEquals("b", r.get(StyleableFigure.ID));
+        assertFalse(instance.canRedo());
+    }
+
+    @Test
+    public void testGestureCoalescesByFigureAndKey() {
+        DrawingModelUndoManager instance = createUndoManager();
+        SimpleRectangleFigure r = new SimpleRectangleFigure(0, 0, 10, 10);
+        model.addChildTo(r, layer);
+        instance.discardAllEdits();
+
+        instance.beginCompoundEdit("Edit");
+        model.set(r, StyleableFigure.ID, "a");
+        model.set(r, StyleableFigure.STYLE_CLASS, ImmutableList.of("c"));
+        model.set(r, StyleableFigure.ID, "b");
+        instance.endCompoundEdit();
+        model.set(r, StyleableFigure.ID, "c");
+        assertEquals(2, instance.getUndoCount(), "a gesture is one edit, the change after it is another");
+
+        instance.undo();
+        assertEquals("b", r.get(StyleableFigure.ID));
+        instance.undo();
+        assertEquals(StyleableFigure.ID.getDefaultValue(), r.get(StyleableFigure.ID));
+        assertEquals(StyleableFigure.STYLE_CLASS.getDefaultValue(), r.get(StyleableFigure.STYLE_CLASS));
+    }
+
+    @Test
+    public void testUndoRestoresExplicitDefaultAndNullValues() {
+        DrawingModelUndoManager instance = createUndoManager();
+        SimpleRectangleFigure r = new SimpleRectangleFigure(0, 0, 10, 10);
+        model.addChildTo(r, layer);
+        model.set(r, StrokableFigure.STROKE, StrokableFigure.STROKE.getDefaultValue());
+        model.set(r, FillableFigure.FILL, null);
+        instance.discardAllEdits();
+
+        model.set(r, StrokableFigure.STROKE, new CssColor("red", Color.RED));
+        model.set(r, FillableFigure.FILL, new CssColor("red", Color.RED));
+        model.set(r, StyleableFigure.ID, "a");
+        instance.undo();
+        instance.undo();
+        instance.undo();
+
+        // explicit values are restored, not removed
+        assertTrue(r.containsKey(StyleOrigin.USER, StrokableFigure.STROKE));
+        assertEquals(StrokableFigure.STROKE.getDefaultValue(), r.get(StrokableFigure.STROKE));
+        assertTrue(r.containsKey(StyleOrigin.USER, FillableFigure.FILL));
+        assertNull(r.get(FillableFigure.FILL));
+        // a value which was not set is removed
+        assertFalse(r.containsKey(StyleOrigin.USER, StyleableFigure.ID));
+
+        instance.redo();
+        instance.redo();
+        instance.redo();
+        assertEquals(new CssColor("red", Color.RED), r.get(FillableFigure.FILL));
+        assertEquals("a", r.get(StyleableFigure.ID));
+    }
+
+    @Test
+    public void testCompoundEditCoalescesDrag() {
+        DrawingModelUndoManager instance = createUndoManager();
+        List<Figure> figures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            SimpleRectangleFigure r = new SimpleRectangleFigure(i, 0, 10, 10);
+            model.addChildTo(r, layer);
+            figures.add(r);
+        }
+        instance.discardAllEdits();
+
+        instance.beginCompoundEdit("Move");
+        for (int step = 0; step < 20; step++) {
+            for (Figure f : figures) {
+                model.translateInParent(f, new CssPoint2D(1, 2));
+            }
+        }
+        instance.endCompoundEdit();
+        assertEquals(1, instance.getUndoCount());
+        assertEquals("Move", instance.getUndoPresentationName());
+        assertEquals(40.0, figures.get(0).getBoundsInLocal().getMinY());
+
+        instance.undo();
+        for (int i = 0; i < figures.size(); i++) {
+            assertEquals(i, figures.get(i).getBoundsInLocal().getMinX());
+            assertEquals(0.0, figures.get(i).getBoundsInLocal().getMinY());
+        }
+        instance.redo();
+        assertEquals(20.0, figures.get(0).getBoundsInLocal().getMinX());
+        assertEquals(40.0, figures.get(0).getBoundsInLocal().getMinY());
+    }
+
+    @Test
+    public void testBatchUpdateIsOneEdit() {
+        DrawingModelUndoManager instance = createUndoManager();
+        List<Figure> figures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            SimpleRectangleFigure r = new SimpleRectangleFigure(i * 20, i, 10, 10);
+            model.addChildTo(r, layer);
+            figures.add(r);
+        }
+        instance.discardAllEdits();
+
+        // align the figures to the left, like the align left action does
+        model.beginUpdate();
+        try {
+            for (Figure f : figures) {
+                model.translateInParent(f, new CssPoint2D(-f.getBoundsInLocal().getMinX(), 0));
+                model.fireLayoutInvalidated(f);
+            }
+        } finally {
+            model.endUpdate();
+        }
+        assertEquals(0.0, figures.get(9).getBoundsInLocal().getMinX());
+        assertEquals(1, instance.getUndoCount(), "a batch update is one edit");
+
+        instance.undo();
+        for (int i = 0; i < figures.size(); i++) {
+            assertEquals(i * 20.0, figures.get(i).getBoundsInLocal().getMinX());
+        }
+        assertFalse(instance.canUndo());
+
+        // structural changes in a batch update are one edit too
+        model.beginUpdate();
+        try {
+            model.removeFromParent(figures.get(0));
+            model.addChildTo(new SimpleRectangleFigure(), layer);
+        } finally {
+            model.endUpdate();
+        }
+        assertEquals(1, instance.getUndoCount());
+        instance.undo();
+        assertEquals(figures, layer.getChildren());
+    }
+
+    @Test
+    public void testMoveToOtherParent() {
+        DrawingModelUndoManager instance = createUndoManager();
+        SimpleLayer layer2 = new SimpleLayer();
+        model.addChildTo(layer2, model.getDrawing());
+        SimpleRectangleFigure r1 = new SimpleRectangleFigure(0, 0, 10, 10);
+        SimpleRectangleFigure r2 = new SimpleRectangleFigure(0, 0, 10, 10);
+        model.addChildTo(r1, layer);
+        model.addChildTo(r2, layer);
+        instance.discardAllEdits();
+
+        model.insertChildAt(r1, layer2, 0);
+        assertEquals(1, instance.getUndoCount(), "remove and add of the same child are combined");
+        instance.undo();
+        assertSame(layer, r1.getParent());
+        assertEquals(0, layer.getChildren().indexOf(r1));
+        assertTrue(layer2.getChildren().isEmpty());
+    }
+
+    @Test
+    public void testMemoryBudget() {
+        DrawingModelUndoManager instance = createUndoManager();
+        List<Figure> figures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            SimpleRectangleFigure r = new SimpleRectangleFigure(i, 0, 10, 10);
+            model.addChildTo(r, layer);
+            figures.add(r);
+        }
+        assertEquals(100, instance.getUndoCount());
+        long sizeOfAll = instance.getMemorySize();
+
+        instance.setMemoryBudget(sizeOfAll / 2);
+        assertTrue(instance.getMemorySize() <= sizeOfAll / 2);
+        int count = instance.getUndoCount();
+        assertTrue(count > 0 && count < 100);
+        while (instance.canUndo()) {
+            instance.undo();
+        }
+        assertEquals(100 - count, layer.getChildren().size());
+        assertSame(figures.get(0), layer.getChildren().get(0));
+
+        instance.setMemoryBudget(0);
+        model.set(figures.get(0), StyleableFigure.ID, "a");
+        assertEquals(1, instance.getUndoCount(), "the newest edit is never discarded");
+        assertFalse(instance.canRedo());
+    }
+}
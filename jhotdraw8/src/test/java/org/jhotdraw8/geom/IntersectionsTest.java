@@ -11,12 +11,16 @@ import javafx.scene.shape.Ellipse;
 import javafx.scene.shape.Line;
 import javafx.scene.shape.QuadCurve;
 import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 
+import java.awt.geom.Path2D;
+import java.lang.management.ManagementFactory;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.DynamicTest.dynamicTest;
 
 /**
@@ -119,4 +123,78 @@ public class IntersectionsTest {
         }
     }
 
+    @Test
+    public void testIntersectionBufferMatchesIntersection() {
+        IntersectionBuffer buffer = new IntersectionBuffer(0);
+
+        Intersection expected = Intersections.intersectLineCubicCurve(0, 100, 300, 100, 0, 0, 100, 300, 200, -100, 300, 200);
+        Intersection.Status status = Intersections.intersectLineCubicCurve(0, 100, 300, 100, 0, 0, 100, 300, 200, -100, 300, 200, buffer);
+        assertEquals(3, expected.size());
+        assertSameIntersection(expected, status, buffer);
+
+        expected = Intersections.intersectCubicCurveCubicCurve(200, 20, 40, 240, 40, 20, 200, 240, 20, 130, 240, 40, 240, 200, 20, 130);
+        status = Intersections.intersectCubicCurveCubicCurve(200, 20, 40, 240, 40, 20, 200, 240, 20, 130, 240, 40, 240, 200, 20, 130, buffer);
+        assertTrue(expected.size() > 0);
+        assertSameIntersection(expected, status, buffer);
+
+        expected = Intersections.intersectLineLine(0, 0, 10, 0, 0, 5, 10, 5);
+        status = Intersections.intersectLineLine(0, 0, 10, 0, 0, 5, 10, 5, buffer);
+        assertEquals(Intersection.Status.NO_INTERSECTION_PARALLEL, status);
+        assertSameIntersection(expected, status, buffer);
+
+        Path2D.Double path = new Path2D.Double();
+        path.moveTo(50, 0);
+        path.lineTo(100, 50);
+        path.quadTo(100, 100, 50, 100);
+        path.curveTo(0, 100, 0, 0, 50, 0);
+        path.closePath();
+        expected = Intersections.intersectLinePathIterator(new Point2D(-10, 40), new Point2D(110, 60), path.getPathIterator(null));
+        status = Intersections.intersectLinePathIterator(-10, 40, 110, 60, path.getPathIterator(null), buffer);
+        assertEquals(2, expected.size());
+        assertSameIntersection(expected, status, buffer);
+    }
+
+    private static void assertSameIntersection(Intersection expected, Intersection.Status actualStatus, IntersectionBuffer actual) {
+        assertEquals(expected.getStatus(), actualStatus);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getTs().get(i), (Double) actual.getT(i), "t #" + i);
+            assertEquals(expected.getPoints().get(i), new Point2D(actual.getX(i), actual.getY(i)), "point #" + i);
+        }
+    }
+
+    @Test
+    public void testIntersectionBufferDoesNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        long threadId = Thread.currentThread().getId();
+        IntersectionBuffer buffer = new IntersectionBuffer();
+        final int n = 20_000;
+
+        // warm up, so that the buffer has grown to its final size
+        intersectRepeatedly(buffer, n);
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        double sum = intersectRepeatedly(buffer, n);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(sum > 0);
+        assertTrue(allocated < n, "allocated " + allocated + " bytes in " + n + " iterations");
+    }
+
+    private static double intersectRepeatedly(IntersectionBuffer buffer, int n) {
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            double d = i % 10;
+            Intersections.intersectLineCubicCurve(0, 100 + d, 300, 100 - d, 0, 0, 100, 300, 200, -100, 300, 200, buffer);
+            sum += buffer.size();
+            Intersections.intersectCubicCurveCubicCurve(200, 20, 40, 240, 40, 20, 200, 240, 20, 130 + d, 240, 40, 240, 200, 20, 130, buffer);
+            sum += buffer.size();
+        }
+        return sum;
+    }
+
 }
@@ -0,0 +1,87 @@
+/* @(#)OrthogonalRouterBenchmark.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.geom;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Measures the time for routing a large number of orthogonal connections
+ * with {@link OrthogonalRouter}, and the time for rerouting after an
+ * obstacle has been moved.
+ * <p>
+ * This is not a unit test. Run it with
+ * {@code java org.jhotdraw8.geom.OrthogonalRouterBenchmark [connections]}.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class OrthogonalRouterBenchmark {
+
+    private final static int RUNS = 5;
+    private final static double SPACING = 120;
+    private final static double BOX_SIZE = 60;
+
+    public static void main(String[] args) {
+        int numConnections = args.length == 0 ? 5000 : Integer.parseInt(args[0]);
+        int columns = (int) Math.ceil(Math.sqrt(numConnections));
+        System.out.println("connections: " + numConnections + ", boxes: " + columns * columns);
+
+        for (int run = 0; run < RUNS; run++) {
+            OrthogonalRouter router = new OrthogonalRouter();
+            Bounds[] boxes = new Bounds[columns * columns];
+            for (int i = 0; i < boxes.length; i++) {
+                boxes[i] = new BoundingBox((i % columns) * SPACING, (i / columns) * SPACING, BOX_SIZE, BOX_SIZE);
+                router.putObstacle(i, boxes[i]);
+            }
+
+            // each connection goes from a box to a box a few cells away
+            Random rnd = new Random(run);
+            int[] from = new int[numConnections];
+            int[] to = new int[numConnections];
+            for (int c = 0; c < numConnections; c++) {
+                from[c] = rnd.nextInt(boxes.length);
+                int x = Math.max(0, Math.min(columns - 1, from[c] % columns + rnd.nextInt(7) - 3));
+                int y = Math.max(0, Math.min(columns - 1, from[c] / columns + rnd.nextInt(7) - 3));
+                to[c] = y * columns + x;
+            }
+
+            long start = System.nanoTime();
+            for (int c = 0; c < numConnections; c++) {
+                route(router, c, boxes, from[c], to[c]);
+            }
+            long initial = System.nanoTime() - start;
+
+            // move one box in the middle of the drawing
+            int moved = boxes.length / 2 + columns / 2;
+            boxes[moved] = new BoundingBox(boxes[moved].getMinX() + 20, boxes[moved].getMinY() + 15, BOX_SIZE, BOX_SIZE);
+            long routesBefore = router.getComputedRouteCount();
+            start = System.nanoTime();
+            router.putObstacle(moved, boxes[moved]);
+            Set<Object> invalid = router.pollInvalidatedRoutes();
+            for (int c = 0; c < numConnections; c++) {
+                route(router, c, boxes, from[c], to[c]);
+            }
+            long reroute = System.nanoTime() - start;
+
+            System.out.printf("run %d initial: %6d ms, after move: %4d ms, invalidated: %d, recomputed: %d%n",
+                    run, initial / 1_000_000, reroute / 1_000_000, invalid.size(),
+                    router.getComputedRouteCount() - routesBefore);
+        }
+    }
+
+    private static void route(OrthogonalRouter router, int c, Bounds[] boxes, int from, int to) {
+        Bounds a = boxes[from], b = boxes[to];
+        Set<Integer> ignored = from == to ? Collections.singleton(from) : new HashSet<>(Arrays.asList(from, to));
+        router.route(c, new Point2D(a.getMinX() + a.getWidth() / 2, a.getMinY() + a.getHeight() / 2),
+                new Point2D(b.getMinX() + b.getWidth() / 2, b.getMinY() + b.getHeight() / 2), ignored);
+    }
+}
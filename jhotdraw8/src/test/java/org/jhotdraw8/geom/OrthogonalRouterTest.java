@@ -0,0 +1,119 @@
+/* @(#)OrthogonalRouterTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.geom;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+import org.jhotdraw8.collection.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * OrthogonalRouterTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class OrthogonalRouterTest {
+
+    private static void assertOrthogonal(ImmutableList<Point2D> points) {
+        for (int i = 1; i < points.size(); i++) {
+            Point2D a = points.get(i - 1), b = points.get(i);
+            assertTrue(a.getX() == b.getX() || a.getY() == b.getY(), "segment " + a + " " + b);
+        }
+    }
+
+    private static void assertAvoids(ImmutableList<Point2D> points, Bounds obstacle) {
+        for (int i = 1; i < points.size(); i++) {
+            Point2D a = points.get(i - 1), b = points.get(i);
+            Bounds segment = new BoundingBox(Math.min(a.getX(), b.getX()), Math.min(a.getY(), b.getY()),
+                    Math.abs(a.getX() - b.getX()), Math.abs(a.getY() - b.getY()));
+            assertFalse(segment.intersects(obstacle), "segment " + a + " " + b);
+        }
+    }
+
+    @Test
+    public void testStraightRouteWithoutObstacles() {
+        OrthogonalRouter instance = new OrthogonalRouter();
+        ImmutableList<Point2D> points = instance.route("c", new Point2D(0, 0), new Point2D(200, 0), Collections.emptySet());
+        assertEquals(ImmutableList.of(new Point2D(0, 0), new Point2D(200, 0)), points);
+
+        points = instance.route("d", new Point2D(0, 0), new Point2D(200, 100), Collections.emptySet());
+        assertEquals(3, points.size());
+        assertOrthogonal(points);
+    }
+
+    @Test
+    public void testRouteAvoidsObstacle() {
+        OrthogonalRouter instance = new OrthogonalRouter();
+        Bounds obstacle = new BoundingBox(80, -40, 40, 80);
+        instance.putObstacle("box", obstacle);
+
+        ImmutableList<Point2D> points = instance.route("c", new Point2D(0, 0), new Point2D(200, 0), Collections.emptySet());
+        assertEquals(new Point2D(0, 0), points.get(0));
+        assertEquals(new Point2D(200, 0), points.get(points.size() - 1));
+        assertOrthogonal(points);
+        assertAvoids(points, obstacle);
+        // the bend penalty prefers two long detours over four bends
+        assertEquals(4, points.size());
+
+        // an ignored obstacle does not need to be avoided
+        Set<String> ignored = Collections.singleton("box");
+        points = instance.route("c", new Point2D(0, 0), new Point2D(200, 0), ignored);
+        assertEquals(2, points.size());
+    }
+
+    @Test
+    public void testRouteIsCached() {
+        OrthogonalRouter instance = new OrthogonalRouter();
+        instance.putObstacle("box", new BoundingBox(80, -40, 40, 80));
+        ImmutableList<Point2D> points = instance.route("c", new Point2D(0, 0), new Point2D(200, 0), Collections.emptySet());
+        assertSame(points, instance.route("c", new Point2D(0, 0), new Point2D(200, 0), Collections.emptySet()));
+        assertEquals(1, instance.getComputedRouteCount());
+
+        instance.route("c", new Point2D(0, 10), new Point2D(200, 0), Collections.emptySet());
+        assertEquals(2, instance.getComputedRouteCount());
+    }
+
+    @Test
+    public void testMovingObstacleInvalidatesOnlyRoutesInItsCorridor() {
+        OrthogonalRouter instance = new OrthogonalRouter();
+        instance.putObstacle("near", new BoundingBox(80, -40, 40, 80));
+        instance.putObstacle("far", new BoundingBox(1000, 1000, 40, 40));
+        instance.route("c", new Point2D(0, 0), new Point2D(200, 0), Collections.emptySet());
+        assertTrue(instance.isRouteValid("c"));
+
+        instance.putObstacle("far", new BoundingBox(1100, 1000, 40, 40));
+        assertTrue(instance.isRouteValid("c"));
+        assertTrue(instance.pollInvalidatedRoutes().isEmpty());
+
+        instance.putObstacle("near", new BoundingBox(90, -40, 40, 80));
+        assertFalse(instance.isRouteValid("c"));
+        assertEquals(Collections.singleton("c"), instance.pollInvalidatedRoutes());
+        assertTrue(instance.pollInvalidatedRoutes().isEmpty());
+
+        instance.route("c", new Point2D(0, 0), new Point2D(200, 0), Collections.emptySet());
+        assertTrue(instance.isRouteValid("c"));
+        assertTrue(instance.removeObstacle("near"));
+        assertFalse(instance.isRouteValid("c"));
+    }
+
+    @Test
+    public void testCorridorIsEnlargedForWideObstacles() {
+        OrthogonalRouter instance = new OrthogonalRouter();
+        Bounds wall = new BoundingBox(80, -500, 40, 1000);
+        instance.putObstacle("wall", wall);
+        ImmutableList<Point2D> points = instance.route("c", new Point2D(0, 0), new Point2D(200, 0), Collections.emptySet());
+        assertOrthogonal(points);
+        assertAvoids(points, wall);
+    }
+}
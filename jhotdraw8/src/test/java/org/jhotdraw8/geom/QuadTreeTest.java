@@ -0,0 +1,86 @@
+/* @(#)QuadTreeTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.geom;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * QuadTreeTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class QuadTreeTest {
+
+    private static Bounds randomBounds(Random rnd, double range, double maxSize) {
+        return new BoundingBox(rnd.nextDouble() * range - range / 2, rnd.nextDouble() * range - range / 2,
+                rnd.nextDouble() * maxSize, rnd.nextDouble() * maxSize);
+    }
+
+    private static Set<Integer> bruteForce(List<Bounds> bounds, Bounds query) {
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < bounds.size(); i++) {
+            Bounds b = bounds.get(i);
+            if (b != null && b.intersects(query)) {
+                expected.add(i);
+            }
+        }
+        return expected;
+    }
+
+    @Test
+    public void testFindIntersectingMatchesBruteForce() {
+        Random rnd = new Random(0);
+        QuadTree<Integer> instance = new QuadTree<>();
+        List<Bounds> bounds = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            // a few very large items force the tree to grow
+            Bounds b = randomBounds(rnd, i % 100 == 0 ? 1e5 : 1000, i % 50 == 0 ? 5000 : 20);
+            bounds.add(b);
+            instance.put(i, b);
+        }
+        // move some items, remove some others
+        for (int i = 0; i < 2000; i += 3) {
+            Bounds b = randomBounds(rnd, 1000, 20);
+            bounds.set(i, b);
+            instance.put(i, b);
+        }
+        for (int i = 1; i < 2000; i += 7) {
+            bounds.set(i, null);
+            instance.remove(i);
+        }
+        for (int q = 0; q < 200; q++) {
+            Bounds query = randomBounds(rnd, 1200, 100);
+            assertEquals(bruteForce(bounds, query), new HashSet<>(instance.findIntersecting(query)));
+        }
+    }
+
+    @Test
+    public void testPutRemove() {
+        QuadTree<String> instance = new QuadTree<>();
+        assertTrue(instance.put("a", new BoundingBox(0, 0, 10, 10)));
+        assertFalse(instance.put("a", new BoundingBox(0, 0, 10, 10)));
+        assertEquals(new BoundingBox(0, 0, 10, 10), instance.getBounds("a"));
+        assertTrue(instance.put("a", new BoundingBox(500, 500, 10, 10)));
+        assertTrue(instance.findIntersecting(new BoundingBox(0, 0, 10, 10)).isEmpty());
+        assertEquals(1, instance.findIntersecting(new BoundingBox(505, 505, 1, 1)).size());
+        assertTrue(instance.remove("a"));
+        assertFalse(instance.remove("a"));
+        assertNull(instance.getBounds("a"));
+        assertEquals(0, instance.size());
+    }
+}
@@ -0,0 +1,108 @@
+/* @(#)IntGraphSearchBenchmark.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the sequential and the parallel implementations of strongly
+ * connected components and topological sorting on synthetic graphs.
+ * <p>
+ * This is not a unit test. Run it with
+ * {@code java org.jhotdraw8.graph.IntGraphSearchBenchmark [vertexCount]}.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class IntGraphSearchBenchmark {
+
+    private final static int RUNS = 5;
+
+    public static void main(String[] args) {
+        int n = args.length == 0 ? 1_000_000 : Integer.parseInt(args[0]);
+        System.out.println("vertices: " + n + ", threads: " + Runtime.getRuntime().availableProcessors());
+        benchmark("dag", createRandomGraph(n, 4 * n, true, 1));
+        benchmark("cyclic", createRandomGraph(n, 2 * n, false, 2));
+        benchmark("layered", createLayeredGraph(n, 1000, 3));
+    }
+
+    private static void benchmark(String name, IntImmutableBidiGraph graph) {
+        int n = graph.getVertexCount();
+        int[] components = new int[n];
+        List<Integer> vertices = new ArrayList<>(n);
+        for (int v = 0; v < n; v++) {
+            vertices.add(v);
+        }
+        for (int run = 0; run < RUNS; run++) {
+            long time = System.nanoTime();
+            int boxedCount = GraphSearch.findStronglyConnectedComponents(v -> {
+                List<Integer> next = new ArrayList<>();
+                for (int i = 0, m = graph.getNextCount(v); i < m; i++) {
+                    next.add(graph.getNext(v, i));
+                }
+                return next;
+            }, vertices).size();
+            long boxedTime = System.nanoTime() - time;
+
+            time = System.nanoTime();
+            int sequentialCount = IntGraphSearch.findStronglyConnectedComponentsInt(graph, components);
+            long sequentialTime = System.nanoTime() - time;
+
+            time = System.nanoTime();
+            int parallelCount = IntGraphSearch.findStronglyConnectedComponentsParallel(graph, components);
+            long parallelTime = System.nanoTime() - time;
+
+            time = System.nanoTime();
+            GraphSearch.sortTopologicallyInt(graph);
+            long sortTime = System.nanoTime() - time;
+
+            time = System.nanoTime();
+            IntGraphSearch.sortTopologicallyParallel(graph);
+            long parallelSortTime = System.nanoTime() - time;
+
+            if (boxedCount != sequentialCount || boxedCount != parallelCount) {
+                throw new AssertionError("results differ");
+            }
+            System.out.printf("%-8s run %d: components %7d, scc boxed %6.1f ms, int %6.1f ms, parallel %6.1f ms,"
+                            + " topological sort %6.1f ms, parallel %6.1f ms%n", name, run, sequentialCount,
+                    boxedTime / 1e6, sequentialTime / 1e6, parallelTime / 1e6,
+                    sortTime / 1e6, parallelSortTime / 1e6);
+        }
+    }
+
+    private static IntImmutableBidiGraph createRandomGraph(int vertexCount, int arrowCount, boolean acyclic, long seed) {
+        Random rnd = new Random(seed);
+        IntBidiGraphBuilder builder = new IntBidiGraphBuilder(vertexCount, arrowCount);
+        builder.setVertexCount(vertexCount);
+        for (int i = 0; i < arrowCount; i++) {
+            int u = rnd.nextInt(vertexCount);
+            int v = rnd.nextInt(vertexCount);
+            if (acyclic && u >= v) {
+                continue;
+            }
+            builder.addArrow(u, v);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates a dependency graph with wide levels, each vertex depends on a
+     * few vertices of the previous level.
+     */
+    private static IntImmutableBidiGraph createLayeredGraph(int vertexCount, int levelCount, long seed) {
+        Random rnd = new Random(seed);
+        int width = vertexCount / levelCount;
+        IntBidiGraphBuilder builder = new IntBidiGraphBuilder(vertexCount, 3 * vertexCount);
+        builder.setVertexCount(vertexCount);
+        for (int v = width; v < vertexCount; v++) {
+            int levelStart = (v / width - 1) * width;
+            for (int i = 0; i < 3; i++) {
+                builder.addArrow(levelStart + rnd.nextInt(width), v);
+            }
+        }
+        return builder.build();
+    }
+}
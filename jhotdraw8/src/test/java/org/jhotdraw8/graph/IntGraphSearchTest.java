@@ -0,0 +1,133 @@
+/* @(#)IntGraphSearchTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.graph;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * IntGraphSearchTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class IntGraphSearchTest {
+
+    private static IntImmutableBidiGraph createRandomGraph(int vertexCount, int arrowCount, boolean acyclic, long seed) {
+        Random rnd = new Random(seed);
+        IntBidiGraphBuilder builder = new IntBidiGraphBuilder(vertexCount, arrowCount);
+        builder.setVertexCount(vertexCount);
+        for (int i = 0; i < arrowCount; i++) {
+            int u = rnd.nextInt(vertexCount);
+            int v = rnd.nextInt(vertexCount);
+            if (acyclic && u >= v) {
+                continue;
+            }
+            builder.addArrow(u, v);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Asserts that both arrays describe the same partition of the vertices.
+     */
+    private static void assertSamePartition(int[] expected, int[] actual, int n) {
+        Map<Integer, Integer> expectedToActual = new HashMap<>();
+        Map<Integer, Integer> actualToExpected = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            assertEquals(actual[v], (int) expectedToActual.merge(expected[v], actual[v], (a, b) -> a));
+            assertEquals(expected[v], (int) actualToExpected.merge(actual[v], expected[v], (a, b) -> a));
+        }
+    }
+
+    @TestFactory
+    public List<DynamicTest> testFindStronglyConnectedComponents() {
+        return Arrays.asList(
+                dynamicTest("small", () -> doFindStronglyConnectedComponents(createRandomGraph(50, 70, false, 1))),
+                dynamicTest("dag", () -> doFindStronglyConnectedComponents(createRandomGraph(20_000, 40_000, true, 2))),
+                dynamicTest("sparse", () -> doFindStronglyConnectedComponents(createRandomGraph(20_000, 20_000, false, 3))),
+                dynamicTest("dense", () -> doFindStronglyConnectedComponents(createRandomGraph(20_000, 60_000, false, 4)))
+        );
+    }
+
+    private void doFindStronglyConnectedComponents(IntImmutableBidiGraph graph) {
+        int n = graph.getVertexCount();
+        List<Integer> vertices = new ArrayList<>();
+        for (int v = 0; v < n; v++) {
+            vertices.add(v);
+        }
+        List<List<Integer>> expectedList = GraphSearch.findStronglyConnectedComponents(v -> {
+            List<Integer> next = new ArrayList<>();
+            for (int i = 0, m = graph.getNextCount(v); i < m; i++) {
+                next.add(graph.getNext(v, i));
+            }
+            return next;
+        }, vertices);
+        int[] expected = new int[n];
+        for (int i = 0; i < expectedList.size(); i++) {
+            for (Integer v : expectedList.get(i)) {
+                expected[v] = i;
+            }
+        }
+
+        int[] actual = new int[n];
+        assertEquals(expectedList.size(), IntGraphSearch.findStronglyConnectedComponentsInt(graph, actual));
+        assertSamePartition(expected, actual, n);
+        // the components are numbered in reverse topological order
+        for (int u = 0; u < n; u++) {
+            for (int i = 0, m = graph.getNextCount(u); i < m; i++) {
+                assertTrue(actual[u] >= actual[graph.getNext(u, i)]);
+            }
+        }
+
+        Arrays.fill(actual, 0);
+        assertEquals(expectedList.size(), IntGraphSearch.findStronglyConnectedComponentsParallel(graph, actual));
+        assertSamePartition(expected, actual, n);
+    }
+
+    @Test
+    public void testSortTopologicallyParallelOfAcyclicGraph() {
+        IntImmutableBidiGraph graph = createRandomGraph(50_000, 200_000, true, 5);
+        int[] sorted = IntGraphSearch.sortTopologicallyParallel(graph);
+        int[] pos = positions(sorted);
+        for (int u = 0; u < graph.getVertexCount(); u++) {
+            for (int i = 0, m = graph.getNextCount(u); i < m; i++) {
+                assertTrue(pos[u] < pos[graph.getNext(u, i)]);
+            }
+        }
+        assertEquals(Arrays.toString(sorted), Arrays.toString(IntGraphSearch.sortTopologicallyParallel(graph)));
+    }
+
+    @Test
+    public void testSortTopologicallyParallelOfGraphWithLoops() {
+        IntImmutableBidiGraph graph = createRandomGraph(10_000, 30_000, false, 6);
+        positions(IntGraphSearch.sortTopologicallyParallel(graph));
+    }
+
+    /**
+     * Returns the position of each vertex in the sorted array and asserts
+     * that the array is a permutation of the vertices.
+     */
+    private static int[] positions(int[] sorted) {
+        int[] pos = new int[sorted.length];
+        Arrays.fill(pos, -1);
+        for (int i = 0; i < sorted.length; i++) {
+            assertEquals(-1, pos[sorted[i]]);
+            pos[sorted[i]] = i;
+        }
+        return pos;
+    }
+}
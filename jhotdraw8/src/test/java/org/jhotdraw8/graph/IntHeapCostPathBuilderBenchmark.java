@@ -0,0 +1,143 @@
+/* @(#)IntHeapCostPathBuilderBenchmark.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.graph;
+
+import org.jhotdraw8.collection.IntArrayList;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares the time and the allocated memory per query of
+ * {@link IntDirectedGraphCostPathBuilder} and {@link IntHeapCostPathBuilder}
+ * on a grid graph.
+ * <p>
+ * This is not a unit test. Run it with
+ * {@code java org.jhotdraw8.graph.IntHeapCostPathBuilderBenchmark [gridSize]}.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class IntHeapCostPathBuilderBenchmark {
+
+    private final static int RUNS = 5;
+    private final static int QUERIES = 2000;
+
+    public static void main(String[] args) {
+        int size = args.length == 0 ? 100 : Integer.parseInt(args[0]);
+        IntImmutableBidiGraph graph = createGrid(size);
+        int w = size;
+        System.out.println("grid: " + size + "x" + size + ", queries: " + QUERIES);
+
+        IntDirectedGraphCostPathBuilder<Integer, Double> boxed = new IntDirectedGraphCostPathBuilder<>(graph.getVertexCount(), v -> {
+            List<Map.Entry<Integer, Double>> list = new ArrayList<>();
+            for (int i = 0, n = graph.getNextCount(v); i < n; i++) {
+                int u = graph.getNext(v, i);
+                list.add(new AbstractMap.SimpleImmutableEntry<>(u, cost(v, u)));
+            }
+            return list;
+        }, (u, v, a) -> a);
+        IntHeapCostPathBuilder heap = new IntHeapCostPathBuilder(graph, IntHeapCostPathBuilderBenchmark::cost);
+        IntArrayList path = new IntArrayList(4 * size);
+
+        for (int run = 0; run < RUNS; run++) {
+            Random rnd = new Random(run);
+            int[] starts = new int[QUERIES];
+            int[] goals = new int[QUERIES];
+            for (int q = 0; q < QUERIES; q++) {
+                starts[q] = rnd.nextInt(graph.getVertexCount());
+                goals[q] = rnd.nextInt(graph.getVertexCount());
+            }
+
+            long alloc = allocatedBytes();
+            long time = System.nanoTime();
+            double sumBoxed = 0;
+            for (int q = 0; q < QUERIES / 20; q++) {
+                Map.Entry<VertexPath<Integer>, Double> result = boxed.findShortestVertexPath(starts[q], goals[q]);
+                sumBoxed += result == null ? 0 : result.getValue();
+            }
+            long boxedTime = (System.nanoTime() - time) * 20;
+            long boxedAlloc = (allocatedBytes() - alloc) * 20;
+
+            alloc = allocatedBytes();
+            time = System.nanoTime();
+            double sumDijkstra = 0;
+            for (int q = 0; q < QUERIES; q++) {
+                sumDijkstra += heap.findShortestPath(starts[q], goals[q]);
+                heap.getPath(path);
+            }
+            long dijkstraTime = System.nanoTime() - time;
+            long dijkstraAlloc = allocatedBytes() - alloc;
+
+            alloc = allocatedBytes();
+            time = System.nanoTime();
+            double sumAStar = 0;
+            for (int q = 0; q < QUERIES; q++) {
+                final int goal = goals[q];
+                sumAStar += heap.findShortestPath(starts[q], goal,
+                        v -> Math.abs(v % w - goal % w) + Math.abs(v / w - goal / w));
+                heap.getPath(path);
+            }
+            long aStarTime = System.nanoTime() - time;
+            long aStarAlloc = allocatedBytes() - alloc;
+
+            alloc = allocatedBytes();
+            time = System.nanoTime();
+            double sumBidi = 0;
+            for (int q = 0; q < QUERIES; q++) {
+                sumBidi += heap.findShortestPathBidirectional(starts[q], goals[q]);
+                heap.getPath(path);
+            }
+            long bidiTime = System.nanoTime() - time;
+            long bidiAlloc = allocatedBytes() - alloc;
+
+            if (sumDijkstra != sumAStar || sumDijkstra != sumBidi) {
+                throw new AssertionError("results differ");
+            }
+            System.out.printf("run %d per query: boxed %7.1f us %8d B, dijkstra %6.1f us %4d B,"
+                            + " a* %6.1f us %4d B, bidirectional %6.1f us %4d B%n", run,
+                    boxedTime / 1e3 / QUERIES, boxedAlloc / QUERIES,
+                    dijkstraTime / 1e3 / QUERIES, dijkstraAlloc / QUERIES,
+                    aStarTime / 1e3 / QUERIES, aStarAlloc / QUERIES,
+                    bidiTime / 1e3 / QUERIES, bidiAlloc / QUERIES);
+            if (sumBoxed < 0) {
+                System.out.println(sumBoxed);
+            }
+        }
+    }
+
+    private static double cost(int u, int v) {
+        return 1 + ((u ^ v) & 1);
+    }
+
+    private static IntImmutableBidiGraph createGrid(int size) {
+        IntBidiGraphBuilder builder = new IntBidiGraphBuilder(size * size, 4 * size * size);
+        builder.setVertexCount(size * size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int v = y * size + x;
+                if (x + 1 < size) {
+                    builder.addBidiArrow(v, v + 1);
+                }
+                if (y + 1 < size) {
+                    builder.addBidiArrow(v, v + size);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,125 @@
+/* @(#)IntHeapCostPathBuilderTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.graph;
+
+import org.jhotdraw8.collection.IntArrayList;
+import org.jhotdraw8.util.function.IntIntToDoubleFunction;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * IntHeapCostPathBuilderTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class IntHeapCostPathBuilderTest {
+
+    private final static IntIntToDoubleFunction COST = (u, v) -> 1 + (u * 31 + v * 17) % 10;
+
+    private static IntImmutableBidiGraph createRandomGraph(int vertexCount, int arrowCount, long seed) {
+        Random rnd = new Random(seed);
+        IntBidiGraphBuilder builder = new IntBidiGraphBuilder(vertexCount, arrowCount);
+        builder.setVertexCount(vertexCount);
+        for (int i = 0; i < arrowCount; i++) {
+            builder.addArrow(rnd.nextInt(vertexCount), rnd.nextInt(vertexCount));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Computes the distances from the start vertex with the Bellman-Ford
+     * algorithm.
+     */
+    private static double[] distancesFrom(IntDirectedGraph graph, IntIntToDoubleFunction cost, int start) {
+        double[] dist = new double[graph.getVertexCount()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[start] = 0;
+        for (boolean changed = true; changed; ) {
+            changed = false;
+            for (int u = 0; u < dist.length; u++) {
+                for (int i = 0, n = graph.getNextCount(u); i < n; i++) {
+                    int v = graph.getNext(u, i);
+                    double d = dist[u] + cost.applyAsDouble(u, v);
+                    if (d < dist[v]) {
+                        dist[v] = d;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return dist;
+    }
+
+    private static void assertPath(IntHeapCostPathBuilder instance, int start, int goal, double expectedCost) {
+        IntArrayList path = new IntArrayList();
+        if (expectedCost == Double.POSITIVE_INFINITY) {
+            assertFalse(instance.getPath(path));
+            return;
+        }
+        assertTrue(instance.getPath(path));
+        assertEquals(start, path.get(0));
+        assertEquals(goal, path.get(path.size() - 1));
+        double cost = 0;
+        for (int i = 1; i < path.size(); i++) {
+            cost += COST.applyAsDouble(path.get(i - 1), path.get(i));
+        }
+        assertEquals(expectedCost, cost, 1e-9);
+    }
+
+    @Test
+    public void testFindShortestPathMatchesBellmanFord() {
+        IntImmutableBidiGraph graph = createRandomGraph(200, 600, 1);
+        IntHeapCostPathBuilder instance = new IntHeapCostPathBuilder(graph, COST);
+        for (int start = 0; start < 20; start++) {
+            double[] expected = distancesFrom(graph, COST, start);
+            for (int goal = 0; goal < graph.getVertexCount(); goal += 7) {
+                assertEquals(expected[goal], instance.findShortestPath(start, goal), 1e-9);
+                assertPath(instance, start, goal, expected[goal]);
+
+                assertEquals(expected[goal], instance.findShortestPathBidirectional(start, goal), 1e-9);
+                assertPath(instance, start, goal, expected[goal]);
+            }
+        }
+    }
+
+    @Test
+    public void testAStarWithConsistentHeuristic() {
+        IntImmutableBidiGraph graph = createRandomGraph(200, 600, 2);
+        IntHeapCostPathBuilder instance = new IntHeapCostPathBuilder(graph, COST);
+        // the exact distance to the goal is a consistent heuristic
+        IntImmutableBidiGraph inverse = IntBidiGraphBuilder.inverseOfIntBidiGraph(graph).build();
+        int goal = 5;
+        double[] toGoal = distancesFrom(inverse, (u, v) -> COST.applyAsDouble(v, u), goal);
+        for (int start = 0; start < graph.getVertexCount(); start++) {
+            double expected = distancesFrom(graph, COST, start)[goal];
+            assertEquals(expected, instance.findShortestPath(start, goal,
+                    v -> toGoal[v] == Double.POSITIVE_INFINITY ? 0 : toGoal[v]), 1e-9);
+            assertPath(instance, start, goal, expected);
+        }
+    }
+
+    @Test
+    public void testFindShortestPathWithGoalPredicate() {
+        IntBidiGraphBuilder builder = new IntBidiGraphBuilder();
+        builder.setVertexCount(5);
+        builder.addArrow(0, 1);
+        builder.addArrow(1, 2);
+        builder.addArrow(2, 3);
+        builder.addArrow(0, 4);
+        IntHeapCostPathBuilder instance = new IntHeapCostPathBuilder(builder, (u, v) -> 1.0);
+        assertEquals(3.0, instance.findShortestPath(0, v -> v == 3, Double.POSITIVE_INFINITY));
+        assertEquals(3, instance.getGoal());
+        assertEquals(Double.POSITIVE_INFINITY, instance.findShortestPath(0, v -> v == 3, 1.0));
+        assertEquals(-1, instance.getGoal());
+        assertEquals(0.0, instance.findShortestPath(2, 2));
+        assertEquals(Double.POSITIVE_INFINITY, instance.findShortestPathBidirectional(4, 0));
+    }
+}
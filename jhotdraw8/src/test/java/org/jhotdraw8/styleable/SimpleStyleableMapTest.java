@@ -4,9 +4,18 @@
 package org.jhotdraw8.styleable;
 
 
+import javafx.collections.MapChangeListener;
+import javafx.css.StyleOrigin;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 /**
  *
@@ -84,6 +93,110 @@ public class SimpleStyleableMapTest {
         assertEquals(false, result);
     }
 
- 
-    
+
+    /**
+     * Test of getDouble and putDouble methods, of class SimpleStyleableMap.
+     */
+    @Test
+    public void testDoubleValues() {
+        System.out.println("doubleValues");
+
+        // GIVEN
+        SimpleStyleableMap<String, Object> instance = new SimpleStyleableMap<>();
+        List<Object> addedValues = new ArrayList<>();
+        instance.addListener((MapChangeListener<String, Object>) change -> addedValues.add(change.getValueAdded()));
+        String key = "dummyKey";
+
+        // WHEN a double value is put with the map API
+        instance.put(key, 1.5);
+
+        // THEN it can be read with both APIs
+        assertEquals(1.5, instance.get(key));
+        assertEquals(1.5, instance.getDouble(StyleOrigin.USER, key, 0.0));
+        assertEquals(Collections.singletonList(1.5), addedValues);
+
+        // WHEN a value with a higher precedence is put with the double API
+        instance.putDouble(StyleOrigin.AUTHOR, key, 2.5);
+
+        // THEN the styled value is the author value, and the user value is unchanged
+        assertEquals(2.5, instance.getDouble(null, key, 0.0));
+        assertEquals(2.5, instance.getStyledMap().get(key));
+        assertEquals(1.5, instance.get(key));
+        assertEquals(StyleOrigin.AUTHOR, instance.getStyleOrigin(key));
+        assertEquals(Arrays.asList(1.5, 2.5), addedValues);
+
+        // WHEN the author values are removed
+        instance.clearAuthorAndInlineValues();
+
+        // THEN the styled value is the user value again
+        assertEquals(1.5, instance.getDouble(null, key, 0.0));
+        assertEquals(StyleOrigin.USER, instance.getStyleOrigin(key));
+
+        // WHEN the user value is replaced by an object value
+        instance.put(key, "text");
+
+        // THEN the double API returns the default value
+        assertEquals(-1.0, instance.getDouble(StyleOrigin.USER, key, -1.0));
+        assertEquals("text", instance.get(key));
+        assertEquals(1, instance.size());
+    }
+
+    /**
+     * Test of clearAuthorAndInlineValues method, of class SimpleStyleableMap.
+     */
+    @Test
+    public void testClearAuthorAndInlineValuesNotifiesListeners() {
+        System.out.println("clearAuthorAndInlineValues");
+
+        // GIVEN a map with author and inline values
+        SimpleStyleableMap<String, Object> instance = new SimpleStyleableMap<>();
+        instance.put(StyleOrigin.AUTHOR, "authorKey", "authorValue");
+        instance.putDouble(StyleOrigin.INLINE, "inlineKey", 3.5);
+        instance.put("userKey", "userValue");
+        List<Object> removedValues = new ArrayList<>();
+        instance.addListener((MapChangeListener<String, Object>) change -> {
+            if (change.wasRemoved()) {
+                removedValues.add(change.getValueRemoved());
+            }
+        });
+
+        // WHEN the author and inline values are removed
+        instance.clearAuthorAndInlineValues();
+
+        // THEN the listeners are notified of the removed values
+        removedValues.sort(Comparator.comparing(Object::toString));
+        assertEquals(Arrays.asList(3.5, "authorValue"), removedValues);
+        assertNull(instance.getStyleOrigin("authorKey"));
+        assertNull(instance.getStyleOrigin("inlineKey"));
+        assertEquals("userValue", instance.get("userKey"));
+    }
+
+    /**
+     * Test of putDouble method, of class SimpleStyleableMap.
+     */
+    @Test
+    public void testPutDoubleNotifiesLikePut() {
+        System.out.println("putDouble");
+
+        // GIVEN
+        SimpleStyleableMap<String, Object> instance = new SimpleStyleableMap<>();
+        List<Object> addedValues = new ArrayList<>();
+        instance.addListener((MapChangeListener<String, Object>) change -> addedValues.add(change.getValueAdded()));
+
+        // WHEN values are put with the object API for the author and the user origin
+        instance.put(StyleOrigin.AUTHOR, "key1", 1.5);
+        instance.put(StyleOrigin.USER, "key1", 2.5);
+
+        // THEN the listeners are notified for both origins
+        List<Object> viaPut = new ArrayList<>(addedValues);
+        assertEquals(Arrays.asList(1.5, 2.5), viaPut);
+
+        // WHEN the same values are put with the double API
+        addedValues.clear();
+        instance.putDouble(StyleOrigin.AUTHOR, "key2", 1.5);
+        instance.putDouble(StyleOrigin.USER, "key2", 2.5);
+
+        // THEN the listeners are notified the same way
+        assertEquals(viaPut, addedValues);
+    }
 }
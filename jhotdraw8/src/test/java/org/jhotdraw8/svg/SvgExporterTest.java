@@ -0,0 +1,75 @@
+/* @(#)SvgExporterTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.svg;
+
+import javafx.scene.Group;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Stop;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.Line;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.transform.Translate;
+import org.jhotdraw8.xml.XmlUtil;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * SvgExporterTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class SvgExporterTest {
+
+    private static Group createScene() {
+        LinearGradient gradient = new LinearGradient(0, 0, 1, 1, true, CycleMethod.NO_CYCLE,
+                new Stop(0, Color.RED), new Stop(1, Color.BLUE));
+        Group root = new Group();
+        for (int i = 0; i < 3; i++) {
+            Rectangle rect = new Rectangle(10 * i, 20, 30, 40);
+            rect.setFill(gradient);
+            rect.setStroke(Color.BLACK);
+            rect.setClip(new Circle(15, 15, 10));
+            Group group = new Group(rect, new Line(0, 0, i, 10));
+            group.getTransforms().add(new Translate(i, 2 * i));
+            root.getChildren().add(group);
+        }
+        root.getChildren().add(new Group());
+        return root;
+    }
+
+    @Test
+    public void testStreamingOutputIsIdenticalToDocumentOutput() throws IOException {
+        Group root = createScene();
+
+        SvgExporter instance = new SvgExporter(null, null);
+        Document doc = instance.toDocument(root);
+        doc.getDocumentElement().setAttribute("width", "100");
+        StringWriter expected = new StringWriter();
+        XmlUtil.write(expected, doc);
+
+        StringWriter actual = new StringWriter();
+        instance.write(new StreamResult(actual), root,
+                e -> e.setAttribute("width", "100"));
+
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    public void testClipsWithSameContentShareClipPath() throws IOException {
+        SvgExporter instance = new SvgExporter(null, null);
+        Document doc = instance.toDocument(createScene());
+        assertEquals(1, doc.getElementsByTagName("clipPath").getLength());
+        assertEquals(1, doc.getElementsByTagName("linearGradient").getLength());
+        assertEquals(3, doc.getElementsByTagName("rect").getLength());
+    }
+}
@@ -0,0 +1,158 @@
+/* @(#)LazyTreePresentationModelTest.java
+ * Copyright © The authors and contributors of JHotDraw. MIT License.
+ */
+package org.jhotdraw8.tree;
+
+import javafx.scene.control.TreeItem;
+import org.jhotdraw8.draw.figure.Figure;
+import org.jhotdraw8.draw.figure.SimpleDrawing;
+import org.jhotdraw8.draw.figure.SimpleGroupFigure;
+import org.jhotdraw8.draw.figure.SimpleLayer;
+import org.jhotdraw8.draw.figure.SimpleRectangleFigure;
+import org.jhotdraw8.draw.model.SimpleDrawingModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LazyTreePresentationModelTest.
+ *
+ * @author Werner Randelshofer
+ * @version $Id$
+ */
+public class LazyTreePresentationModelTest {
+
+    private static SimpleDrawingModel createModel(int groupCount, int figuresPerGroup) {
+        SimpleDrawingModel model = new SimpleDrawingModel();
+        SimpleDrawing drawing = new SimpleDrawing();
+        model.setDrawing(drawing);
+        SimpleLayer layer = new SimpleLayer();
+        model.addChildTo(layer, drawing);
+        for (int i = 0; i < groupCount; i++) {
+            SimpleGroupFigure group = new SimpleGroupFigure();
+            model.addChildTo(group, layer);
+            for (int j = 0; j < figuresPerGroup; j++) {
+                model.addChildTo(new SimpleRectangleFigure(j, i, 1, 1), group);
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Asserts that the tree items which have been created so far, mirror
+     * the figures in reverse order.
+     */
+    private static void assertMirrors(Figure figure, TreeItem<Figure> item) {
+        assertSame(figure, item.getValue());
+        assertEquals(figure.getChildren().isEmpty(), item.isLeaf());
+        if (item.isExpanded()) {
+            List<Figure> expected = new ArrayList<>(figure.getChildren());
+            List<Figure> actual = new ArrayList<>();
+            for (TreeItem<Figure> child : item.getChildren()) {
+                actual.add(0, child.getValue());
+            }
+            assertEquals(expected, actual);
+            for (int i = 0; i < expected.size(); i++) {
+                assertMirrors(expected.get(i), item.getChildren().get(expected.size() - 1 - i));
+            }
+        }
+    }
+
+    @Test
+    public void testCreatesTreeItemsOnlyForExpandedNodes() {
+        SimpleDrawingModel model = createModel(100, 100);
+        LazyTreePresentationModel<Figure> instance = new LazyTreePresentationModel<>();
+        instance.setTreeModel(model);
+        assertEquals(1, instance.getTreeItemCount());
+
+        TreeItem<Figure> root = instance.getRoot();
+        assertFalse(root.isLeaf());
+        root.setExpanded(true);
+        TreeItem<Figure> layerItem = root.getChildren().get(0);
+        assertEquals(2, instance.getTreeItemCount());
+
+        layerItem.setExpanded(true);
+        layerItem.getChildren();
+        assertEquals(102, instance.getTreeItemCount());
+
+        Figure layer = model.getDrawing().getChild(0);
+        Figure group = layer.getChild(5);
+        assertNotNull(instance.getTreeItem(group));
+        assertNull(instance.getTreeItem(group.getChild(0)));
+        assertFalse(instance.getTreeItem(group).isLeaf());
+        assertMirrors(model.getDrawing(), root);
+    }
+
+    @Test
+    public void testFollowsModelChanges() {
+        SimpleDrawingModel model = createModel(10, 3);
+        LazyTreePresentationModel<Figure> instance = new LazyTreePresentationModel<>();
+        instance.setTreeModel(model);
+        TreeItem<Figure> root = instance.getRoot();
+        root.setExpanded(true);
+        Figure layer = model.getDrawing().getChild(0);
+        root.getChildren().get(0).setExpanded(true);
+        Figure group0 = layer.getChild(0);
+        Figure group1 = layer.getChild(1);
+        instance.getTreeItem(layer).getChildren();
+        instance.getTreeItem(group0).setExpanded(true);
+        instance.getTreeItem(group0).getChildren();
+        assertMirrors(model.getDrawing(), root);
+
+        // add to an expanded and to a collapsed parent
+        model.insertChildAt(new SimpleRectangleFigure(), group0, 1);
+        model.insertChildAt(new SimpleRectangleFigure(), group1, 0);
+        assertMirrors(model.getDrawing(), root);
+
+        // move from a collapsed to an expanded parent and back
+        Figure moved = group1.getChild(2);
+        model.insertChildAt(moved, group0, 0);
+        assertNotNull(instance.getTreeItem(moved));
+        assertMirrors(model.getDrawing(), root);
+        model.insertChildAt(moved, group1, 0);
+        assertMirrors(model.getDrawing(), root);
+
+        // remove
+        Figure removed = group0.getChild(1);
+        model.removeFromParent(removed);
+        assertNull(instance.getTreeItem(removed));
+        model.removeFromParent(group1);
+        assertNull(instance.getTreeItem(group1));
+        assertMirrors(model.getDrawing(), root);
+
+        // a collapsed leaf becomes a parent
+        Figure leafGroup = layer.getChild(5);
+        while (!leafGroup.getChildren().isEmpty()) {
+            model.removeFromParent(leafGroup.getChild(0));
+        }
+        assertTrue(instance.getTreeItem(leafGroup).isLeaf());
+        model.addChildTo(new SimpleRectangleFigure(), leafGroup);
+        assertFalse(instance.getTreeItem(leafGroup).isLeaf());
+    }
+
+    @Test
+    public void testRootChanged() {
+        SimpleDrawingModel model = createModel(10, 3);
+        LazyTreePresentationModel<Figure> instance = new LazyTreePresentationModel<>();
+        instance.setTreeModel(model);
+        TreeItem<Figure> root = instance.getRoot();
+        root.setExpanded(true);
+        root.getChildren();
+
+        SimpleDrawing drawing = new SimpleDrawing();
+        drawing.addChild(new SimpleLayer());
+        drawing.addChild(new SimpleLayer());
+        model.setDrawing(drawing);
+        assertSame(root, instance.getRoot());
+        assertEquals(3, instance.getTreeItemCount());
+        assertMirrors(drawing, root);
+    }
+}